@@ -0,0 +1,328 @@
+package com.trails_art.trails.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import org.springframework.web.util.UriComponents;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.Enumeration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Listing responses kept as serialized JSON, plain and gzip-compressed, per normalized request: the
+ * request path plus the parameters the handler binds, as normalized values sorted by name. Any other
+ * query parameter is dropped, so it can neither split an entry nor reach the handler's URL.
+ * <p>
+ * Committed writes to the cached entities bump a generation rather than clearing entries. An entry
+ * from an older generation, or older than {@code max-age}, is still served while a single background
+ * rebuild replaces it, so a burst of requests after a change costs one rebuild. Concurrent misses on
+ * the same URL wait for one build instead of each running the handler.
+ * <p>
+ * The cache is bounded by the bytes held, plain and gzipped bodies together, and evicts the least
+ * recently used entries past {@code max-bytes}.
+ */
+@Slf4j
+@Component
+public class ResponseCache {
+
+    private static final int MIN_GZIP_BYTES = 256;
+
+    private record Entry(long generation, long builtAt, HttpStatusCode status, HttpHeaders headers,
+                         byte[] body, byte[] gzipped) {
+        long weight() {
+            return body.length + (gzipped == null ? 0 : gzipped.length);
+        }
+    }
+
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final long maxAgeNanos;
+    private final int maxBodyBytes;
+    private final long maxBytes;
+
+    private final AtomicLong generation = new AtomicLong();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long residentBytes;
+    private final Map<String, CompletableFuture<Entry>> building = new ConcurrentHashMap<>();
+    private final ExecutorService executor =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("response-cache-", 0).factory());
+
+    public ResponseCache(
+            ObjectMapper objectMapper,
+            PlatformTransactionManager transactionManager,
+            @Value("${trails.response-cache.enabled:true}") boolean enabled,
+            @Value("${trails.response-cache.max-bytes:67108864}") long maxBytes,
+            @Value("${trails.response-cache.max-age:PT10M}") Duration maxAge,
+            @Value("${trails.response-cache.max-body-bytes:4194304}") int maxBodyBytes
+    ) {
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.enabled = enabled;
+        this.maxAgeNanos = maxAge.toNanos();
+        this.maxBodyBytes = maxBodyBytes;
+        this.maxBytes = Math.max(0, maxBytes);
+    }
+
+    public static Key key() {
+        return new Key();
+    }
+
+    /**
+     * Answers from the cache, running {@code handler} on a miss. The handler gets a builder for the
+     * request URL, reduced to the parameters in {@code key}, to use in place of the current request,
+     * since a refresh runs on another thread.
+     */
+    public ResponseEntity<?> get(HttpServletRequest request, Key key,
+                                 Function<UriComponentsBuilder, ResponseEntity<?>> handler) {
+        if (!enabled) {
+            return handler.apply(ServletUriComponentsBuilder.fromRequest(request));
+        }
+        UriComponents uri = key.retainIn(ServletUriComponentsBuilder.fromRequest(request).build());
+        String cacheKey = key.toString(uri);
+        Entry entry = lookup(cacheKey);
+        if (entry == null) {
+            entry = build(cacheKey, uri, handler, false);
+        } else if (isStale(entry)) {
+            build(cacheKey, uri, handler, true);
+        }
+        return respond(entry, acceptsGzip(request));
+    }
+
+    // called once writes commit; entries are refreshed as they are next asked for
+    public void invalidate() {
+        generation.incrementAndGet();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    // null in the background, where the current entry is served meanwhile
+    private Entry build(String key, UriComponents uri, Function<UriComponentsBuilder, ResponseEntity<?>> handler,
+                        boolean background) {
+        CompletableFuture<Entry> future = new CompletableFuture<>();
+        CompletableFuture<Entry> running = building.putIfAbsent(key, future);
+        if (running != null) {
+            return background ? null : await(running);
+        }
+        long buildGeneration = generation.get();
+        Supplier<ResponseEntity<?>> run = () -> handler.apply(UriComponentsBuilder.newInstance().uriComponents(uri));
+        Runnable task = () -> {
+            try {
+                // off the request thread there is no open session for lazy associations
+                ResponseEntity<?> response = background ? transactionTemplate.execute(status -> run.get()) : run.get();
+                Entry entry = render(buildGeneration, response);
+                if (entry.status().is2xxSuccessful() && entry.body().length <= maxBodyBytes) {
+                    store(key, entry);
+                }
+                future.complete(entry);
+            } catch (RuntimeException e) {
+                future.completeExceptionally(e);
+                if (background) {
+                    log.warn("Refreshing cached response for {} failed", key, e);
+                }
+            } finally {
+                building.remove(key, future);
+            }
+        };
+        if (!background) {
+            task.run();
+            return await(future);
+        }
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            building.remove(key, future);
+        }
+        return null;
+    }
+
+    private Entry lookup(String key) {
+        lock.lock();
+        try {
+            return entries.get(key);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // evicts least recently used entries until the new one fits; one larger than the whole budget is not kept
+    private void store(String key, Entry entry) {
+        if (entry.weight() > maxBytes) {
+            return;
+        }
+        lock.lock();
+        try {
+            Entry previous = entries.put(key, entry);
+            if (previous != null) {
+                residentBytes -= previous.weight();
+            }
+            residentBytes += entry.weight();
+            Iterator<Entry> eldest = entries.values().iterator();
+            while (residentBytes > maxBytes && eldest.hasNext()) {
+                residentBytes -= eldest.next().weight();
+                eldest.remove();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean isStale(Entry entry) {
+        return entry.generation() != generation.get() || System.nanoTime() - entry.builtAt() > maxAgeNanos;
+    }
+
+    private Entry render(long generation, ResponseEntity<?> response) {
+        byte[] body;
+        try {
+            body = response.getBody() == null ? new byte[0] : objectMapper.writeValueAsBytes(response.getBody());
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+        HttpHeaders headers = new HttpHeaders();
+        headers.putAll(response.getHeaders());
+        return new Entry(generation, System.nanoTime(), response.getStatusCode(),
+                HttpHeaders.readOnlyHttpHeaders(headers), body, body.length >= MIN_GZIP_BYTES ? gzip(body) : null);
+    }
+
+    private static ResponseEntity<byte[]> respond(Entry entry, boolean acceptsGzip) {
+        boolean gzip = acceptsGzip && entry.gzipped() != null;
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(entry.status())
+                .headers(entry.headers())
+                .contentType(MediaType.APPLICATION_JSON)
+                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(gzip ? entry.gzipped() : entry.body());
+    }
+
+    static boolean acceptsGzip(HttpServletRequest request) {
+        Enumeration<String> headers = request.getHeaders(HttpHeaders.ACCEPT_ENCODING);
+        while (headers != null && headers.hasMoreElements()) {
+            for (String coding : headers.nextElement().split(",")) {
+                String[] parts = coding.split(";");
+                if (parts[0].trim().equalsIgnoreCase("gzip") && !isZeroQuality(parts)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean isZeroQuality(String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            String parameter = parts[i].trim();
+            if (parameter.startsWith("q=")) {
+                try {
+                    return Double.parseDouble(parameter.substring(2)) == 0;
+                } catch (NumberFormatException e) {
+                    return false;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static Entry await(CompletableFuture<Entry> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * The parameters a handler binds, each with the value it is bound to after defaults and parsing,
+     * so that e.g. an absent {@code images} and {@code images=ref} share an entry. A null or blank value
+     * stands for an absent parameter.
+     */
+    public static final class Key {
+
+        private final TreeMap<String, String> parameters = new TreeMap<>();
+
+        private Key() {
+        }
+
+        public Key with(String name, Object value) {
+            String text = value == null ? null : value.toString();
+            parameters.put(name, text == null || text.isBlank() ? null : text);
+            return this;
+        }
+
+        UriComponents retainIn(UriComponents uri) {
+            MultiValueMap<String, String> retained = new LinkedMultiValueMap<>();
+            uri.getQueryParams().forEach((name, values) -> {
+                if (parameters.containsKey(name)) {
+                    retained.put(name, values);
+                }
+            });
+            return UriComponentsBuilder.newInstance().uriComponents(uri)
+                    .replaceQueryParams(retained)
+                    .build();
+        }
+
+        String toString(UriComponents uri) {
+            StringBuilder key = new StringBuilder()
+                    .append(uri.getScheme()).append("://").append(uri.getHost()).append(':').append(uri.getPort())
+                    .append(uri.getPath());
+            char separator = '?';
+            for (Map.Entry<String, String> parameter : parameters.entrySet()) {
+                if (parameter.getValue() != null) {
+                    key.append(separator).append(parameter.getKey()).append('=').append(parameter.getValue());
+                    separator = '&';
+                }
+            }
+            return key.toString();
+        }
+    }
+
+    private static byte[] gzip(byte[] body) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+}
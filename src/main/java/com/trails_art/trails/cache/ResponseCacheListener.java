@@ -0,0 +1,40 @@
+package com.trails_art.trails.cache;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Invalidates the {@link ResponseCache} once a write to an entity that appears in cached listings
+ * commits.
+ * <p>
+ * Instantiated by Hibernate through Spring's bean container.
+ */
+public class ResponseCacheListener {
+
+    private final ObjectProvider<ResponseCache> responseCache;
+
+    public ResponseCacheListener(ObjectProvider<ResponseCache> responseCache) {
+        this.responseCache = responseCache;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onChanged(Object entity) {
+        Runnable invalidate = () -> responseCache.ifAvailable(ResponseCache::invalidate);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            invalidate.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                invalidate.run();
+            }
+        });
+    }
+}
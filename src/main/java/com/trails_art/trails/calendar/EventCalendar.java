@@ -0,0 +1,182 @@
+package com.trails_art.trails.calendar;
+
+import com.trails_art.trails.search.SearchText;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * When events happen, as an {@link IntervalTree} over all events and one per place, so range,
+ * "happening now" and same-place overlap queries are logarithmic in the number of events. An event
+ * without an end lasts an instant; one without a start is left out. Events own their Location rows,
+ * so a place is the map address compared as a search key rather than a location id.
+ * <p>
+ * Loaded at startup and kept current by {@link EventCalendarListener}. Until the load finishes
+ * {@link #isLoaded()} is false and callers query the database instead.
+ */
+@Slf4j
+@Component
+public class EventCalendar implements ApplicationRunner {
+
+    private record Entry(long start, long end, UUID locationId, String place) { }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final IntervalTree all = new IntervalTree();
+    private final Map<String, IntervalTree> byPlace = new HashMap<>();
+    private final Map<UUID, Entry> entries = new HashMap<>();
+    private final Map<UUID, UUID> eventsByLocation = new HashMap<>();
+    private volatile boolean loaded;
+
+    public EventCalendar(JdbcTemplate jdbcTemplate,
+                         @Value("${trails.events.calendar.enabled:true}") boolean enabled) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) {
+            return;
+        }
+        long start = System.nanoTime();
+        jdbcTemplate.query("select e.id, e.start_time, e.end_time, e.location_id, l.map_address"
+                        + " from events e left join locations l on l.id = e.location_id",
+                (RowCallbackHandler) rs -> put(rs.getObject(1, UUID.class), rs.getObject(2, LocalDateTime.class),
+                        rs.getObject(3, LocalDateTime.class), rs.getObject(4, UUID.class), rs.getString(5)));
+        loaded = true;
+        log.info("Loaded {} events into the calendar in {} ms", all.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    // ids of events overlapping [from, to], by start time
+    public List<UUID> between(LocalDateTime from, LocalDateTime to, int limit) {
+        List<UUID> found = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            all.overlapping(seconds(from), seconds(to), limit, found);
+        } finally {
+            lock.readLock().unlock();
+        }
+        return found;
+    }
+
+    // ids of other events at the same place whose time overlaps the event's, by start time
+    public List<UUID> overlapping(UUID eventId, int limit) {
+        List<UUID> found = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            Entry entry = entries.get(eventId);
+            IntervalTree place = entry == null || entry.place() == null ? null : byPlace.get(entry.place());
+            if (place != null) {
+                place.overlapping(entry.start(), entry.end(), limit + 1, found);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        found.remove(eventId);
+        return found.size() > limit ? found.subList(0, limit) : found;
+    }
+
+    /**
+     * A null map address keeps the place the event had, as long as its location did not change;
+     * listeners pass null when reading it would load the location.
+     */
+    void put(UUID id, LocalDateTime start, LocalDateTime end, UUID locationId, String mapAddress) {
+        lock.writeLock().lock();
+        try {
+            Entry old = removeLocked(id);
+            if (start == null) {
+                return;
+            }
+            String place = mapAddress != null ? place(mapAddress)
+                    : old != null && locationId != null && locationId.equals(old.locationId()) ? old.place() : null;
+            long from = seconds(start);
+            insertLocked(id, new Entry(from, end == null ? from : Math.max(from, seconds(end)), locationId, place));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(UUID id) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // a location edited on its own moves its event to the new place
+    void relocate(UUID locationId, String mapAddress) {
+        lock.writeLock().lock();
+        try {
+            UUID eventId = eventsByLocation.get(locationId);
+            Entry entry = eventId == null ? null : entries.get(eventId);
+            if (entry == null || entry.place() != null && entry.place().equals(place(mapAddress))) {
+                return;
+            }
+            removeLocked(eventId);
+            insertLocked(eventId, new Entry(entry.start(), entry.end(), locationId, place(mapAddress)));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void insertLocked(UUID id, Entry entry) {
+        entries.put(id, entry);
+        all.insert(entry.start(), entry.end(), id);
+        if (entry.place() != null) {
+            byPlace.computeIfAbsent(entry.place(), p -> new IntervalTree()).insert(entry.start(), entry.end(), id);
+        }
+        if (entry.locationId() != null) {
+            eventsByLocation.put(entry.locationId(), id);
+        }
+    }
+
+    private Entry removeLocked(UUID id) {
+        Entry entry = entries.remove(id);
+        if (entry == null) {
+            return null;
+        }
+        all.remove(entry.start(), id);
+        if (entry.place() != null) {
+            IntervalTree place = byPlace.get(entry.place());
+            place.remove(entry.start(), id);
+            if (place.size() == 0) {
+                byPlace.remove(entry.place());
+            }
+        }
+        if (entry.locationId() != null) {
+            eventsByLocation.remove(entry.locationId(), id);
+        }
+        return entry;
+    }
+
+    private static String place(String mapAddress) {
+        String key = mapAddress == null ? "" : SearchText.normalize(mapAddress);
+        return key.isEmpty() ? null : key;
+    }
+
+    private static long seconds(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC);
+    }
+}
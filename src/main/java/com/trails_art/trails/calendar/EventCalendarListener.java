@@ -0,0 +1,71 @@
+package com.trails_art.trails.calendar;
+
+import com.trails_art.trails.models.Event;
+import com.trails_art.trails.models.Location;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.hibernate.Hibernate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Applies committed writes to Event and Location rows to the {@link EventCalendar}.
+ * <p>
+ * Instantiated by Hibernate through Spring's bean container.
+ */
+public class EventCalendarListener {
+
+    private final ObjectProvider<EventCalendar> calendar;
+
+    public EventCalendarListener(ObjectProvider<EventCalendar> calendar) {
+        this.calendar = calendar;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void onSaved(Object entity) {
+        Consumer<EventCalendar> update = switch (entity) {
+            case Event event -> {
+                UUID id = event.getId();
+                LocalDateTime start = event.getStartTime();
+                LocalDateTime end = event.getEndTime();
+                Location location = event.getLocation();
+                UUID locationId = location == null ? null : location.getId();
+                // an unloaded location has not changed, and loading it here would query mid-flush
+                String mapAddress = location != null && Hibernate.isInitialized(location) ? location.getMapAddress() : null;
+                yield c -> c.put(id, start, end, locationId, mapAddress);
+            }
+            case Location location -> c -> c.relocate(location.getId(), location.getMapAddress());
+            default -> null;
+        };
+        afterCommit(update);
+    }
+
+    @PostRemove
+    public void onRemoved(Object entity) {
+        afterCommit(entity instanceof Event event ? c -> c.remove(event.getId()) : null);
+    }
+
+    private void afterCommit(Consumer<EventCalendar> change) {
+        if (change == null) {
+            return;
+        }
+        Runnable update = () -> calendar.ifAvailable(change);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            update.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                update.run();
+            }
+        });
+    }
+}
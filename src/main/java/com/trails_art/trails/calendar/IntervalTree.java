@@ -0,0 +1,158 @@
+package com.trails_art.trails.calendar;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+/**
+ * Closed intervals keyed by start and id in a treap, each node also holding the latest end in its
+ * subtree. Inserts and removals are logarithmic in expectation; an overlap query walks only into
+ * subtrees that can hold a match, so it takes logarithmic time plus the number of matches, which
+ * come out ordered by start. Not thread-safe.
+ */
+final class IntervalTree {
+
+    private static final class Node {
+        final long start;
+        final long end;
+        final UUID id;
+        final int priority;
+        long maxEnd;
+        Node left;
+        Node right;
+
+        Node(long start, long end, UUID id, int priority) {
+            this.start = start;
+            this.end = end;
+            this.id = id;
+            this.priority = priority;
+            this.maxEnd = end;
+        }
+    }
+
+    private final SplittableRandom random = new SplittableRandom();
+    private Node root;
+    private int size;
+
+    int size() {
+        return size;
+    }
+
+    void insert(long start, long end, UUID id) {
+        root = insert(root, new Node(start, end, id, random.nextInt()));
+        size++;
+    }
+
+    // removes the interval inserted with this start and id, if there is one
+    boolean remove(long start, UUID id) {
+        int before = size;
+        root = remove(root, start, id);
+        return size < before;
+    }
+
+    // adds to found the ids of intervals overlapping [from, to] until it holds limit of them
+    void overlapping(long from, long to, int limit, List<UUID> found) {
+        overlapping(root, from, to, limit, found);
+    }
+
+    private static Node insert(Node node, Node added) {
+        if (node == null) {
+            return added;
+        }
+        if (compare(added.start, added.id, node) < 0) {
+            node.left = insert(node.left, added);
+            if (node.left.priority > node.priority) {
+                node = rotateRight(node);
+            }
+        } else {
+            node.right = insert(node.right, added);
+            if (node.right.priority > node.priority) {
+                node = rotateLeft(node);
+            }
+        }
+        update(node);
+        return node;
+    }
+
+    private Node remove(Node node, long start, UUID id) {
+        if (node == null) {
+            return null;
+        }
+        int c = compare(start, id, node);
+        if (c < 0) {
+            node.left = remove(node.left, start, id);
+        } else if (c > 0) {
+            node.right = remove(node.right, start, id);
+        } else {
+            size--;
+            return merge(node.left, node.right);
+        }
+        update(node);
+        return node;
+    }
+
+    private static Node merge(Node left, Node right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            update(left);
+            return left;
+        }
+        right.left = merge(left, right.left);
+        update(right);
+        return right;
+    }
+
+    private static void overlapping(Node node, long from, long to, int limit, List<UUID> found) {
+        if (node == null || node.maxEnd < from || found.size() >= limit) {
+            return;
+        }
+        overlapping(node.left, from, to, limit, found);
+        if (node.start > to || found.size() >= limit) {
+            return;
+        }
+        if (node.end >= from) {
+            found.add(node.id);
+        }
+        overlapping(node.right, from, to, limit, found);
+    }
+
+    private static int compare(long start, UUID id, Node node) {
+        int c = Long.compare(start, node.start);
+        return c != 0 ? c : id.compareTo(node.id);
+    }
+
+    private static Node rotateRight(Node node) {
+        Node left = node.left;
+        node.left = left.right;
+        left.right = node;
+        update(node);
+        update(left);
+        return left;
+    }
+
+    private static Node rotateLeft(Node node) {
+        Node right = node.right;
+        node.right = right.left;
+        right.left = node;
+        update(node);
+        update(right);
+        return right;
+    }
+
+    private static void update(Node node) {
+        long maxEnd = node.end;
+        if (node.left != null) {
+            maxEnd = Math.max(maxEnd, node.left.maxEnd);
+        }
+        if (node.right != null) {
+            maxEnd = Math.max(maxEnd, node.right.maxEnd);
+        }
+        node.maxEnd = maxEnd;
+    }
+}
@@ -16,7 +16,8 @@ public class CorsConfig {
         config.setAllowedOrigins(List.of("https://trails-art.com","http://localhost:5500")); // Set frontend URL
         config.setAllowedMethods(List.of("GET", "POST", "PUT", "DELETE", "OPTIONS"));
         config.setAllowedHeaders(List.of("*"));
-        config.setExposedHeaders(List.of("X-Total-Count"));
+        config.setExposedHeaders(List.of("X-Total-Count", "X-Next-Cursor", "Link",
+                "X-SQL-Statements", "X-SQL-Rows", "X-SQL-Time-Ms"));
         config.setAllowCredentials(true);
 
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
@@ -0,0 +1,28 @@
+package com.trails_art.trails.config;
+
+import com.trails_art.trails.diagnostics.QueryStatsDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+@Configuration
+public class QueryStatsConfig {
+    // static so the post-processor is registered before the DataSource it wraps is created
+    @Bean
+    public static BeanPostProcessor queryStatsDataSourcePostProcessor(
+            @Value("${trails.diagnostics.query-stats.enabled:true}") boolean enabled
+    ) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (enabled && bean instanceof DataSource dataSource && !(bean instanceof QueryStatsDataSource)) {
+                    return new QueryStatsDataSource(dataSource);
+                }
+                return bean;
+            }
+        };
+    }
+}
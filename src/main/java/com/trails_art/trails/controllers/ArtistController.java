@@ -1,11 +1,19 @@
 package com.trails_art.trails.controllers;
 
+import com.trails_art.trails.cache.ResponseCache;
 import com.trails_art.trails.dtos.ArtistImportDto;
 import com.trails_art.trails.dtos.ArtistExportDto;
 import com.trails_art.trails.exceptions.InvalidArgumentIdException;
 import com.trails_art.trails.mappers.ArtistMapper;
+import com.trails_art.trails.mappers.FieldSelection;
+import com.trails_art.trails.mappers.ImageMode;
 import com.trails_art.trails.models.Artist;
+import com.trails_art.trails.models.Project;
+import com.trails_art.trails.pagination.CountCache;
+import com.trails_art.trails.pagination.KeysetPage;
+import com.trails_art.trails.pagination.PageHeaders;
 import com.trails_art.trails.services.artist.ArtistService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.transaction.Transactional;
 import jakarta.validation.Valid;
 import org.springframework.http.ResponseEntity;
@@ -13,6 +21,7 @@ import org.springframework.web.bind.annotation.*;
 
 import java.net.URI;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 @RestController
@@ -20,33 +29,80 @@ import java.util.UUID;
 public class ArtistController {
 
     private final ArtistService artistService;
+    private final CountCache countCache;
+    private final ResponseCache responseCache;
 
-    public ArtistController(ArtistService artistService) {
+    public ArtistController(ArtistService artistService, CountCache countCache, ResponseCache responseCache) {
         this.artistService = artistService;
+        this.countCache = countCache;
+        this.responseCache = responseCache;
     }
 
     @GetMapping
-    public ResponseEntity<List<ArtistExportDto>> findAll() {
-        List<ArtistExportDto> dtos = artistService.findAll().stream()
-                .map(ArtistMapper::mapToArtistDto)
-                .toList();
+    public ResponseEntity<?> findAll(
+            HttpServletRequest request,
+            @RequestParam(name = "images", required = false) String images,
+            @RequestParam(name = "limit", required = false) Integer limit,
+            @RequestParam(name = "after", required = false) String after,
+            @RequestParam(name = "count", defaultValue = "false") boolean count,
+            @RequestParam(name = "fields", required = false) String fields,
+            @RequestParam(name = "expand", required = false) String expand
+    ) {
+        ImageMode imageMode = ImageMode.from(images, ImageMode.REF);
+        FieldSelection selection = ArtistMapper.selection(fields, expand);
+        ResponseCache.Key key = ResponseCache.key()
+                .with("images", imageMode)
+                .with("limit", limit)
+                .with("after", after)
+                .with("count", count)
+                .with("fields", fields)
+                .with("expand", expand);
+        return responseCache.get(request, key, uri -> {
+            KeysetPage<Artist> artists = artistService.findPage(after, limit, ArtistMapper.fetch(selection));
+            Map<UUID, List<Project>> projects = embeddedProjects(artists.items(), selection);
+            KeysetPage<ArtistExportDto> page = artists.map(artist -> ArtistMapper.mapToArtistDto(
+                    artist, imageMode, selection, projects.getOrDefault(artist.getId(), List.of())));
+            Long total = count ? countCache.count("artists", artistService::count) : null;
 
-        return ResponseEntity.ok()
-                .header("X-Total-Count", String.valueOf(dtos.size()))
-                .body(dtos);
+            return ResponseEntity.ok()
+                    .headers(PageHeaders.of(page, total, uri))
+                    .body(page.items());
+        });
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<ArtistExportDto> findById(@PathVariable UUID id) {
+    public ResponseEntity<ArtistExportDto> findById(
+            @PathVariable UUID id,
+            @RequestParam(name = "images", required = false) String images,
+            @RequestParam(name = "fields", required = false) String fields,
+            @RequestParam(name = "expand", required = false) String expand
+    ) {
+        FieldSelection selection = ArtistMapper.selection(fields, expand);
         Artist artist = artistService.findById(id)
                 .orElseThrow(() -> new InvalidArgumentIdException("Artist not found."));
-        return ResponseEntity.ok(ArtistMapper.mapToArtistDto(artist));
+        List<Project> projects = embeddedProjects(List.of(artist), selection).getOrDefault(id, List.of());
+        return ResponseEntity.ok(ArtistMapper.mapToArtistDto(
+                artist, ImageMode.from(images, ImageMode.INLINE), selection, projects));
     }
 
     @GetMapping(params = "name")
-    public ResponseEntity<List<ArtistExportDto>> findByName(@RequestParam String name) {
-        List<ArtistExportDto> dtos = artistService.findByName(name).stream()
-                .map(ArtistMapper::mapToArtistDto)
+    public ResponseEntity<List<ArtistExportDto>> findByName(
+            @RequestParam String name,
+            @RequestParam(name = "fuzzy", required = false) Integer fuzzy,
+            @RequestParam(name = "images", required = false) String images,
+            @RequestParam(name = "fields", required = false) String fields,
+            @RequestParam(name = "expand", required = false) String expand
+    ) {
+        ImageMode imageMode = ImageMode.from(images, ImageMode.REF);
+        FieldSelection selection = ArtistMapper.selection(fields, expand);
+        // fuzzy=n tolerates up to n typos and ranks by edit distance instead of matching substrings
+        List<Artist> artists = fuzzy == null
+                ? artistService.findByName(name)
+                : artistService.findBySimilarName(name, fuzzy);
+        Map<UUID, List<Project>> projects = embeddedProjects(artists, selection);
+        List<ArtistExportDto> dtos = artists.stream()
+                .map(artist -> ArtistMapper.mapToArtistDto(
+                        artist, imageMode, selection, projects.getOrDefault(artist.getId(), List.of())))
                 .toList();
         return ResponseEntity.ok(dtos);
     }
@@ -89,4 +145,13 @@ public class ArtistController {
         artistService.addProjects(projectIds, id);
         return ResponseEntity.ok(projectIds);
     }
+
+    // one query for the projects of every artist on the page, and none when they are not asked for
+    private Map<UUID, List<Project>> embeddedProjects(List<Artist> artists, FieldSelection selection) {
+        if (artists.isEmpty() || !selection.includes("projects")) {
+            return Map.of();
+        }
+        return artistService.findProjectsByArtistIds(artists.stream().map(Artist::getId).toList(),
+                selection.limit("projects"), ArtistMapper.projectFetch(selection));
+    }
 }
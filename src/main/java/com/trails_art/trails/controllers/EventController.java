@@ -1,16 +1,29 @@
 package com.trails_art.trails.controllers;
 
+import com.trails_art.trails.cache.ResponseCache;
 import com.trails_art.trails.dtos.EventDto;
+import com.trails_art.trails.dtos.PinDto;
 import com.trails_art.trails.exceptions.InvalidArgumentIdException;
+import com.trails_art.trails.geo.GeoIndex;
+import com.trails_art.trails.geo.PinType;
 import com.trails_art.trails.mappers.EventMapper;
+import com.trails_art.trails.mappers.ImageMode;
+import com.trails_art.trails.mappers.PinMapper;
 import com.trails_art.trails.models.Event;
+import com.trails_art.trails.pagination.CountCache;
+import com.trails_art.trails.pagination.KeysetPage;
+import com.trails_art.trails.pagination.PageHeaders;
 import com.trails_art.trails.services.event.EventService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.transaction.Transactional;
 import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.net.URI;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
 
@@ -19,33 +32,127 @@ import java.util.UUID;
 public class EventController {
 
     private final EventService eventService;
+    private final CountCache countCache;
+    private final GeoIndex geoIndex;
+    private final ResponseCache responseCache;
+    private final int maxResults;
 
-    public EventController(EventService eventService) {
+    public EventController(EventService eventService, CountCache countCache, GeoIndex geoIndex,
+                           ResponseCache responseCache,
+                           @Value("${trails.events.max-results:500}") int maxResults) {
         this.eventService = eventService;
+        this.countCache = countCache;
+        this.geoIndex = geoIndex;
+        this.responseCache = responseCache;
+        this.maxResults = Math.max(1, maxResults);
     }
 
     @GetMapping
-    public ResponseEntity<List<EventDto>> findAll() {
-        List<EventDto> dtos = eventService.findAll().stream()
-                .map(EventMapper::mapToEventDto)
+    public ResponseEntity<?> findAll(
+            HttpServletRequest request,
+            @RequestParam(name = "images", required = false) String images,
+            @RequestParam(name = "limit", required = false) Integer limit,
+            @RequestParam(name = "after", required = false) String after,
+            @RequestParam(name = "count", defaultValue = "false") boolean count,
+            @RequestParam(name = "include", required = false) String include
+    ) {
+        ImageMode imageMode = ImageMode.from(images, ImageMode.REF);
+        boolean includeArchived = includeArchived(include);
+        ResponseCache.Key key = ResponseCache.key()
+                .with("images", imageMode)
+                .with("limit", limit)
+                .with("after", after)
+                .with("count", count)
+                .with("include", includeArchived);
+        return responseCache.get(request, key, uri -> {
+            KeysetPage<EventDto> page = eventService.findPage(after, limit, includeArchived)
+                    .map(event -> EventMapper.mapToEventDto(event, imageMode));
+            Long total = count ? totalCount(includeArchived) : null;
+
+            return ResponseEntity.ok()
+                    .headers(PageHeaders.of(page, total, uri))
+                    .body(page.items());
+        });
+    }
+
+    @GetMapping(params = {"from", "to"})
+    public ResponseEntity<List<EventDto>> findBetween(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(name = "images", required = false) String images,
+            @RequestParam(name = "limit", required = false) Integer limit,
+            @RequestParam(name = "include", required = false) String include
+    ) {
+        return toDtos(eventService.findBetween(from, to, limit(limit), includeArchived(include)), images);
+    }
+
+    // at defaults to now
+    @GetMapping("/active")
+    public ResponseEntity<List<EventDto>> findActive(
+            @RequestParam(name = "at", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime at,
+            @RequestParam(name = "images", required = false) String images,
+            @RequestParam(name = "limit", required = false) Integer limit
+    ) {
+        LocalDateTime time = at != null ? at : LocalDateTime.now();
+        return toDtos(eventService.findBetween(time, time, limit(limit)), images);
+    }
+
+    @GetMapping("/{id}/overlaps")
+    public ResponseEntity<List<EventDto>> findOverlapping(
+            @PathVariable UUID id,
+            @RequestParam(name = "images", required = false) String images,
+            @RequestParam(name = "limit", required = false) Integer limit
+    ) {
+        return toDtos(eventService.findOverlapping(id, limit(limit)), images);
+    }
+
+    @GetMapping("/near")
+    public ResponseEntity<List<PinDto>> findNear(
+            @RequestParam double lat,
+            @RequestParam double lon,
+            @RequestParam double radius,
+            @RequestParam(name = "limit", required = false) Integer limit
+    ) {
+        List<PinDto> pins = geoIndex.near(PinType.EVENT, lat, lon, radius, limit).stream()
+                .map(PinMapper::mapToPinDto)
                 .toList();
+        return ResponseEntity.ok(pins);
+    }
 
-        return ResponseEntity.ok()
-                .header("X-Total-Count", String.valueOf(dtos.size()))
-                .body(dtos);
+    @GetMapping("/bbox")
+    public ResponseEntity<List<PinDto>> findWithin(
+            @RequestParam double south,
+            @RequestParam double west,
+            @RequestParam double north,
+            @RequestParam double east,
+            @RequestParam(name = "limit", required = false) Integer limit
+    ) {
+        List<PinDto> pins = geoIndex.within(PinType.EVENT, south, west, north, east, limit).stream()
+                .map(PinMapper::mapToPinDto)
+                .toList();
+        return ResponseEntity.ok(pins);
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<EventDto> findById(@PathVariable UUID id) {
-        Event event = eventService.findById(id)
+    public ResponseEntity<EventDto> findById(
+            @PathVariable UUID id,
+            @RequestParam(name = "images", required = false) String images,
+            @RequestParam(name = "include", required = false) String include
+    ) {
+        Event event = eventService.findById(id, includeArchived(include))
                 .orElseThrow(() -> new InvalidArgumentIdException("Event not found."));
-        return ResponseEntity.ok(EventMapper.mapToEventDto(event));
+        return ResponseEntity.ok(EventMapper.mapToEventDto(event, ImageMode.from(images, ImageMode.INLINE)));
     }
 
     @GetMapping(params = "name")
-    public ResponseEntity<List<EventDto>> findByName(@RequestParam String name) {
-        List<EventDto> dtos = eventService.findByName(name).stream()
-                .map(EventMapper::mapToEventDto)
+    public ResponseEntity<List<EventDto>> findByName(
+            @RequestParam String name,
+            @RequestParam(name = "images", required = false) String images,
+            @RequestParam(name = "include", required = false) String include
+    ) {
+        ImageMode imageMode = ImageMode.from(images, ImageMode.REF);
+        List<EventDto> dtos = eventService.findByName(name, includeArchived(include)).stream()
+                .map(event -> EventMapper.mapToEventDto(event, imageMode))
                 .toList();
         return ResponseEntity.ok(dtos);
     }
@@ -75,4 +182,36 @@ public class EventController {
         eventService.delete(id);
         return ResponseEntity.noContent().build();
     }
+
+    private ResponseEntity<List<EventDto>> toDtos(List<Event> events, String images) {
+        ImageMode imageMode = ImageMode.from(images, ImageMode.REF);
+        return ResponseEntity.ok(events.stream()
+                .map(event -> EventMapper.mapToEventDto(event, imageMode))
+                .toList());
+    }
+
+    // include=archived adds events moved to the archive
+    // the archived total is cached apart, since it counts both tables
+    private long totalCount(boolean includeArchived) {
+        return includeArchived
+                ? countCache.count("events+archived", () -> eventService.count(true))
+                : countCache.count("events", eventService::count);
+    }
+
+    private static boolean includeArchived(String include) {
+        if (include == null || include.isBlank()) {
+            return false;
+        }
+        if (!include.trim().equals("archived")) {
+            throw new IllegalArgumentException("Unknown include: " + include + ". Use archived.");
+        }
+        return true;
+    }
+
+    private int limit(Integer limit) {
+        if (limit != null && limit < 1) {
+            throw new IllegalArgumentException("limit must be at least 1.");
+        }
+        return limit == null ? maxResults : Math.min(limit, maxResults);
+    }
 }
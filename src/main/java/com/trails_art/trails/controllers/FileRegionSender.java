@@ -0,0 +1,167 @@
+package com.trails_art.trails.controllers;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRange;
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Writes a file, or one byte range of it, without reading the whole file onto the heap. On Tomcat the
+ * request is handed to the connector's sendfile support, so the kernel copies straight from the page
+ * cache to the socket; that is the only zero-copy path. Elsewhere the file is pushed through
+ * {@link FileChannel#transferTo} for whole files and a memory-mapped region for ranges, but the servlet
+ * output stream still copies each chunk through its own buffer.
+ * <p>
+ * The ETag and Last-Modified in the given headers are the validators: a matching If-None-Match or
+ * If-Modified-Since gets a 304, and a Range is honoured only when If-Range is absent or still matches,
+ * so a resumed download never splices bytes of two different versions.
+ */
+final class FileRegionSender {
+
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private FileRegionSender() {
+    }
+
+    /**
+     * Returns false, having written nothing, for requests this sender leaves to Spring MVC:
+     * multipart ranges and malformed or unsatisfiable Range headers. A Range that If-Range rules out
+     * is ignored and the whole file sent.
+     */
+    static boolean send(Path file, MediaType contentType, HttpHeaders headers,
+                        HttpServletRequest request, HttpServletResponse response) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long length = channel.size();
+            long start = 0;
+            long end = length - 1;
+
+            if (notModified(request, headers)) {
+                headers.forEach((name, values) -> values.forEach(value -> response.addHeader(name, value)));
+                response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+                return true;
+            }
+
+            String rangeHeader = rangeApplies(request, headers) ? request.getHeader(HttpHeaders.RANGE) : null;
+            if (rangeHeader != null) {
+                List<HttpRange> ranges;
+                try {
+                    ranges = HttpRange.parseRanges(rangeHeader);
+                    if (ranges.size() != 1) {
+                        return false;
+                    }
+                    start = ranges.getFirst().getRangeStart(length);
+                    end = ranges.getFirst().getRangeEnd(length);
+                } catch (IllegalArgumentException e) {
+                    return false;
+                }
+                if (start > end) {
+                    return false;
+                }
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+            }
+            long count = end - start + 1;
+
+            headers.forEach((name, values) -> values.forEach(value -> response.addHeader(name, value)));
+            response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+            response.setContentType(contentType.toString());
+            response.setContentLengthLong(count);
+
+            if (HttpMethod.HEAD.matches(request.getMethod()) || count == 0) {
+                return true;
+            }
+            if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+                request.setAttribute(SENDFILE_FILENAME, file.toAbsolutePath().toString());
+                request.setAttribute(SENDFILE_START, start);
+                request.setAttribute(SENDFILE_END, end + 1);
+                return true;
+            }
+
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            if (rangeHeader != null) {
+                MappedByteBuffer region = channel.map(FileChannel.MapMode.READ_ONLY, start, count);
+                while (region.hasRemaining()) {
+                    out.write(region);
+                }
+            } else {
+                long position = start;
+                while (position <= end) {
+                    long sent = channel.transferTo(position, end + 1 - position, out);
+                    if (sent <= 0) {
+                        throw new IOException("File " + file + " ended before its recorded size");
+                    }
+                    position += sent;
+                }
+            }
+            response.flushBuffer();
+            return true;
+        }
+    }
+
+    /**
+     * True when the request's Range may be served: If-Range is absent, or is an ETag that strongly
+     * matches the response's, or is the response's Last-Modified date to the second. Otherwise the
+     * whole representation has to be sent.
+     */
+    static boolean rangeApplies(HttpServletRequest request, HttpHeaders headers) {
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            return !ifRange.startsWith("W/") && ifRange.equals(headers.getETag());
+        }
+        long lastModified = headers.getLastModified();
+        try {
+            return lastModified >= 0 && request.getDateHeader(HttpHeaders.IF_RANGE) / 1000 == lastModified / 1000;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    // If-None-Match wins over If-Modified-Since, as RFC 9110 asks; weak comparison is enough for GET
+    private static boolean notModified(HttpServletRequest request, HttpHeaders headers) {
+        String etag = headers.getETag();
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null) {
+            if (etag == null) {
+                return false;
+            }
+            for (String candidate : ifNoneMatch.split(",")) {
+                candidate = candidate.trim();
+                if (candidate.equals("*") || opaque(candidate).equals(opaque(etag))) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        long lastModified = headers.getLastModified();
+        if (lastModified < 0) {
+            return false;
+        }
+        try {
+            long ifModifiedSince = request.getDateHeader(HttpHeaders.IF_MODIFIED_SINCE);
+            return ifModifiedSince >= 0 && lastModified / 1000 <= ifModifiedSince / 1000;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private static String opaque(String etag) {
+        return etag.startsWith("W/") ? etag.substring(2) : etag;
+    }
+}
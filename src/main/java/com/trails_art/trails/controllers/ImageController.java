@@ -1,45 +1,189 @@
 package com.trails_art.trails.controllers;
 
 import com.trails_art.trails.dtos.ImageDto;
+import com.trails_art.trails.dtos.ImageMetadataDto;
 import com.trails_art.trails.exceptions.InvalidArgumentIdException;
 import com.trails_art.trails.mappers.ImageMapper;
+import com.trails_art.trails.mappers.ImageMode;
 import com.trails_art.trails.models.Image;
+import com.trails_art.trails.models.ImageMetadata;
+import com.trails_art.trails.pagination.CountCache;
+import com.trails_art.trails.pagination.KeysetPage;
+import com.trails_art.trails.pagination.PageHeaders;
 import com.trails_art.trails.services.image.ImageService;
+import com.trails_art.trails.storage.BlobStore;
+import com.trails_art.trails.storage.ByteBufferResource;
+import com.trails_art.trails.storage.ImageCache;
+import com.trails_art.trails.storage.ImageContent;
+import com.trails_art.trails.storage.RenditionStore;
+import com.trails_art.trails.storage.SizeLimitedInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.transaction.Transactional;
 import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @RestController
 @RequestMapping("/api/images")
 public class ImageController {
 
+    private static final String MIMETYPE_PARAM = "mimetype";
+    private static final String CLIENT_HINTS = "DPR, Width, Save-Data";
+    private static final double MAX_DPR = 4.0;
+
     private final ImageService imageService;
+    private final RenditionStore renditionStore;
+    private final BlobStore blobStore;
+    private final ImageCache imageCache;
+    private final CountCache countCache;
+    private final long maxUploadBytes;
+    private final boolean zeroCopy;
 
-    public ImageController(ImageService imageService) {
+    public ImageController(ImageService imageService,
+                           RenditionStore renditionStore,
+                           BlobStore blobStore,
+                           ImageCache imageCache,
+                           CountCache countCache,
+                           @Value("${trails.images.max-upload-bytes:104857600}") long maxUploadBytes,
+                           @Value("${trails.images.zero-copy:true}") boolean zeroCopy) {
         this.imageService = imageService;
+        this.renditionStore = renditionStore;
+        this.blobStore = blobStore;
+        this.imageCache = imageCache;
+        this.countCache = countCache;
+        this.maxUploadBytes = maxUploadBytes;
+        this.zeroCopy = zeroCopy;
     }
 
     @GetMapping
-    public ResponseEntity<List<ImageDto>> findAll() {
-        List<ImageDto> dtos = imageService.findAll().stream()
-                .map(ImageMapper::mapToImageDto)
-                .toList();
+    public ResponseEntity<List<ImageDto>> findAll(
+            @RequestParam(name = "images", required = false) String images,
+            @RequestParam(name = "limit", required = false) Integer limit,
+            @RequestParam(name = "after", required = false) String after,
+            @RequestParam(name = "count", defaultValue = "false") boolean count
+    ) {
+        ImageMode imageMode = ImageMode.from(images, ImageMode.REF);
+        KeysetPage<ImageDto> page = imageMode == ImageMode.REF
+                ? imageService.findMetadataPage(after, limit).map(ImageMapper::mapToImageDto)
+                : imageService.findPage(after, limit).map(img -> ImageMapper.mapToImageDto(img, imageMode));
+
+        return ResponseEntity.ok()
+                .headers(PageHeaders.of(page, totalCount(count)))
+                .body(page.items());
+    }
+
+    @GetMapping("/metadata")
+    public ResponseEntity<List<ImageMetadataDto>> findAllMetadata(
+            @RequestParam(name = "limit", required = false) Integer limit,
+            @RequestParam(name = "after", required = false) String after,
+            @RequestParam(name = "count", defaultValue = "false") boolean count
+    ) {
+        KeysetPage<ImageMetadataDto> page = imageService.findMetadataPage(after, limit)
+                .map(ImageMapper::mapToImageMetadataDto);
 
         return ResponseEntity.ok()
-                .header("X-Total-Count", String.valueOf(dtos.size()))
-                .body(dtos);
+                .headers(PageHeaders.of(page, totalCount(count)))
+                .body(page.items());
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<ImageDto> findById(@PathVariable UUID id) {
-        Image img = imageService.findById(id)
+    public ResponseEntity<ImageDto> findById(
+            @PathVariable UUID id,
+            @RequestParam(name = "images", required = false) String images
+    ) {
+        ImageContent content = imageService.findContentById(id)
                 .orElseThrow(() -> new InvalidArgumentIdException("Image not found."));
-        return ResponseEntity.ok(ImageMapper.mapToImageDto(img));
+        return ResponseEntity.ok(ImageMapper.mapToImageDto(content, ImageMode.from(images, ImageMode.INLINE)));
+    }
+
+    // A hot image is described by its ImageCache entry, so only a miss reads the metadata row. File-backed
+    // bytes then go out through FileRegionSender; anything it declines (multipart ranges, or zero-copy
+    // turned off) falls back to a Resource body, for which Spring MVC handles Range and HEAD. Only that
+    // fallback loads the content, and only when it is not already cached.
+    // ?w= is a width in CSS pixels; DPR, Width and Save-Data client hints pick a rendition too.
+    @GetMapping("/{id}/raw")
+    public ResponseEntity<Resource> findRawById(
+            @PathVariable UUID id,
+            @RequestParam(name = "w", required = false) Integer w,
+            @RequestHeader(name = "DPR", required = false) String dpr,
+            @RequestHeader(name = "Width", required = false) String widthHint,
+            @RequestHeader(name = "Save-Data", required = false) String saveData,
+            HttpServletRequest request,
+            HttpServletResponse response
+    ) throws IOException {
+        Optional<ImageContent> cached = imageCache.get(id);
+        String mimetype;
+        String contentHash;
+        if (cached.isPresent()) {
+            mimetype = cached.get().mimetype();
+            contentHash = cached.get().contentHash();
+        } else {
+            ImageMetadata metadata = imageService.findMetadataById(id)
+                    .orElseThrow(() -> new InvalidArgumentIdException("Image not found."));
+            mimetype = metadata.mimetype();
+            contentHash = metadata.contentHash();
+        }
+
+        Integer width = renditionWidth(w, dpr, widthHint, "on".equalsIgnoreCase(saveData));
+        Optional<RenditionStore.Rendition> rendition = width == null
+                ? Optional.empty()
+                : renditionStore.find(contentHash, width);
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.add(HttpHeaders.VARY, CLIENT_HINTS);
+        headers.add("Accept-CH", CLIENT_HINTS);
+
+        MediaType contentType = rendition
+                .map(r -> MediaType.parseMediaType(r.mimetype()))
+                .orElseGet(() -> toMediaType(mimetype));
+        Optional<Path> file = rendition.isPresent()
+                ? rendition.map(RenditionStore.Rendition::path)
+                : blobStore.locate(contentHash);
+        // blobs are content-addressed, so the hash (plus the rendition width) is a strong validator
+        headers.setETag("\"" + contentHash + rendition.map(r -> "-" + r.width()).orElse("") + "\"");
+        if (file.isPresent()) {
+            headers.setLastModified(Files.getLastModifiedTime(file.get()).toMillis());
+        }
+        // a null ResponseEntity tells Spring MVC the response has already been written
+        if (zeroCopy && file.isPresent()
+                && FileRegionSender.send(file.get(), contentType, headers, request, response)) {
+            return null;
+        }
+
+        Resource body;
+        if (rendition.isPresent()) {
+            body = new FileSystemResource(rendition.get().path());
+        } else {
+            ImageContent content = cached.or(() -> imageService.findContentById(id))
+                    .orElseThrow(() -> new InvalidArgumentIdException("Image not found."));
+            body = new ByteBufferResource(content.data(), "image " + id);
+        }
+        // Spring MVC slices any Resource by Range but ignores If-Range; a stream body is sent whole
+        if (request.getHeader(HttpHeaders.RANGE) != null && !FileRegionSender.rangeApplies(request, headers)) {
+            body = new InputStreamResource(body.getInputStream());
+        }
+        return ResponseEntity.ok()
+                .headers(headers)
+                .contentType(contentType)
+                .body(body);
     }
 
     @PostMapping
@@ -51,6 +195,32 @@ public class ImageController {
                 .body(ImageMapper.mapToImageDto(img));
     }
 
+    @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @Transactional
+    public ResponseEntity<ImageDto> upload(@RequestParam("file") MultipartFile file) throws IOException {
+        Image img;
+        try (InputStream in = file.getInputStream()) {
+            img = imageService.createFromStream(file.getContentType(), in);
+        }
+        return ResponseEntity.created(URI.create("/api/images/" + img.getId()))
+                .body(toUploadedDto(img));
+    }
+
+    // raw body uploads: the Content-Type is the image mimetype, or ?mimetype= for application/octet-stream
+    @PostMapping(consumes = {"image/*", MediaType.APPLICATION_OCTET_STREAM_VALUE})
+    @Transactional
+    public ResponseEntity<ImageDto> upload(
+            @RequestParam(name = MIMETYPE_PARAM, required = false) String mimetype,
+            HttpServletRequest request
+    ) throws IOException {
+        Image img;
+        try (InputStream in = new SizeLimitedInputStream(request.getInputStream(), maxUploadBytes)) {
+            img = imageService.createFromStream(resolveMimetype(mimetype, request), in);
+        }
+        return ResponseEntity.created(URI.create("/api/images/" + img.getId()))
+                .body(toUploadedDto(img));
+    }
+
     @PutMapping("/{id}")
     @Transactional
     public ResponseEntity<ImageDto> update(
@@ -61,10 +231,107 @@ public class ImageController {
         return ResponseEntity.ok(ImageMapper.mapToImageDto(img));
     }
 
+    @PutMapping(value = "/{id}", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @Transactional
+    public ResponseEntity<ImageDto> upload(
+            @PathVariable UUID id,
+            @RequestParam("file") MultipartFile file
+    ) throws IOException {
+        Image img;
+        try (InputStream in = file.getInputStream()) {
+            img = imageService.updateFromStream(file.getContentType(), in, id);
+        }
+        return ResponseEntity.ok(toUploadedDto(img));
+    }
+
+    @PutMapping(value = "/{id}", consumes = {"image/*", MediaType.APPLICATION_OCTET_STREAM_VALUE})
+    @Transactional
+    public ResponseEntity<ImageDto> upload(
+            @PathVariable UUID id,
+            @RequestParam(name = MIMETYPE_PARAM, required = false) String mimetype,
+            HttpServletRequest request
+    ) throws IOException {
+        Image img;
+        try (InputStream in = new SizeLimitedInputStream(request.getInputStream(), maxUploadBytes)) {
+            img = imageService.updateFromStream(resolveMimetype(mimetype, request), in, id);
+        }
+        return ResponseEntity.ok(toUploadedDto(img));
+    }
+
     @DeleteMapping("/{id}")
     @Transactional
     public ResponseEntity<Void> delete(@PathVariable UUID id) {
         imageService.delete(id);
         return ResponseEntity.noContent().build();
     }
+
+    // null means the original is wanted: no width was asked for, or one wider than every rendition,
+    // and the client is not saving data
+    private Integer renditionWidth(Integer cssWidth, String dpr, String widthHint, boolean saveData) {
+        Integer pixels = null;
+        if (cssWidth != null) {
+            if (cssWidth <= 0) {
+                throw new IllegalArgumentException("Width must be positive");
+            }
+            pixels = (int) Math.ceil(cssWidth * parseDpr(dpr));
+        } else if (widthHint != null) {
+            pixels = parsePositiveInt(widthHint);
+        }
+        if (pixels == null) {
+            return saveData ? renditionStore.widths().getLast() : null;
+        }
+        Integer width = renditionStore.snap(pixels);
+        if (width == null) {
+            // wider than every rendition: the original, unless the client is saving data
+            return saveData ? renditionStore.widths().getLast() : null;
+        }
+        return saveData ? renditionStore.stepDown(width) : width;
+    }
+
+    private static double parseDpr(String dpr) {
+        if (dpr == null) {
+            return 1.0;
+        }
+        try {
+            double value = Double.parseDouble(dpr.trim());
+            return value > 0 ? Math.min(value, MAX_DPR) : 1.0;
+        } catch (NumberFormatException e) {
+            return 1.0;
+        }
+    }
+
+    // malformed hints are ignored rather than rejected, they come from the browser and not the caller
+    private static Integer parsePositiveInt(String value) {
+        try {
+            int parsed = Integer.parseInt(value.trim());
+            return parsed > 0 ? parsed : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static MediaType toMediaType(String mimetype) {
+        try {
+            return MediaType.parseMediaType(mimetype);
+        } catch (InvalidMediaTypeException e) {
+            return MediaType.APPLICATION_OCTET_STREAM;
+        }
+    }
+
+    private static String resolveMimetype(String mimetype, HttpServletRequest request) {
+        if (mimetype != null) {
+            return mimetype;
+        }
+        String contentType = request.getContentType();
+        return MediaType.APPLICATION_OCTET_STREAM_VALUE.equals(contentType) ? null : contentType;
+    }
+
+    // echoing the upload back as Base64 would read the whole file into memory again
+    private static ImageDto toUploadedDto(Image img) {
+        return ImageMapper.mapToImageDto(img, ImageMode.REF);
+    }
+
+    private Long totalCount(boolean requested) {
+        return requested ? countCache.count("images", imageService::count) : null;
+    }
 }
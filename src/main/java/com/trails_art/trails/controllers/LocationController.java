@@ -4,6 +4,9 @@ import com.trails_art.trails.dtos.LocationDto;
 import com.trails_art.trails.exceptions.InvalidArgumentIdException;
 import com.trails_art.trails.mappers.LocationMapper;
 import com.trails_art.trails.models.Location;
+import com.trails_art.trails.pagination.CountCache;
+import com.trails_art.trails.pagination.KeysetPage;
+import com.trails_art.trails.pagination.PageHeaders;
 import com.trails_art.trails.services.location.LocationService;
 import jakarta.transaction.Transactional;
 import jakarta.validation.Valid;
@@ -19,20 +22,26 @@ import java.util.UUID;
 public class LocationController {
 
     private final LocationService locationService;
+    private final CountCache countCache;
 
-    public LocationController(LocationService locationService) {
+    public LocationController(LocationService locationService, CountCache countCache) {
         this.locationService = locationService;
+        this.countCache = countCache;
     }
 
     @GetMapping
-    public ResponseEntity<List<LocationDto>> findAll() {
-        List<LocationDto> dtos = locationService.findAll().stream()
-                .map(LocationMapper::mapToLocationDto)
-                .toList();
+    public ResponseEntity<List<LocationDto>> findAll(
+            @RequestParam(name = "limit", required = false) Integer limit,
+            @RequestParam(name = "after", required = false) String after,
+            @RequestParam(name = "count", defaultValue = "false") boolean count
+    ) {
+        KeysetPage<LocationDto> page = locationService.findPage(after, limit)
+                .map(LocationMapper::mapToLocationDto);
+        Long total = count ? countCache.count("locations", locationService::count) : null;
 
         return ResponseEntity.ok()
-                .header("X-Total-Count", String.valueOf(dtos.size()))
-                .body(dtos);
+                .headers(PageHeaders.of(page, total))
+                .body(page.items());
     }
 
     @GetMapping("/{id}")
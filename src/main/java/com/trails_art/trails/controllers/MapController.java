@@ -0,0 +1,49 @@
+package com.trails_art.trails.controllers;
+
+import com.trails_art.trails.dtos.ClusterDto;
+import com.trails_art.trails.geo.ClusterIndex;
+import com.trails_art.trails.geo.PinType;
+import com.trails_art.trails.mappers.PinMapper;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/map")
+public class MapController {
+
+    private final ClusterIndex clusterIndex;
+
+    public MapController(ClusterIndex clusterIndex) {
+        this.clusterIndex = clusterIndex;
+    }
+
+    // bbox is west,south,east,north in degrees
+    @GetMapping("/clusters")
+    public ResponseEntity<List<ClusterDto>> clusters(
+            @RequestParam(name = "z") int zoom,
+            @RequestParam(name = "bbox") String bbox,
+            @RequestParam(name = "type", defaultValue = "project") String type
+    ) {
+        String[] parts = bbox.split(",");
+        if (parts.length != 4) {
+            throw new IllegalArgumentException("bbox must be west,south,east,north.");
+        }
+        double[] box = new double[4];
+        try {
+            for (int i = 0; i < 4; i++) {
+                box[i] = Double.parseDouble(parts[i].trim());
+            }
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("bbox must be west,south,east,north.");
+        }
+        List<ClusterDto> clusters = clusterIndex.clusters(PinType.from(type), zoom, box[0], box[1], box[2], box[3]).stream()
+                .map(PinMapper::mapToClusterDto)
+                .toList();
+        return ResponseEntity.ok(clusters);
+    }
+}
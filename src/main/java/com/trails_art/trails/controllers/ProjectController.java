@@ -1,15 +1,26 @@
 package com.trails_art.trails.controllers;
 
+import com.trails_art.trails.cache.ResponseCache;
 import com.trails_art.trails.dtos.ArtistDataDto;
 import com.trails_art.trails.dtos.ArtistExportDto;
 import com.trails_art.trails.dtos.ProjectImportDto;
 import com.trails_art.trails.dtos.ProjectExportDto;
+import com.trails_art.trails.dtos.PinDto;
 import com.trails_art.trails.exceptions.InvalidArgumentIdException;
+import com.trails_art.trails.geo.GeoIndex;
+import com.trails_art.trails.geo.PinType;
 import com.trails_art.trails.mappers.ArtistMapper;
+import com.trails_art.trails.mappers.FieldSelection;
 import com.trails_art.trails.mappers.ProjectMapper;
+import com.trails_art.trails.mappers.ImageMode;
+import com.trails_art.trails.mappers.PinMapper;
 import com.trails_art.trails.models.Artist;
 import com.trails_art.trails.models.Project;
+import com.trails_art.trails.pagination.CountCache;
+import com.trails_art.trails.pagination.KeysetPage;
+import com.trails_art.trails.pagination.PageHeaders;
 import com.trails_art.trails.services.project.ProjectService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.transaction.Transactional;
 import jakarta.validation.Valid;
 import org.springframework.http.ResponseEntity;
@@ -17,6 +28,7 @@ import org.springframework.web.bind.annotation.*;
 
 import java.net.URI;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 @RestController
@@ -24,33 +36,110 @@ import java.util.UUID;
 public class ProjectController {
 
     private final ProjectService projectService;
+    private final CountCache countCache;
+    private final GeoIndex geoIndex;
+    private final ResponseCache responseCache;
 
-    public ProjectController(ProjectService projectService) {
+    public ProjectController(ProjectService projectService, CountCache countCache, GeoIndex geoIndex,
+                             ResponseCache responseCache) {
         this.projectService = projectService;
+        this.countCache = countCache;
+        this.geoIndex = geoIndex;
+        this.responseCache = responseCache;
     }
 
     @GetMapping
-    public ResponseEntity<List<ProjectExportDto>> findAll() {
-        List<ProjectExportDto> dtos = projectService.findAll().stream()
-                .map(ProjectMapper::mapToProjectDto)
+    public ResponseEntity<?> findAll(
+            HttpServletRequest request,
+            @RequestParam(name = "images", required = false) String images,
+            @RequestParam(name = "limit", required = false) Integer limit,
+            @RequestParam(name = "after", required = false) String after,
+            @RequestParam(name = "count", defaultValue = "false") boolean count,
+            @RequestParam(name = "fields", required = false) String fields,
+            @RequestParam(name = "expand", required = false) String expand
+    ) {
+        ImageMode imageMode = ImageMode.from(images, ImageMode.REF);
+        FieldSelection selection = ProjectMapper.selection(fields, expand);
+        ResponseCache.Key key = ResponseCache.key()
+                .with("images", imageMode)
+                .with("limit", limit)
+                .with("after", after)
+                .with("count", count)
+                .with("fields", fields)
+                .with("expand", expand);
+        return responseCache.get(request, key, uri -> {
+            KeysetPage<Project> projects = projectService.findPage(after, limit, ProjectMapper.fetch(selection));
+            Map<UUID, List<Artist>> artists = embeddedArtists(projects.items(), selection);
+            KeysetPage<ProjectExportDto> page = projects.map(project -> ProjectMapper.mapToProjectDto(
+                    project, imageMode, selection, artists.getOrDefault(project.getId(), List.of())));
+            Long total = count ? countCache.count("projects", projectService::count) : null;
+
+            return ResponseEntity.ok()
+                    .headers(PageHeaders.of(page, total, uri))
+                    .body(page.items());
+        });
+    }
+
+    @GetMapping("/near")
+    public ResponseEntity<List<PinDto>> findNear(
+            @RequestParam double lat,
+            @RequestParam double lon,
+            @RequestParam double radius,
+            @RequestParam(name = "limit", required = false) Integer limit
+    ) {
+        List<PinDto> pins = geoIndex.near(PinType.PROJECT, lat, lon, radius, limit).stream()
+                .map(PinMapper::mapToPinDto)
                 .toList();
+        return ResponseEntity.ok(pins);
+    }
 
-        return ResponseEntity.ok()
-                .header("X-Total-Count", String.valueOf(dtos.size()))
-                .body(dtos);
+    @GetMapping("/bbox")
+    public ResponseEntity<List<PinDto>> findWithin(
+            @RequestParam double south,
+            @RequestParam double west,
+            @RequestParam double north,
+            @RequestParam double east,
+            @RequestParam(name = "limit", required = false) Integer limit
+    ) {
+        List<PinDto> pins = geoIndex.within(PinType.PROJECT, south, west, north, east, limit).stream()
+                .map(PinMapper::mapToPinDto)
+                .toList();
+        return ResponseEntity.ok(pins);
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<ProjectExportDto> findById(@PathVariable UUID id) {
+    public ResponseEntity<ProjectExportDto> findById(
+            @PathVariable UUID id,
+            @RequestParam(name = "images", required = false) String images,
+            @RequestParam(name = "fields", required = false) String fields,
+            @RequestParam(name = "expand", required = false) String expand
+    ) {
+        FieldSelection selection = ProjectMapper.selection(fields, expand);
         Project project = projectService.findById(id)
                 .orElseThrow(() -> new InvalidArgumentIdException("Project not found."));
-        return ResponseEntity.ok(ProjectMapper.mapToProjectDto(project));
+        List<Artist> artists = embeddedArtists(List.of(project), selection).getOrDefault(id, List.of());
+        return ResponseEntity.ok(ProjectMapper.mapToProjectDto(
+                project, ImageMode.from(images, ImageMode.INLINE), selection, artists));
     }
 
     @GetMapping(params = "name")
-    public ResponseEntity<List<ProjectExportDto>> findByName(@RequestParam String name) {
-        List<ProjectExportDto> dtos = projectService.findByName(name).stream()
-                .map(ProjectMapper::mapToProjectDto)
+    public ResponseEntity<List<ProjectExportDto>> findByName(
+            @RequestParam String name,
+            @RequestParam(name = "fuzzy", required = false) Integer fuzzy,
+            @RequestParam(name = "images", required = false) String images,
+            @RequestParam(name = "fields", required = false) String fields,
+            @RequestParam(name = "expand", required = false) String expand
+    ) {
+        ImageMode imageMode = ImageMode.from(images, ImageMode.REF);
+        FieldSelection selection = ProjectMapper.selection(fields, expand);
+        // fuzzy=n tolerates up to n typos and ranks by edit distance instead of by trigram overlap
+        List<Project> projects = fuzzy == null
+                ? projectService.searchByName(name)
+                : projectService.findBySimilarName(name, fuzzy);
+        Map<UUID, List<Artist>> artists = embeddedArtists(projects, selection);
+        List<ProjectExportDto> dtos = projects.stream()
+                .map(project -> ProjectMapper.mapToProjectDto(
+                        project, imageMode, selection, artists.getOrDefault(project.getId(), List.of())))
                 .toList();
 
         if (dtos.isEmpty()) {
@@ -118,4 +207,13 @@ public class ProjectController {
         projectService.delete(id);
         return ResponseEntity.noContent().build();
     }
+
+    // one query for the artists of every project on the page, and none when they are not asked for
+    private Map<UUID, List<Artist>> embeddedArtists(List<Project> projects, FieldSelection selection) {
+        if (projects.isEmpty() || !selection.includes("artists")) {
+            return Map.of();
+        }
+        return projectService.findArtistsByProjectIds(projects.stream().map(Project::getId).toList(),
+                selection.limit("artists"), ProjectMapper.artistFetch(selection));
+    }
 }
@@ -0,0 +1,52 @@
+package com.trails_art.trails.controllers;
+
+import com.trails_art.trails.dtos.SearchResultDto;
+import com.trails_art.trails.mappers.SearchMapper;
+import com.trails_art.trails.search.SearchIndex;
+import com.trails_art.trails.search.SearchType;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@RestController
+@RequestMapping("/api/search")
+public class SearchController {
+
+    private final SearchIndex searchIndex;
+    private final int maxLimit;
+
+    public SearchController(SearchIndex searchIndex,
+                            @Value("${trails.search.max-limit:100}") int maxLimit) {
+        this.searchIndex = searchIndex;
+        this.maxLimit = Math.max(1, maxLimit);
+    }
+
+    @GetMapping
+    public ResponseEntity<List<SearchResultDto>> search(
+            @RequestParam(name = "q", required = false) String query,
+            @RequestParam(name = "type", required = false) String type,
+            @RequestParam(name = "limit", defaultValue = "20") int limit
+    ) {
+        if (query == null || query.isBlank()) {
+            throw new IllegalArgumentException("Search query must not be blank.");
+        }
+        if (limit < 1) {
+            throw new IllegalArgumentException("limit must be at least 1.");
+        }
+        Set<SearchType> types = type == null || type.isBlank() ? Set.of()
+                : Arrays.stream(type.split(",")).map(SearchType::from).collect(Collectors.toSet());
+
+        List<SearchResultDto> results = searchIndex.search(query, Math.min(limit, maxLimit), types).stream()
+                .map(SearchMapper::mapToSearchResultDto)
+                .toList();
+        return ResponseEntity.ok(results);
+    }
+}
@@ -0,0 +1,41 @@
+package com.trails_art.trails.controllers;
+
+import com.trails_art.trails.dtos.SuggestionDto;
+import com.trails_art.trails.mappers.SearchMapper;
+import com.trails_art.trails.search.SuggestionIndex;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/suggest")
+public class SuggestController {
+
+    private final SuggestionIndex suggestionIndex;
+
+    public SuggestController(SuggestionIndex suggestionIndex) {
+        this.suggestionIndex = suggestionIndex;
+    }
+
+    @GetMapping
+    public ResponseEntity<List<SuggestionDto>> suggest(
+            @RequestParam(name = "prefix", required = false) String prefix,
+            @RequestParam(name = "limit", required = false) Integer limit
+    ) {
+        if (prefix == null || prefix.isBlank()) {
+            throw new IllegalArgumentException("prefix must not be blank.");
+        }
+        if (limit != null && limit < 1) {
+            throw new IllegalArgumentException("limit must be at least 1.");
+        }
+        List<SuggestionDto> suggestions = suggestionIndex.suggest(prefix, limit == null ? suggestionIndex.maxLimit() : limit)
+                .stream()
+                .map(SearchMapper::mapToSuggestionDto)
+                .toList();
+        return ResponseEntity.ok(suggestions);
+    }
+}
@@ -0,0 +1,54 @@
+package com.trails_art.trails.controllers;
+
+import com.trails_art.trails.dtos.RouteDto;
+import com.trails_art.trails.geo.RoutePlanner;
+import com.trails_art.trails.mappers.PinMapper;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/trails")
+public class TrailController {
+
+    private final RoutePlanner routePlanner;
+
+    public TrailController(RoutePlanner routePlanner) {
+        this.routePlanner = routePlanner;
+    }
+
+    // projects is a comma-separated list of ids; start is lat,lon
+    @GetMapping("/route")
+    public ResponseEntity<RouteDto> route(
+            @RequestParam(name = "projects") String projects,
+            @RequestParam(name = "start", required = false) String start
+    ) {
+        List<UUID> ids = Arrays.stream(projects.split(","))
+                .map(String::trim)
+                .filter(id -> !id.isEmpty())
+                .map(UUID::fromString)
+                .toList();
+        return ResponseEntity.ok(PinMapper.mapToRouteDto(routePlanner.plan(ids, parseStart(start))));
+    }
+
+    private static double[] parseStart(String start) {
+        if (start == null || start.isBlank()) {
+            return null;
+        }
+        String[] parts = start.split(",");
+        if (parts.length != 2) {
+            throw new IllegalArgumentException("start must be lat,lon.");
+        }
+        try {
+            return new double[]{Double.parseDouble(parts[0].trim()), Double.parseDouble(parts[1].trim())};
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("start must be lat,lon.");
+        }
+    }
+}
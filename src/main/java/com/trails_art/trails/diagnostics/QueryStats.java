@@ -0,0 +1,82 @@
+package com.trails_art.trails.diagnostics;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * SQL statements, rows read and JDBC execution time recorded on the current thread between
+ * {@link #open()} and {@link #close()}. Scopes nest: closing one adds its counts to the enclosing
+ * scope, so a test can measure a request that the filter measures as well.
+ */
+public final class QueryStats implements AutoCloseable {
+
+    private static final ThreadLocal<QueryStats> CURRENT = new ThreadLocal<>();
+
+    private final QueryStats parent;
+    private final Map<String, Integer> executionsBySql = new HashMap<>();
+    private long statements;
+    private long rows;
+    private long jdbcNanos;
+    private boolean closed;
+
+    private QueryStats(QueryStats parent) {
+        this.parent = parent;
+    }
+
+    public static QueryStats open() {
+        QueryStats stats = new QueryStats(CURRENT.get());
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    static Optional<QueryStats> current() {
+        return Optional.ofNullable(CURRENT.get());
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (parent == null) {
+            CURRENT.remove();
+        } else {
+            parent.statements += statements;
+            parent.rows += rows;
+            parent.jdbcNanos += jdbcNanos;
+            executionsBySql.forEach((sql, count) -> parent.executionsBySql.merge(sql, count, Integer::sum));
+            CURRENT.set(parent);
+        }
+    }
+
+    void recordStatement(String sql, long nanos) {
+        statements++;
+        jdbcNanos += nanos;
+        if (sql != null) {
+            executionsBySql.merge(sql, 1, Integer::sum);
+        }
+    }
+
+    void recordRow() {
+        rows++;
+    }
+
+    public long statements() {
+        return statements;
+    }
+
+    public long rows() {
+        return rows;
+    }
+
+    public long jdbcNanos() {
+        return jdbcNanos;
+    }
+
+    // the statement run most often, which is where an N+1 shows up
+    public Optional<Map.Entry<String, Integer>> mostRepeated() {
+        return executionsBySql.entrySet().stream().max(Map.Entry.comparingByValue());
+    }
+}
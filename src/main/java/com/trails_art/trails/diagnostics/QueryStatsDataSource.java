@@ -0,0 +1,99 @@
+package com.trails_art.trails.diagnostics;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Records every statement executed through the pool into the thread's {@link QueryStats}. Sitting at
+ * the JDBC layer rather than in Hibernate means JdbcTemplate statements count too, and rows and
+ * execution time can be measured. Threads without an open scope pay for one ThreadLocal read.
+ */
+public class QueryStatsDataSource extends DelegatingDataSource {
+
+    public QueryStatsDataSource(DataSource target) {
+        super(target);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrapConnection(obtainTargetDataSource().getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrapConnection(obtainTargetDataSource().getConnection(username, password));
+    }
+
+    private static Connection wrapConnection(Connection connection) {
+        return proxy(Connection.class, connection, (target, method, args) -> {
+            Object result = invoke(target, method, args);
+            return switch (method.getName()) {
+                case "prepareStatement" -> wrapStatement(PreparedStatement.class, (Statement) result, (String) args[0]);
+                case "prepareCall" -> wrapStatement(CallableStatement.class, (Statement) result, (String) args[0]);
+                case "createStatement" -> wrapStatement(Statement.class, (Statement) result, null);
+                default -> result;
+            };
+        });
+    }
+
+    private static <S extends Statement> S wrapStatement(Class<S> type, Statement statement, String preparedSql) {
+        return proxy(type, statement, (target, method, args) -> {
+            String name = method.getName();
+            if (name.startsWith("execute")) {
+                long start = System.nanoTime();
+                try {
+                    return wrapResult(invoke(target, method, args));
+                } finally {
+                    long elapsed = System.nanoTime() - start;
+                    String sql = preparedSql != null ? preparedSql
+                            : args != null && args.length > 0 && args[0] instanceof String text ? text : null;
+                    QueryStats.current().ifPresent(stats -> stats.recordStatement(sql, elapsed));
+                }
+            }
+            return wrapResult(invoke(target, method, args));
+        });
+    }
+
+    private static Object wrapResult(Object result) {
+        if (!(result instanceof ResultSet resultSet)) {
+            return result;
+        }
+        return proxy(ResultSet.class, resultSet, (target, method, args) -> {
+            Object value = invoke(target, method, args);
+            if (method.getName().equals("next") && Boolean.TRUE.equals(value)) {
+                QueryStats.current().ifPresent(QueryStats::recordRow);
+            }
+            return value;
+        });
+    }
+
+    private interface Handler<T> {
+        Object handle(T target, Method method, Object[] args) throws Throwable;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, Object target, Handler<T> handler) {
+        InvocationHandler invocationHandler = (proxy, method, args) -> handler.handle((T) target, method, args);
+        return (T) Proxy.newProxyInstance(QueryStatsDataSource.class.getClassLoader(), new Class<?>[]{type},
+                invocationHandler);
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.trails_art.trails.diagnostics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the SQL each request runs: recorded as {@code trails.http.sql.*} metrics per route, logged
+ * as a possible N+1 when one statement repeats {@code n-plus-one-threshold} times, and, where
+ * {@code trails.diagnostics.query-headers} is on (not in production), returned as X-SQL-* headers.
+ * Headers are added when the body starts, so statements run while writing it only reach the metrics.
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class QueryStatsFilter extends OncePerRequestFilter {
+
+    public static final String STATEMENTS_HEADER = "X-SQL-Statements";
+    public static final String ROWS_HEADER = "X-SQL-Rows";
+    public static final String TIME_HEADER = "X-SQL-Time-Ms";
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+    private final boolean enabled;
+    private final boolean exposeHeaders;
+    private final int nPlusOneThreshold;
+
+    public QueryStatsFilter(
+            ObjectProvider<MeterRegistry> meterRegistry,
+            @Value("${trails.diagnostics.query-stats.enabled:true}") boolean enabled,
+            @Value("${trails.diagnostics.query-headers:false}") boolean exposeHeaders,
+            @Value("${trails.diagnostics.n-plus-one-threshold:10}") int nPlusOneThreshold
+    ) {
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.exposeHeaders = exposeHeaders;
+        this.nPlusOneThreshold = Math.max(2, nPlusOneThreshold);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (!enabled) {
+            chain.doFilter(request, response);
+            return;
+        }
+        QueryStats stats = QueryStats.open();
+        HeaderWritingResponse headerWriting = exposeHeaders ? new HeaderWritingResponse(response, stats) : null;
+        try {
+            chain.doFilter(request, headerWriting != null ? headerWriting : response);
+            if (headerWriting != null) {
+                headerWriting.writeHeaders();
+            }
+        } finally {
+            stats.close();
+            report(request, stats);
+        }
+    }
+
+    private void report(HttpServletRequest request, QueryStats stats) {
+        if (stats.statements() == 0) {
+            return;
+        }
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+        stats.mostRepeated()
+                .filter(entry -> entry.getValue() >= nPlusOneThreshold)
+                .ifPresent(entry -> log.warn("Possible N+1 in {} {}: {} of {} statements were {}",
+                        request.getMethod(), uri, entry.getValue(), stats.statements(), entry.getKey()));
+
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        if (registry == null) {
+            return;
+        }
+        Tags tags = Tags.of("method", request.getMethod(), "uri", uri);
+        DistributionSummary.builder("trails.http.sql.statements").tags(tags).register(registry)
+                .record(stats.statements());
+        DistributionSummary.builder("trails.http.sql.rows").tags(tags).register(registry)
+                .record(stats.rows());
+        Timer.builder("trails.http.sql.time").tags(tags).register(registry)
+                .record(stats.jdbcNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    private static final class HeaderWritingResponse extends HttpServletResponseWrapper {
+        private final QueryStats stats;
+        private boolean written;
+
+        HeaderWritingResponse(HttpServletResponse response, QueryStats stats) {
+            super(response);
+            this.stats = stats;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            writeHeaders();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            writeHeaders();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            writeHeaders();
+            super.flushBuffer();
+        }
+
+        void writeHeaders() {
+            if (written || isCommitted()) {
+                return;
+            }
+            written = true;
+            setHeader(STATEMENTS_HEADER, Long.toString(stats.statements()));
+            setHeader(ROWS_HEADER, Long.toString(stats.rows()));
+            setHeader(TIME_HEADER, String.format(Locale.ROOT, "%.3f", stats.jdbcNanos() / 1_000_000.0));
+        }
+    }
+}
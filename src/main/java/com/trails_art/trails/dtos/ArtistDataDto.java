@@ -1,5 +1,8 @@
 package com.trails_art.trails.dtos;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public record ArtistDataDto(
         String name,
         ImageDto image,
@@ -1,7 +1,11 @@
 package com.trails_art.trails.dtos;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import java.util.List;
 
+// fields left out by ?fields= stay null and are omitted, as are nested collections that were not asked for
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public record ArtistExportDto(
         String id,
         String name,
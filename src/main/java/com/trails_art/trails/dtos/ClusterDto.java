@@ -0,0 +1,8 @@
+package com.trails_art.trails.dtos;
+
+public record ClusterDto(
+        int count,
+        double latitude,
+        double longitude,
+        String representative_id
+) { }
@@ -0,0 +1,72 @@
+package com.trails_art.trails.dtos;
+
+import com.trails_art.trails.storage.BlobDescriptor;
+
+import java.nio.ByteBuffer;
+import java.util.Base64;
+
+/**
+ * The bytes carried by {@link ImageDto#data()}. Request bodies are decoded by ImageDataDeserializer
+ * straight into the blob store while the JSON is parsed, so services receive a spooled handle rather
+ * than the Base64 text and a decoded copy of it. Responses hold the bytes in memory and
+ * ImageDataSerializer encodes them to Base64 as they are written.
+ */
+public final class ImageData {
+
+    private final BlobDescriptor blob;
+    private final String base64;
+    private ByteBuffer bytes;
+
+    private ImageData(BlobDescriptor blob, String base64, ByteBuffer bytes) {
+        this.blob = blob;
+        this.base64 = base64;
+        this.bytes = bytes;
+    }
+
+    public static ImageData spooled(BlobDescriptor blob) {
+        return new ImageData(blob, null, null);
+    }
+
+    public static ImageData of(byte[] bytes) {
+        return new ImageData(null, null, ByteBuffer.wrap(bytes));
+    }
+
+    public static ImageData of(ByteBuffer bytes) {
+        return new ImageData(null, null, bytes.asReadOnlyBuffer());
+    }
+
+    // decoded on first access, so malformed text surfaces where the DTO is mapped
+    public static ImageData fromBase64(String base64) {
+        return base64 == null ? null : new ImageData(null, base64, null);
+    }
+
+    public boolean isSpooled() {
+        return blob != null;
+    }
+
+    // set for spooled data, the content already sits in the blob store under this hash
+    public BlobDescriptor blob() {
+        return blob;
+    }
+
+    public long size() {
+        return blob != null ? blob.size() : buffer().remaining();
+    }
+
+    public ByteBuffer buffer() {
+        if (blob != null) {
+            throw new IllegalStateException("Spooled image data has no in-memory buffer");
+        }
+        if (bytes == null) {
+            bytes = ByteBuffer.wrap(Base64.getDecoder().decode(base64));
+        }
+        return bytes.duplicate();
+    }
+
+    public byte[] toByteArray() {
+        ByteBuffer view = buffer();
+        byte[] copy = new byte[view.remaining()];
+        view.get(copy);
+        return copy;
+    }
+}
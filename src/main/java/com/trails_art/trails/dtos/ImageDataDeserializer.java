@@ -0,0 +1,44 @@
+package com.trails_art.trails.dtos;
+
+import com.fasterxml.jackson.core.Base64Variant;
+import com.fasterxml.jackson.core.Base64Variants;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.trails_art.trails.storage.BlobStore;
+import org.springframework.boot.jackson.JsonComponent;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+// readBinaryValue decodes the Base64 token in chunks as it is read, so the full string never exists on the heap
+@JsonComponent
+public class ImageDataDeserializer extends JsonDeserializer<ImageData> {
+
+    // lenient about padding, like the java.util.Base64 decoder this replaces
+    private static final Base64Variant BASE64 =
+            Base64Variants.MIME_NO_LINEFEEDS.withReadPadding(Base64Variant.PaddingReadBehaviour.PADDING_ALLOWED);
+
+    private final BlobStore blobStore;
+
+    public ImageDataDeserializer(BlobStore blobStore) {
+        this.blobStore = blobStore;
+    }
+
+    @Override
+    public ImageData deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+        if (parser.currentToken() != JsonToken.VALUE_STRING) {
+            return (ImageData) context.handleUnexpectedToken(ImageData.class, parser);
+        }
+        try {
+            return ImageData.spooled(blobStore.put(out -> parser.readBinaryValue(BASE64, out)));
+        } catch (UncheckedIOException e) {
+            if (e.getCause() instanceof JsonProcessingException malformed) {
+                throw malformed;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.trails_art.trails.dtos;
+
+import com.fasterxml.jackson.core.Base64Variants;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.trails_art.trails.storage.BlobStore;
+import com.trails_art.trails.storage.ByteBufferResource;
+import org.springframework.boot.jackson.JsonComponent;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+// encodes to Base64 while writing, from the blob store for spooled data and from the buffer otherwise
+@JsonComponent
+public class ImageDataSerializer extends JsonSerializer<ImageData> {
+
+    private final BlobStore blobStore;
+
+    public ImageDataSerializer(BlobStore blobStore) {
+        this.blobStore = blobStore;
+    }
+
+    @Override
+    public void serialize(ImageData data, JsonGenerator generator, SerializerProvider provider) throws IOException {
+        try (InputStream in = data.isSpooled()
+                ? blobStore.open(data.blob().hash())
+                : new ByteBufferResource(data.buffer(), "image data").getInputStream()) {
+            generator.writeBinary(Base64Variants.MIME_NO_LINEFEEDS, in, (int) data.size());
+        }
+    }
+}
@@ -1,12 +1,22 @@
 package com.trails_art.trails.dtos;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 
+// data is set for inline images; size, content_hash and url are set for references
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public record ImageDto(
         String id,
         @NotNull(message = "Can't be null")
         @NotBlank(message = "Need to have minimum 1 non-white space character")
         String mimetype,
-        String data
-) { }
+        ImageData data,
+        Long size,
+        String content_hash,
+        String url
+) {
+    public ImageDto(String id, String mimetype, String base64Data) {
+        this(id, mimetype, ImageData.fromBase64(base64Data), null, null, null);
+    }
+}
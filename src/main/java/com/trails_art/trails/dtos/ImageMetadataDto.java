@@ -0,0 +1,15 @@
+package com.trails_art.trails.dtos;
+
+import java.time.Instant;
+
+public record ImageMetadataDto(
+        String id,
+        String mimetype,
+        Long size,
+        Integer width,
+        Integer height,
+        String content_hash,
+        Instant created_at,
+        String url
+) {
+}
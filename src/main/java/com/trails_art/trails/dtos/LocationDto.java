@@ -10,5 +10,7 @@ public record LocationDto(
         String name,
         @NotNull(message = "Can't be null")
         @NotBlank(message = "Need to have minimum 1 non-white space character")
-        String map_address
+        String map_address,
+        Double latitude,
+        Double longitude
 ) { }
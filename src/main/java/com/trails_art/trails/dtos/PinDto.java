@@ -0,0 +1,9 @@
+package com.trails_art.trails.dtos;
+
+public record PinDto(
+        String id,
+        String name,
+        double latitude,
+        double longitude,
+        long distance_meters
+) { }
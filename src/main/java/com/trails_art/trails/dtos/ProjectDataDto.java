@@ -1,5 +1,8 @@
 package com.trails_art.trails.dtos;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public record ProjectDataDto(
         String name,
         LocationDto location,
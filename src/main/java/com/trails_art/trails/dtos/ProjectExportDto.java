@@ -1,8 +1,11 @@
 package com.trails_art.trails.dtos;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import java.time.LocalDateTime;
 import java.util.List;
 
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public record ProjectExportDto(
         String id,
         String name,
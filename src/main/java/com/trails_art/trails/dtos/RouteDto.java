@@ -0,0 +1,8 @@
+package com.trails_art.trails.dtos;
+
+import java.util.List;
+
+public record RouteDto(
+        List<PinDto> stops,
+        long total_meters
+) { }
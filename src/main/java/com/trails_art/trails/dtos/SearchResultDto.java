@@ -0,0 +1,8 @@
+package com.trails_art.trails.dtos;
+
+public record SearchResultDto(
+        String type,
+        String id,
+        String name,
+        double score
+) { }
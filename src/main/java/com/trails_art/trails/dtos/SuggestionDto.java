@@ -0,0 +1,7 @@
+package com.trails_art.trails.dtos;
+
+public record SuggestionDto(
+        String type,
+        String id,
+        String name
+) { }
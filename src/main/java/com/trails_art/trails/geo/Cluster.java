@@ -0,0 +1,6 @@
+package com.trails_art.trails.geo;
+
+import java.util.UUID;
+
+// count pins around a centroid; a single pin is a cluster of one whose representative is the pin itself
+public record Cluster(double latitude, double longitude, int count, UUID representativeId) { }
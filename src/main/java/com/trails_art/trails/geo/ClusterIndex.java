@@ -0,0 +1,84 @@
+package com.trails_art.trails.geo;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Precomputed map clusters of projects and of events for {@code /api/map/clusters}, one
+ * {@link ClusterTree} per type. Lookups read the current tree; a scheduled refresh rebuilds the tree
+ * of a type from the pins in {@link GeoIndex} once they have changed, and swaps it in.
+ */
+@Slf4j
+@Component
+public class ClusterIndex {
+
+    private final GeoIndex geoIndex;
+    private final int minZoom;
+    private final int maxZoom;
+    private final double radius;
+    private final int extent;
+
+    private final Map<PinType, ClusterTree> trees = new EnumMap<>(PinType.class);
+    private final Map<PinType, Long> builtVersions = new EnumMap<>(PinType.class);
+
+    public ClusterIndex(GeoIndex geoIndex,
+                        @Value("${trails.map.min-zoom:0}") int minZoom,
+                        @Value("${trails.map.max-zoom:16}") int maxZoom,
+                        @Value("${trails.map.cluster-radius:40}") double radius,
+                        @Value("${trails.map.extent:512}") int extent) {
+        if (minZoom < 0 || maxZoom < minZoom || maxZoom > 30) {
+            throw new IllegalArgumentException("trails.map zoom levels must satisfy 0 <= min-zoom <= max-zoom <= 30.");
+        }
+        this.geoIndex = geoIndex;
+        this.minZoom = minZoom;
+        this.maxZoom = maxZoom;
+        this.radius = radius;
+        this.extent = Math.max(1, extent);
+        for (PinType type : PinType.values()) {
+            trees.put(type, ClusterTree.EMPTY);
+        }
+    }
+
+    // clusters at zoom z whose centroid is in the box; west greater than east crosses the antimeridian
+    public List<Cluster> clusters(PinType type, int zoom, double west, double south, double east, double north) {
+        if (zoom < 0) {
+            throw new IllegalArgumentException("z must not be negative.");
+        }
+        if (!(south >= -90 && north <= 90 && south <= north)) {
+            throw new IllegalArgumentException("bbox latitudes must be between -90 and 90 with south not above north.");
+        }
+        if (!(west >= -180 && west <= 180 && east >= -180 && east <= 180)) {
+            throw new IllegalArgumentException("bbox longitudes must be between -180 and 180.");
+        }
+        ClusterTree tree;
+        synchronized (trees) {
+            tree = trees.get(type);
+        }
+        return tree.clusters(zoom, west, south, east, north);
+    }
+
+    // with no initial delay the first run happens at startup
+    @Scheduled(fixedDelayString = "${trails.map.refresh-interval:PT2S}")
+    public synchronized void refresh() {
+        for (PinType type : PinType.values()) {
+            long version = geoIndex.version(type);
+            if (builtVersions.get(type) != null && builtVersions.get(type) == version) {
+                continue;
+            }
+            long start = System.nanoTime();
+            List<Pin> pins = geoIndex.pins(type);
+            ClusterTree tree = ClusterTree.build(pins, minZoom, maxZoom, radius, extent);
+            synchronized (trees) {
+                trees.put(type, tree);
+            }
+            builtVersions.put(type, version);
+            log.debug("Clustered {} {} pins in {} ms", pins.size(), type, (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.trails_art.trails.geo;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Clusters of pins for every zoom level, built the way supercluster does: pins are projected to
+ * Web Mercator, and going down from {@code maxZoom}, each cluster of the level above absorbs the
+ * not yet taken clusters within {@code radius} pixels of it (out of a tile {@code extent} pixels wide)
+ * into a count-weighted centroid. A cluster is represented by the pin representing its largest part.
+ * Above {@code maxZoom} the pins are returned as they are. Immutable once built.
+ */
+final class ClusterTree {
+
+    static final ClusterTree EMPTY = build(List.of(), 0, 0, 1, 1);
+
+    private record Level(double[] xs, double[] ys, int[] counts, UUID[] representatives, KdIndex index) { }
+
+    private final int minZoom;
+    private final int maxZoom;
+    private final Level[] levels;
+
+    private ClusterTree(int minZoom, int maxZoom, Level[] levels) {
+        this.minZoom = minZoom;
+        this.maxZoom = maxZoom;
+        this.levels = levels;
+    }
+
+    static ClusterTree build(List<Pin> pins, int minZoom, int maxZoom, double radius, int extent) {
+        List<Pin> sorted = new ArrayList<>(pins);
+        sorted.sort(Comparator.comparing(Pin::id));
+        int n = sorted.size();
+        double[] xs = new double[n];
+        double[] ys = new double[n];
+        int[] counts = new int[n];
+        UUID[] representatives = new UUID[n];
+        for (int i = 0; i < n; i++) {
+            Pin pin = sorted.get(i);
+            xs[i] = x(pin.longitude());
+            ys[i] = y(pin.latitude());
+            counts[i] = 1;
+            representatives[i] = pin.id();
+        }
+        Level[] levels = new Level[maxZoom + 2];
+        levels[maxZoom + 1] = new Level(xs, ys, counts, representatives, new KdIndex(xs, ys));
+        for (int z = maxZoom; z >= minZoom; z--) {
+            levels[z] = cluster(levels[z + 1], radius / (extent * Math.pow(2, z)));
+        }
+        return new ClusterTree(minZoom, maxZoom, levels);
+    }
+
+    // clusters at the zoom, clamped to the built range, whose centroid is inside the box
+    List<Cluster> clusters(int zoom, double west, double south, double east, double north) {
+        Level level = levels[Math.max(minZoom, Math.min(maxZoom + 1, zoom))];
+        double minY = y(north);
+        double maxY = y(south);
+        List<Cluster> clusters = new ArrayList<>();
+        if (east - west >= 360) {
+            level.index().range(0, minY, 1, maxY, i -> clusters.add(cluster(level, i)));
+        } else if (west > east) {
+            level.index().range(x(west), minY, 1, maxY, i -> clusters.add(cluster(level, i)));
+            level.index().range(0, minY, x(east), maxY, i -> clusters.add(cluster(level, i)));
+        } else {
+            level.index().range(x(west), minY, x(east), maxY, i -> clusters.add(cluster(level, i)));
+        }
+        return clusters;
+    }
+
+    private static Level cluster(Level below, double radius) {
+        int n = below.xs().length;
+        boolean[] taken = new boolean[n];
+        int[] members = new int[Math.max(1, n)];
+        double[] xs = new double[n];
+        double[] ys = new double[n];
+        int[] counts = new int[n];
+        UUID[] representatives = new UUID[n];
+        int size = 0;
+        for (int i = 0; i < n; i++) {
+            if (taken[i]) {
+                continue;
+            }
+            int[] found = {0};
+            below.index().within(below.xs()[i], below.ys()[i], radius, j -> {
+                if (!taken[j]) {
+                    taken[j] = true;
+                    members[found[0]++] = j;
+                }
+            });
+            double x = 0;
+            double y = 0;
+            int count = 0;
+            int largest = i;
+            for (int k = 0; k < found[0]; k++) {
+                int j = members[k];
+                int c = below.counts()[j];
+                x += below.xs()[j] * c;
+                y += below.ys()[j] * c;
+                count += c;
+                if (c > below.counts()[largest]) {
+                    largest = j;
+                }
+            }
+            xs[size] = x / count;
+            ys[size] = y / count;
+            counts[size] = count;
+            representatives[size] = below.representatives()[largest];
+            size++;
+        }
+        xs = Arrays.copyOf(xs, size);
+        ys = Arrays.copyOf(ys, size);
+        return new Level(xs, ys, Arrays.copyOf(counts, size), Arrays.copyOf(representatives, size), new KdIndex(xs, ys));
+    }
+
+    private static Cluster cluster(Level level, int i) {
+        return new Cluster(latitude(level.ys()[i]), longitude(level.xs()[i]), level.counts()[i], level.representatives()[i]);
+    }
+
+    // Web Mercator, scaled to 0..1 from west to east and from north to south
+    static double x(double longitude) {
+        return longitude / 360 + 0.5;
+    }
+
+    static double y(double latitude) {
+        double sin = Math.sin(Math.toRadians(latitude));
+        double y = 0.5 - 0.25 * Math.log((1 + sin) / (1 - sin)) / Math.PI;
+        return Math.max(0, Math.min(1, y));
+    }
+
+    static double longitude(double x) {
+        return (x - 0.5) * 360;
+    }
+
+    static double latitude(double y) {
+        return Math.toDegrees(Math.atan(Math.sinh(Math.PI * (1 - 2 * y))));
+    }
+}
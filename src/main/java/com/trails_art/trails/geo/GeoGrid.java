@@ -0,0 +1,265 @@
+package com.trails_art.trails.geo;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Projects and events bucketed by the latitude/longitude cell of their location. Items refer to a
+ * location by id, so moving a location moves every item at it, and an item whose location has no
+ * coordinates is kept but not placed. A query visits only the cells overlapping its box, or scans the
+ * occupied cells when the box covers more cells than are occupied.
+ */
+final class GeoGrid {
+
+    static final double EARTH_RADIUS_METERS = 6_371_008.8;
+    private static final double METERS_PER_DEGREE = Math.toRadians(1) * EARTH_RADIUS_METERS;
+
+    private record Key(PinType type, UUID id) { }
+
+    private record Item(Key key, String name, UUID locationId) { }
+
+    private record Point(double latitude, double longitude) { }
+
+    private final double cellDegrees;
+    private final int columns;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<UUID, Point> locations = new HashMap<>();
+    private final Map<Key, Item> items = new HashMap<>();
+    private final Map<UUID, Set<Key>> itemsByLocation = new HashMap<>();
+    private final Map<Long, Set<Key>> cells = new HashMap<>();
+    private final long[] versions = new long[PinType.values().length];
+
+    GeoGrid(double cellDegrees) {
+        this.cellDegrees = cellDegrees;
+        this.columns = (int) Math.ceil(360 / cellDegrees);
+    }
+
+    // null coordinates take the location's items off the map
+    void putLocation(UUID id, Double latitude, Double longitude) {
+        lock.writeLock().lock();
+        try {
+            Set<Key> at = itemsByLocation.getOrDefault(id, Set.of());
+            Point old = locations.remove(id);
+            if (old != null) {
+                at.forEach(key -> uncell(old, key));
+            }
+            if (latitude != null && longitude != null) {
+                Point point = new Point(latitude, longitude);
+                locations.put(id, point);
+                at.forEach(key -> cell(point).add(key));
+            }
+            at.forEach(key -> versions[key.type().ordinal()]++);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void putItem(PinType type, UUID id, String name, UUID locationId) {
+        Item item = new Item(new Key(type, id), name, locationId);
+        lock.writeLock().lock();
+        try {
+            removeLocked(item.key());
+            items.put(item.key(), item);
+            if (locationId != null) {
+                itemsByLocation.computeIfAbsent(locationId, l -> new HashSet<>()).add(item.key());
+                Point point = locations.get(locationId);
+                if (point != null) {
+                    cell(point).add(item.key());
+                }
+            }
+            versions[type.ordinal()]++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void removeItem(PinType type, UUID id) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(new Key(type, id));
+            versions[type.ordinal()]++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // within radius of the center, nearest first
+    List<Pin> near(PinType type, double latitude, double longitude, double radiusMeters, int limit) {
+        double latitudeSpan = radiusMeters / METERS_PER_DEGREE;
+        double cos = Math.cos(Math.toRadians(latitude));
+        double longitudeSpan = cos < 1e-9 ? 360 : latitudeSpan / cos;
+        double south = Math.max(-90, latitude - latitudeSpan);
+        double north = Math.min(90, latitude + latitudeSpan);
+        double west = longitudeSpan >= 180 ? -180 : wrap(longitude - longitudeSpan);
+        double east = longitudeSpan >= 180 ? 180 : wrap(longitude + longitudeSpan);
+        return collect(type, south, west, north, east, latitude, longitude, radiusMeters, limit);
+    }
+
+    // inside the box, nearest to its center first; west greater than east crosses the antimeridian
+    List<Pin> within(PinType type, double south, double west, double north, double east, int limit) {
+        double centerLongitude = west <= east ? (west + east) / 2 : wrap((west + east + 360) / 2);
+        return collect(type, south, west, north, east, (south + north) / 2, centerLongitude,
+                Double.POSITIVE_INFINITY, limit);
+    }
+
+    // changes whenever a pin of the type is added, moved or removed
+    long version(PinType type) {
+        lock.readLock().lock();
+        try {
+            return versions[type.ordinal()];
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // the pin if it exists and its location has coordinates
+    Optional<Pin> locate(PinType type, UUID id) {
+        lock.readLock().lock();
+        try {
+            Item item = items.get(new Key(type, id));
+            Point point = item == null || item.locationId() == null ? null : locations.get(item.locationId());
+            return point == null ? Optional.empty()
+                    : Optional.of(new Pin(type, id, item.name(), point.latitude(), point.longitude(), 0));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    boolean contains(PinType type, UUID id) {
+        lock.readLock().lock();
+        try {
+            return items.containsKey(new Key(type, id));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // every placed pin of the type, with no distance
+    List<Pin> pins(PinType type) {
+        List<Pin> pins = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            for (Item item : items.values()) {
+                Point point = item.locationId() == null ? null : locations.get(item.locationId());
+                if (item.key().type() == type && point != null) {
+                    pins.add(new Pin(type, item.key().id(), item.name(), point.latitude(), point.longitude(), 0));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return pins;
+    }
+
+    static double distanceMeters(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_METERS * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    private List<Pin> collect(PinType type, double south, double west, double north, double east,
+                              double fromLatitude, double fromLongitude, double maxMeters, int limit) {
+        int firstRow = row(south);
+        int lastRow = row(north);
+        int firstColumn = column(west);
+        int lastColumn = column(east);
+        boolean wraps = west > east;
+        long columnCount = wraps ? columns - firstColumn + lastColumn + 1 : lastColumn - firstColumn + 1;
+        List<Pin> pins = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            if ((long) (lastRow - firstRow + 1) * columnCount > cells.size()) {
+                cells.values().forEach(keys -> keys.forEach(key -> consider(key, type, south, west, north, east,
+                        fromLatitude, fromLongitude, maxMeters, pins)));
+            } else {
+                for (int row = firstRow; row <= lastRow; row++) {
+                    for (long i = 0; i < columnCount; i++) {
+                        int column = (int) ((firstColumn + i) % columns);
+                        Set<Key> keys = cells.get((long) row * columns + column);
+                        if (keys != null) {
+                            keys.forEach(key -> consider(key, type, south, west, north, east,
+                                    fromLatitude, fromLongitude, maxMeters, pins));
+                        }
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        pins.sort(Comparator.comparingDouble(Pin::distanceMeters).thenComparing(Pin::id));
+        return pins.size() > limit ? pins.subList(0, limit) : pins;
+    }
+
+    private void consider(Key key, PinType type, double south, double west, double north, double east,
+                          double fromLatitude, double fromLongitude, double maxMeters, List<Pin> pins) {
+        if (key.type() != type) {
+            return;
+        }
+        Item item = items.get(key);
+        Point point = locations.get(item.locationId());
+        boolean inLongitude = west <= east
+                ? point.longitude() >= west && point.longitude() <= east
+                : point.longitude() >= west || point.longitude() <= east;
+        if (point.latitude() < south || point.latitude() > north || !inLongitude) {
+            return;
+        }
+        double distance = distanceMeters(fromLatitude, fromLongitude, point.latitude(), point.longitude());
+        if (distance <= maxMeters) {
+            pins.add(new Pin(type, key.id(), item.name(), point.latitude(), point.longitude(), distance));
+        }
+    }
+
+    private void removeLocked(Key key) {
+        Item item = items.remove(key);
+        if (item == null || item.locationId() == null) {
+            return;
+        }
+        Set<Key> at = itemsByLocation.get(item.locationId());
+        at.remove(key);
+        if (at.isEmpty()) {
+            itemsByLocation.remove(item.locationId());
+        }
+        Point point = locations.get(item.locationId());
+        if (point != null) {
+            uncell(point, key);
+        }
+    }
+
+    private Set<Key> cell(Point point) {
+        return cells.computeIfAbsent(cellOf(point), c -> new HashSet<>());
+    }
+
+    private void uncell(Point point, Key key) {
+        long cell = cellOf(point);
+        Set<Key> keys = cells.get(cell);
+        if (keys != null && keys.remove(key) && keys.isEmpty()) {
+            cells.remove(cell);
+        }
+    }
+
+    private long cellOf(Point point) {
+        return (long) row(point.latitude()) * columns + column(point.longitude());
+    }
+
+    private int row(double latitude) {
+        return (int) Math.floor((latitude + 90) / cellDegrees);
+    }
+
+    private int column(double longitude) {
+        return Math.min(columns - 1, (int) Math.floor((longitude + 180) / cellDegrees));
+    }
+
+    private static double wrap(double longitude) {
+        return ((longitude + 180) % 360 + 360) % 360 - 180;
+    }
+}
@@ -0,0 +1,137 @@
+package com.trails_art.trails.geo;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Where projects and events are, for the map. Loaded from the database at startup and then kept up
+ * to date by {@link GeoIndexListener}, so {@link #near} and {@link #within} never query the database.
+ * Writes by other nodes or straight to the database are picked up on the next restart.
+ */
+@Slf4j
+@Component
+public class GeoIndex implements ApplicationRunner {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final GeoGrid grid;
+    private final double maxRadiusMeters;
+    private final int maxResults;
+
+    public GeoIndex(JdbcTemplate jdbcTemplate,
+                    @Value("${trails.geo.cell-degrees:0.1}") double cellDegrees,
+                    @Value("${trails.geo.max-radius:50000}") double maxRadiusMeters,
+                    @Value("${trails.geo.max-results:500}") int maxResults) {
+        if (!(cellDegrees > 0 && cellDegrees <= 180)) {
+            throw new IllegalArgumentException("trails.geo.cell-degrees must be between 0 and 180.");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.grid = new GeoGrid(cellDegrees);
+        this.maxRadiusMeters = maxRadiusMeters;
+        this.maxResults = Math.max(1, maxResults);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        long start = System.nanoTime();
+        jdbcTemplate.query("select id, latitude, longitude from locations where latitude is not null and longitude is not null",
+                (RowCallbackHandler) rs -> grid.putLocation(rs.getObject(1, UUID.class), rs.getDouble(2), rs.getDouble(3)));
+        int projects = load(PinType.PROJECT, "select id, name, location_id from projects");
+        int events = load(PinType.EVENT, "select id, name, location_id from events");
+        log.info("Placed {} projects and {} events on the map in {} ms",
+                projects, events, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    // within radius meters of the point, nearest first
+    public List<Pin> near(PinType type, double latitude, double longitude, double radius, Integer limit) {
+        checkLatitude(latitude);
+        checkLongitude(longitude);
+        if (!(radius > 0 && radius <= maxRadiusMeters)) {
+            throw new IllegalArgumentException("radius must be greater than 0 and at most " + (long) maxRadiusMeters + " meters.");
+        }
+        return grid.near(type, latitude, longitude, radius, limit(limit));
+    }
+
+    // inside the box, nearest to its center first; a box with west east of east crosses the antimeridian
+    public List<Pin> within(PinType type, double south, double west, double north, double east, Integer limit) {
+        checkLatitude(south);
+        checkLatitude(north);
+        checkLongitude(west);
+        checkLongitude(east);
+        if (south > north) {
+            throw new IllegalArgumentException("south must not be greater than north.");
+        }
+        return grid.within(type, south, west, north, east, limit(limit));
+    }
+
+    public long version(PinType type) {
+        return grid.version(type);
+    }
+
+    public List<Pin> pins(PinType type) {
+        return grid.pins(type);
+    }
+
+    public Optional<Pin> locate(PinType type, UUID id) {
+        return grid.locate(type, id);
+    }
+
+    public boolean contains(PinType type, UUID id) {
+        return grid.contains(type, id);
+    }
+
+    void putLocation(UUID id, Double latitude, Double longitude) {
+        grid.putLocation(id, latitude, longitude);
+    }
+
+    void removeLocation(UUID id) {
+        grid.putLocation(id, null, null);
+    }
+
+    void put(PinType type, UUID id, String name, UUID locationId) {
+        grid.putItem(type, id, name, locationId);
+    }
+
+    public void remove(PinType type, UUID id) {
+        grid.removeItem(type, id);
+    }
+
+    private int load(PinType type, String sql) {
+        int[] count = {0};
+        jdbcTemplate.query(sql, rs -> {
+            grid.putItem(type, rs.getObject(1, UUID.class), rs.getString(2), rs.getObject(3, UUID.class));
+            count[0]++;
+        });
+        return count[0];
+    }
+
+    private int limit(Integer limit) {
+        if (limit == null) {
+            return maxResults;
+        }
+        if (limit < 1) {
+            throw new IllegalArgumentException("limit must be at least 1.");
+        }
+        return Math.min(limit, maxResults);
+    }
+
+    private static void checkLatitude(double latitude) {
+        if (!(latitude >= -90 && latitude <= 90)) {
+            throw new IllegalArgumentException("Latitude must be between -90 and 90.");
+        }
+    }
+
+    private static void checkLongitude(double longitude) {
+        if (!(longitude >= -180 && longitude <= 180)) {
+            throw new IllegalArgumentException("Longitude must be between -180 and 180.");
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.trails_art.trails.geo;
+
+import com.trails_art.trails.models.Event;
+import com.trails_art.trails.models.Location;
+import com.trails_art.trails.models.Project;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Applies committed writes to Location, Project and Event rows to the {@link GeoIndex}.
+ * <p>
+ * Instantiated by Hibernate through Spring's bean container.
+ */
+public class GeoIndexListener {
+
+    private final ObjectProvider<GeoIndex> geoIndex;
+
+    public GeoIndexListener(ObjectProvider<GeoIndex> geoIndex) {
+        this.geoIndex = geoIndex;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void onSaved(Object entity) {
+        Consumer<GeoIndex> update = switch (entity) {
+            case Location location -> index -> index.putLocation(location.getId(), location.getLatitude(), location.getLongitude());
+            case Project project -> {
+                UUID locationId = locationId(project.getLocation());
+                yield index -> index.put(PinType.PROJECT, project.getId(), project.getName(), locationId);
+            }
+            case Event event -> {
+                UUID locationId = locationId(event.getLocation());
+                yield index -> index.put(PinType.EVENT, event.getId(), event.getName(), locationId);
+            }
+            default -> null;
+        };
+        afterCommit(update);
+    }
+
+    @PostRemove
+    public void onRemoved(Object entity) {
+        Consumer<GeoIndex> update = switch (entity) {
+            case Location location -> index -> index.removeLocation(location.getId());
+            case Project project -> index -> index.remove(PinType.PROJECT, project.getId());
+            case Event event -> index -> index.remove(PinType.EVENT, event.getId());
+            default -> null;
+        };
+        afterCommit(update);
+    }
+
+    // read now, while the entity is still attached; getId() does not initialize a lazy proxy
+    private static UUID locationId(Location location) {
+        return location == null ? null : location.getId();
+    }
+
+    private void afterCommit(Consumer<GeoIndex> change) {
+        if (change == null) {
+            return;
+        }
+        Runnable update = () -> geoIndex.ifAvailable(change);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            update.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                update.run();
+            }
+        });
+    }
+}
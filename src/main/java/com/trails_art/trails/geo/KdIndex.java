@@ -0,0 +1,138 @@
+package com.trails_art.trails.geo;
+
+import java.util.function.IntConsumer;
+
+/**
+ * A static 2-d tree over points given by index, flattened into arrays: each range is split at its
+ * median on alternating axes until it holds at most {@code NODE_SIZE} points, which are then scanned.
+ */
+final class KdIndex {
+
+    private static final int NODE_SIZE = 64;
+
+    private final int[] ids;
+    private final double[] coords;
+
+    KdIndex(double[] xs, double[] ys) {
+        int n = xs.length;
+        ids = new int[n];
+        coords = new double[2 * n];
+        for (int i = 0; i < n; i++) {
+            ids[i] = i;
+            coords[2 * i] = xs[i];
+            coords[2 * i + 1] = ys[i];
+        }
+        sort(0, n - 1, 0);
+    }
+
+    // visits the index of every point inside the rectangle
+    void range(double minX, double minY, double maxX, double maxY, IntConsumer visitor) {
+        scan(minX, minY, maxX, maxY, i -> visitor.accept(ids[i]));
+    }
+
+    // visits the index of every point at most radius away
+    void within(double x, double y, double radius, IntConsumer visitor) {
+        double r2 = radius * radius;
+        scan(x - radius, y - radius, x + radius, y + radius, i -> {
+            double dx = coords[2 * i] - x;
+            double dy = coords[2 * i + 1] - y;
+            if (dx * dx + dy * dy <= r2) {
+                visitor.accept(ids[i]);
+            }
+        });
+    }
+
+    // visits array positions rather than indexes
+    private void scan(double minX, double minY, double maxX, double maxY, IntConsumer visitor) {
+        if (ids.length == 0) {
+            return;
+        }
+        int[] stack = new int[3 * 64];
+        int top = 0;
+        stack[top++] = 0;
+        stack[top++] = ids.length - 1;
+        stack[top++] = 0;
+        while (top > 0) {
+            int axis = stack[--top];
+            int right = stack[--top];
+            int left = stack[--top];
+            if (right - left <= NODE_SIZE) {
+                for (int i = left; i <= right; i++) {
+                    if (inside(i, minX, minY, maxX, maxY)) {
+                        visitor.accept(i);
+                    }
+                }
+                continue;
+            }
+            int m = (left + right) >>> 1;
+            if (inside(m, minX, minY, maxX, maxY)) {
+                visitor.accept(m);
+            }
+            double value = coords[2 * m + axis];
+            if ((axis == 0 ? minX : minY) <= value) {
+                stack[top++] = left;
+                stack[top++] = m - 1;
+                stack[top++] = 1 - axis;
+            }
+            if ((axis == 0 ? maxX : maxY) >= value) {
+                stack[top++] = m + 1;
+                stack[top++] = right;
+                stack[top++] = 1 - axis;
+            }
+        }
+    }
+
+    private boolean inside(int i, double minX, double minY, double maxX, double maxY) {
+        double x = coords[2 * i];
+        double y = coords[2 * i + 1];
+        return x >= minX && x <= maxX && y >= minY && y <= maxY;
+    }
+
+    private void sort(int left, int right, int axis) {
+        if (right - left <= NODE_SIZE) {
+            return;
+        }
+        int m = (left + right) >>> 1;
+        select(m, left, right, axis);
+        sort(left, m - 1, 1 - axis);
+        sort(m + 1, right, 1 - axis);
+    }
+
+    // quickselect: afterwards the k-th smallest on the axis is at k, with smaller ones before it
+    private void select(int k, int left, int right, int axis) {
+        while (right > left) {
+            double pivot = coords[2 * ((left + right) >>> 1) + axis];
+            int i = left;
+            int j = right;
+            while (i <= j) {
+                while (coords[2 * i + axis] < pivot) {
+                    i++;
+                }
+                while (coords[2 * j + axis] > pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    swap(i++, j--);
+                }
+            }
+            if (k <= j) {
+                right = j;
+            } else if (k >= i) {
+                left = i;
+            } else {
+                return;
+            }
+        }
+    }
+
+    private void swap(int i, int j) {
+        int id = ids[i];
+        ids[i] = ids[j];
+        ids[j] = id;
+        for (int axis = 0; axis < 2; axis++) {
+            double c = coords[2 * i + axis];
+            coords[2 * i + axis] = coords[2 * j + axis];
+            coords[2 * j + axis] = c;
+        }
+    }
+}
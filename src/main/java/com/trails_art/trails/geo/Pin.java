@@ -0,0 +1,6 @@
+package com.trails_art.trails.geo;
+
+import java.util.UUID;
+
+// a project or event on the map, at the coordinates of its location
+public record Pin(PinType type, UUID id, String name, double latitude, double longitude, double distanceMeters) { }
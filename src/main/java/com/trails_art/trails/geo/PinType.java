@@ -0,0 +1,16 @@
+package com.trails_art.trails.geo;
+
+import java.util.Locale;
+
+public enum PinType {
+    PROJECT,
+    EVENT;
+
+    public static PinType from(String value) {
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown map type: " + value + ". Use project or event.");
+        }
+    }
+}
@@ -0,0 +1,6 @@
+package com.trails_art.trails.geo;
+
+import java.util.List;
+
+// stops in visiting order, each with its distance from the previous stop or the start
+public record Route(List<Pin> stops, double totalMeters) { }
@@ -0,0 +1,183 @@
+package com.trails_art.trails.geo;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.stream.IntStream;
+
+/**
+ * Orders stops into a short open path over a symmetric distance matrix. Each candidate path is built
+ * nearest-neighbour from a different first stop and then improved with 2-opt segment reversals and
+ * Or-opt moves of one to three stops until neither finds a gain; the shortest candidate wins. With a
+ * fixed start, node {@code n - 1} of the matrix is the start and stays first. Candidates are
+ * improved in parallel once there are {@code parallelThreshold} stops or more.
+ */
+final class RouteOptimizer {
+
+    private static final double EPSILON = 1e-7;
+    private static final int MAX_SEGMENT = 3;
+    private static final int MAX_PASSES = 1000;
+
+    private final double[][] distances;
+    private final int n;
+    private final boolean fixedStart;
+
+    RouteOptimizer(double[][] distances, boolean fixedStart) {
+        this.distances = distances;
+        this.n = distances.length;
+        this.fixedStart = fixedStart;
+    }
+
+    // node indexes in visiting order, the start included when fixed
+    int[] solve(int maxStarts, int parallelThreshold) {
+        int stops = fixedStart ? n - 1 : n;
+        if (stops == 1) {
+            return fixedStart ? new int[]{1, 0} : new int[]{0};
+        }
+        int[] firsts = firstStops(Math.max(1, Math.min(maxStarts, stops)));
+        IntStream candidates = IntStream.of(firsts);
+        if (stops >= parallelThreshold) {
+            candidates = candidates.parallel();
+        }
+        return candidates
+                .mapToObj(first -> improve(nearestNeighbour(first)))
+                .min(Comparator.comparingDouble(this::length).thenComparing(path -> path[fixedStart ? 1 : 0]))
+                .orElseThrow();
+    }
+
+    double length(int[] path) {
+        double length = 0;
+        for (int i = 1; i < path.length; i++) {
+            length += distances[path[i - 1]][path[i]];
+        }
+        return length;
+    }
+
+    // with a fixed start, the stops nearest to it; otherwise spread over all stops
+    private int[] firstStops(int count) {
+        int stops = fixedStart ? n - 1 : n;
+        if (fixedStart) {
+            return IntStream.range(0, stops).boxed()
+                    .sorted(Comparator.comparingDouble(i -> distances[n - 1][i]))
+                    .limit(count)
+                    .mapToInt(Integer::intValue)
+                    .toArray();
+        }
+        return IntStream.range(0, count).map(i -> (int) ((long) i * stops / count)).toArray();
+    }
+
+    private int[] nearestNeighbour(int first) {
+        int[] path = new int[n];
+        boolean[] visited = new boolean[n];
+        int at = 0;
+        if (fixedStart) {
+            path[at++] = n - 1;
+            visited[n - 1] = true;
+        }
+        path[at++] = first;
+        visited[first] = true;
+        while (at < n) {
+            int from = path[at - 1];
+            int next = -1;
+            for (int i = 0; i < n; i++) {
+                if (!visited[i] && (next < 0 || distances[from][i] < distances[from][next])) {
+                    next = i;
+                }
+            }
+            path[at++] = next;
+            visited[next] = true;
+        }
+        return path;
+    }
+
+    private int[] improve(int[] path) {
+        for (int pass = 0; pass < MAX_PASSES; pass++) {
+            boolean improved = twoOpt(path);
+            int[] moved = orOpt(path);
+            if (moved != null) {
+                path = moved;
+                improved = true;
+            }
+            if (!improved) {
+                break;
+            }
+        }
+        return path;
+    }
+
+    // reverses path[i..j] whenever that shortens the path; an open end costs nothing
+    private boolean twoOpt(int[] path) {
+        boolean improved = false;
+        int first = fixedStart ? 1 : 0;
+        for (int i = first; i < n - 1; i++) {
+            for (int j = i + 1; j < n; j++) {
+                int a = i > 0 ? path[i - 1] : -1;
+                int d = j < n - 1 ? path[j + 1] : -1;
+                double delta = edge(a, path[j]) + edge(path[i], d) - edge(a, path[i]) - edge(path[j], d);
+                if (delta < -EPSILON) {
+                    reverse(path, i, j);
+                    improved = true;
+                }
+            }
+        }
+        return improved;
+    }
+
+    // moves the first segment of up to three stops that is shorter elsewhere, possibly reversed
+    private int[] orOpt(int[] path) {
+        int first = fixedStart ? 1 : 0;
+        for (int length = 1; length <= MAX_SEGMENT; length++) {
+            for (int i = first; i + length <= n; i++) {
+                int end = i + length - 1;
+                int before = i > 0 ? path[i - 1] : -1;
+                int after = end < n - 1 ? path[end + 1] : -1;
+                double removed = edge(before, path[i]) + edge(path[end], after) - edge(before, after);
+                // gap g sits between path[g - 1] and path[g]
+                for (int g = first; g <= n; g++) {
+                    if (g >= i && g <= end + 1) {
+                        continue;
+                    }
+                    int left = g > 0 ? path[g - 1] : -1;
+                    int right = g < n ? path[g] : -1;
+                    double forward = edge(left, path[i]) + edge(path[end], right) - edge(left, right);
+                    double reversed = edge(left, path[end]) + edge(path[i], right) - edge(left, right);
+                    double added = Math.min(forward, reversed);
+                    if (added - removed < -EPSILON) {
+                        return move(path, i, end, g, reversed < forward);
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    private static int[] move(int[] path, int from, int to, int gap, boolean reversed) {
+        int[] segment = Arrays.copyOfRange(path, from, to + 1);
+        if (reversed) {
+            reverse(segment, 0, segment.length - 1);
+        }
+        int[] moved = new int[path.length];
+        int at = 0;
+        for (int k = 0; k <= path.length; k++) {
+            if (k == gap) {
+                System.arraycopy(segment, 0, moved, at, segment.length);
+                at += segment.length;
+            }
+            if (k < path.length && (k < from || k > to)) {
+                moved[at++] = path[k];
+            }
+        }
+        return moved;
+    }
+
+    private double edge(int a, int b) {
+        return a < 0 || b < 0 ? 0 : distances[a][b];
+    }
+
+    private static void reverse(int[] path, int i, int j) {
+        while (i < j) {
+            int t = path[i];
+            path[i++] = path[j];
+            path[j--] = t;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.trails_art.trails.geo;
+
+import com.trails_art.trails.exceptions.InvalidArgumentIdException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Walking order for {@code /api/trails/route}: the projects' coordinates come from {@link GeoIndex},
+ * distances are great-circle, and the order from {@link RouteOptimizer}. The route ends at the last
+ * stop rather than returning to the start.
+ */
+@Component
+public class RoutePlanner {
+
+    private final GeoIndex geoIndex;
+    private final int maxStops;
+    private final int maxStarts;
+    private final int parallelThreshold;
+
+    public RoutePlanner(GeoIndex geoIndex,
+                        @Value("${trails.route.max-stops:200}") int maxStops,
+                        @Value("${trails.route.max-starts:32}") int maxStarts,
+                        @Value("${trails.route.parallel-threshold:20}") int parallelThreshold) {
+        this.geoIndex = geoIndex;
+        this.maxStops = Math.max(1, maxStops);
+        this.maxStarts = Math.max(1, maxStarts);
+        this.parallelThreshold = parallelThreshold;
+    }
+
+    // start is null or a latitude/longitude pair
+    public Route plan(List<UUID> projectIds, double[] start) {
+        LinkedHashSet<UUID> unique = new LinkedHashSet<>(projectIds);
+        if (unique.isEmpty()) {
+            throw new IllegalArgumentException("projects must list at least one project.");
+        }
+        if (unique.size() > maxStops) {
+            throw new IllegalArgumentException("A route can have at most " + maxStops + " projects.");
+        }
+        if (start != null && !(start[0] >= -90 && start[0] <= 90 && start[1] >= -180 && start[1] <= 180)) {
+            throw new IllegalArgumentException("start must be a latitude between -90 and 90 and a longitude between -180 and 180.");
+        }
+        List<Pin> pins = new ArrayList<>(unique.size());
+        for (UUID id : unique) {
+            pins.add(geoIndex.locate(PinType.PROJECT, id).orElseThrow(() -> geoIndex.contains(PinType.PROJECT, id)
+                    ? new IllegalArgumentException("Project " + id + " has no coordinates.")
+                    : new InvalidArgumentIdException("Project not found: " + id + ".")));
+        }
+
+        int n = pins.size() + (start != null ? 1 : 0);
+        double[] latitudes = new double[n];
+        double[] longitudes = new double[n];
+        for (int i = 0; i < pins.size(); i++) {
+            latitudes[i] = pins.get(i).latitude();
+            longitudes[i] = pins.get(i).longitude();
+        }
+        if (start != null) {
+            latitudes[n - 1] = start[0];
+            longitudes[n - 1] = start[1];
+        }
+        double[][] distances = new double[n][n];
+        for (int i = 0; i < n; i++) {
+            for (int j = i + 1; j < n; j++) {
+                distances[i][j] = distances[j][i] = GeoGrid.distanceMeters(latitudes[i], longitudes[i], latitudes[j], longitudes[j]);
+            }
+        }
+
+        RouteOptimizer optimizer = new RouteOptimizer(distances, start != null);
+        int[] order = optimizer.solve(maxStarts, parallelThreshold);
+        List<Pin> stops = new ArrayList<>(pins.size());
+        for (int k = start != null ? 1 : 0; k < order.length; k++) {
+            Pin pin = pins.get(order[k]);
+            double leg = k == 0 ? 0 : distances[order[k - 1]][order[k]];
+            stops.add(new Pin(pin.type(), pin.id(), pin.name(), pin.latitude(), pin.longitude(), leg));
+        }
+        return new Route(stops, optimizer.length(order));
+    }
+}
@@ -3,18 +3,27 @@ package com.trails_art.trails.mappers;
 import com.trails_art.trails.dtos.ArtistDataDto;
 import com.trails_art.trails.dtos.ArtistExportDto;
 import com.trails_art.trails.dtos.ArtistImportDto;
-import com.trails_art.trails.dtos.ImageDto;
 import com.trails_art.trails.dtos.ProjectDataDto;
 import com.trails_art.trails.exceptions.InvalidDTOFormat;
 import com.trails_art.trails.models.Artist;
 import com.trails_art.trails.models.Image;
+import com.trails_art.trails.models.Project;
 import org.springframework.stereotype.Component;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Component
 public class ArtistMapper {
 
+    public static final Set<String> FIELDS =
+            Set.of("id", "name", "image", "description", "instagram_url", "projects");
+    public static final Set<String> PROJECT_FIELDS =
+            Set.of("name", "location", "image", "youtube_url", "created_on");
+
     public static Artist mapToArtist(ArtistDataDto dto) {
         Image image = ImageMapper.mapToImage(dto.image());
 
@@ -42,26 +51,55 @@ public class ArtistMapper {
     }
 
     public static ArtistExportDto mapToArtistDto(Artist artist) {
-        ImageDto imageDto = ImageMapper.mapToImageDto(artist.getImage());
+        return mapToArtistDto(artist, ImageMode.INLINE);
+    }
+
+    public static ArtistExportDto mapToArtistDto(Artist artist, ImageMode imageMode) {
+        return mapToArtistDto(artist, imageMode, FieldSelection.ALL, artist.getProjects());
+    }
 
-        List<ProjectDataDto> projectDataList = artist.getProjects().stream()
-                .map(ap -> new ProjectDataDto(
-                        ap.getName(),
-                        LocationMapper.mapToLocationDto(ap.getLocation()),
-                        ImageMapper.mapToImageDto(ap.getImage()),
-                        ap.getYoutubeUrl(),
-                        ap.getCreatedOn().toString()
-                )).toList();
+    // projects are passed in so that callers load only the ones the selection embeds
+    public static ArtistExportDto mapToArtistDto(Artist artist, ImageMode imageMode,
+                                                 FieldSelection selection, List<Project> projects) {
+        FieldSelection projectFields = selection.nested("projects");
+        List<ProjectDataDto> projectDataList = selection.includes("projects")
+                ? projects.stream().map(project -> mapToProjectDataDto(project, imageMode, projectFields)).toList()
+                : null;
 
         return new ArtistExportDto(
-                artist.getId().toString(),
-                artist.getName(),
-                imageDto,
-                artist.getDescription(),
-                artist.getInstagramUrl(),
+                selection.includes("id") ? artist.getId().toString() : null,
+                selection.includes("name") ? artist.getName() : null,
+                selection.includes("image") ? ImageMapper.mapToImageDto(artist.getImage(), imageMode) : null,
+                selection.includes("description") ? artist.getDescription() : null,
+                selection.includes("instagram_url") ? artist.getInstagramUrl() : null,
                 projectDataList
         );
     }
 
+    public static FieldSelection selection(String fields, String expand) {
+        return FieldSelection.parse(fields, expand, FIELDS, Map.of("projects", PROJECT_FIELDS));
+    }
+
+    // associations of the artist itself that the selection reads, to be fetched with the page
+    public static Set<String> fetch(FieldSelection selection) {
+        return selection.includes("image") ? Set.of("image") : Set.of();
+    }
+
+    // associations of the embedded projects that the selection reads, to be fetched with them
+    public static Set<String> projectFetch(FieldSelection selection) {
+        FieldSelection projectFields = selection.nested("projects");
+        return Stream.of("image", "location").filter(projectFields::includes).collect(Collectors.toSet());
+    }
+
+    private static ProjectDataDto mapToProjectDataDto(Project project, ImageMode imageMode, FieldSelection selection) {
+        return new ProjectDataDto(
+                selection.includes("name") ? project.getName() : null,
+                selection.includes("location") ? LocationMapper.mapToLocationDto(project.getLocation()) : null,
+                selection.includes("image") ? ImageMapper.mapToImageDto(project.getImage(), imageMode) : null,
+                selection.includes("youtube_url") ? project.getYoutubeUrl() : null,
+                selection.includes("created_on") ? project.getCreatedOn().toString() : null
+        );
+    }
+
 }
 
@@ -17,7 +17,11 @@ public class EventMapper {
     }
 
     public static EventDto mapToEventDto(Event event) {
-        ImageDto imageDto = ImageMapper.mapToImageDto(event.getImage());
+        return mapToEventDto(event, ImageMode.INLINE);
+    }
+
+    public static EventDto mapToEventDto(Event event, ImageMode imageMode) {
+        ImageDto imageDto = ImageMapper.mapToImageDto(event.getImage(), imageMode);
         LocationDto locationDto = LocationMapper.mapToLocationDto(event.getLocation());
 
         return new EventDto(
@@ -0,0 +1,156 @@
+package com.trails_art.trails.mappers;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * What a client asked to see of a resource, from {@code ?fields=} and {@code ?expand=}.
+ * <p>
+ * {@code fields=id,name,projects(name,image)} lists top-level fields, with an optional field list
+ * for each nested collection. {@code expand=projects(limit:5)} includes a collection and caps how
+ * many of its items are embedded per parent. Without {@code fields} every field is included; a
+ * collection is included when it is listed in either parameter, and unbounded unless expanded with
+ * a limit. Mappers leave out what is not included, and services do not load it.
+ */
+public final class FieldSelection {
+
+    public static final FieldSelection ALL = new FieldSelection(null, Map.of(), Map.of(), Set.of());
+
+    private final Set<String> fields;
+    private final Map<String, FieldSelection> nested;
+    private final Map<String, Integer> limits;
+    private final Set<String> expanded;
+
+    private FieldSelection(Set<String> fields, Map<String, FieldSelection> nested,
+                           Map<String, Integer> limits, Set<String> expanded) {
+        this.fields = fields;
+        this.nested = nested;
+        this.limits = limits;
+        this.expanded = expanded;
+    }
+
+    /**
+     * @param allowed      top-level field names of the resource
+     * @param associations collections that can be expanded, each with its own field names
+     */
+    public static FieldSelection parse(String fields, String expand,
+                                       Set<String> allowed, Map<String, Set<String>> associations) {
+        Set<String> selected = null;
+        Map<String, FieldSelection> nested = new LinkedHashMap<>();
+        if (fields != null && !fields.isBlank()) {
+            selected = new LinkedHashSet<>();
+            for (String item : split(fields)) {
+                String name = name(item);
+                if (!allowed.contains(name)) {
+                    throw new IllegalArgumentException("Unknown field: " + name + ".");
+                }
+                selected.add(name);
+                String inner = arguments(item);
+                if (inner != null) {
+                    Set<String> nestedAllowed = associations.get(name);
+                    if (nestedAllowed == null) {
+                        throw new IllegalArgumentException("Field " + name + " has no nested fields.");
+                    }
+                    nested.put(name, parse(inner, null, nestedAllowed, Map.of()));
+                }
+            }
+        }
+
+        Map<String, Integer> limits = new LinkedHashMap<>();
+        Set<String> expanded = new LinkedHashSet<>();
+        if (expand != null && !expand.isBlank()) {
+            for (String item : split(expand)) {
+                String name = name(item);
+                if (!associations.containsKey(name)) {
+                    throw new IllegalArgumentException("Cannot expand: " + name + ".");
+                }
+                expanded.add(name);
+                String options = arguments(item);
+                if (options != null) {
+                    limits.put(name, parseLimit(name, options));
+                }
+            }
+        }
+        return new FieldSelection(selected, Map.copyOf(nested), Map.copyOf(limits), Set.copyOf(expanded));
+    }
+
+    public boolean includes(String field) {
+        return fields == null || fields.contains(field) || expanded.contains(field);
+    }
+
+    public FieldSelection nested(String association) {
+        return nested.getOrDefault(association, ALL);
+    }
+
+    // null when the collection is embedded in full
+    public Integer limit(String association) {
+        return limits.get(association);
+    }
+
+    private static int parseLimit(String association, String options) {
+        Integer limit = null;
+        for (String option : split(options)) {
+            int colon = option.indexOf(':');
+            if (colon < 0 || !option.substring(0, colon).trim().equals("limit")) {
+                throw new IllegalArgumentException("Unknown expand option for " + association + ": " + option + ".");
+            }
+            try {
+                limit = Integer.parseInt(option.substring(colon + 1).trim());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Expand limit for " + association + " must be a number.");
+            }
+        }
+        if (limit == null || limit < 1) {
+            throw new IllegalArgumentException("Expand limit for " + association + " must be at least 1.");
+        }
+        return limit;
+    }
+
+    // splits on commas outside parentheses
+    private static List<String> split(String value) {
+        List<String> items = new ArrayList<>();
+        int depth = 0;
+        int start = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '(') {
+                depth++;
+            } else if (c == ')') {
+                if (--depth < 0) {
+                    throw new IllegalArgumentException("Unbalanced parentheses in: " + value + ".");
+                }
+            } else if (c == ',' && depth == 0) {
+                items.add(value.substring(start, i).trim());
+                start = i + 1;
+            }
+        }
+        if (depth != 0) {
+            throw new IllegalArgumentException("Unbalanced parentheses in: " + value + ".");
+        }
+        items.add(value.substring(start).trim());
+        if (items.stream().anyMatch(String::isEmpty)) {
+            throw new IllegalArgumentException("Empty item in: " + value + ".");
+        }
+        return items;
+    }
+
+    private static String name(String item) {
+        int open = item.indexOf('(');
+        return (open < 0 ? item : item.substring(0, open)).trim();
+    }
+
+    private static String arguments(String item) {
+        int open = item.indexOf('(');
+        if (open < 0) {
+            return null;
+        }
+        if (!item.endsWith(")")) {
+            throw new IllegalArgumentException("Malformed item: " + item + ".");
+        }
+        return item.substring(open + 1, item.length() - 1);
+    }
+}
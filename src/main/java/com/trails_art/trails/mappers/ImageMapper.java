@@ -1,16 +1,23 @@
 package com.trails_art.trails.mappers;
 
+import com.trails_art.trails.dtos.ImageData;
 import com.trails_art.trails.dtos.ImageDto;
+import com.trails_art.trails.dtos.ImageMetadataDto;
 import com.trails_art.trails.exceptions.InvalidDTOFormat;
 import com.trails_art.trails.models.Image;
+import com.trails_art.trails.models.ImageMetadata;
+import com.trails_art.trails.storage.ImageContent;
 
-import java.util.Base64;
+import java.util.UUID;
 
 public class ImageMapper {
     public static Image mapToImage(ImageDto dto) {
         Image image;
         try {
-            image = new Image(dto.mimetype(), Base64.getDecoder().decode(dto.data()));
+            ImageData data = dto.data();
+            image = data.isSpooled()
+                    ? new Image(dto.mimetype(), data.blob())
+                    : new Image(dto.mimetype(), data.toByteArray());
         } catch (Exception e) {
             throw new InvalidDTOFormat("Image DTO is not valid");
         }
@@ -18,11 +25,90 @@ public class ImageMapper {
         return image;
     }
 
+    // spooled request data is already in the blob store, so the image only takes over its hash
+    public static void applyData(Image image, ImageData data) {
+        if (data == null) {
+            throw new InvalidDTOFormat("Image DTO is not valid");
+        }
+        if (data.isSpooled()) {
+            image.setBlob(data.blob());
+        } else {
+            image.setData(data.toByteArray());
+        }
+    }
+
     public static ImageDto mapToImageDto(Image image) {
+        return mapToImageDto(image, ImageMode.INLINE);
+    }
+
+    public static ImageDto mapToImageDto(Image image, ImageMode mode) {
+        if (mode == ImageMode.REF) {
+            return new ImageDto(
+                    image.getId().toString(),
+                    image.getMimetype(),
+                    null,
+                    image.getSize(),
+                    image.getContentHash(),
+                    rawUrl(image.getId())
+            );
+        }
         return new ImageDto(
                 image.getId().toString(),
                 image.getMimetype(),
-                Base64.getEncoder().encodeToString(image.getData())
+                ImageData.of(image.getData()),
+                null,
+                null,
+                null
+        );
+    }
+
+    public static ImageDto mapToImageDto(ImageContent content, ImageMode mode) {
+        if (mode == ImageMode.REF) {
+            return new ImageDto(
+                    content.id().toString(),
+                    content.mimetype(),
+                    null,
+                    (long) content.size(),
+                    content.contentHash(),
+                    rawUrl(content.id())
+            );
+        }
+        return new ImageDto(
+                content.id().toString(),
+                content.mimetype(),
+                ImageData.of(content.data()),
+                null,
+                null,
+                null
+        );
+    }
+
+    // metadata rows carry no content, so they only map to references
+    public static ImageDto mapToImageDto(ImageMetadata metadata) {
+        return new ImageDto(
+                metadata.id().toString(),
+                metadata.mimetype(),
+                null,
+                metadata.size(),
+                metadata.contentHash(),
+                rawUrl(metadata.id())
         );
     }
+
+    public static ImageMetadataDto mapToImageMetadataDto(ImageMetadata metadata) {
+        return new ImageMetadataDto(
+                metadata.id().toString(),
+                metadata.mimetype(),
+                metadata.size(),
+                metadata.width(),
+                metadata.height(),
+                metadata.contentHash(),
+                metadata.createdAt(),
+                rawUrl(metadata.id())
+        );
+    }
+
+    private static String rawUrl(UUID id) {
+        return "/api/images/" + id + "/raw";
+    }
 }
@@ -0,0 +1,19 @@
+package com.trails_art.trails.mappers;
+
+import java.util.Locale;
+
+public enum ImageMode {
+    INLINE,
+    REF;
+
+    public static ImageMode from(String value, ImageMode fallback) {
+        if (value == null || value.isBlank()) {
+            return fallback;
+        }
+        return switch (value.trim().toLowerCase(Locale.ROOT)) {
+            case "inline" -> INLINE;
+            case "ref" -> REF;
+            default -> throw new IllegalArgumentException("Unknown images mode: " + value + ". Use ref or inline.");
+        };
+    }
+}
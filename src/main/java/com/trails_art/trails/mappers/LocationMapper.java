@@ -12,14 +12,28 @@ public class LocationMapper {
         } catch (Exception e) {
             throw new InvalidDTOFormat("Location DTO is not valid");
         }
+        checkCoordinates(dto);
+        location.setLatitude(dto.latitude());
+        location.setLongitude(dto.longitude());
 
         return location;
     }
 
+    public static void checkCoordinates(LocationDto dto) {
+        if ((dto.latitude() == null) != (dto.longitude() == null)) {
+            throw new InvalidDTOFormat("Location needs both latitude and longitude, or neither.");
+        }
+        if (dto.latitude() != null && (Math.abs(dto.latitude()) > 90 || Math.abs(dto.longitude()) > 180)) {
+            throw new InvalidDTOFormat("Latitude must be within ±90 and longitude within ±180.");
+        }
+    }
+
     public static LocationDto mapToLocationDto(Location location) {
         return new LocationDto(location.getId().toString(),
                 location.getName(),
-                location.getMapAddress());
+                location.getMapAddress(),
+                location.getLatitude(),
+                location.getLongitude());
     }
 
 }
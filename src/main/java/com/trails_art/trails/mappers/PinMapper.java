@@ -0,0 +1,36 @@
+package com.trails_art.trails.mappers;
+
+import com.trails_art.trails.dtos.ClusterDto;
+import com.trails_art.trails.dtos.PinDto;
+import com.trails_art.trails.dtos.RouteDto;
+import com.trails_art.trails.geo.Cluster;
+import com.trails_art.trails.geo.Pin;
+import com.trails_art.trails.geo.Route;
+
+public class PinMapper {
+    public static PinDto mapToPinDto(Pin pin) {
+        return new PinDto(
+                pin.id().toString(),
+                pin.name(),
+                pin.latitude(),
+                pin.longitude(),
+                Math.round(pin.distanceMeters())
+        );
+    }
+
+    public static ClusterDto mapToClusterDto(Cluster cluster) {
+        return new ClusterDto(
+                cluster.count(),
+                cluster.latitude(),
+                cluster.longitude(),
+                cluster.representativeId().toString()
+        );
+    }
+
+    public static RouteDto mapToRouteDto(Route route) {
+        return new RouteDto(
+                route.stops().stream().map(PinMapper::mapToPinDto).toList(),
+                Math.round(route.totalMeters())
+        );
+    }
+}
@@ -1,21 +1,30 @@
 package com.trails_art.trails.mappers;
 
 import com.trails_art.trails.dtos.ArtistDataDto;
-import com.trails_art.trails.dtos.ImageDto;
-import com.trails_art.trails.dtos.LocationDto;
 import com.trails_art.trails.dtos.ProjectDataDto;
 import com.trails_art.trails.dtos.ProjectExportDto;
 import com.trails_art.trails.dtos.ProjectImportDto;
 import com.trails_art.trails.exceptions.InvalidDTOFormat;
+import com.trails_art.trails.models.Artist;
 import com.trails_art.trails.models.Image;
 import com.trails_art.trails.models.Location;
 import com.trails_art.trails.models.Project;
 import org.springframework.stereotype.Component;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Component
 public class ProjectMapper {
+
+    public static final Set<String> FIELDS =
+            Set.of("id", "name", "location", "image", "youtube_url", "created_on", "artists");
+    public static final Set<String> ARTIST_FIELDS =
+            Set.of("name", "image", "description", "instagram_url");
+
     public static Project mapToProject(ProjectDataDto dto) {
         Image image = ImageMapper.mapToImage(dto.image());
 
@@ -47,26 +56,52 @@ public class ProjectMapper {
     }
 
     public static ProjectExportDto mapToProjectDto(Project project) {
-        ImageDto imageDto = ImageMapper.mapToImageDto(project.getImage());
+        return mapToProjectDto(project, ImageMode.INLINE);
+    }
 
-        LocationDto locationDto = LocationMapper.mapToLocationDto(project.getLocation());
+    public static ProjectExportDto mapToProjectDto(Project project, ImageMode imageMode) {
+        return mapToProjectDto(project, imageMode, FieldSelection.ALL, project.getArtists());
+    }
 
-        List<ArtistDataDto> artistDataList = project.getArtists().stream()
-                .map(ap -> new ArtistDataDto(
-                        ap.getName(),
-                        ImageMapper.mapToImageDto(ap.getImage()),
-                        ap.getDescription(),
-                        ap.getInstagramUrl()
-                )).toList();
+    // artists are passed in so that callers load only the ones the selection embeds
+    public static ProjectExportDto mapToProjectDto(Project project, ImageMode imageMode,
+                                                   FieldSelection selection, List<Artist> artists) {
+        FieldSelection artistFields = selection.nested("artists");
+        List<ArtistDataDto> artistDataList = selection.includes("artists")
+                ? artists.stream().map(artist -> mapToArtistDataDto(artist, imageMode, artistFields)).toList()
+                : null;
 
         return new ProjectExportDto(
-                project.getId().toString(),
-                project.getName(),
-                locationDto,
-                imageDto,
-                project.getYoutubeUrl(),
-                project.getCreatedOn(),
+                selection.includes("id") ? project.getId().toString() : null,
+                selection.includes("name") ? project.getName() : null,
+                selection.includes("location") ? LocationMapper.mapToLocationDto(project.getLocation()) : null,
+                selection.includes("image") ? ImageMapper.mapToImageDto(project.getImage(), imageMode) : null,
+                selection.includes("youtube_url") ? project.getYoutubeUrl() : null,
+                selection.includes("created_on") ? project.getCreatedOn() : null,
                 artistDataList
         );
     }
+
+    public static FieldSelection selection(String fields, String expand) {
+        return FieldSelection.parse(fields, expand, FIELDS, Map.of("artists", ARTIST_FIELDS));
+    }
+
+    // associations of the project itself that the selection reads, to be fetched with the page
+    public static Set<String> fetch(FieldSelection selection) {
+        return Stream.of("image", "location").filter(selection::includes).collect(Collectors.toSet());
+    }
+
+    // associations of the embedded artists that the selection reads, to be fetched with them
+    public static Set<String> artistFetch(FieldSelection selection) {
+        return selection.nested("artists").includes("image") ? Set.of("image") : Set.of();
+    }
+
+    private static ArtistDataDto mapToArtistDataDto(Artist artist, ImageMode imageMode, FieldSelection selection) {
+        return new ArtistDataDto(
+                selection.includes("name") ? artist.getName() : null,
+                selection.includes("image") ? ImageMapper.mapToImageDto(artist.getImage(), imageMode) : null,
+                selection.includes("description") ? artist.getDescription() : null,
+                selection.includes("instagram_url") ? artist.getInstagramUrl() : null
+        );
+    }
 }
@@ -0,0 +1,25 @@
+package com.trails_art.trails.mappers;
+
+import com.trails_art.trails.dtos.SearchResultDto;
+import com.trails_art.trails.dtos.SuggestionDto;
+import com.trails_art.trails.search.SearchHit;
+import com.trails_art.trails.search.Suggestion;
+
+public class SearchMapper {
+    public static SearchResultDto mapToSearchResultDto(SearchHit hit) {
+        return new SearchResultDto(
+                hit.type().label(),
+                hit.id().toString(),
+                hit.name(),
+                hit.score()
+        );
+    }
+
+    public static SuggestionDto mapToSuggestionDto(Suggestion suggestion) {
+        return new SuggestionDto(
+                suggestion.type().label(),
+                suggestion.id().toString(),
+                suggestion.name()
+        );
+    }
+}
@@ -0,0 +1,56 @@
+package com.trails_art.trails.models;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * A finished event moved out of {@code events} by {@link com.trails_art.trails.services.event.EventArchiver}.
+ * The row is copied as it was, keeping its id and its image and location rows, and is read-only.
+ */
+@Getter
+@NoArgsConstructor
+@Entity
+@Table(name = "events_archive", indexes = {
+        @Index(name = "idx_event_archive_start_time_id", columnList = "start_time, id")
+})
+public class ArchivedEvent {
+
+    @Id
+    private UUID id;
+
+    @Column(name = "name", nullable = false)
+    private String name;
+
+    @Column(name = "search_key", length = 1024)
+    private String searchKey;
+
+    @Column(name = "description")
+    private String description;
+
+    @Column(name = "start_time")
+    private LocalDateTime startTime;
+
+    @Column(name = "end_time")
+    private LocalDateTime endTime;
+
+    @OneToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "image_id")
+    private Image image;
+
+    @OneToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "location_id")
+    private Location location;
+
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+
+    // a detached copy for the event mappers; never saved
+    public Event toEvent() {
+        Event event = new Event(name, description, image, startTime, endTime, location);
+        event.setId(id);
+        return event;
+    }
+}
@@ -1,5 +1,8 @@
 package com.trails_art.trails.models;
 
+import com.trails_art.trails.cache.ResponseCacheListener;
+import com.trails_art.trails.search.SearchIndexListener;
+import com.trails_art.trails.search.SearchText;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
@@ -15,7 +18,10 @@ import java.util.UUID;
 @AllArgsConstructor
 @EqualsAndHashCode(of = {"name", "description", "instagramUrl"})
 @Entity
-@Table(name = "artists")
+@EntityListeners({SearchIndexListener.class, ResponseCacheListener.class})
+@Table(name = "artists", indexes = {
+        @Index(name = "idx_artist_name_id", columnList = "name, id")
+})
 public class Artist {
 
     @Id
@@ -27,6 +33,11 @@ public class Artist {
     @Column(name = "name", nullable = false)
     private String name;
 
+    // the name as search sees it; see SearchText.normalize
+    @Setter(AccessLevel.NONE)
+    @Column(name = "search_key", length = 1024)
+    private String searchKey;
+
     @Size(max = 255)
     @Column(name = "description")
     private String description;
@@ -48,4 +59,10 @@ public class Artist {
         this.description = description;
         this.instagramUrl = instagramUrl;
     }
+
+    @PrePersist
+    @PreUpdate
+    void updateSearchKey() {
+        searchKey = SearchText.normalize(name);
+    }
 }
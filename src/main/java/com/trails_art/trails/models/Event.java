@@ -1,5 +1,10 @@
 package com.trails_art.trails.models;
 
+import com.trails_art.trails.cache.ResponseCacheListener;
+import com.trails_art.trails.calendar.EventCalendarListener;
+import com.trails_art.trails.geo.GeoIndexListener;
+import com.trails_art.trails.search.SearchIndexListener;
+import com.trails_art.trails.search.SearchText;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
@@ -14,8 +19,11 @@ import java.util.UUID;
 @AllArgsConstructor
 @EqualsAndHashCode(of = {"name", "startTime", "endTime"})
 @Entity
+@EntityListeners({SearchIndexListener.class, GeoIndexListener.class, EventCalendarListener.class,
+        ResponseCacheListener.class})
 @Table(name = "events", indexes = {
-        @Index(name = "idx_event_start_time", columnList = "start_time")
+        @Index(name = "idx_event_start_time_id", columnList = "start_time, id"),
+        @Index(name = "idx_event_end_time", columnList = "end_time")
 })
 public class Event {
 
@@ -28,6 +36,11 @@ public class Event {
     @Column(name = "name", nullable = false)
     private String name;
 
+    // the name as search sees it; see SearchText.normalize
+    @Setter(AccessLevel.NONE)
+    @Column(name = "search_key", length = 1024)
+    private String searchKey;
+
     @Size(max = 255)
     @Column(name = "description")
     private String description;
@@ -59,4 +72,10 @@ public class Event {
         this.endTime = endTime;
         this.location = location;
     }
+
+    @PrePersist
+    @PreUpdate
+    void updateSearchKey() {
+        searchKey = SearchText.normalize(name);
+    }
 }
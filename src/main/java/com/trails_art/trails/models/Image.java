@@ -1,23 +1,35 @@
 package com.trails_art.trails.models;
 
+import com.trails_art.trails.cache.ResponseCacheListener;
+import com.trails_art.trails.storage.BlobDescriptor;
+import com.trails_art.trails.storage.BlobStore;
+import com.trails_art.trails.storage.ImageBlobListener;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
-import lombok.AllArgsConstructor;
+import lombok.AccessLevel;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.DynamicUpdate;
 
+import java.time.Instant;
 import java.util.UUID;
 
 @Getter
 @Setter
 @NoArgsConstructor
-@AllArgsConstructor
-@EqualsAndHashCode(of = {"mimetype", "data"})
+@EqualsAndHashCode(of = {"mimetype", "contentHash"})
+// only changed columns are written, so an edit cannot undo ImageOptimizationQueue's hash swap
+@DynamicUpdate
 @Entity
-@Table(name = "images")
+@EntityListeners({ImageBlobListener.class, ResponseCacheListener.class})
+@Table(name = "images", indexes = {
+        @Index(name = "idx_image_content_hash", columnList = "content_hash"),
+        @Index(name = "idx_image_created_at_id", columnList = "created_at, id")
+})
 public class Image {
     @Id
     @GeneratedValue
@@ -28,16 +40,103 @@ public class Image {
     @Column(name = "mimetype", nullable = false)
     private String mimetype;
 
-    //@Lob
-    //BYTEA
-    @Column(name = "data", nullable = false)
+    // SHA-256 of the bytes held by the BlobStore; the bytes themselves never live in this table.
+    // Left nullable in DDL so ddl-auto can add it next to rows still awaiting LegacyImageDataMigration.
+    @Setter(AccessLevel.NONE)
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+
+    @Setter(AccessLevel.NONE)
+    @Column(name = "byte_size")
+    private Long size;
+
+    // read from the image header at ingest; null for content ImageIO cannot parse
+    @Setter(AccessLevel.NONE)
+    @Column(name = "width")
+    private Integer width;
+
+    @Setter(AccessLevel.NONE)
+    @Column(name = "height")
+    private Integer height;
+
+    @Setter(AccessLevel.NONE)
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private Instant createdAt;
+
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
     private byte[] data;
 
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private boolean dataPending;
+
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private BlobStore blobStore;
+
     public Image(
             String mimetype,
             byte[] bytes
     ) {
         this.mimetype = mimetype;
+        setData(bytes);
+    }
+
+    public Image(
+            String mimetype,
+            BlobDescriptor blob
+    ) {
+        this.mimetype = mimetype;
+        setBlob(blob);
+    }
+
+    public byte[] getData() {
+        if (data == null && contentHash != null && blobStore != null) {
+            data = blobStore.read(contentHash);
+        }
+        return data;
+    }
+
+    public void setData(byte[] bytes) {
+        setBlob(BlobDescriptor.of(bytes));
         this.data = bytes;
+        this.dataPending = true;
+    }
+
+    public void setBlob(BlobDescriptor blob) {
+        if (!blob.hash().equals(contentHash)) {
+            this.width = null;
+            this.height = null;
+        }
+        this.contentHash = blob.hash();
+        this.size = blob.size();
+        this.data = null;
+        this.dataPending = false;
+    }
+
+    public void setDimensions(Integer width, Integer height) {
+        this.width = width;
+        this.height = height;
+    }
+
+    public boolean hasDimensions() {
+        return width != null && height != null;
+    }
+
+    public byte[] takePendingData() {
+        if (!dataPending) {
+            return null;
+        }
+        dataPending = false;
+        return data;
+    }
+
+    public void attachBlobStore(BlobStore blobStore) {
+        this.blobStore = blobStore;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,16 @@
+package com.trails_art.trails.models;
+
+import java.time.Instant;
+import java.util.UUID;
+
+// the columns of an Image row without its content, selected directly so no entity is hydrated
+public record ImageMetadata(
+        UUID id,
+        String mimetype,
+        Long size,
+        Integer width,
+        Integer height,
+        String contentHash,
+        Instant createdAt
+) {
+}
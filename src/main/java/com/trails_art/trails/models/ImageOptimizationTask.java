@@ -0,0 +1,52 @@
+package com.trails_art.trails.models;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+import java.util.UUID;
+
+// pending background optimization of an image's content; the row is deleted once the work is done
+@Getter
+@Setter
+@NoArgsConstructor
+@Entity
+@Table(name = "image_optimization_tasks", indexes = {
+        @Index(name = "idx_image_optimization_task_status", columnList = "status")
+})
+public class ImageOptimizationTask {
+
+    public enum Status { PENDING, FAILED }
+
+    @Id
+    @GeneratedValue
+    private UUID id;
+
+    @Column(name = "image_id", nullable = false)
+    private UUID imageId;
+
+    // the content the task was queued for; a different hash on the image means the task is stale
+    @Column(name = "source_hash", nullable = false, length = 64)
+    private String sourceHash;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 16)
+    private Status status = Status.PENDING;
+
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+
+    @Column(name = "last_error", length = 1024)
+    private String lastError;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    public ImageOptimizationTask(UUID imageId, String sourceHash) {
+        this.imageId = imageId;
+        this.sourceHash = sourceHash;
+        this.createdAt = Instant.now();
+    }
+}
@@ -1,6 +1,13 @@
 package com.trails_art.trails.models;
 
+import com.trails_art.trails.cache.ResponseCacheListener;
+import com.trails_art.trails.search.SearchIndexListener;
+import com.trails_art.trails.calendar.EventCalendarListener;
+import com.trails_art.trails.geo.GeoIndexListener;
+import com.trails_art.trails.search.SearchText;
 import jakarta.persistence.*;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 import lombok.*;
@@ -13,7 +20,11 @@ import java.util.UUID;
 @AllArgsConstructor
 @EqualsAndHashCode(of = {"name", "mapAddress"})
 @Entity
-@Table(name = "locations")
+@EntityListeners({SearchIndexListener.class, GeoIndexListener.class, EventCalendarListener.class,
+        ResponseCacheListener.class})
+@Table(name = "locations", indexes = {
+        @Index(name = "idx_location_name_id", columnList = "name, id")
+})
 public class Location {
 
     @Id
@@ -25,10 +36,26 @@ public class Location {
     @Column(name = "name", nullable = false)
     private String name;
 
+    // the name as search sees it; see SearchText.normalize
+    @Setter(AccessLevel.NONE)
+    @Column(name = "search_key", length = 1024)
+    private String searchKey;
+
     @Size(max = 255)
     @Column(name = "map_address")
     private String mapAddress;
 
+    // WGS 84 degrees; both set or both null
+    @DecimalMin("-90")
+    @DecimalMax("90")
+    @Column(name = "latitude")
+    private Double latitude;
+
+    @DecimalMin("-180")
+    @DecimalMax("180")
+    @Column(name = "longitude")
+    private Double longitude;
+
     public Location(
             String name,
             String mapAddress)
@@ -36,4 +63,10 @@ public class Location {
         this.name = name;
         this.mapAddress = mapAddress;
     }
+
+    @PrePersist
+    @PreUpdate
+    void updateSearchKey() {
+        searchKey = SearchText.normalize(name);
+    }
 }
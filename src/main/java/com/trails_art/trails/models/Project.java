@@ -1,5 +1,9 @@
 package com.trails_art.trails.models;
 
+import com.trails_art.trails.cache.ResponseCacheListener;
+import com.trails_art.trails.geo.GeoIndexListener;
+import com.trails_art.trails.search.SearchIndexListener;
+import com.trails_art.trails.search.SearchText;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
@@ -16,7 +20,10 @@ import java.util.UUID;
 @AllArgsConstructor
 @EqualsAndHashCode(of = {"name", "youtubeUrl", "createdOn"})
 @Entity
-@Table(name = "projects")
+@EntityListeners({SearchIndexListener.class, GeoIndexListener.class, ResponseCacheListener.class})
+@Table(name = "projects", indexes = {
+        @Index(name = "idx_project_created_on_id", columnList = "created_on, id")
+})
 public class Project {
 
     @Id
@@ -31,6 +38,11 @@ public class Project {
     @Column(name = "name", nullable = false)
     private String name;
 
+    // the name as search sees it; see SearchText.normalize
+    @Setter(AccessLevel.NONE)
+    @Column(name = "search_key", length = 1024)
+    private String searchKey;
+
     @Size(max = 255)
     @Column(name = "youtube_url")
     private String youtubeUrl;
@@ -62,4 +74,10 @@ public class Project {
         this.youtubeUrl = youtubeUrl;
         this.createdOn = LocalDateTime.now();
     }
+
+    @PrePersist
+    @PreUpdate
+    void updateSearchKey() {
+        searchKey = SearchText.normalize(name);
+    }
 }
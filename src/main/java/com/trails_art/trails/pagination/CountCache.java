@@ -0,0 +1,38 @@
+package com.trails_art.trails.pagination;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+// row counts for X-Total-Count, reused for ttl so paging through a large table does not re-count it per page
+@Component
+public class CountCache {
+
+    private record Entry(long count, long expiresAt) { }
+
+    private final Map<String, Entry> counts = new ConcurrentHashMap<>();
+    private final long ttlNanos;
+
+    public CountCache(@Value("${trails.pagination.count-ttl:PT30S}") Duration ttl) {
+        this.ttlNanos = ttl.toNanos();
+    }
+
+    public long count(String name, LongSupplier counter) {
+        long now = System.nanoTime();
+        Entry entry = counts.get(name);
+        if (entry != null && now - entry.expiresAt() < 0) {
+            return entry.count();
+        }
+        long count = counter.getAsLong();
+        counts.put(name, new Entry(count, now + ttlNanos));
+        return count;
+    }
+
+    public void invalidate(String name) {
+        counts.remove(name);
+    }
+}
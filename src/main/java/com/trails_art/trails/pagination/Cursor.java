@@ -0,0 +1,61 @@
+package com.trails_art.trails.pagination;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Base64;
+import java.util.UUID;
+
+// position after the last row of a page; opaque to clients, who only echo it back as ?after=
+record Cursor(Object key, UUID id) {
+
+    private static final String NULL_KEY = "~";
+
+    // the database keeps timestamps to the microsecond, rounding; an entity still in the persistence
+    // context carries the nanos it was created with, which would otherwise sort before its stored value
+    Cursor {
+        if (key instanceof LocalDateTime time) {
+            key = time.plusNanos(500).truncatedTo(ChronoUnit.MICROS);
+        } else if (key instanceof Instant instant) {
+            key = instant.plusNanos(500).truncatedTo(ChronoUnit.MICROS);
+        }
+    }
+
+    String encode(Keyset<?> keyset) {
+        String payload = keyset.name() + "\n" + id + "\n" + (key == null ? NULL_KEY : "=" + key);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(payload.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static Cursor decode(String token, Keyset<?> keyset) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split("\n", 3);
+            if (parts.length != 3 || !parts[0].equals(keyset.name())) {
+                throw new IllegalArgumentException("Invalid cursor.");
+            }
+            UUID id = UUID.fromString(parts[1]);
+            if (parts[2].equals(NULL_KEY)) {
+                return new Cursor(null, id);
+            }
+            if (!parts[2].startsWith("=")) {
+                throw new IllegalArgumentException("Invalid cursor.");
+            }
+            return new Cursor(parseKey(parts[2].substring(1), keyset.keyType()), id);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor.", e);
+        }
+    }
+
+    private static Object parseKey(String value, Class<?> type) {
+        if (type == String.class) {
+            return value;
+        }
+        if (type == LocalDateTime.class) {
+            return LocalDateTime.parse(value);
+        }
+        if (type == Instant.class) {
+            return Instant.parse(value);
+        }
+        throw new IllegalStateException("Unsupported keyset key type " + type.getName());
+    }
+}
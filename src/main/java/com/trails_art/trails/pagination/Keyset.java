@@ -0,0 +1,32 @@
+package com.trails_art.trails.pagination;
+
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * A stable sort over one entity: the {@code key} attribute first, nulls last, then the id as a
+ * tie-breaker. {@code select} is the JPQL select expression over alias {@code e}, which lets a
+ * keyset return projections as well as entities. Keysets sharing a {@code name} accept each
+ * other's cursors. Only keysets whose key column is {@code nullable} page a trailing run of null keys.
+ */
+public record Keyset<T>(
+        String name,
+        String entity,
+        String select,
+        Class<T> resultType,
+        String key,
+        Class<?> keyType,
+        Function<T, Object> keyOf,
+        Function<T, UUID> idOf,
+        boolean nullable
+) {
+    public static <T> Keyset<T> of(String name, Class<T> entityType, String key, Class<?> keyType,
+                                   Function<T, Object> keyOf, Function<T, UUID> idOf) {
+        return new Keyset<>(name, entityType.getSimpleName(), "e", entityType, key, keyType, keyOf, idOf, false);
+    }
+
+    public static <T> Keyset<T> ofNullable(String name, Class<T> entityType, String key, Class<?> keyType,
+                                           Function<T, Object> keyOf, Function<T, UUID> idOf) {
+        return new Keyset<>(name, entityType.getSimpleName(), "e", entityType, key, keyType, keyOf, idOf, true);
+    }
+}
@@ -0,0 +1,12 @@
+package com.trails_art.trails.pagination;
+
+import java.util.List;
+import java.util.function.Function;
+
+// nextCursor is null on the last page
+public record KeysetPage<T>(List<T> items, String nextCursor, int limit) {
+
+    public <R> KeysetPage<R> map(Function<? super T, ? extends R> mapper) {
+        return new KeysetPage<>(items.stream().<R>map(mapper).toList(), nextCursor, limit);
+    }
+}
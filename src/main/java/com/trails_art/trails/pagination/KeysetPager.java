@@ -0,0 +1,124 @@
+package com.trails_art.trails.pagination;
+
+import jakarta.persistence.EntityGraph;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Runs keyset ("seek") queries: each page continues from the sort key of the previous page's last
+ * row instead of skipping an offset, so every page costs one index range scan however deep it is.
+ * The seek is a plain {@code (key, id) > (:key, :id)} row-value comparison over the non-null keys.
+ * For nullable keys, rows with a null key sort last and later pages read them as a separate phase,
+ * paged by id alone; keys that cannot be null never pay for that phase. Associations named in {@code fetch} are
+ * loaded with the page through an entity graph, so mapping them costs no further statements.
+ */
+@Component
+public class KeysetPager {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final int defaultLimit;
+    private final int maxLimit;
+
+    public KeysetPager(
+            @Value("${trails.pagination.default-limit:50}") int defaultLimit,
+            @Value("${trails.pagination.max-limit:200}") int maxLimit
+    ) {
+        this.maxLimit = Math.max(1, maxLimit);
+        this.defaultLimit = Math.min(Math.max(1, defaultLimit), this.maxLimit);
+    }
+
+    public <T> KeysetPage<T> page(Keyset<T> keyset, String after, Integer limit) {
+        return page(keyset, after, limit, Set.of());
+    }
+
+    public <T> KeysetPage<T> page(Keyset<T> keyset, String after, Integer limit, Set<String> fetch) {
+        int size = resolveLimit(limit);
+        Cursor cursor = after == null || after.isBlank() ? null : Cursor.decode(after, keyset);
+        String key = "e." + keyset.key();
+
+        // one extra row tells whether there is a next page without a count query
+        List<T> rows = new ArrayList<>(size + 1);
+        if (cursor == null) {
+            // the first page needs no seek predicate, so one ordered scan covers null keys as well
+            String order = keyset.nullable() ? " ASC NULLS LAST" : " ASC";
+            rows.addAll(query(keyset, "", " ORDER BY " + key + order + ", e.id ASC", fetch)
+                    .setMaxResults(size + 1).getResultList());
+        } else if (cursor.key() != null) {
+            TypedQuery<T> query = query(keyset, " WHERE (" + key + ", e.id) > (:key, :id)",
+                    " ORDER BY " + key + " ASC, e.id ASC", fetch);
+            query.setParameter("key", cursor.key()).setParameter("id", cursor.id());
+            rows.addAll(query.setMaxResults(size + 1).getResultList());
+        }
+        // rows with a null key come last, as a second phase paged by id alone
+        boolean nullPhase = cursor != null && (cursor.key() == null || rows.size() <= size);
+        if (keyset.nullable() && nullPhase) {
+            boolean resume = cursor.key() == null;
+            TypedQuery<T> query = query(keyset, " WHERE " + key + " IS NULL" + (resume ? " AND e.id > :id" : ""),
+                    " ORDER BY e.id ASC", fetch);
+            if (resume) {
+                query.setParameter("id", cursor.id());
+            }
+            rows.addAll(query.setMaxResults(size + 1 - rows.size()).getResultList());
+        }
+        if (rows.size() <= size) {
+            return new KeysetPage<>(List.copyOf(rows), null, size);
+        }
+        List<T> items = rows.subList(0, size);
+        T last = items.getLast();
+        String next = new Cursor(keyset.keyOf().apply(last), keyset.idOf().apply(last)).encode(keyset);
+        return new KeysetPage<>(List.copyOf(items), next, size);
+    }
+
+    /**
+     * Merges pages read with the same cursor and limit from two entities sharing a keyset name into
+     * one page in keyset order, as if both were one table.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public <T> KeysetPage<T> merge(Keyset<T> keyset, KeysetPage<T> first, KeysetPage<T> second) {
+        Comparator<T> order = Comparator.comparing((T item) -> (Comparable) keyset.keyOf().apply(item),
+                        Comparator.nullsLast(Comparator.naturalOrder()))
+                .thenComparing(keyset.idOf());
+        List<T> items = Stream.concat(first.items().stream(), second.items().stream()).sorted(order).toList();
+        int size = first.limit();
+        if (items.size() <= size && first.nextCursor() == null && second.nextCursor() == null) {
+            return new KeysetPage<>(items, null, size);
+        }
+        List<T> page = items.subList(0, Math.min(size, items.size()));
+        T last = page.getLast();
+        String next = new Cursor(keyset.keyOf().apply(last), keyset.idOf().apply(last)).encode(keyset);
+        return new KeysetPage<>(List.copyOf(page), next, size);
+    }
+
+    private <T> TypedQuery<T> query(Keyset<T> keyset, String where, String order, Set<String> fetch) {
+        String jpql = "SELECT " + keyset.select() + " FROM " + keyset.entity() + " e" + where + order;
+        TypedQuery<T> query = entityManager.createQuery(jpql, keyset.resultType());
+        if (!fetch.isEmpty()) {
+            // to-one associations only, so the limit still applies in SQL
+            EntityGraph<T> graph = entityManager.createEntityGraph(keyset.resultType());
+            graph.addAttributeNodes(fetch.toArray(String[]::new));
+            query.setHint("jakarta.persistence.loadgraph", graph);
+        }
+        return query;
+    }
+
+    private int resolveLimit(Integer limit) {
+        if (limit == null) {
+            return defaultLimit;
+        }
+        if (limit < 1) {
+            throw new IllegalArgumentException("limit must be at least 1.");
+        }
+        return Math.min(limit, maxLimit);
+    }
+}
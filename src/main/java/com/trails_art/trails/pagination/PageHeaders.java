@@ -0,0 +1,39 @@
+package com.trails_art.trails.pagination;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import org.springframework.web.util.UriComponentsBuilder;
+
+public final class PageHeaders {
+
+    public static final String NEXT_CURSOR = "X-Next-Cursor";
+    public static final String TOTAL_COUNT = "X-Total-Count";
+
+    private PageHeaders() {
+    }
+
+    /**
+     * Link rel="next" and X-Next-Cursor point at the following page, repeating the current query
+     * with a new {@code after}. X-Total-Count is only sent when a count was asked for.
+     */
+    public static HttpHeaders of(KeysetPage<?> page, Long totalCount) {
+        return of(page, totalCount, ServletUriComponentsBuilder.fromCurrentRequest());
+    }
+
+    // for pages rendered away from the request thread, with that request's URL
+    public static HttpHeaders of(KeysetPage<?> page, Long totalCount, UriComponentsBuilder request) {
+        HttpHeaders headers = new HttpHeaders();
+        if (page.nextCursor() != null) {
+            String next = request
+                    .replaceQueryParam("after", page.nextCursor())
+                    .replaceQueryParam("limit", page.limit())
+                    .build().toUriString();
+            headers.add(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"");
+            headers.add(NEXT_CURSOR, page.nextCursor());
+        }
+        if (totalCount != null) {
+            headers.add(TOTAL_COUNT, String.valueOf(totalCount));
+        }
+        return headers;
+    }
+}
@@ -0,0 +1,27 @@
+package com.trails_art.trails.repositories;
+
+import com.trails_art.trails.models.ArchivedEvent;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface JpaArchivedEventRepository extends JpaRepository<ArchivedEvent, UUID> {
+    @Override
+    @EntityGraph(attributePaths = {"image", "location"})
+    Optional<ArchivedEvent> findById(UUID id);
+
+    @EntityGraph(attributePaths = {"image", "location"})
+    List<ArchivedEvent> findBySearchKeyContaining(String searchKey);
+
+    @EntityGraph(attributePaths = {"image", "location"})
+    @Query("SELECT e FROM ArchivedEvent e WHERE e.startTime <= :to AND COALESCE(e.endTime, e.startTime) >= :from"
+            + " ORDER BY e.startTime, e.id")
+    List<ArchivedEvent> findOverlapping(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to, Limit limit);
+}
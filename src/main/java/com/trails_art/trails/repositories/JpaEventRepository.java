@@ -1,12 +1,27 @@
 package com.trails_art.trails.repositories;
 
 import com.trails_art.trails.models.Event;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
 public interface JpaEventRepository extends JpaRepository<Event, UUID> {
-    List<Event> findByNameContainingIgnoreCase(String name);
-}
+    @EntityGraph(attributePaths = {"image", "location"})
+    List<Event> findBySearchKeyContaining(String searchKey);
+
+    @EntityGraph(attributePaths = {"image", "location"})
+    List<Event> findByIdIn(Collection<UUID> ids);
 
+    // bounded above by idx_event_start_time_id; an event without an end lasts an instant
+    @EntityGraph(attributePaths = {"image", "location"})
+    @Query("SELECT e FROM Event e WHERE e.startTime <= :to AND COALESCE(e.endTime, e.startTime) >= :from"
+            + " ORDER BY e.startTime, e.id")
+    List<Event> findOverlapping(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to, Limit limit);
+}
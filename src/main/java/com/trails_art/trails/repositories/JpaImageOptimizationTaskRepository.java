@@ -0,0 +1,12 @@
+package com.trails_art.trails.repositories;
+
+import com.trails_art.trails.models.ImageOptimizationTask;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+import java.util.UUID;
+
+public interface JpaImageOptimizationTaskRepository extends JpaRepository<ImageOptimizationTask, UUID> {
+
+    List<ImageOptimizationTask> findByStatusOrderByCreatedAt(ImageOptimizationTask.Status status);
+}
@@ -1,9 +1,17 @@
 package com.trails_art.trails.repositories;
 
 import com.trails_art.trails.models.Image;
+import com.trails_art.trails.models.ImageMetadata;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Optional;
 import java.util.UUID;
 
 public interface JpaImageRepository extends JpaRepository<Image, UUID> {
 
+    @Query("SELECT new com.trails_art.trails.models.ImageMetadata(e.id, e.mimetype, e.size, e.width, e.height, "
+            + "e.contentHash, e.createdAt) FROM Image e WHERE e.id = :id")
+    Optional<ImageMetadata> findMetadataById(@Param("id") UUID id);
 }
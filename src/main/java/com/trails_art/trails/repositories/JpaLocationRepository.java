@@ -7,6 +7,6 @@ import java.util.List;
 import java.util.UUID;
 
 public interface JpaLocationRepository extends JpaRepository<Location, UUID> {
-    List<Location> findByNameContainingIgnoreCase(String name);
+    List<Location> findBySearchKeyContaining(String searchKey);
 }
 
@@ -1,9 +1,17 @@
 package com.trails_art.trails.repositories.artist;
 
 import com.trails_art.trails.models.Artist;
+import com.trails_art.trails.models.Project;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
 
 public interface CustomArtistRepository {
     List<Artist> findAllWithEmptyProjects();
+
+    // at most limitPerArtist projects per artist (all when null), oldest first, with the fetch associations joined
+    Map<UUID, List<Project>> findProjectsByArtistIds(Collection<UUID> artistIds, Integer limitPerArtist, Set<String> fetch);
 }
@@ -1,16 +1,28 @@
 package com.trails_art.trails.repositories.artist;
 
 import com.trails_art.trails.models.Artist;
+import com.trails_art.trails.models.Project;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 import jakarta.persistence.TypedQuery;
+import org.hibernate.query.NativeQuery;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Repository
 public class CustomArtistRepositoryImpl implements CustomArtistRepository {
 
+    private static final Set<String> FETCHABLE = Set.of("image", "location");
+
     @PersistenceContext
     private EntityManager entityManager;
 
@@ -20,4 +32,44 @@ public class CustomArtistRepositoryImpl implements CustomArtistRepository {
         TypedQuery<Artist> query = entityManager.createQuery(jpql, Artist.class);
         return query.getResultList();
     }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Map<UUID, List<Project>> findProjectsByArtistIds(Collection<UUID> artistIds, Integer limitPerArtist,
+                                                           Set<String> fetch) {
+        if (artistIds.isEmpty()) {
+            return Map.of();
+        }
+        // the per-artist cap needs a window function, so the pairs come from SQL and the projects from JPQL
+        String sql = "SELECT artist_id, project_id FROM ("
+                + " SELECT ap.artist_id, ap.project_id, ROW_NUMBER() OVER ("
+                + " PARTITION BY ap.artist_id ORDER BY p.created_on, p.id) AS position"
+                + " FROM artist_project ap JOIN projects p ON p.id = ap.project_id"
+                + " WHERE ap.artist_id IN (:artistIds)) ranked"
+                + (limitPerArtist == null ? "" : " WHERE position <= :limit")
+                + " ORDER BY artist_id, position";
+        NativeQuery<Object[]> pairsQuery = entityManager.createNativeQuery(sql).unwrap(NativeQuery.class)
+                .addScalar("artist_id", UUID.class)
+                .addScalar("project_id", UUID.class)
+                .setParameter("artistIds", artistIds);
+        if (limitPerArtist != null) {
+            pairsQuery.setParameter("limit", limitPerArtist);
+        }
+        List<Object[]> pairs = pairsQuery.getResultList();
+        if (pairs.isEmpty()) {
+            return Map.of();
+        }
+
+        StringBuilder jpql = new StringBuilder("SELECT p FROM Project p");
+        fetch.stream().filter(FETCHABLE::contains).sorted()
+                .forEach(association -> jpql.append(" LEFT JOIN FETCH p.").append(association));
+        jpql.append(" WHERE p.id IN :ids");
+        Map<UUID, Project> projects = entityManager.createQuery(jpql.toString(), Project.class)
+                .setParameter("ids", pairs.stream().map(pair -> (UUID) pair[1]).collect(Collectors.toSet()))
+                .getResultStream()
+                .collect(Collectors.toMap(Project::getId, Function.identity(), (a, b) -> a, HashMap::new));
+
+        return pairs.stream().collect(Collectors.groupingBy(pair -> (UUID) pair[0], LinkedHashMap::new,
+                Collectors.mapping(pair -> projects.get((UUID) pair[1]), Collectors.toList())));
+    }
 }
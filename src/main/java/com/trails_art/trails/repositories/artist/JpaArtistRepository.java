@@ -1,11 +1,17 @@
 package com.trails_art.trails.repositories.artist;
 
 import com.trails_art.trails.models.Artist;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
 public interface JpaArtistRepository extends JpaRepository<Artist, UUID>, CustomArtistRepository {
-    List<Artist> findByNameContainingIgnoreCase(String name);
+    @EntityGraph(attributePaths = "image")
+    List<Artist> findBySearchKeyContaining(String searchKey);
+
+    @EntityGraph(attributePaths = "image")
+    List<Artist> findByIdIn(Collection<UUID> ids);
 }
@@ -1,9 +1,17 @@
 package com.trails_art.trails.repositories.project;
 
+import com.trails_art.trails.models.Artist;
 import com.trails_art.trails.models.Project;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
 
 public interface CustomProjectRepository {
     List<Project> findAllWithEmptyArtists();
+
+    // at most limitPerProject artists per project (all when null), by name, with the fetch associations joined
+    Map<UUID, List<Artist>> findArtistsByProjectIds(Collection<UUID> projectIds, Integer limitPerProject, Set<String> fetch);
 }
@@ -1,16 +1,28 @@
 package com.trails_art.trails.repositories.project;
 
+import com.trails_art.trails.models.Artist;
 import com.trails_art.trails.models.Project;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 import jakarta.persistence.TypedQuery;
+import org.hibernate.query.NativeQuery;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Repository
 public class CustomProjectRepositoryImpl implements CustomProjectRepository {
 
+    private static final Set<String> FETCHABLE = Set.of("image");
+
     @PersistenceContext
     private EntityManager entityManager;
 
@@ -20,4 +32,44 @@ public class CustomProjectRepositoryImpl implements CustomProjectRepository {
         TypedQuery<Project> query = entityManager.createQuery(jpql, Project.class);
         return query.getResultList();
     }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Map<UUID, List<Artist>> findArtistsByProjectIds(Collection<UUID> projectIds, Integer limitPerProject,
+                                                          Set<String> fetch) {
+        if (projectIds.isEmpty()) {
+            return Map.of();
+        }
+        // the per-project cap needs a window function, so the pairs come from SQL and the artists from JPQL
+        String sql = "SELECT project_id, artist_id FROM ("
+                + " SELECT ap.project_id, ap.artist_id, ROW_NUMBER() OVER ("
+                + " PARTITION BY ap.project_id ORDER BY a.name, a.id) AS position"
+                + " FROM artist_project ap JOIN artists a ON a.id = ap.artist_id"
+                + " WHERE ap.project_id IN (:projectIds)) ranked"
+                + (limitPerProject == null ? "" : " WHERE position <= :limit")
+                + " ORDER BY project_id, position";
+        NativeQuery<Object[]> pairsQuery = entityManager.createNativeQuery(sql).unwrap(NativeQuery.class)
+                .addScalar("project_id", UUID.class)
+                .addScalar("artist_id", UUID.class)
+                .setParameter("projectIds", projectIds);
+        if (limitPerProject != null) {
+            pairsQuery.setParameter("limit", limitPerProject);
+        }
+        List<Object[]> pairs = pairsQuery.getResultList();
+        if (pairs.isEmpty()) {
+            return Map.of();
+        }
+
+        StringBuilder jpql = new StringBuilder("SELECT a FROM Artist a");
+        fetch.stream().filter(FETCHABLE::contains).sorted()
+                .forEach(association -> jpql.append(" LEFT JOIN FETCH a.").append(association));
+        jpql.append(" WHERE a.id IN :ids");
+        Map<UUID, Artist> artists = entityManager.createQuery(jpql.toString(), Artist.class)
+                .setParameter("ids", pairs.stream().map(pair -> (UUID) pair[1]).collect(Collectors.toSet()))
+                .getResultStream()
+                .collect(Collectors.toMap(Artist::getId, Function.identity(), (a, b) -> a, HashMap::new));
+
+        return pairs.stream().collect(Collectors.groupingBy(pair -> (UUID) pair[0], LinkedHashMap::new,
+                Collectors.mapping(pair -> artists.get((UUID) pair[1]), Collectors.toList())));
+    }
 }
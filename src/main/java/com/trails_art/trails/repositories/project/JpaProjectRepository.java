@@ -1,13 +1,19 @@
 package com.trails_art.trails.repositories.project;
 
 import com.trails_art.trails.models.Project;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
 public interface JpaProjectRepository extends JpaRepository<Project, UUID>, CustomProjectRepository {
-    List<Project> findByNameContainingIgnoreCase(String name);
+    @EntityGraph(attributePaths = {"image", "location"})
+    List<Project> findBySearchKeyContaining(String searchKey);
+
+    @EntityGraph(attributePaths = {"image", "location"})
+    List<Project> findByIdIn(Collection<UUID> ids);
 
     List<Project> findAllWithEmptyArtists();
 }
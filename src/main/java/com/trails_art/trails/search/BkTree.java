@@ -0,0 +1,131 @@
+package com.trails_art.trails.search;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Burkhard-Keller tree of terms under Levenshtein distance. Children hang off a node by their
+ * distance to it, so by the triangle inequality a lookup within {@code k} of a term only descends
+ * into children at {@code d - k .. d + k}, where {@code d} is the term's distance to the node.
+ * <p>
+ * Removing an id leaves its node in place to keep routing lookups; {@link #deadNodes()} tells the
+ * owner when rebuilding is worth it. Not thread-safe.
+ */
+final class BkTree {
+
+    private static final class Node {
+        final String term;
+        final Set<UUID> ids = new HashSet<>(2);
+        Map<Integer, Node> children;
+
+        Node(String term) {
+            this.term = term;
+        }
+    }
+
+    private final Map<String, Node> nodes = new HashMap<>();
+    private Node root;
+    private int deadNodes;
+
+    void add(String term, UUID id) {
+        Node node = nodes.get(term);
+        if (node == null) {
+            node = insert(term);
+        } else if (node.ids.isEmpty()) {
+            deadNodes--;
+        }
+        node.ids.add(id);
+    }
+
+    void remove(String term, UUID id) {
+        Node node = nodes.get(term);
+        if (node != null && node.ids.remove(id) && node.ids.isEmpty()) {
+            deadNodes++;
+        }
+    }
+
+    int deadNodes() {
+        return deadNodes;
+    }
+
+    int nodes() {
+        return nodes.size();
+    }
+
+    // calls matches for every id whose term is within maxDistance of the query
+    void search(String query, int maxDistance, ObjIntConsumer<UUID> matches) {
+        if (root == null) {
+            return;
+        }
+        ArrayDeque<Node> pending = new ArrayDeque<>();
+        pending.push(root);
+        while (!pending.isEmpty()) {
+            Node node = pending.pop();
+            int distance = distance(query, node.term);
+            if (distance <= maxDistance) {
+                for (UUID id : node.ids) {
+                    matches.accept(id, distance);
+                }
+            }
+            if (node.children != null) {
+                for (int d = Math.max(0, distance - maxDistance); d <= distance + maxDistance; d++) {
+                    Node child = node.children.get(d);
+                    if (child != null) {
+                        pending.push(child);
+                    }
+                }
+            }
+        }
+    }
+
+    private Node insert(String term) {
+        Node created = new Node(term);
+        nodes.put(term, created);
+        if (root == null) {
+            root = created;
+            return created;
+        }
+        Node node = root;
+        while (true) {
+            int distance = distance(term, node.term);
+            if (node.children == null) {
+                node.children = new HashMap<>(4);
+            }
+            Node child = node.children.putIfAbsent(distance, created);
+            if (child == null) {
+                return created;
+            }
+            node = child;
+        }
+    }
+
+    static int distance(String a, String b) {
+        if (a.length() < b.length()) {
+            String swap = a;
+            a = b;
+            b = swap;
+        }
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            char c = a.charAt(i - 1);
+            for (int j = 1; j <= b.length(); j++) {
+                int substitution = previous[j - 1] + (c == b.charAt(j - 1) ? 0 : 1);
+                current[j] = Math.min(substitution, Math.min(previous[j], current[j - 1]) + 1);
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()];
+    }
+}
@@ -0,0 +1,143 @@
+package com.trails_art.trails.search;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.UUID;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only log of the index changes made since a segment was written. Records are a length, a
+ * CRC32 and the change; replay stops at the first torn or corrupt record and cuts the file there, so
+ * a crash in the middle of an append loses only that change. Appends reach the OS on every change but
+ * are not fsynced; after a power loss {@link SearchIndex#rebuild()} restores anything missing.
+ */
+@Slf4j
+final class DeltaLog implements Closeable {
+
+    private static final byte PUT = 1;
+    private static final byte REMOVE = 2;
+
+    interface Changes {
+        void put(DocumentKey key, String name, String description);
+
+        void remove(DocumentKey key);
+    }
+
+    private final FileChannel channel;
+
+    private DeltaLog(FileChannel channel) {
+        this.channel = channel;
+    }
+
+    static DeltaLog open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        channel.position(channel.size());
+        return new DeltaLog(channel);
+    }
+
+    // returns how many changes were applied
+    static int replay(Path file, Changes changes) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+        int applied = 0;
+        while (buffer.remaining() >= 8) {
+            int start = buffer.position();
+            int length = buffer.getInt();
+            int checksum = buffer.getInt();
+            if (length < 0 || length > buffer.remaining() || crc(buffer.array(), buffer.position(), length) != checksum) {
+                buffer.position(start);
+                break;
+            }
+            ByteBuffer record = buffer.slice(buffer.position(), length);
+            buffer.position(buffer.position() + length);
+            byte op = record.get();
+            DocumentKey key = new DocumentKey(SearchType.values()[record.get()], new UUID(record.getLong(), record.getLong()));
+            if (op == PUT) {
+                changes.put(key, readString(record), readString(record));
+            } else {
+                changes.remove(key);
+            }
+            applied++;
+        }
+        if (buffer.hasRemaining()) {
+            log.warn("Dropping {} bytes of incomplete changes at the end of {}", buffer.remaining(), file);
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                channel.truncate(buffer.position());
+            }
+        }
+        return applied;
+    }
+
+    synchronized void put(DocumentKey key, String name, String description) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        writeKey(out, PUT, key);
+        writeString(out, name);
+        writeString(out, description);
+        append(bytes.toByteArray());
+    }
+
+    synchronized void remove(DocumentKey key) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        writeKey(new DataOutputStream(bytes), REMOVE, key);
+        append(bytes.toByteArray());
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        channel.close();
+    }
+
+    private void append(byte[] payload) throws IOException {
+        ByteBuffer record = ByteBuffer.allocate(8 + payload.length)
+                .putInt(payload.length)
+                .putInt(crc(payload, 0, payload.length))
+                .put(payload)
+                .flip();
+        while (record.hasRemaining()) {
+            channel.write(record);
+        }
+    }
+
+    private static void writeKey(DataOutputStream out, byte op, DocumentKey key) throws IOException {
+        out.writeByte(op);
+        out.writeByte(key.type().ordinal());
+        out.writeLong(key.id().getMostSignificantBits());
+        out.writeLong(key.id().getLeastSignificantBits());
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer record) {
+        int length = record.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        record.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int crc(byte[] bytes, int offset, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes, offset, length);
+        return (int) crc.getValue();
+    }
+}
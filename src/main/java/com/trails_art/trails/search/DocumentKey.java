@@ -0,0 +1,5 @@
+package com.trails_art.trails.search;
+
+import java.util.UUID;
+
+record DocumentKey(SearchType type, UUID id) { }
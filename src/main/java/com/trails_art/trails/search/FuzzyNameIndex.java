@@ -0,0 +1,122 @@
+package com.trails_art.trails.search;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiConsumer;
+
+/**
+ * Names by edit distance, one {@link BkTree} per type. Each name is indexed whole and by its words of
+ * three or more letters, normalized as by {@link SearchText}, and a name's distance to a query is the
+ * smallest over those terms, so "banksi" finds "Banksy" and "pochivca" finds "Gosho Pochivka".
+ */
+final class FuzzyNameIndex {
+
+    private static final int MIN_WORD_LENGTH = 3;
+
+    private record Entry(String name, Set<String> terms) { }
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<SearchType, BkTree> trees = new EnumMap<>(SearchType.class);
+    private final Map<DocumentKey, Entry> entries = new HashMap<>();
+
+    void put(DocumentKey key, String name) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(key);
+            Entry entry = new Entry(name, terms(name));
+            if (entry.terms().isEmpty()) {
+                return;
+            }
+            entries.put(key, entry);
+            BkTree tree = trees.computeIfAbsent(key.type(), type -> new BkTree());
+            entry.terms().forEach(term -> tree.add(term, key.id()));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void remove(DocumentKey key) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(key);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // closest first, then by name
+    List<NameMatch> find(SearchType type, String query, int maxDistance, int limit) {
+        String term = SearchText.normalize(query);
+        if (term.isEmpty()) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            BkTree tree = trees.get(type);
+            if (tree == null) {
+                return List.of();
+            }
+            Map<UUID, Integer> best = new HashMap<>();
+            tree.search(term, maxDistance, (id, distance) -> best.merge(id, distance, Math::min));
+            List<NameMatch> matches = new ArrayList<>(best.size());
+            best.forEach((id, distance) -> matches.add(
+                    new NameMatch(id, entries.get(new DocumentKey(type, id)).name(), distance)));
+            matches.sort(Comparator.comparingInt(NameMatch::distance)
+                    .thenComparing(NameMatch::name, String.CASE_INSENSITIVE_ORDER));
+            return matches.size() > limit ? matches.subList(0, limit) : matches;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    void forEach(BiConsumer<DocumentKey, String> visitor) {
+        lock.readLock().lock();
+        try {
+            entries.forEach((key, entry) -> visitor.accept(key, entry.name()));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void removeLocked(DocumentKey key) {
+        Entry entry = entries.remove(key);
+        if (entry == null) {
+            return;
+        }
+        BkTree tree = trees.get(key.type());
+        entry.terms().forEach(term -> tree.remove(term, key.id()));
+        // removed names only route lookups; rebuild once they are the majority
+        if (tree.deadNodes() * 2 > tree.nodes()) {
+            BkTree rebuilt = new BkTree();
+            entries.forEach((other, kept) -> {
+                if (other.type() == key.type()) {
+                    kept.terms().forEach(term -> rebuilt.add(term, other.id()));
+                }
+            });
+            trees.put(key.type(), rebuilt);
+        }
+    }
+
+    private static Set<String> terms(String name) {
+        String normalized = SearchText.normalize(name);
+        Set<String> terms = new LinkedHashSet<>();
+        if (normalized.isEmpty()) {
+            return terms;
+        }
+        terms.add(normalized);
+        for (String word : normalized.split(" ")) {
+            if (word.length() >= MIN_WORD_LENGTH) {
+                terms.add(word);
+            }
+        }
+        return terms;
+    }
+}
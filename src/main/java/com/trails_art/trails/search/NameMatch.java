@@ -0,0 +1,5 @@
+package com.trails_art.trails.search;
+
+import java.util.UUID;
+
+public record NameMatch(UUID id, String name, int distance) { }
@@ -0,0 +1,122 @@
+package com.trails_art.trails.search;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeMap;
+
+/**
+ * Immutable prefix trie whose every node holds the best {@code topK} suggestions below it, so a
+ * completion walks the prefix and copies a precomputed slice; nothing is searched or sorted per
+ * request. Nodes are flattened into arrays: the edges of node {@code n} are
+ * {@code labels[childStart[n] .. childStart[n + 1])}, sorted for binary search.
+ */
+final class PrefixTrie {
+
+    static final PrefixTrie EMPTY = build(List.of(), 1);
+
+    // a suggestion and the normalized terms it completes
+    record Entry(Suggestion suggestion, List<String> terms) { }
+
+    private final char[] labels;
+    private final int[] children;
+    private final int[] childStart;
+    private final int[] top;
+    private final int[] topStart;
+    private final Suggestion[] suggestions;
+
+    private PrefixTrie(char[] labels, int[] children, int[] childStart, int[] top, int[] topStart,
+                       Suggestion[] suggestions) {
+        this.labels = labels;
+        this.children = children;
+        this.childStart = childStart;
+        this.top = top;
+        this.topStart = topStart;
+        this.suggestions = suggestions;
+    }
+
+    // entries best first
+    static PrefixTrie build(List<Entry> ranked, int topK) {
+        Node root = new Node();
+        int nodeCount = 1;
+        for (int ordinal = 0; ordinal < ranked.size(); ordinal++) {
+            for (String term : ranked.get(ordinal).terms()) {
+                Node node = root;
+                for (int i = 0; i < term.length(); i++) {
+                    Node child = node.children.get(term.charAt(i));
+                    if (child == null) {
+                        child = new Node();
+                        node.children.put(term.charAt(i), child);
+                        nodeCount++;
+                    }
+                    node = child;
+                    // entries arrive best first, so the first topK are the best; terms of one entry are adjacent
+                    if (node.top.size() < topK && (node.top.isEmpty() || node.top.getLast() != ordinal)) {
+                        node.top.add(ordinal);
+                    }
+                }
+            }
+        }
+
+        char[] labels = new char[nodeCount - 1];
+        int[] children = new int[nodeCount - 1];
+        int[] childStart = new int[nodeCount + 1];
+        int[] topStart = new int[nodeCount + 1];
+        int[] top = new int[0];
+        int topSize = 0;
+        int edges = 0;
+        int assigned = 1;
+        ArrayDeque<Node> pending = new ArrayDeque<>();
+        pending.add(root);
+        for (int index = 0; index < nodeCount; index++) {
+            Node node = pending.poll();
+            childStart[index] = edges;
+            for (var child : node.children.entrySet()) {
+                labels[edges] = child.getKey();
+                children[edges++] = assigned++;
+                pending.add(child.getValue());
+            }
+            topStart[index] = topSize;
+            if (topSize + node.top.size() > top.length) {
+                top = Arrays.copyOf(top, Math.max(top.length * 2, topSize + node.top.size()));
+            }
+            for (int ordinal : node.top) {
+                top[topSize++] = ordinal;
+            }
+        }
+        childStart[nodeCount] = edges;
+        topStart[nodeCount] = topSize;
+        return new PrefixTrie(labels, children, childStart, Arrays.copyOf(top, topSize), topStart,
+                ranked.stream().map(Entry::suggestion).toArray(Suggestion[]::new));
+    }
+
+    List<Suggestion> complete(String normalizedPrefix, int limit) {
+        if (normalizedPrefix.isEmpty()) {
+            return List.of();
+        }
+        int node = 0;
+        for (int i = 0; i < normalizedPrefix.length(); i++) {
+            int edge = Arrays.binarySearch(labels, childStart[node], childStart[node + 1], normalizedPrefix.charAt(i));
+            if (edge < 0) {
+                return List.of();
+            }
+            node = children[edge];
+        }
+        int end = Math.min(topStart[node + 1], topStart[node] + limit);
+        List<Suggestion> results = new ArrayList<>(end - topStart[node]);
+        for (int i = topStart[node]; i < end; i++) {
+            results.add(suggestions[top[i]]);
+        }
+        return results;
+    }
+
+    int size() {
+        return suggestions.length;
+    }
+
+    private static final class Node {
+        final TreeMap<Character, Node> children = new TreeMap<>();
+        final List<Integer> top = new ArrayList<>(2);
+    }
+}
@@ -0,0 +1,433 @@
+package com.trails_art.trails.search;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.Predicate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * The live search index over project, artist, event and location names and descriptions, kept in
+ * {@code trails.search.index-dir} as a memory-mapped {@link Segment} plus a {@link DeltaLog} of the
+ * changes {@link SearchIndexListener} applied since. Startup maps the newest segment and replays its
+ * log, so a node serves search right away. It then compares the number of documents of each type
+ * with the row count of its table, and rebuilds when there is no segment or any count differs.
+ * <p>
+ * Changes also go to an in-memory delta that shadows the segment. A background merge freezes the
+ * delta, starts a new log, and writes the segment and frozen delta out as the next generation's
+ * segment; {@link #rebuild()} does the same from the database. Files of older generations are
+ * deleted once the new segment is in place. Writes by other nodes or straight to the database are
+ * only picked up by a rebuild; the startup check catches those that changed a row count.
+ * <p>
+ * Names are also held in a {@link FuzzyNameIndex} for typo-tolerant lookups, loaded from the segment
+ * at startup and after a rebuild.
+ */
+@Slf4j
+@Component
+public class SearchIndex implements ApplicationRunner {
+
+    private static final Pattern SEGMENT_FILE = Pattern.compile("segment-(\\d+)\\.seg");
+    private static final Pattern DELTA_FILE = Pattern.compile("delta-(\\d+)\\.log");
+    private static final int MAX_FUZZY_DISTANCE = 3;
+    private static final List<Source> SOURCES = List.of(
+            new Source(SearchType.PROJECT, "projects", "null"),
+            new Source(SearchType.ARTIST, "artists", "description"),
+            new Source(SearchType.EVENT, "events", "description"),
+            new Source(SearchType.LOCATION, "locations", "null"));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final double minMatch;
+    private final int fuzzyLimit;
+    private final Path directory;
+    private final boolean temporary;
+
+    // writers take updateLock; merges and rebuilds also take mergeLock, so only one runs at a time
+    private final Object updateLock = new Object();
+    private final Object mergeLock = new Object();
+    private volatile State state;
+    private volatile FuzzyNameIndex names;
+    private final AtomicLong version = new AtomicLong();
+
+    // searched newest first: a key touched by a newer layer hides that document in older ones
+    private record State(Segment segment, Delta frozen, Delta live) { }
+
+    // the table a type is indexed from, and the column read as its description
+    private record Source(SearchType type, String table, String description) { }
+
+    public SearchIndex(JdbcTemplate jdbcTemplate,
+                       @Value("${trails.search.min-match:0.5}") double minMatch,
+                       @Value("${trails.search.index-dir:data/search}") String directory,
+                       @Value("${trails.search.fuzzy-limit:50}") int fuzzyLimit) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.minMatch = minMatch;
+        this.fuzzyLimit = fuzzyLimit;
+        try {
+            // blank keeps the index in a throwaway directory, as tests do
+            this.temporary = directory.isBlank();
+            this.directory = temporary
+                    ? Files.createTempDirectory("trails-search-")
+                    : Files.createDirectories(Path.of(directory).toAbsolutePath());
+            this.state = open();
+            this.names = names(state);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open the search index in " + directory, e);
+        }
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (state.segment() == null || !matchesDatabase()) {
+            rebuild();
+        }
+    }
+
+    // replaces the segment with one read from the database; changes committed meanwhile stay on top
+    public void rebuild() {
+        synchronized (mergeLock) {
+            long start = System.nanoTime();
+            State frozen = freeze();
+            SegmentWriter writer = new SegmentWriter();
+            for (Source source : SOURCES) {
+                load(writer, source.type(), "select id, name, " + source.description() + " from " + source.table());
+            }
+            publish(writer, frozen.live().generation);
+            synchronized (updateLock) {
+                names = names(state);
+                version.incrementAndGet();
+            }
+            log.info("Indexed {} documents for search in {} ms", writer.size(), (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+
+    // folds the changes since the last merge into a new segment; a failed merge is retried next time
+    @Scheduled(fixedDelayString = "${trails.search.merge-interval:PT5M}",
+            initialDelayString = "${trails.search.merge-interval:PT5M}")
+    public void merge() {
+        synchronized (mergeLock) {
+            State current = state;
+            if (current.segment() == null || current.frozen() == null && current.live().touched.isEmpty()) {
+                return;
+            }
+            State merging = current.frozen() != null ? current : freeze();
+            Delta frozen = merging.frozen();
+            SegmentWriter writer = new SegmentWriter();
+            merging.segment().forEach((key, name, description) -> {
+                if (!frozen.touched.contains(key)) {
+                    writer.add(key, name, description);
+                }
+            });
+            frozen.index.forEach(writer::add);
+            publish(writer, merging.live().generation);
+            log.debug("Merged {} search index changes into a segment of {} documents",
+                    frozen.touched.size(), writer.size());
+        }
+    }
+
+    public void put(SearchType type, UUID id, String name, String description) {
+        DocumentKey key = new DocumentKey(type, id);
+        synchronized (updateLock) {
+            Delta live = state.live();
+            live.append(deltaLog -> deltaLog.put(key, name, description));
+            live.put(key, name, description);
+            names.put(key, name);
+            version.incrementAndGet();
+        }
+    }
+
+    public void remove(SearchType type, UUID id) {
+        DocumentKey key = new DocumentKey(type, id);
+        synchronized (updateLock) {
+            Delta live = state.live();
+            live.append(deltaLog -> deltaLog.remove(key));
+            live.remove(key);
+            names.remove(key);
+            version.incrementAndGet();
+        }
+    }
+
+    public List<SearchHit> search(String query, int limit, Set<SearchType> types) {
+        State current = state;
+        Delta live = current.live();
+        Delta frozen = current.frozen();
+        List<SearchHit> hits = new ArrayList<>(live.index.search(query, limit, types));
+        if (frozen != null) {
+            hits.addAll(frozen.index.search(query, limit, types, live.touched::contains));
+        }
+        if (current.segment() != null) {
+            hits.addAll(current.segment().search(query, limit, types,
+                    key -> live.touched.contains(key) || frozen != null && frozen.touched.contains(key), minMatch));
+        }
+        List<SearchHit> ranked = TrigramIndex.ranked(hits);
+        return ranked.size() > limit ? ranked.subList(0, limit) : ranked;
+    }
+
+    // documents of one type matching the query, best first, at most fuzzy-limit of them; backs ?name= lookups
+    public List<SearchHit> searchNames(SearchType type, String query) {
+        return search(query, fuzzyLimit, Set.of(type));
+    }
+
+    // names within maxDistance edits of the query, closest first
+    public List<NameMatch> findSimilarNames(SearchType type, String name, int maxDistance) {
+        if (maxDistance < 0 || maxDistance > MAX_FUZZY_DISTANCE) {
+            throw new IllegalArgumentException("fuzzy must be between 0 and " + MAX_FUZZY_DISTANCE + ".");
+        }
+        return names.find(type, name, maxDistance, fuzzyLimit);
+    }
+
+    // changes whenever a document is put or removed, or the index is rebuilt
+    long version() {
+        return version.get();
+    }
+
+    void forEachName(BiConsumer<DocumentKey, String> visitor) {
+        names.forEach(visitor);
+    }
+
+    @PreDestroy
+    void close() throws IOException {
+        synchronized (updateLock) {
+            state.live().close();
+        }
+        if (temporary) {
+            try (Stream<Path> files = Files.list(directory)) {
+                for (Path file : files.toList()) {
+                    Files.deleteIfExists(file);
+                }
+            }
+            Files.deleteIfExists(directory);
+        }
+    }
+
+    // the documents of each type against the rows of its table; a count is a cheap watermark for
+    // inserts and deletes this node never saw, renames alone still need a manual rebuild
+    private boolean matchesDatabase() {
+        Map<SearchType, Long> indexed = new EnumMap<>(SearchType.class);
+        forEachDocument(state, (key, name) -> indexed.merge(key.type(), 1L, Long::sum));
+        for (Source source : SOURCES) {
+            Long rows = jdbcTemplate.queryForObject("select count(*) from " + source.table(), Long.class);
+            long documents = indexed.getOrDefault(source.type(), 0L);
+            if (rows == null || rows != documents) {
+                log.info("Search index holds {} {} documents but the database has {} rows; rebuilding",
+                        documents, source.type().label(), rows);
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private State open() throws IOException {
+        deleteFiles(file -> file.getFileName().toString().endsWith(".tmp"));
+        List<Integer> segments = generations(SEGMENT_FILE);
+        Segment segment = null;
+        int generation = 0;
+        if (!segments.isEmpty()) {
+            generation = segments.getLast();
+            try {
+                segment = Segment.open(segmentFile(generation));
+            } catch (IOException e) {
+                log.warn("Ignoring unreadable search segment {}; the index will be rebuilt", segmentFile(generation), e);
+            }
+        }
+        Delta live = new Delta(0);
+        int replayed = 0;
+        for (int delta : generations(DELTA_FILE)) {
+            if (delta >= generation) {
+                replayed += DeltaLog.replay(deltaFile(delta), live);
+                generation = delta;
+            }
+        }
+        live = live.withGeneration(generation, DeltaLog.open(deltaFile(generation)));
+        if (segment != null) {
+            log.info("Opened search segment {} with {} documents and {} changes since",
+                    generation, segment.size(), replayed);
+        }
+        return new State(segment, null, live);
+    }
+
+    // every document's name, each from the newest layer that has it
+    private static FuzzyNameIndex names(State state) {
+        FuzzyNameIndex names = new FuzzyNameIndex();
+        forEachDocument(state, names::put);
+        return names;
+    }
+
+    // visits each current document once, from the newest layer that has it
+    private static void forEachDocument(State state, BiConsumer<DocumentKey, String> visitor) {
+        Delta live = state.live();
+        Delta frozen = state.frozen();
+        if (state.segment() != null) {
+            state.segment().forEach((key, name, description) -> {
+                if (!live.touched.contains(key) && (frozen == null || !frozen.touched.contains(key))) {
+                    visitor.accept(key, name);
+                }
+            });
+        }
+        if (frozen != null) {
+            frozen.index.forEach((key, name, description) -> {
+                if (!live.touched.contains(key)) {
+                    visitor.accept(key, name);
+                }
+            });
+        }
+        live.index.forEach((key, name, description) -> visitor.accept(key, name));
+    }
+
+    // hands the live delta to a merge and starts the next generation's log
+    private State freeze() {
+        synchronized (updateLock) {
+            State current = state;
+            int generation = current.live().generation + 1;
+            try {
+                Delta next = new Delta(generation).withGeneration(generation, DeltaLog.open(deltaFile(generation)));
+                state = new State(current.segment(), current.live(), next);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not start search index log " + generation, e);
+            }
+            return state;
+        }
+    }
+
+    // swaps in the segment holding everything before generation, then drops the older files
+    private void publish(SegmentWriter writer, int generation) {
+        Delta frozen;
+        try {
+            writer.write(segmentFile(generation));
+            Segment segment = Segment.open(segmentFile(generation));
+            synchronized (updateLock) {
+                frozen = state.frozen();
+                state = new State(segment, null, state.live());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write search segment " + generation, e);
+        }
+        frozen.close();
+        try {
+            deleteFiles(file -> generationOf(file) < generation);
+        } catch (IOException e) {
+            log.warn("Could not delete old search index files in {}", directory, e);
+        }
+    }
+
+    private void load(SegmentWriter writer, SearchType type, String sql) {
+        jdbcTemplate.query(sql, rs -> {
+            writer.add(new DocumentKey(type, rs.getObject(1, UUID.class)), rs.getString(2), rs.getString(3));
+        });
+    }
+
+    private List<Integer> generations(Pattern pattern) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(file -> pattern.matcher(file.getFileName().toString()))
+                    .filter(Matcher::matches)
+                    .map(matcher -> Integer.parseInt(matcher.group(1)))
+                    .sorted(Comparator.naturalOrder())
+                    .toList();
+        }
+    }
+
+    private void deleteFiles(Predicate<Path> filter) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.filter(filter).toList()) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    // Integer.MAX_VALUE for files that belong to no generation
+    private static int generationOf(Path file) {
+        String name = file.getFileName().toString();
+        for (Pattern pattern : List.of(SEGMENT_FILE, DELTA_FILE)) {
+            Matcher matcher = pattern.matcher(name);
+            if (matcher.matches()) {
+                return Integer.parseInt(matcher.group(1));
+            }
+        }
+        return Integer.MAX_VALUE;
+    }
+
+    private Path segmentFile(int generation) {
+        return directory.resolve("segment-" + generation + ".seg");
+    }
+
+    private Path deltaFile(int generation) {
+        return directory.resolve("delta-" + generation + ".log");
+    }
+
+    // changes since a segment: the current documents, plus every key put or removed
+    private final class Delta implements DeltaLog.Changes {
+        final int generation;
+        final TrigramIndex index;
+        final Set<DocumentKey> touched;
+        private final DeltaLog deltaLog;
+
+        Delta(int generation) {
+            this(generation, new TrigramIndex(minMatch), ConcurrentHashMap.newKeySet(), null);
+        }
+
+        private Delta(int generation, TrigramIndex index, Set<DocumentKey> touched, DeltaLog deltaLog) {
+            this.generation = generation;
+            this.index = index;
+            this.touched = touched;
+            this.deltaLog = deltaLog;
+        }
+
+        Delta withGeneration(int generation, DeltaLog deltaLog) {
+            return new Delta(generation, index, touched, deltaLog);
+        }
+
+        // touched first, so a concurrent search never sees both the old and the new version
+        @Override
+        public void put(DocumentKey key, String name, String description) {
+            touched.add(key);
+            index.put(key.type(), key.id(), name, description);
+        }
+
+        @Override
+        public void remove(DocumentKey key) {
+            touched.add(key);
+            index.remove(key.type(), key.id());
+        }
+
+        void append(LogWrite write) {
+            try {
+                write.to(deltaLog);
+            } catch (IOException e) {
+                log.warn("Could not log a search index change; it is lost on restart until the next merge", e);
+            }
+        }
+
+        void close() {
+            try {
+                deltaLog.close();
+            } catch (IOException e) {
+                log.debug("Could not close search index log {}", generation, e);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface LogWrite {
+        void to(DeltaLog log) throws IOException;
+    }
+}
@@ -0,0 +1,72 @@
+package com.trails_art.trails.search;
+
+import com.trails_art.trails.models.Artist;
+import com.trails_art.trails.models.Event;
+import com.trails_art.trails.models.Location;
+import com.trails_art.trails.models.Project;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.function.Consumer;
+
+/**
+ * Applies writes to Project, Artist, Event and Location rows to the {@link SearchIndex} once they
+ * commit, so rolled-back changes never show up in search.
+ * <p>
+ * Instantiated by Hibernate through Spring's bean container.
+ */
+public class SearchIndexListener {
+
+    private final ObjectProvider<SearchIndex> searchIndex;
+
+    public SearchIndexListener(ObjectProvider<SearchIndex> searchIndex) {
+        this.searchIndex = searchIndex;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void onSaved(Object entity) {
+        Consumer<SearchIndex> update = switch (entity) {
+            case Project project -> index -> index.put(SearchType.PROJECT, project.getId(), project.getName(), null);
+            case Artist artist -> index -> index.put(SearchType.ARTIST, artist.getId(), artist.getName(), artist.getDescription());
+            case Event event -> index -> index.put(SearchType.EVENT, event.getId(), event.getName(), event.getDescription());
+            case Location location -> index -> index.put(SearchType.LOCATION, location.getId(), location.getName(), null);
+            default -> null;
+        };
+        afterCommit(update);
+    }
+
+    @PostRemove
+    public void onRemoved(Object entity) {
+        Consumer<SearchIndex> update = switch (entity) {
+            case Project project -> index -> index.remove(SearchType.PROJECT, project.getId());
+            case Artist artist -> index -> index.remove(SearchType.ARTIST, artist.getId());
+            case Event event -> index -> index.remove(SearchType.EVENT, event.getId());
+            case Location location -> index -> index.remove(SearchType.LOCATION, location.getId());
+            default -> null;
+        };
+        afterCommit(update);
+    }
+
+    // JPA test slices run without an index
+    private void afterCommit(Consumer<SearchIndex> change) {
+        if (change == null) {
+            return;
+        }
+        Runnable update = () -> searchIndex.ifAvailable(change);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            update.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                update.run();
+            }
+        });
+    }
+}
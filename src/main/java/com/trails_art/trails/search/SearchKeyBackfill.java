@@ -0,0 +1,46 @@
+package com.trails_art.trails.search;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Fills the search_key column of rows written before it existed. New and updated rows get their key
+ * from the entity on write; this only touches rows where it is still null, in batches. It runs once
+ * all singletons exist, before the web server starts, so name search never misses an old row.
+ */
+@Slf4j
+@Component
+public class SearchKeyBackfill implements SmartInitializingSingleton {
+
+    private static final int BATCH_SIZE = 500;
+    private static final List<String> TABLES = List.of("artists", "projects", "events", "locations");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public SearchKeyBackfill(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        for (String table : TABLES) {
+            int filled = 0;
+            List<Object[]> batch;
+            do {
+                batch = jdbcTemplate.query(
+                        "select id, name from " + table + " where search_key is null fetch first " + BATCH_SIZE + " rows only",
+                        (rs, row) -> new Object[]{SearchText.normalize(rs.getString(2)), rs.getObject(1, UUID.class)});
+                jdbcTemplate.batchUpdate("update " + table + " set search_key = ? where id = ?", batch);
+                filled += batch.size();
+            } while (batch.size() == BATCH_SIZE);
+            if (filled > 0) {
+                log.info("Filled the search key of {} rows in {}", filled, table);
+            }
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.trails_art.trails.search;
+
+import java.text.Normalizer;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Text as search sees it: lowercase Latin words of letters and digits, and their padded trigrams.
+ * Bulgarian Cyrillic is transliterated by the Streamlined System, so "София" and "Sofia" both become
+ * "sofia", and accents are stripped, so "Café" matches "cafe". Entities store the normalized name as
+ * their search key.
+ */
+public final class SearchText {
+
+    private static final Map<Character, String> LATIN = Map.ofEntries(
+            Map.entry('а', "a"), Map.entry('б', "b"), Map.entry('в', "v"), Map.entry('г', "g"),
+            Map.entry('д', "d"), Map.entry('е', "e"), Map.entry('ж', "zh"), Map.entry('з', "z"),
+            Map.entry('и', "i"), Map.entry('й', "y"), Map.entry('к', "k"), Map.entry('л', "l"),
+            Map.entry('м', "m"), Map.entry('н', "n"), Map.entry('о', "o"), Map.entry('п', "p"),
+            Map.entry('р', "r"), Map.entry('с', "s"), Map.entry('т', "t"), Map.entry('у', "u"),
+            Map.entry('ф', "f"), Map.entry('х', "h"), Map.entry('ц', "ts"), Map.entry('ч', "ch"),
+            Map.entry('ш', "sh"), Map.entry('щ', "sht"), Map.entry('ъ', "a"), Map.entry('ь', "y"),
+            Map.entry('ю', "yu"), Map.entry('я', "ya"),
+            // Russian letters that turn up in names
+            Map.entry('ё', "yo"), Map.entry('ы', "y"), Map.entry('э', "e"),
+            // Latin letters without a decomposition
+            Map.entry('ß', "ss"), Map.entry('æ', "ae"), Map.entry('œ', "oe"), Map.entry('ø', "o"),
+            Map.entry('ł', "l"), Map.entry('đ', "d"), Map.entry('ð', "d"), Map.entry('þ', "th"),
+            Map.entry('ı', "i"));
+
+    private SearchText() {
+    }
+
+    public static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String folded = Normalizer.normalize(transliterate(text.toLowerCase(Locale.ROOT)), Normalizer.Form.NFD);
+        StringBuilder out = new StringBuilder(folded.length());
+        boolean space = true;
+        for (int i = 0; i < folded.length(); ) {
+            int c = folded.codePointAt(i);
+            i += Character.charCount(c);
+            if (Character.getType(c) == Character.NON_SPACING_MARK) {
+                continue;
+            }
+            if (Character.isLetterOrDigit(c)) {
+                out.appendCodePoint(c);
+                space = false;
+            } else if (!space) {
+                out.append(' ');
+                space = true;
+            }
+        }
+        int end = out.length();
+        return space && end > 0 ? out.substring(0, end - 1) : out.toString();
+    }
+
+    // before decomposition, which would turn й into и and a breve
+    private static String transliterate(String lower) {
+        StringBuilder out = null;
+        for (int i = 0; i < lower.length(); i++) {
+            char c = lower.charAt(i);
+            String latin = LATIN.get(c);
+            if (latin != null && out == null) {
+                out = new StringBuilder(lower.length() + 8).append(lower, 0, i);
+            }
+            if (out == null) {
+                continue;
+            }
+            // -ия ending a word is -ia: София is Sofia
+            if (c == 'и' && i + 1 < lower.length() && lower.charAt(i + 1) == 'я'
+                    && (i + 2 == lower.length() || !Character.isLetter(lower.charAt(i + 2)))) {
+                out.append("ia");
+                i++;
+            } else if (latin != null) {
+                out.append(latin);
+            } else {
+                out.append(c);
+            }
+        }
+        return out == null ? lower : out.toString();
+    }
+
+    /**
+     * Distinct trigrams of normalized text, each word padded with two spaces in front and one behind
+     * as pg_trgm does, so short words and word starts still produce trigrams. Three UTF-16 units are
+     * packed into one long.
+     */
+    public static long[] trigrams(String normalized) {
+        if (normalized.isEmpty()) {
+            return new long[0];
+        }
+        Set<Long> grams = new LinkedHashSet<>();
+        for (String word : normalized.split(" ")) {
+            String padded = "  " + word + " ";
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                grams.add(((long) padded.charAt(i) << 32) | ((long) padded.charAt(i + 1) << 16) | padded.charAt(i + 2));
+            }
+        }
+        return grams.stream().mapToLong(Long::longValue).toArray();
+    }
+}
@@ -0,0 +1,22 @@
+package com.trails_art.trails.search;
+
+import java.util.Locale;
+
+public enum SearchType {
+    PROJECT,
+    ARTIST,
+    EVENT,
+    LOCATION;
+
+    public String label() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    public static SearchType from(String value) {
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown search type: " + value + ". Use project, artist, event or location.");
+        }
+    }
+}
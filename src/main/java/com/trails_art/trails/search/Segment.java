@@ -0,0 +1,157 @@
+package com.trails_art.trails.search;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Predicate;
+
+/**
+ * An immutable, memory-mapped slice of the search index, as written by {@link SegmentWriter}.
+ * Lookups binary-search the trigram table and walk postings in place, so opening a segment costs
+ * a map call rather than a read of every document, and the pages stay in the OS cache across restarts.
+ * <p>
+ * Layout, big-endian: a header ({@code TRSG}, version, document count, trigram count), the offset of
+ * each document, the trigram table sorted by trigram (the trigram, then start and length of its name
+ * and description postings), the postings as document ordinals, and the documents (type, id, name and
+ * description trigram counts, name, normalized name, description; strings as a byte length, -1 for
+ * null, and UTF-8).
+ */
+final class Segment {
+
+    static final int MAGIC = 0x54525347;
+    static final int VERSION = 2;
+    static final int HEADER_BYTES = 16;
+    static final int GRAM_ENTRY_BYTES = 24;
+
+    private static final SearchType[] TYPES = SearchType.values();
+
+    private final ByteBuffer buffer;
+    private final int documentCount;
+    private final int gramCount;
+    private final int gramTable;
+    private final int postings;
+
+    private Segment(ByteBuffer buffer) throws IOException {
+        if (buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IOException("Not a version " + VERSION + " search segment.");
+        }
+        this.buffer = buffer;
+        this.documentCount = buffer.getInt(8);
+        this.gramCount = buffer.getInt(12);
+        this.gramTable = HEADER_BYTES + 4 * documentCount;
+        this.postings = gramTable + GRAM_ENTRY_BYTES * gramCount;
+    }
+
+    static Segment open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Search segment " + file + " is larger than 2 GiB.");
+            }
+            // the mapping outlives the channel
+            return new Segment(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    int size() {
+        return documentCount;
+    }
+
+    // same matching and scoring as TrigramIndex; documents the skip predicate accepts are left out
+    List<SearchHit> search(String query, int limit, Set<SearchType> types, Predicate<DocumentKey> skip,
+                           double minMatch) {
+        String normalizedQuery = SearchText.normalize(query);
+        long[] grams = SearchText.trigrams(normalizedQuery);
+        if (grams.length == 0 || limit < 1) {
+            return List.of();
+        }
+        Map<Integer, int[]> hits = new HashMap<>();
+        for (long gram : grams) {
+            int entry = find(gram);
+            if (entry >= 0) {
+                int at = gramTable + entry * GRAM_ENTRY_BYTES;
+                count(buffer.getInt(at + 8), buffer.getInt(at + 12), hits, 0);
+                count(buffer.getInt(at + 16), buffer.getInt(at + 20), hits, 1);
+            }
+        }
+        PriorityQueue<SearchHit> top = new PriorityQueue<>(Comparator.comparingDouble(SearchHit::score));
+        for (Map.Entry<Integer, int[]> entry : hits.entrySet()) {
+            int document = documentOffset(entry.getKey());
+            SearchType type = TYPES[buffer.get(document)];
+            if (!types.isEmpty() && !types.contains(type)) {
+                continue;
+            }
+            DocumentKey key = new DocumentKey(type, new UUID(buffer.getLong(document + 1), buffer.getLong(document + 9)));
+            int nameHits = entry.getValue()[0];
+            int descriptionHits = entry.getValue()[1];
+            if (skip.test(key) || !TrigramIndex.admits(nameHits, descriptionHits, grams.length, minMatch)) {
+                continue;
+            }
+            ByteBuffer reader = buffer.duplicate().position(document + 25);
+            String name = readString(reader);
+            String normalizedName = readString(reader);
+            double score = TrigramIndex.score(nameHits, descriptionHits, grams.length,
+                    buffer.getInt(document + 17), buffer.getInt(document + 21), normalizedName.contains(normalizedQuery));
+            TrigramIndex.offer(top, new SearchHit(type, key.id(), name, score), limit);
+        }
+        return TrigramIndex.ranked(top);
+    }
+
+    void forEach(TrigramIndex.DocumentVisitor visitor) {
+        for (int ordinal = 0; ordinal < documentCount; ordinal++) {
+            int document = documentOffset(ordinal);
+            ByteBuffer reader = buffer.duplicate().position(document + 25);
+            String name = readString(reader);
+            readString(reader);
+            String description = readString(reader);
+            visitor.visit(new DocumentKey(TYPES[buffer.get(document)],
+                    new UUID(buffer.getLong(document + 1), buffer.getLong(document + 9))), name, description);
+        }
+    }
+
+    private int documentOffset(int ordinal) {
+        return buffer.getInt(HEADER_BYTES + 4 * ordinal);
+    }
+
+    private int find(long gram) {
+        int low = 0;
+        int high = gramCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long value = buffer.getLong(gramTable + mid * GRAM_ENTRY_BYTES);
+            if (value < gram) {
+                low = mid + 1;
+            } else if (value > gram) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    private void count(int start, int length, Map<Integer, int[]> hits, int field) {
+        for (int i = 0; i < length; i++) {
+            hits.computeIfAbsent(buffer.getInt(postings + 4 * (start + i)), o -> new int[2])[field]++;
+        }
+    }
+
+    private static String readString(ByteBuffer reader) {
+        int length = reader.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        reader.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
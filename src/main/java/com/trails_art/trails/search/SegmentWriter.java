@@ -0,0 +1,162 @@
+package com.trails_art.trails.search;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// collects documents in memory and writes them out as one segment file, see Segment for the layout
+final class SegmentWriter {
+
+    private record Entry(DocumentKey key, byte[] name, byte[] normalizedName, byte[] description,
+                         int nameGrams, int descriptionGrams) {
+
+        int bytes() {
+            return 25 + stringBytes(name) + stringBytes(normalizedName) + stringBytes(description);
+        }
+    }
+
+    private final List<Entry> documents = new ArrayList<>();
+    private final Map<Long, Ordinals> namePostings = new HashMap<>();
+    private final Map<Long, Ordinals> descriptionPostings = new HashMap<>();
+
+    void add(DocumentKey key, String name, String description) {
+        int ordinal = documents.size();
+        String normalizedName = SearchText.normalize(name);
+        long[] nameGrams = SearchText.trigrams(normalizedName);
+        long[] descriptionGrams = SearchText.trigrams(SearchText.normalize(description));
+        for (long gram : nameGrams) {
+            namePostings.computeIfAbsent(gram, g -> new Ordinals()).add(ordinal);
+        }
+        for (long gram : descriptionGrams) {
+            descriptionPostings.computeIfAbsent(gram, g -> new Ordinals()).add(ordinal);
+        }
+        documents.add(new Entry(key, utf8(name), utf8(normalizedName), utf8(description),
+                nameGrams.length, descriptionGrams.length));
+    }
+
+    int size() {
+        return documents.size();
+    }
+
+    // written to a temporary file, synced and then renamed over the target
+    void write(Path target) throws IOException {
+        Set<Long> gramSet = new HashSet<>(namePostings.keySet());
+        gramSet.addAll(descriptionPostings.keySet());
+        long[] grams = gramSet.stream().mapToLong(Long::longValue).sorted().toArray();
+        long postingCount = 0;
+        for (Ordinals ordinals : namePostings.values()) {
+            postingCount += ordinals.size;
+        }
+        for (Ordinals ordinals : descriptionPostings.values()) {
+            postingCount += ordinals.size;
+        }
+        long offset = Segment.HEADER_BYTES + 4L * documents.size() + (long) Segment.GRAM_ENTRY_BYTES * grams.length
+                + 4 * postingCount;
+        long total = offset;
+        for (Entry entry : documents) {
+            total += entry.bytes();
+        }
+        if (total > Integer.MAX_VALUE) {
+            throw new IOException("Search segment would be larger than 2 GiB.");
+        }
+
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16));
+            out.writeInt(Segment.MAGIC);
+            out.writeInt(Segment.VERSION);
+            out.writeInt(documents.size());
+            out.writeInt(grams.length);
+            for (Entry entry : documents) {
+                out.writeInt((int) offset);
+                offset += entry.bytes();
+            }
+            int start = 0;
+            for (long gram : grams) {
+                out.writeLong(gram);
+                start = writeRange(out, namePostings.get(gram), start);
+                start = writeRange(out, descriptionPostings.get(gram), start);
+            }
+            for (long gram : grams) {
+                writeOrdinals(out, namePostings.get(gram));
+                writeOrdinals(out, descriptionPostings.get(gram));
+            }
+            for (Entry entry : documents) {
+                out.writeByte(entry.key().type().ordinal());
+                out.writeLong(entry.key().id().getMostSignificantBits());
+                out.writeLong(entry.key().id().getLeastSignificantBits());
+                out.writeInt(entry.nameGrams());
+                out.writeInt(entry.descriptionGrams());
+                writeString(out, entry.name());
+                writeString(out, entry.normalizedName());
+                writeString(out, entry.description());
+            }
+            out.flush();
+            channel.force(true);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static int writeRange(DataOutputStream out, Ordinals ordinals, int start) throws IOException {
+        int length = ordinals == null ? 0 : ordinals.size;
+        out.writeInt(start);
+        out.writeInt(length);
+        return start + length;
+    }
+
+    private static void writeOrdinals(DataOutputStream out, Ordinals ordinals) throws IOException {
+        if (ordinals != null) {
+            for (int i = 0; i < ordinals.size; i++) {
+                out.writeInt(ordinals.values[i]);
+            }
+        }
+    }
+
+    private static void writeString(DataOutputStream out, byte[] value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+        } else {
+            out.writeInt(value.length);
+            out.write(value);
+        }
+    }
+
+    private static byte[] utf8(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int stringBytes(byte[] value) {
+        return 4 + (value == null ? 0 : value.length);
+    }
+
+    // ordinals are added in increasing order, so the postings come out sorted
+    private static final class Ordinals {
+        private int[] values = new int[4];
+        private int size;
+
+        void add(int ordinal) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = ordinal;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.trails_art.trails.search;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Name completion for {@code /api/suggest} over the names in {@link SearchIndex}. Each name completes
+ * from its start and from the start of each later word, and suggestions rank by popularity: how many
+ * projects an artist has, or artists a project has; events and locations have none. Ties go by name.
+ * <p>
+ * Lookups read an immutable {@link PrefixTrie}. A scheduled refresh builds a new one when the search
+ * index has changed, or once it is older than {@code max-age} so that changed links are counted, and
+ * swaps it in.
+ */
+@Slf4j
+@Component
+public class SuggestionIndex {
+
+    private final SearchIndex searchIndex;
+    private final JdbcTemplate jdbcTemplate;
+    private final int maxLimit;
+    private final long maxAgeNanos;
+
+    private volatile PrefixTrie trie = PrefixTrie.EMPTY;
+    private long builtVersion = -1;
+    private long builtAt;
+
+    public SuggestionIndex(SearchIndex searchIndex, JdbcTemplate jdbcTemplate,
+                           @Value("${trails.suggest.max-limit:10}") int maxLimit,
+                           @Value("${trails.suggest.max-age:PT5M}") Duration maxAge) {
+        this.searchIndex = searchIndex;
+        this.jdbcTemplate = jdbcTemplate;
+        this.maxLimit = Math.max(1, maxLimit);
+        this.maxAgeNanos = maxAge.toNanos();
+    }
+
+    public int maxLimit() {
+        return maxLimit;
+    }
+
+    // at most maxLimit suggestions, most popular first
+    public List<Suggestion> suggest(String prefix, int limit) {
+        return trie.complete(SearchText.normalize(prefix), Math.min(limit, maxLimit));
+    }
+
+    // with no initial delay the first run happens at startup
+    @Scheduled(fixedDelayString = "${trails.suggest.refresh-interval:PT10S}")
+    public synchronized void refresh() {
+        long version = searchIndex.version();
+        if (version == builtVersion && System.nanoTime() - builtAt < maxAgeNanos) {
+            return;
+        }
+        long start = System.nanoTime();
+        Map<DocumentKey, Integer> popularity = new HashMap<>();
+        countLinks(popularity, SearchType.ARTIST, "select artist_id, count(*) from artist_project group by artist_id");
+        countLinks(popularity, SearchType.PROJECT, "select project_id, count(*) from artist_project group by project_id");
+
+        record Ranked(PrefixTrie.Entry entry, int popularity) { }
+        List<Ranked> ranked = new ArrayList<>();
+        searchIndex.forEachName((key, name) -> ranked.add(new Ranked(
+                new PrefixTrie.Entry(new Suggestion(key.type(), key.id(), name), terms(name)),
+                popularity.getOrDefault(key, 0))));
+        ranked.sort(Comparator.comparingInt(Ranked::popularity).reversed()
+                .thenComparing(r -> r.entry().suggestion().name(), String.CASE_INSENSITIVE_ORDER)
+                .thenComparing(r -> r.entry().suggestion().id()));
+        trie = PrefixTrie.build(ranked.stream().map(Ranked::entry).toList(), maxLimit);
+        builtVersion = version;
+        builtAt = System.nanoTime();
+        log.debug("Built suggestions for {} names in {} ms", ranked.size(), (builtAt - start) / 1_000_000);
+    }
+
+    private void countLinks(Map<DocumentKey, Integer> popularity, SearchType type, String sql) {
+        jdbcTemplate.query(sql, rs -> {
+            popularity.put(new DocumentKey(type, rs.getObject(1, UUID.class)), rs.getInt(2));
+        });
+    }
+
+    // the normalized name from each word on
+    private static List<String> terms(String name) {
+        String normalized = SearchText.normalize(name);
+        List<String> terms = new ArrayList<>();
+        int start = 0;
+        while (start < normalized.length()) {
+            terms.add(normalized.substring(start));
+            int space = normalized.indexOf(' ', start);
+            start = space < 0 ? normalized.length() : space + 1;
+        }
+        return terms;
+    }
+}
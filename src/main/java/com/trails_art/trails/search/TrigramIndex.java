@@ -0,0 +1,241 @@
+package com.trails_art.trails.search;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+
+/**
+ * Inverted index from trigrams to documents, over a name and an optional description per document.
+ * <p>
+ * A query matches a document when at least {@code minMatch} of its trigrams occur in one of the
+ * fields. Each field scores the mean of that coverage and the Jaccard similarity of the two trigram
+ * sets, so tighter matches rank first; names weigh twice as much as descriptions, and a name holding
+ * the whole query as a substring gets a bonus. Reads share a lock, so a search only ever waits on
+ * a single document update.
+ */
+public class TrigramIndex {
+
+    private static final double NAME_WEIGHT = 2.0;
+    private static final double SUBSTRING_BONUS = 1.0;
+
+    private record Document(DocumentKey key, String name, String description, String normalizedName,
+                            long[] nameGrams, long[] descriptionGrams) { }
+
+    @FunctionalInterface
+    interface DocumentVisitor {
+        void visit(DocumentKey key, String name, String description);
+    }
+
+    private final double minMatch;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<DocumentKey, Integer> ordinals = new HashMap<>();
+    private final List<Document> documents = new ArrayList<>();
+    private final ArrayDeque<Integer> freeOrdinals = new ArrayDeque<>();
+    private final Map<Long, Postings> namePostings = new HashMap<>();
+    private final Map<Long, Postings> descriptionPostings = new HashMap<>();
+
+    public TrigramIndex(double minMatch) {
+        this.minMatch = Math.min(1.0, Math.max(0.0, minMatch));
+    }
+
+    public void put(SearchType type, UUID id, String name, String description) {
+        String normalizedName = SearchText.normalize(name);
+        Document document = new Document(new DocumentKey(type, id), name, description, normalizedName,
+                SearchText.trigrams(normalizedName), SearchText.trigrams(SearchText.normalize(description)));
+        lock.writeLock().lock();
+        try {
+            removeLocked(document.key());
+            Integer free = freeOrdinals.poll();
+            int ordinal = free != null ? free : documents.size();
+            if (free != null) {
+                documents.set(ordinal, document);
+            } else {
+                documents.add(document);
+            }
+            ordinals.put(document.key(), ordinal);
+            for (long gram : document.nameGrams()) {
+                namePostings.computeIfAbsent(gram, g -> new Postings()).add(ordinal);
+            }
+            for (long gram : document.descriptionGrams()) {
+                descriptionPostings.computeIfAbsent(gram, g -> new Postings()).add(ordinal);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(SearchType type, UUID id) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(new DocumentKey(type, id));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return ordinals.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // best matches first; an empty types set means every type
+    public List<SearchHit> search(String query, int limit, Set<SearchType> types) {
+        return search(query, limit, types, key -> false);
+    }
+
+    List<SearchHit> search(String query, int limit, Set<SearchType> types, Predicate<DocumentKey> skip) {
+        String normalizedQuery = SearchText.normalize(query);
+        long[] grams = SearchText.trigrams(normalizedQuery);
+        if (grams.length == 0 || limit < 1) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            Map<Integer, int[]> hits = new HashMap<>();
+            for (long gram : grams) {
+                count(namePostings.get(gram), hits, 0);
+                count(descriptionPostings.get(gram), hits, 1);
+            }
+            PriorityQueue<SearchHit> top = new PriorityQueue<>(Comparator.comparingDouble(SearchHit::score));
+            for (Map.Entry<Integer, int[]> entry : hits.entrySet()) {
+                Document document = documents.get(entry.getKey());
+                if (!types.isEmpty() && !types.contains(document.key().type()) || skip.test(document.key())) {
+                    continue;
+                }
+                int nameHits = entry.getValue()[0];
+                int descriptionHits = entry.getValue()[1];
+                if (!admits(nameHits, descriptionHits, grams.length, minMatch)) {
+                    continue;
+                }
+                double score = score(nameHits, descriptionHits, grams.length, document.nameGrams().length,
+                        document.descriptionGrams().length, document.normalizedName().contains(normalizedQuery));
+                offer(top, new SearchHit(document.key().type(), document.key().id(), document.name(), score), limit);
+            }
+            return ranked(top);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // calls the visitor for every document, under the read lock
+    void forEach(DocumentVisitor visitor) {
+        lock.readLock().lock();
+        try {
+            for (Document document : documents) {
+                if (document != null) {
+                    visitor.visit(document.key(), document.name(), document.description());
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    static boolean admits(int nameHits, int descriptionHits, int queryGrams, double minMatch) {
+        return Math.max(nameHits, descriptionHits) >= minMatch * queryGrams;
+    }
+
+    static double score(int nameHits, int descriptionHits, int queryGrams, int nameGrams, int descriptionGrams,
+                        boolean nameHoldsQuery) {
+        double score = NAME_WEIGHT * fieldScore(nameHits, queryGrams, nameGrams)
+                + fieldScore(descriptionHits, queryGrams, descriptionGrams);
+        return nameHoldsQuery ? score + SUBSTRING_BONUS : score;
+    }
+
+    // keeps the best limit hits; the queue's head is the weakest
+    static void offer(PriorityQueue<SearchHit> top, SearchHit hit, int limit) {
+        top.add(hit);
+        if (top.size() > limit) {
+            top.poll();
+        }
+    }
+
+    static List<SearchHit> ranked(Collection<SearchHit> hits) {
+        List<SearchHit> results = new ArrayList<>(hits);
+        results.sort(Comparator.comparingDouble(SearchHit::score).reversed()
+                .thenComparing(SearchHit::name, Comparator.nullsLast(Comparator.naturalOrder())));
+        return results;
+    }
+
+    private static void count(Postings postings, Map<Integer, int[]> hits, int field) {
+        if (postings == null) {
+            return;
+        }
+        for (int i = 0; i < postings.size; i++) {
+            hits.computeIfAbsent(postings.ordinals[i], o -> new int[2])[field]++;
+        }
+    }
+
+    private static double fieldScore(int hits, int queryGrams, int fieldGrams) {
+        if (hits == 0) {
+            return 0.0;
+        }
+        double coverage = (double) hits / queryGrams;
+        double jaccard = (double) hits / (queryGrams + fieldGrams - hits);
+        return (coverage + jaccard) / 2;
+    }
+
+    private void removeLocked(DocumentKey key) {
+        Integer ordinal = ordinals.remove(key);
+        if (ordinal == null) {
+            return;
+        }
+        Document document = documents.set(ordinal, null);
+        unpost(namePostings, document.nameGrams(), ordinal);
+        unpost(descriptionPostings, document.descriptionGrams(), ordinal);
+        freeOrdinals.push(ordinal);
+    }
+
+    private static void unpost(Map<Long, Postings> postings, long[] grams, int ordinal) {
+        for (long gram : grams) {
+            Postings list = postings.get(gram);
+            if (list != null && list.remove(ordinal) && list.size == 0) {
+                postings.remove(gram);
+            }
+        }
+    }
+
+    // sorted ordinals of the documents holding one trigram
+    private static final class Postings {
+        private int[] ordinals = new int[4];
+        private int size;
+
+        void add(int ordinal) {
+            int at = Arrays.binarySearch(ordinals, 0, size, ordinal);
+            if (at >= 0) {
+                return;
+            }
+            at = -at - 1;
+            if (size == ordinals.length) {
+                ordinals = Arrays.copyOf(ordinals, size * 2);
+            }
+            System.arraycopy(ordinals, at, ordinals, at + 1, size - at);
+            ordinals[at] = ordinal;
+            size++;
+        }
+
+        boolean remove(int ordinal) {
+            int at = Arrays.binarySearch(ordinals, 0, size, ordinal);
+            if (at < 0) {
+                return false;
+            }
+            System.arraycopy(ordinals, at + 1, ordinals, at, size - at - 1);
+            size--;
+            return true;
+        }
+    }
+}
@@ -2,18 +2,27 @@ package com.trails_art.trails.services.artist;
 
 import com.trails_art.trails.dtos.ArtistImportDto;
 import com.trails_art.trails.models.Artist;
+import com.trails_art.trails.models.Project;
+import com.trails_art.trails.pagination.KeysetPage;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 public interface ArtistService {
     List<Artist> findAll();
 
+    KeysetPage<Artist> findPage(String after, Integer limit, Set<String> fetch);
+
     Optional<Artist> findById(UUID id);
 
     List<Artist> findAllWithEmptyProjects();
 
+    Map<UUID, List<Project>> findProjectsByArtistIds(Collection<UUID> artistIds, Integer limitPerArtist, Set<String> fetch);
+
     void create(Artist artist);
 
     Artist createFromDto(ArtistImportDto artistImportDto);
@@ -28,5 +37,8 @@ public interface ArtistService {
 
     List<Artist> findByName(String name);
 
+    // within maxDistance edits of the name or one of its words, closest first
+    List<Artist> findBySimilarName(String name, int maxDistance);
+
     void addProjects(List<UUID> projects, UUID artistId);
 }
@@ -4,38 +4,60 @@ import com.trails_art.trails.dtos.ArtistImportDto;
 import com.trails_art.trails.dtos.ProjectDataDto;
 import com.trails_art.trails.exceptions.InvalidArgumentIdException;
 import com.trails_art.trails.mappers.ArtistMapper;
+import com.trails_art.trails.mappers.ImageMapper;
 import com.trails_art.trails.mappers.ProjectMapper;
 import com.trails_art.trails.models.Artist;
 import com.trails_art.trails.models.Image;
 import com.trails_art.trails.models.Project;
+import com.trails_art.trails.pagination.Keyset;
+import com.trails_art.trails.pagination.KeysetPage;
+import com.trails_art.trails.pagination.KeysetPager;
 import com.trails_art.trails.repositories.artist.JpaArtistRepository;
+import com.trails_art.trails.search.NameMatch;
+import com.trails_art.trails.search.SearchIndex;
+import com.trails_art.trails.search.SearchText;
+import com.trails_art.trails.search.SearchType;
 import com.trails_art.trails.services.image.ImageService;
 import com.trails_art.trails.services.location.LocationService;
 import com.trails_art.trails.services.project.ProjectService;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 
-import java.util.Base64;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class JpaArtistService implements ArtistService {
 
+    private static final Keyset<Artist> BY_NAME =
+            Keyset.of("artists", Artist.class, "name", String.class, Artist::getName, Artist::getId);
+
     private final JpaArtistRepository jpaArtistRepository;
     private final ProjectService projectService;
     private final ImageService imageService;
     private final LocationService locationService;
+    private final KeysetPager keysetPager;
+    private final SearchIndex searchIndex;
 
     public JpaArtistService(JpaArtistRepository jpaArtistRepository,
                             @Lazy ProjectService projectService,
                             ImageService imageService,
-                            LocationService locationService) {
+                            LocationService locationService,
+                            KeysetPager keysetPager,
+                            SearchIndex searchIndex) {
         this.jpaArtistRepository = jpaArtistRepository;
         this.projectService = projectService;
         this.imageService = imageService;
         this.locationService = locationService;
+        this.keysetPager = keysetPager;
+        this.searchIndex = searchIndex;
     }
 
     @Override
@@ -43,6 +65,11 @@ public class JpaArtistService implements ArtistService {
         return jpaArtistRepository.findAll();
     }
 
+    @Override
+    public KeysetPage<Artist> findPage(String after, Integer limit, Set<String> fetch) {
+        return keysetPager.page(BY_NAME, after, limit, fetch);
+    }
+
     @Override
     public Optional<Artist> findById(UUID id) {
         return jpaArtistRepository.findById(id);
@@ -53,6 +80,11 @@ public class JpaArtistService implements ArtistService {
         return jpaArtistRepository.findAllWithEmptyProjects();
     }
 
+    @Override
+    public Map<UUID, List<Project>> findProjectsByArtistIds(Collection<UUID> artistIds, Integer limitPerArtist, Set<String> fetch) {
+        return jpaArtistRepository.findProjectsByArtistIds(artistIds, limitPerArtist, fetch);
+    }
+
     @Override
     public void create(Artist artist) {
         jpaArtistRepository.save(artist);
@@ -94,7 +126,7 @@ public class JpaArtistService implements ArtistService {
         Image image = imageService.findById(artist.getImage().getId())
                 .orElseThrow(() -> new IllegalArgumentException("Image for Artist not found."));
         image.setMimetype(artistImportDto.image().mimetype());
-        image.setData(Base64.getDecoder().decode(artistImportDto.image().data()));
+        ImageMapper.applyData(image, artistImportDto.image().data());
         artist.setImage(image);
 
         imageService.update(image,image.getId());
@@ -128,7 +160,23 @@ public class JpaArtistService implements ArtistService {
 
     @Override
     public List<Artist> findByName(String name) {
-        return jpaArtistRepository.findByNameContainingIgnoreCase(name);
+        String searchKey = SearchText.normalize(name);
+        if (searchKey.isEmpty()) {
+            return List.of();
+        }
+        return jpaArtistRepository.findBySearchKeyContaining(searchKey);
+    }
+
+    @Override
+    public List<Artist> findBySimilarName(String name, int maxDistance) {
+        List<NameMatch> matches = searchIndex.findSimilarNames(SearchType.ARTIST, name, maxDistance);
+        if (matches.isEmpty()) {
+            return List.of();
+        }
+        Map<UUID, Artist> found = jpaArtistRepository.findByIdIn(matches.stream().map(NameMatch::id).toList()).stream()
+                .collect(Collectors.toMap(Artist::getId, Function.identity()));
+        // a match deleted since it was indexed has no row
+        return matches.stream().map(match -> found.get(match.id())).filter(Objects::nonNull).toList();
     }
 
     @Override
@@ -0,0 +1,132 @@
+package com.trails_art.trails.services.event;
+
+import com.trails_art.trails.cache.ResponseCache;
+import com.trails_art.trails.calendar.EventCalendar;
+import com.trails_art.trails.geo.GeoIndex;
+import com.trails_art.trails.geo.PinType;
+import com.trails_art.trails.search.SearchIndex;
+import com.trails_art.trails.search.SearchType;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Moves events that ended more than {@code horizon} ago from {@code events} to {@code events_archive},
+ * so listings, name search and their indexes only cover current events. Rows are copied in SQL, not
+ * removed through JPA, so that the cascade from Event does not delete their image and location rows:
+ * archived events keep both and their images stay served. An event without an end counts as ending
+ * when it starts.
+ * <p>
+ * The in-memory search, map and calendar indexes and the response cache are not told by entity
+ * listeners, so each batch updates them once it commits.
+ */
+@Slf4j
+@Service
+public class EventArchiver {
+
+    private static final String COLUMNS = "id, name, search_key, description, start_time, end_time, image_id, location_id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final SearchIndex searchIndex;
+    private final GeoIndex geoIndex;
+    private final EventCalendar eventCalendar;
+    private final ResponseCache responseCache;
+    private final boolean enabled;
+    private final Duration horizon;
+    private final int batchSize;
+
+    public EventArchiver(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            SearchIndex searchIndex,
+            GeoIndex geoIndex,
+            EventCalendar eventCalendar,
+            ResponseCache responseCache,
+            @Value("${trails.events.archive.enabled:true}") boolean enabled,
+            @Value("${trails.events.archive.horizon:P90D}") Duration horizon,
+            @Value("${trails.events.archive.batch-size:500}") int batchSize
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.searchIndex = searchIndex;
+        this.geoIndex = geoIndex;
+        this.eventCalendar = eventCalendar;
+        this.responseCache = responseCache;
+        this.enabled = enabled;
+        this.horizon = horizon;
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    @Scheduled(fixedDelayString = "${trails.events.archive.interval:PT1H}",
+            initialDelayString = "${trails.events.archive.interval:PT1H}")
+    public void archiveScheduled() {
+        if (enabled) {
+            archive(LocalDateTime.now().minus(horizon));
+        }
+    }
+
+    // archives everything that ended before cutoff and returns how many events moved
+    public int archive(LocalDateTime cutoff) {
+        Timestamp before = Timestamp.valueOf(cutoff);
+        int archived = 0;
+        List<UUID> batch;
+        do {
+            batch = transactionTemplate.execute(status -> moveBatch(before));
+            archived += batch.size();
+        } while (batch.size() == batchSize);
+        if (archived > 0) {
+            log.info("Archived {} events that ended before {}", archived, cutoff);
+        }
+        return archived;
+    }
+
+    private List<UUID> moveBatch(Timestamp before) {
+        List<UUID> ids = jdbcTemplate.query(
+                "select id from events where end_time < ? or (end_time is null and start_time < ?)"
+                        + " fetch first " + batchSize + " rows only",
+                (rs, row) -> rs.getObject(1, UUID.class), before, before);
+        if (ids.isEmpty()) {
+            return ids;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = ids.stream().map(id -> new Object[]{now, id}).toList();
+        jdbcTemplate.batchUpdate("insert into events_archive (" + COLUMNS + ", archived_at)"
+                + " select " + COLUMNS + ", ? from events where id = ?", rows);
+        jdbcTemplate.batchUpdate("delete from events where id = ?", ids.stream().map(id -> new Object[]{id}).toList());
+        afterCommit(() -> {
+            ids.forEach(id -> {
+                searchIndex.remove(SearchType.EVENT, id);
+                geoIndex.remove(PinType.EVENT, id);
+                eventCalendar.remove(id);
+            });
+            responseCache.invalidate();
+        });
+        return ids;
+    }
+
+    private static void afterCommit(Runnable update) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            update.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                update.run();
+            }
+        });
+    }
+}
@@ -2,7 +2,9 @@ package com.trails_art.trails.services.event;
 
 import com.trails_art.trails.dtos.EventDto;
 import com.trails_art.trails.models.Event;
+import com.trails_art.trails.pagination.KeysetPage;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -10,8 +12,15 @@ import java.util.UUID;
 public interface EventService {
     List<Event> findAll();
 
+    KeysetPage<Event> findPage(String after, Integer limit);
+
+    // with includeArchived, archived events are paged in among current ones
+    KeysetPage<Event> findPage(String after, Integer limit, boolean includeArchived);
+
     Optional<Event> findById(UUID id);
 
+    Optional<Event> findById(UUID id, boolean includeArchived);
+
     void create(Event event);
 
     Event createFromDto(EventDto eventDto);
@@ -24,7 +33,19 @@ public interface EventService {
 
     int count();
 
+    int count(boolean includeArchived);
+
     void saveAll(List<Event> events);
 
     List<Event> findByName(String name);
+
+    List<Event> findByName(String name, boolean includeArchived);
+
+    // events overlapping [from, to], by start time
+    List<Event> findBetween(LocalDateTime from, LocalDateTime to, int limit);
+
+    List<Event> findBetween(LocalDateTime from, LocalDateTime to, int limit, boolean includeArchived);
+
+    // other events at the same place whose time overlaps this one's, by start time
+    List<Event> findOverlapping(UUID id, int limit);
 }
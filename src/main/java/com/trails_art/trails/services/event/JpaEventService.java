@@ -1,26 +1,57 @@
 package com.trails_art.trails.services.event;
 
+import com.trails_art.trails.calendar.EventCalendar;
 import com.trails_art.trails.dtos.EventDto;
 import com.trails_art.trails.exceptions.InvalidArgumentIdException;
 import com.trails_art.trails.exceptions.InvalidDTOFormat;
 import com.trails_art.trails.mappers.EventMapper;
 import com.trails_art.trails.mappers.ImageMapper;
 import com.trails_art.trails.mappers.LocationMapper;
+import com.trails_art.trails.models.ArchivedEvent;
 import com.trails_art.trails.models.Event;
+import com.trails_art.trails.pagination.Keyset;
+import com.trails_art.trails.pagination.KeysetPage;
+import com.trails_art.trails.pagination.KeysetPager;
+import com.trails_art.trails.repositories.JpaArchivedEventRepository;
 import com.trails_art.trails.repositories.JpaEventRepository;
+import com.trails_art.trails.search.SearchText;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDateTime;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class JpaEventService implements EventService {
 
+    private static final Keyset<Event> BY_START_TIME =
+            Keyset.ofNullable("events", Event.class, "startTime", LocalDateTime.class, Event::getStartTime, Event::getId);
+    // shares the name, and so the cursors, of BY_START_TIME
+    private static final Keyset<ArchivedEvent> ARCHIVED_BY_START_TIME =
+            Keyset.ofNullable("events", ArchivedEvent.class, "startTime", LocalDateTime.class, ArchivedEvent::getStartTime, ArchivedEvent::getId);
+    private static final Comparator<Event> BY_START =
+            Comparator.comparing(Event::getStartTime, Comparator.nullsLast(Comparator.naturalOrder())).thenComparing(Event::getId);
+
     private final JpaEventRepository jpaEventRepository;
+    private final JpaArchivedEventRepository archivedEventRepository;
+    private final KeysetPager keysetPager;
+    private final EventCalendar eventCalendar;
 
-    public JpaEventService(JpaEventRepository jpaEventRepository) {
+    public JpaEventService(JpaEventRepository jpaEventRepository, JpaArchivedEventRepository archivedEventRepository,
+                           KeysetPager keysetPager, EventCalendar eventCalendar) {
         this.jpaEventRepository = jpaEventRepository;
+        this.archivedEventRepository = archivedEventRepository;
+        this.keysetPager = keysetPager;
+        this.eventCalendar = eventCalendar;
     }
 
     @Override
@@ -28,11 +59,36 @@ public class JpaEventService implements EventService {
         return jpaEventRepository.findAll();
     }
 
+    @Override
+    public KeysetPage<Event> findPage(String after, Integer limit) {
+        return findPage(after, limit, false);
+    }
+
+    @Override
+    public KeysetPage<Event> findPage(String after, Integer limit, boolean includeArchived) {
+        KeysetPage<Event> current = keysetPager.page(BY_START_TIME, after, limit, Set.of("image", "location"));
+        if (!includeArchived) {
+            return current;
+        }
+        KeysetPage<Event> archived = keysetPager.page(ARCHIVED_BY_START_TIME, after, limit, Set.of("image", "location"))
+                .map(ArchivedEvent::toEvent);
+        return keysetPager.merge(BY_START_TIME, current, archived);
+    }
+
     @Override
     public Optional<Event> findById(UUID id) {
         return jpaEventRepository.findById(id);
     }
 
+    @Override
+    public Optional<Event> findById(UUID id, boolean includeArchived) {
+        Optional<Event> event = findById(id);
+        if (event.isPresent() || !includeArchived) {
+            return event;
+        }
+        return archivedEventRepository.findById(id).map(ArchivedEvent::toEvent);
+    }
+
     @Override
     public void create(Event event) {
         jpaEventRepository.save(event);
@@ -85,6 +141,11 @@ public class JpaEventService implements EventService {
         return (int) jpaEventRepository.count();
     }
 
+    @Override
+    public int count(boolean includeArchived) {
+        return includeArchived ? (int) (jpaEventRepository.count() + archivedEventRepository.count()) : count();
+    }
+
     @Override
     public void saveAll(List<Event> events) {
         jpaEventRepository.saveAll(events);
@@ -92,6 +153,77 @@ public class JpaEventService implements EventService {
 
     @Override
     public List<Event> findByName(String name) {
-        return jpaEventRepository.findByNameContainingIgnoreCase(name);
+        String searchKey = SearchText.normalize(name);
+        if (searchKey.isEmpty()) {
+            return List.of();
+        }
+        return jpaEventRepository.findBySearchKeyContaining(searchKey);
+    }
+
+    @Override
+    public List<Event> findByName(String name, boolean includeArchived) {
+        List<Event> current = findByName(name);
+        String searchKey = SearchText.normalize(name);
+        if (!includeArchived || searchKey.isEmpty()) {
+            return current;
+        }
+        List<Event> archived = archivedEventRepository.findBySearchKeyContaining(searchKey).stream()
+                .map(ArchivedEvent::toEvent)
+                .toList();
+        return Stream.concat(current.stream(), archived.stream()).toList();
+    }
+
+    @Override
+    public List<Event> findBetween(LocalDateTime from, LocalDateTime to, int limit) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("from must not be after to.");
+        }
+        if (!eventCalendar.isLoaded()) {
+            return jpaEventRepository.findOverlapping(from, to, Limit.of(limit));
+        }
+        return findInOrder(eventCalendar.between(from, to, limit));
+    }
+
+    @Override
+    public List<Event> findBetween(LocalDateTime from, LocalDateTime to, int limit, boolean includeArchived) {
+        List<Event> current = findBetween(from, to, limit);
+        if (!includeArchived) {
+            return current;
+        }
+        Stream<Event> archived = archivedEventRepository.findOverlapping(from, to, Limit.of(limit)).stream()
+                .map(ArchivedEvent::toEvent);
+        return Stream.concat(current.stream(), archived).sorted(BY_START).limit(limit).toList();
+    }
+
+    @Override
+    public List<Event> findOverlapping(UUID id, int limit) {
+        if (eventCalendar.isLoaded()) {
+            if (jpaEventRepository.existsById(id)) {
+                return findInOrder(eventCalendar.overlapping(id, limit));
+            }
+            throw new InvalidArgumentIdException("Event with ID " + id + " not found.");
+        }
+        Event event = jpaEventRepository.findById(id).orElseThrow(() -> new InvalidArgumentIdException("Event with ID " + id + " not found."));
+        if (event.getStartTime() == null || event.getLocation() == null) {
+            return List.of();
+        }
+        LocalDateTime end = event.getEndTime() == null || event.getEndTime().isBefore(event.getStartTime())
+                ? event.getStartTime() : event.getEndTime();
+        String place = SearchText.normalize(event.getLocation().getMapAddress());
+        return jpaEventRepository.findOverlapping(event.getStartTime(), end, Limit.unlimited()).stream()
+                .filter(other -> !other.getId().equals(id) && other.getLocation() != null
+                        && place.equals(SearchText.normalize(other.getLocation().getMapAddress())))
+                .limit(limit)
+                .toList();
+    }
+
+    private List<Event> findInOrder(List<UUID> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<UUID, Event> found = jpaEventRepository.findByIdIn(ids).stream()
+                .collect(Collectors.toMap(Event::getId, Function.identity()));
+        // an event deleted since the calendar was read has no row
+        return ids.stream().map(found::get).filter(Objects::nonNull).toList();
     }
 }
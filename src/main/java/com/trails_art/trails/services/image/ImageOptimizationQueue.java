@@ -0,0 +1,213 @@
+package com.trails_art.trails.services.image;
+
+import com.trails_art.trails.cache.ResponseCache;
+import com.trails_art.trails.models.Image;
+import com.trails_art.trails.models.ImageOptimizationTask;
+import com.trails_art.trails.repositories.JpaImageOptimizationTaskRepository;
+import com.trails_art.trails.storage.ImageCache;
+import com.trails_art.trails.storage.ImageOptimizer;
+import com.trails_art.trails.storage.RenditionStore;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Runs {@link ImageOptimizer} over new and replaced image content in the background. Each request
+ * is a row in {@code image_optimization_tasks}, written in the caller's transaction, so work queued
+ * before a restart is picked up again by the poll that runs at startup.
+ * <p>
+ * Tasks run on virtual threads, at most {@code workers} at a time. The optimized blob replaces the
+ * original with a compare-and-set on the image's hash, so an upload that lands while a task is
+ * running wins and the task's result is dropped. Replaced and dropped blobs are left to
+ * {@link com.trails_art.trails.storage.OrphanBlobJanitor}.
+ */
+@Slf4j
+@Service
+public class ImageOptimizationQueue {
+
+    private static final int MAX_ERROR_LENGTH = 1024;
+
+    private final JpaImageOptimizationTaskRepository taskRepository;
+    private final ImageOptimizer optimizer;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ImageCache imageCache;
+    private final ObjectProvider<RenditionStore> renditionStore;
+    private final ResponseCache responseCache;
+    private final boolean enabled;
+    private final int maxAttempts;
+    private final int maxQueued;
+
+    private final Semaphore permits;
+    private final Set<UUID> inFlight = ConcurrentHashMap.newKeySet();
+    private final ExecutorService executor =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("image-optimizer-", 0).factory());
+
+    public ImageOptimizationQueue(
+            JpaImageOptimizationTaskRepository taskRepository,
+            ImageOptimizer optimizer,
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            ImageCache imageCache,
+            ObjectProvider<RenditionStore> renditionStore,
+            ResponseCache responseCache,
+            @Value("${trails.images.optimizer.enabled:true}") boolean enabled,
+            @Value("${trails.images.optimizer.workers:2}") int workers,
+            @Value("${trails.images.optimizer.max-attempts:3}") int maxAttempts,
+            @Value("${trails.images.optimizer.max-queued:1000}") int maxQueued
+    ) {
+        this.taskRepository = taskRepository;
+        this.optimizer = optimizer;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.imageCache = imageCache;
+        this.renditionStore = renditionStore;
+        this.responseCache = responseCache;
+        this.enabled = enabled;
+        this.permits = new Semaphore(Math.max(1, workers));
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.maxQueued = Math.max(1, maxQueued);
+    }
+
+    // records the task with the caller's transaction and starts it once that commits
+    public void enqueue(Image image) {
+        if (!enabled || image.getId() == null || image.getContentHash() == null) {
+            return;
+        }
+        UUID taskId = taskRepository.save(new ImageOptimizationTask(image.getId(), image.getContentHash())).getId();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            dispatch(taskId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                dispatch(taskId);
+            }
+        });
+    }
+
+    // with no initial delay the first run happens at startup and resumes work left by the last shutdown
+    @Scheduled(fixedDelayString = "${trails.images.optimizer.poll-interval:PT5M}")
+    public void resumePending() {
+        if (!enabled) {
+            return;
+        }
+        taskRepository.findByStatusOrderByCreatedAt(ImageOptimizationTask.Status.PENDING)
+                .forEach(task -> dispatch(task.getId()));
+    }
+
+    /**
+     * Runs one task on the calling thread. Returns true if the image now points at optimized content.
+     */
+    public boolean process(UUID taskId) {
+        ImageOptimizationTask task = taskRepository.findById(taskId).orElse(null);
+        if (task == null || task.getStatus() != ImageOptimizationTask.Status.PENDING) {
+            return false;
+        }
+        if (!task.getSourceHash().equals(currentHash(task.getImageId()))) {
+            taskRepository.delete(task);
+            return false;
+        }
+        try {
+            Optional<ImageOptimizer.Optimized> optimized = optimizer.optimize(task.getSourceHash());
+            if (optimized.isEmpty()) {
+                taskRepository.delete(task);
+                return false;
+            }
+            return swap(task, optimized.get());
+        } catch (RuntimeException e) {
+            recordFailure(task, e);
+            return false;
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    // past max-queued the task stays in the table for the next poll
+    private void dispatch(UUID taskId) {
+        if (inFlight.size() >= maxQueued || !inFlight.add(taskId)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    permits.acquire();
+                    try {
+                        process(taskId);
+                    } finally {
+                        permits.release();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (RuntimeException e) {
+                    log.warn("Image optimization task {} failed", taskId, e);
+                } finally {
+                    inFlight.remove(taskId);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(taskId);
+        }
+    }
+
+    private boolean swap(ImageOptimizationTask task, ImageOptimizer.Optimized optimized) {
+        UUID imageId = task.getImageId();
+        Boolean swapped = transactionTemplate.execute(status -> {
+            int updated = jdbcTemplate.update(
+                    "update images set content_hash = ?, byte_size = ?, width = ?, height = ?"
+                            + " where id = ? and content_hash = ?",
+                    optimized.blob().hash(), optimized.blob().size(), optimized.width(), optimized.height(),
+                    imageId, task.getSourceHash());
+            taskRepository.deleteById(task.getId());
+            return updated == 1;
+        });
+        if (!Boolean.TRUE.equals(swapped)) {
+            return false;
+        }
+        imageCache.invalidate(imageId);
+        // listings carry the image's content hash
+        responseCache.invalidate();
+        renditionStore.ifAvailable(renditions -> renditions.generateAllAsync(optimized.blob().hash()));
+        log.debug("Replaced content of image {} with optimized blob {}", imageId, optimized.blob().hash());
+        return true;
+    }
+
+    private void recordFailure(ImageOptimizationTask task, RuntimeException e) {
+        task.setAttempts(task.getAttempts() + 1);
+        String message = String.valueOf(e.getMessage());
+        task.setLastError(message.length() > MAX_ERROR_LENGTH ? message.substring(0, MAX_ERROR_LENGTH) : message);
+        if (task.getAttempts() >= maxAttempts) {
+            task.setStatus(ImageOptimizationTask.Status.FAILED);
+            log.warn("Giving up on optimizing image {} after {} attempts", task.getImageId(), task.getAttempts(), e);
+        } else {
+            log.debug("Optimizing image {} failed, will retry", task.getImageId(), e);
+        }
+        taskRepository.save(task);
+    }
+
+    private String currentHash(UUID imageId) {
+        return jdbcTemplate.query("select content_hash from images where id = ?",
+                rs -> rs.next() ? rs.getString(1) : null, imageId);
+    }
+}
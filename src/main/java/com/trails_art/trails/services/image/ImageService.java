@@ -2,7 +2,11 @@ package com.trails_art.trails.services.image;
 
 import com.trails_art.trails.dtos.ImageDto;
 import com.trails_art.trails.models.Image;
+import com.trails_art.trails.models.ImageMetadata;
+import com.trails_art.trails.pagination.KeysetPage;
+import com.trails_art.trails.storage.ImageContent;
 
+import java.io.InputStream;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -10,16 +14,28 @@ import java.util.UUID;
 public interface ImageService {
     List<Image> findAll();
 
+    KeysetPage<Image> findPage(String after, Integer limit);
+
+    KeysetPage<ImageMetadata> findMetadataPage(String after, Integer limit);
+
     Optional<Image> findById(UUID id);
 
+    Optional<ImageMetadata> findMetadataById(UUID id);
+
+    Optional<ImageContent> findContentById(UUID id);
+
     void create(Image image);
 
     Image createFromDto(ImageDto imageDto);
 
+    Image createFromStream(String mimetype, InputStream content);
+
     void update(Image image, UUID id);
 
     Image updateFromDto(ImageDto imageDto, UUID id);
 
+    Image updateFromStream(String mimetype, InputStream content, UUID id);
+
     void delete(UUID id);
 
     int count();
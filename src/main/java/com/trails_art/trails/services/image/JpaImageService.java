@@ -2,12 +2,22 @@ package com.trails_art.trails.services.image;
 
 import com.trails_art.trails.dtos.ImageDto;
 import com.trails_art.trails.exceptions.InvalidArgumentIdException;
+import com.trails_art.trails.exceptions.InvalidDTOFormat;
 import com.trails_art.trails.mappers.ImageMapper;
 import com.trails_art.trails.models.Image;
+import com.trails_art.trails.models.ImageMetadata;
+import com.trails_art.trails.pagination.Keyset;
+import com.trails_art.trails.pagination.KeysetPage;
+import com.trails_art.trails.pagination.KeysetPager;
 import com.trails_art.trails.repositories.JpaImageRepository;
+import com.trails_art.trails.storage.BlobDescriptor;
+import com.trails_art.trails.storage.BlobStore;
+import com.trails_art.trails.storage.ImageCache;
+import com.trails_art.trails.storage.ImageContent;
 import org.springframework.stereotype.Service;
 
-import java.util.Base64;
+import java.io.InputStream;
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -15,10 +25,28 @@ import java.util.UUID;
 @Service
 public class JpaImageService implements ImageService {
 
+    private static final Keyset<Image> BY_CREATED_AT =
+            Keyset.of("images", Image.class, "createdAt", Instant.class, Image::getCreatedAt, Image::getId);
+    private static final Keyset<ImageMetadata> METADATA_BY_CREATED_AT = new Keyset<>("images", "Image",
+            "new com.trails_art.trails.models.ImageMetadata(e.id, e.mimetype, e.size, e.width, e.height, "
+                    + "e.contentHash, e.createdAt)",
+            ImageMetadata.class, "createdAt", Instant.class, ImageMetadata::createdAt, ImageMetadata::id,
+            false);
+
     private final JpaImageRepository jpaImageRepository;
+    private final BlobStore blobStore;
+    private final ImageCache imageCache;
+    private final ImageOptimizationQueue optimizationQueue;
+    private final KeysetPager keysetPager;
 
-    public JpaImageService(JpaImageRepository jpaImageRepository) {
+    public JpaImageService(JpaImageRepository jpaImageRepository, BlobStore blobStore, ImageCache imageCache,
+                           ImageOptimizationQueue optimizationQueue,
+                           KeysetPager keysetPager) {
         this.jpaImageRepository = jpaImageRepository;
+        this.blobStore = blobStore;
+        this.imageCache = imageCache;
+        this.optimizationQueue = optimizationQueue;
+        this.keysetPager = keysetPager;
     }
 
     @Override
@@ -26,14 +54,43 @@ public class JpaImageService implements ImageService {
         return jpaImageRepository.findAll();
     }
 
+    @Override
+    public KeysetPage<Image> findPage(String after, Integer limit) {
+        return keysetPager.page(BY_CREATED_AT, after, limit);
+    }
+
+    // a constructor query over the columns, so neither entities nor blob content are loaded
+    @Override
+    public KeysetPage<ImageMetadata> findMetadataPage(String after, Integer limit) {
+        return keysetPager.page(METADATA_BY_CREATED_AT, after, limit);
+    }
+
     @Override
     public Optional<Image> findById(UUID id) {
         return jpaImageRepository.findById(id);
     }
 
+    @Override
+    public Optional<ImageMetadata> findMetadataById(UUID id) {
+        return jpaImageRepository.findMetadataById(id);
+    }
+
+    // served from ImageCache when hot; ImageBlobListener invalidates entries on update and delete
+    @Override
+    public Optional<ImageContent> findContentById(UUID id) {
+        Optional<ImageContent> cached = imageCache.get(id);
+        if (cached.isPresent()) {
+            return cached;
+        }
+        long ticket = imageCache.ticket();
+        return findById(id).map(image -> imageCache.load(ticket, id, image.getMimetype(),
+                image.getContentHash(), image.getSize(), () -> blobStore.open(image.getContentHash())));
+    }
+
     @Override
     public void create(Image image) {
         jpaImageRepository.save(image);
+        optimizationQueue.enqueue(image);
     }
 
     @Override
@@ -43,11 +100,22 @@ public class JpaImageService implements ImageService {
         return image;
     }
 
+    @Override
+    public Image createFromStream(String mimetype, InputStream content) {
+        requireMimetype(mimetype);
+        BlobDescriptor blob = blobStore.put(content);
+        Image image = new Image(mimetype, blob);
+        create(image);
+        return image;
+    }
+
     @Override
     public void update(Image image, UUID id) {
         if (jpaImageRepository.existsById(id)) {
             image.setId(id);
             jpaImageRepository.save(image);
+            imageCache.invalidate(id);
+            optimizationQueue.enqueue(image);
         } else {
             throw new InvalidArgumentIdException("Image with ID " + id + " not found.");
         }
@@ -56,16 +124,27 @@ public class JpaImageService implements ImageService {
     @Override
     public Image updateFromDto(ImageDto imageDto, UUID id) {
         Image image = findById(id).orElseThrow(() -> new InvalidArgumentIdException("Image with ID " + id + " not found."));
-        image.setData(Base64.getDecoder().decode(imageDto.data()));
+        ImageMapper.applyData(image, imageDto.data());
         image.setMimetype(imageDto.mimetype());
         update(image,id);
         return image;
     }
 
+    @Override
+    public Image updateFromStream(String mimetype, InputStream content, UUID id) {
+        requireMimetype(mimetype);
+        Image image = findById(id).orElseThrow(() -> new InvalidArgumentIdException("Image with ID " + id + " not found."));
+        image.setBlob(blobStore.put(content));
+        image.setMimetype(mimetype);
+        update(image, id);
+        return image;
+    }
+
     @Override
     public void delete(UUID id) {
         jpaImageRepository.findById(id).orElseThrow(() -> new InvalidArgumentIdException("Image with ID " + id + " not found."));
         jpaImageRepository.deleteById(id);
+        imageCache.invalidate(id);
     }
 
     @Override
@@ -77,4 +156,10 @@ public class JpaImageService implements ImageService {
     public void saveAll(List<Image> images) {
         jpaImageRepository.saveAll(images);
     }
+
+    private static void requireMimetype(String mimetype) {
+        if (mimetype == null || mimetype.isBlank()) {
+            throw new InvalidDTOFormat("Image mimetype is required");
+        }
+    }
 }
@@ -4,7 +4,11 @@ import com.trails_art.trails.dtos.LocationDto;
 import com.trails_art.trails.exceptions.InvalidArgumentIdException;
 import com.trails_art.trails.mappers.LocationMapper;
 import com.trails_art.trails.models.Location;
+import com.trails_art.trails.pagination.Keyset;
+import com.trails_art.trails.pagination.KeysetPage;
+import com.trails_art.trails.pagination.KeysetPager;
 import com.trails_art.trails.repositories.JpaLocationRepository;
+import com.trails_art.trails.search.SearchText;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -14,10 +18,15 @@ import java.util.UUID;
 @Service
 public class JpaLocationService implements LocationService {
 
+    private static final Keyset<Location> BY_NAME =
+            Keyset.of("locations", Location.class, "name", String.class, Location::getName, Location::getId);
+
     private final JpaLocationRepository jpaLocationRepository;
+    private final KeysetPager keysetPager;
 
-    public JpaLocationService(JpaLocationRepository jpaLocationRepository) {
+    public JpaLocationService(JpaLocationRepository jpaLocationRepository, KeysetPager keysetPager) {
         this.jpaLocationRepository = jpaLocationRepository;
+        this.keysetPager = keysetPager;
     }
 
     @Override
@@ -25,6 +34,11 @@ public class JpaLocationService implements LocationService {
         return jpaLocationRepository.findAll();
     }
 
+    @Override
+    public KeysetPage<Location> findPage(String after, Integer limit) {
+        return keysetPager.page(BY_NAME, after, limit);
+    }
+
     @Override
     public Optional<Location> findById(UUID id) {
         return jpaLocationRepository.findById(id);
@@ -57,6 +71,9 @@ public class JpaLocationService implements LocationService {
         Location location = findById(id).orElseThrow(() -> new InvalidArgumentIdException("Location with ID " + id + " not found."));
         location.setName(locationDto.name());
         location.setMapAddress(locationDto.map_address());
+        LocationMapper.checkCoordinates(locationDto);
+        location.setLatitude(locationDto.latitude());
+        location.setLongitude(locationDto.longitude());
         update(location,id);
         return location;
     }
@@ -79,6 +96,10 @@ public class JpaLocationService implements LocationService {
 
     @Override
     public List<Location> findByName(String name) {
-        return jpaLocationRepository.findByNameContainingIgnoreCase(name);
+        String searchKey = SearchText.normalize(name);
+        if (searchKey.isEmpty()) {
+            return List.of();
+        }
+        return jpaLocationRepository.findBySearchKeyContaining(searchKey);
     }
 }
\ No newline at end of file
@@ -2,6 +2,7 @@ package com.trails_art.trails.services.location;
 
 import com.trails_art.trails.dtos.LocationDto;
 import com.trails_art.trails.models.Location;
+import com.trails_art.trails.pagination.KeysetPage;
 
 import java.util.List;
 import java.util.Optional;
@@ -10,6 +11,8 @@ import java.util.UUID;
 public interface LocationService {
     List<Location> findAll();
 
+    KeysetPage<Location> findPage(String after, Integer limit);
+
     Optional<Location> findById(UUID id);
 
     void create(Location location);
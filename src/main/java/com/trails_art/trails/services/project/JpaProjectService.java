@@ -4,39 +4,63 @@ import com.trails_art.trails.dtos.ArtistDataDto;
 import com.trails_art.trails.dtos.ProjectImportDto;
 import com.trails_art.trails.exceptions.InvalidArgumentIdException;
 import com.trails_art.trails.mappers.ArtistMapper;
+import com.trails_art.trails.mappers.ImageMapper;
 import com.trails_art.trails.mappers.ProjectMapper;
 import com.trails_art.trails.models.Artist;
 import com.trails_art.trails.models.Image;
 import com.trails_art.trails.models.Location;
 import com.trails_art.trails.models.Project;
+import com.trails_art.trails.pagination.Keyset;
+import com.trails_art.trails.pagination.KeysetPage;
+import com.trails_art.trails.pagination.KeysetPager;
 import com.trails_art.trails.repositories.project.JpaProjectRepository;
+import com.trails_art.trails.search.SearchText;
 import com.trails_art.trails.services.artist.ArtistService;
+import com.trails_art.trails.search.NameMatch;
+import com.trails_art.trails.search.SearchHit;
+import com.trails_art.trails.search.SearchIndex;
+import com.trails_art.trails.search.SearchType;
 import com.trails_art.trails.services.image.ImageService;
 import com.trails_art.trails.services.location.LocationService;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 
-import java.util.Base64;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class JpaProjectService implements ProjectService {
 
+    private static final Keyset<Project> BY_CREATED_ON =
+            Keyset.of("projects", Project.class, "createdOn", LocalDateTime.class, Project::getCreatedOn, Project::getId);
+
     private final JpaProjectRepository jpaProjectRepository;
     private final ArtistService artistService;
     private final ImageService imageService;
     private final LocationService locationService;
+    private final KeysetPager keysetPager;
+    private final SearchIndex searchIndex;
 
     public JpaProjectService(JpaProjectRepository jpaProjectRepository,
                              @Lazy ArtistService artistService,
                              ImageService imageService,
-                             LocationService locationService) {
+                             LocationService locationService,
+                             KeysetPager keysetPager,
+                             SearchIndex searchIndex) {
         this.jpaProjectRepository = jpaProjectRepository;
         this.artistService = artistService;
         this.imageService = imageService;
         this.locationService = locationService;
+        this.keysetPager = keysetPager;
+        this.searchIndex = searchIndex;
     }
 
     @Override
@@ -44,6 +68,11 @@ public class JpaProjectService implements ProjectService {
         return jpaProjectRepository.findAll();
     }
 
+    @Override
+    public KeysetPage<Project> findPage(String after, Integer limit, Set<String> fetch) {
+        return keysetPager.page(BY_CREATED_ON, after, limit, fetch);
+    }
+
     @Override
     public List<Project> findAllByIdIn(List<UUID> ids) { return jpaProjectRepository.findAllById(ids); }
 
@@ -57,6 +86,11 @@ public class JpaProjectService implements ProjectService {
         return jpaProjectRepository.findAllWithEmptyArtists();
     }
 
+    @Override
+    public Map<UUID, List<Artist>> findArtistsByProjectIds(Collection<UUID> projectIds, Integer limitPerProject, Set<String> fetch) {
+        return jpaProjectRepository.findArtistsByProjectIds(projectIds, limitPerProject, fetch);
+    }
+
     @Override
     public void create(Project project) {
         jpaProjectRepository.save(project);
@@ -92,7 +126,7 @@ public class JpaProjectService implements ProjectService {
 
          Image image = imageService.findById(project.getImage().getId()).orElseThrow(() -> new InvalidArgumentIdException("Image for project with ID " + project.getImage().getId() + " not found."));
          image.setMimetype(projectImportDto.image().mimetype());
-         image.setData(Base64.getDecoder().decode(projectImportDto.image().data()));
+         ImageMapper.applyData(image, projectImportDto.image().data());
          imageService.update(image, image.getId());
 
          Location location = locationService.findById(project.getLocation().getId()).orElseThrow(() -> new InvalidArgumentIdException("Location for project with ID " + project.getLocation().getId() + " not found."));
@@ -139,7 +173,35 @@ public class JpaProjectService implements ProjectService {
 
     @Override
     public List<Project> findByName(String name) {
-        return jpaProjectRepository.findByNameContainingIgnoreCase(name);
+        // a query of only punctuation or spaces normalizes to "" and would match every row
+        String searchKey = SearchText.normalize(name);
+        if (searchKey.isEmpty()) {
+            return List.of();
+        }
+        return jpaProjectRepository.findBySearchKeyContaining(searchKey);
+    }
+
+    @Override
+    public List<Project> searchByName(String name) {
+        List<SearchHit> hits = searchIndex.searchNames(SearchType.PROJECT, name);
+        if (hits.isEmpty()) {
+            return List.of();
+        }
+        Map<UUID, Project> found = jpaProjectRepository.findByIdIn(hits.stream().map(SearchHit::id).toList()).stream()
+                .collect(Collectors.toMap(Project::getId, Function.identity()));
+        return hits.stream().map(hit -> found.get(hit.id())).filter(Objects::nonNull).toList();
+    }
+
+    @Override
+    public List<Project> findBySimilarName(String name, int maxDistance) {
+        List<NameMatch> matches = searchIndex.findSimilarNames(SearchType.PROJECT, name, maxDistance);
+        if (matches.isEmpty()) {
+            return List.of();
+        }
+        Map<UUID, Project> found = jpaProjectRepository.findByIdIn(matches.stream().map(NameMatch::id).toList()).stream()
+                .collect(Collectors.toMap(Project::getId, Function.identity()));
+        // a match deleted since it was indexed has no row
+        return matches.stream().map(match -> found.get(match.id())).filter(Objects::nonNull).toList();
     }
 
     public void addNonExistingArtist(UUID project_id, Artist artist){
@@ -3,21 +3,29 @@ package com.trails_art.trails.services.project;
 import com.trails_art.trails.dtos.ProjectImportDto;
 import com.trails_art.trails.models.Artist;
 import com.trails_art.trails.models.Project;
+import com.trails_art.trails.pagination.KeysetPage;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 public interface ProjectService {
 
     List<Project> findAll();
 
+    KeysetPage<Project> findPage(String after, Integer limit, Set<String> fetch);
+
     Optional<Project> findById(UUID id);
 
     List<Project> findAllByIdIn(List<UUID> ids);
 
     List<Project> findAllWithEmptyArtists();
 
+    Map<UUID, List<Artist>> findArtistsByProjectIds(Collection<UUID> projectIds, Integer limitPerProject, Set<String> fetch);
+
     void create(Project project);
 
     Project createFromDto(ProjectImportDto projectImportDto);
@@ -34,6 +42,12 @@ public interface ProjectService {
 
     List<Project> findByName(String name);
 
+    // ranked by the search index instead of scanning search_key, best match first
+    List<Project> searchByName(String name);
+
+    // within maxDistance edits of the name or one of its words, closest first
+    List<Project> findBySimilarName(String name, int maxDistance);
+
     void addNonExistingArtist(UUID project_id,Artist artist);
 
     void addExistingArtist(UUID project_id, UUID artist_id);
@@ -0,0 +1,22 @@
+package com.trails_art.trails.storage;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+public record BlobDescriptor(
+        String hash,
+        long size
+) {
+    public static BlobDescriptor of(byte[] bytes) {
+        return new BlobDescriptor(HexFormat.of().formatHex(newDigest().digest(bytes)), bytes.length);
+    }
+
+    static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
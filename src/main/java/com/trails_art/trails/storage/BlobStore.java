@@ -0,0 +1,47 @@
+package com.trails_art.trails.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Content-addressed storage for binary data. Blobs are keyed by the SHA-256 of their content,
+ * so storing the same bytes twice yields the same descriptor and a single stored copy.
+ */
+public interface BlobStore {
+    BlobDescriptor put(InputStream content);
+
+    BlobDescriptor put(byte[] content);
+
+    // content produced by a writer, e.g. a decoder, is spooled to the store without being buffered
+    BlobDescriptor put(BlobWriter writer);
+
+    InputStream open(String hash);
+
+    byte[] read(String hash);
+
+    boolean exists(String hash);
+
+    // the file holding the blob, for stores that keep blobs on a local file system
+    Optional<Path> locate(String hash);
+
+    void delete(String hash);
+
+    // deletes the blob only if it was not written or re-put since the cutoff, even by a put racing with the delete
+    boolean deleteIfUnmodifiedSince(String hash, Instant cutoff);
+
+    // blobs not written or re-put since the cutoff; the stream must be closed
+    Stream<String> listUnmodifiedSince(Instant cutoff);
+
+    // drops staging files left behind by writes that never completed
+    void purgeStaging(Instant cutoff);
+
+    @FunctionalInterface
+    interface BlobWriter {
+        void writeTo(OutputStream out) throws IOException;
+    }
+}
@@ -0,0 +1,77 @@
+package com.trails_art.trails.storage;
+
+import org.springframework.core.io.AbstractResource;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+// serves a buffer without copying it to the heap first; Range requests skip within the buffer
+public class ByteBufferResource extends AbstractResource {
+
+    private final ByteBuffer buffer;
+    private final String description;
+
+    public ByteBufferResource(ByteBuffer buffer, String description) {
+        this.buffer = buffer.asReadOnlyBuffer();
+        this.description = description;
+    }
+
+    @Override
+    public InputStream getInputStream() {
+        ByteBuffer view = buffer.duplicate();
+        return new InputStream() {
+            @Override
+            public int read() {
+                return view.hasRemaining() ? view.get() & 0xff : -1;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) {
+                if (!view.hasRemaining()) {
+                    return -1;
+                }
+                int n = Math.min(len, view.remaining());
+                view.get(b, off, n);
+                return n;
+            }
+
+            @Override
+            public long skip(long n) {
+                int skipped = (int) Math.max(0, Math.min(n, view.remaining()));
+                view.position(view.position() + skipped);
+                return skipped;
+            }
+
+            @Override
+            public int available() {
+                return view.remaining();
+            }
+        };
+    }
+
+    @Override
+    public long contentLength() {
+        return buffer.remaining();
+    }
+
+    @Override
+    public boolean exists() {
+        return true;
+    }
+
+    @Override
+    public String getDescription() {
+        return description;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return this == other
+                || (other instanceof ByteBufferResource that && buffer.equals(that.buffer));
+    }
+
+    @Override
+    public int hashCode() {
+        return buffer.hashCode();
+    }
+}
@@ -0,0 +1,233 @@
+package com.trails_art.trails.storage;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+@Slf4j
+@Component
+public class FileSystemBlobStore implements BlobStore {
+
+    private static final Pattern HASH_PATTERN = Pattern.compile("[0-9a-f]{64}");
+
+    private final Path root;
+    private final Path tmp;
+
+    public FileSystemBlobStore(@Value("${trails.storage.blob-dir:data/blobs}") Path root) {
+        this.root = root.toAbsolutePath();
+        this.tmp = this.root.resolve("tmp");
+    }
+
+    @Override
+    public BlobDescriptor put(InputStream content) {
+        return put(content::transferTo);
+    }
+
+    @Override
+    public BlobDescriptor put(BlobWriter writer) {
+        MessageDigest digest = BlobDescriptor.newDigest();
+        Path part = newTempFile();
+        long size;
+        try {
+            try (OutputStream out = new DigestOutputStream(Files.newOutputStream(part), digest)) {
+                writer.writeTo(out);
+            }
+            size = Files.size(part);
+        } catch (IOException e) {
+            deleteQuietly(part);
+            throw new UncheckedIOException("Could not write blob", e);
+        } catch (RuntimeException e) {
+            deleteQuietly(part);
+            throw e;
+        }
+        BlobDescriptor blob = new BlobDescriptor(HexFormat.of().formatHex(digest.digest()), size);
+        moveIntoPlace(part, blob.hash());
+        return blob;
+    }
+
+    @Override
+    public BlobDescriptor put(byte[] content) {
+        BlobDescriptor blob = BlobDescriptor.of(content);
+        if (!touch(blob.hash())) {
+            Path part = newTempFile();
+            try {
+                Files.write(part, content);
+            } catch (IOException e) {
+                deleteQuietly(part);
+                throw new UncheckedIOException("Could not write blob", e);
+            }
+            moveIntoPlace(part, blob.hash());
+        }
+        return blob;
+    }
+
+    @Override
+    public InputStream open(String hash) {
+        try {
+            return Files.newInputStream(pathFor(hash));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open blob " + hash, e);
+        }
+    }
+
+    @Override
+    public byte[] read(String hash) {
+        try {
+            return Files.readAllBytes(pathFor(hash));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read blob " + hash, e);
+        }
+    }
+
+    @Override
+    public boolean exists(String hash) {
+        return Files.exists(pathFor(hash));
+    }
+
+    @Override
+    public Optional<Path> locate(String hash) {
+        Path path = pathFor(hash);
+        return Files.exists(path) ? Optional.of(path) : Optional.empty();
+    }
+
+    @Override
+    public void delete(String hash) {
+        try {
+            if (Files.deleteIfExists(pathFor(hash))) {
+                log.debug("Deleted blob {}", hash);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not delete blob " + hash, e);
+        }
+    }
+
+    // the blob is first moved out of place, so a put that races with the delete finds no file to touch and
+    // writes a fresh copy; a put that touched it just before the move is seen in the moved file's mtime
+    @Override
+    public boolean deleteIfUnmodifiedSince(String hash, Instant cutoff) {
+        Path target = pathFor(hash);
+        Path reaped = tmp.resolve("reap-" + hash + "-" + System.nanoTime());
+        try {
+            Files.createDirectories(tmp);
+            Files.move(target, reaped, StandardCopyOption.ATOMIC_MOVE);
+        } catch (NoSuchFileException e) {
+            return false;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not delete blob " + hash, e);
+        }
+        try {
+            if (Files.getLastModifiedTime(reaped).toInstant().isBefore(cutoff)) {
+                Files.delete(reaped);
+                log.debug("Deleted blob {}", hash);
+                return true;
+            }
+            Files.move(reaped, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (FileAlreadyExistsException e) {
+            // a racing put already wrote the same bytes back
+            deleteQuietly(reaped);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not restore blob " + hash, e);
+        }
+        return false;
+    }
+
+    @Override
+    public Stream<String> listUnmodifiedSince(Instant cutoff) {
+        if (!Files.isDirectory(root)) {
+            return Stream.empty();
+        }
+        try {
+            return Files.find(root, 3, (path, attrs) -> attrs.isRegularFile()
+                            && attrs.lastModifiedTime().toInstant().isBefore(cutoff)
+                            && HASH_PATTERN.matcher(path.getFileName().toString()).matches())
+                    .map(path -> path.getFileName().toString());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not list blobs", e);
+        }
+    }
+
+    @Override
+    public void purgeStaging(Instant cutoff) {
+        if (!Files.isDirectory(tmp)) {
+            return;
+        }
+        try (Stream<Path> parts = Files.find(tmp, 1, (path, attrs) -> attrs.isRegularFile()
+                && attrs.lastModifiedTime().toInstant().isBefore(cutoff))) {
+            parts.forEach(FileSystemBlobStore::deleteQuietly);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not purge blob staging files", e);
+        }
+    }
+
+    Path pathFor(String hash) {
+        if (hash == null || !HASH_PATTERN.matcher(hash).matches()) {
+            throw new IllegalArgumentException("Invalid blob hash: " + hash);
+        }
+        return root.resolve(hash.substring(0, 2)).resolve(hash.substring(2, 4)).resolve(hash);
+    }
+
+    private Path newTempFile() {
+        try {
+            Files.createDirectories(tmp);
+            return Files.createTempFile(tmp, "blob-", ".part");
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not create blob staging file", e);
+        }
+    }
+
+    private void moveIntoPlace(Path part, String hash) {
+        Path target = pathFor(hash);
+        try {
+            if (touch(hash)) {
+                Files.delete(part);
+                return;
+            }
+            Files.createDirectories(target.getParent());
+            Files.move(part, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (FileAlreadyExistsException e) {
+            deleteQuietly(part);
+        } catch (IOException e) {
+            deleteQuietly(part);
+            throw new UncheckedIOException("Could not store blob " + hash, e);
+        }
+    }
+
+    // re-putting existing content refreshes its timestamp so OrphanBlobJanitor treats it as new again
+    private boolean touch(String hash) {
+        Path target = pathFor(hash);
+        try {
+            Files.setLastModifiedTime(target, FileTime.from(Instant.now()));
+            return true;
+        } catch (NoSuchFileException e) {
+            return false;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not touch blob " + hash, e);
+        }
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Could not delete staging file {}", path, e);
+        }
+    }
+}
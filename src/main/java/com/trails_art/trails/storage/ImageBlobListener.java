@@ -0,0 +1,133 @@
+package com.trails_art.trails.storage;
+
+import com.trails_art.trails.models.Image;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Optional;
+
+/**
+ * Keeps {@link Image} rows and the {@link BlobStore} in step. Bytes are written before the row
+ * is inserted or updated. Width and height are read from the image header whenever the content changes.
+ * <p>
+ * Blobs are never deleted here. Another transaction may have put the same bytes and not yet committed
+ * its row, which a reference count taken after this commit cannot see, so removed and replaced blobs
+ * are left to {@link OrphanBlobJanitor}. Every put refreshes the blob's modification time, and its grace
+ * period keeps the blob until such a row has committed.
+ * <p>
+ * Renditions are queued for generation once a write commits and evicted together with their blob.
+ * Cached content is invalidated on update and removal, and again after commit so a read that raced
+ * with the write cannot leave the old bytes behind.
+ * <p>
+ * Instantiated by Hibernate through Spring's bean container.
+ */
+@Slf4j
+public class ImageBlobListener {
+
+    private final BlobStore blobStore;
+    private final ObjectProvider<RenditionStore> renditionStore;
+    private final ObjectProvider<ImageCache> imageCache;
+
+    public ImageBlobListener(BlobStore blobStore,
+                             ObjectProvider<RenditionStore> renditionStore,
+                             ObjectProvider<ImageCache> imageCache) {
+        this.blobStore = blobStore;
+        this.renditionStore = renditionStore;
+        this.imageCache = imageCache;
+    }
+
+    @PrePersist
+    @PreUpdate
+    public void storeContent(Image image) {
+        byte[] pending = image.takePendingData();
+        if (pending != null) {
+            blobStore.put(pending);
+        } else if (image.getContentHash() != null && !blobStore.exists(image.getContentHash())) {
+            throw new IllegalStateException("Content for image " + image.getId() + " was never stored.");
+        }
+        image.attachBlobStore(blobStore);
+        if (!image.hasDimensions() && image.getContentHash() != null) {
+            probeDimensions(image, pending);
+        }
+    }
+
+    @PostPersist
+    public void onPersisted(Image image) {
+        renderAfterCommit(image.getContentHash());
+    }
+
+    @PostUpdate
+    public void onUpdated(Image image) {
+        invalidateCache(image);
+        renderAfterCommit(image.getContentHash());
+    }
+
+    @PostRemove
+    public void onRemoved(Image image) {
+        invalidateCache(image);
+    }
+
+    @PostLoad
+    public void onLoaded(Image image) {
+        image.attachBlobStore(blobStore);
+    }
+
+    private void probeDimensions(Image image, byte[] pending) {
+        Optional<ImageDimensions> dimensions;
+        if (pending != null) {
+            dimensions = ImageDimensions.probe(new ByteArrayInputStream(pending));
+        } else {
+            try (InputStream in = blobStore.open(image.getContentHash())) {
+                dimensions = ImageDimensions.probe(in);
+            } catch (IOException | RuntimeException e) {
+                log.debug("Could not read header of blob {}", image.getContentHash(), e);
+                return;
+            }
+        }
+        dimensions.ifPresent(d -> image.setDimensions(d.width(), d.height()));
+    }
+
+    private void invalidateCache(Image image) {
+        ImageCache cache = imageCache.getIfAvailable();
+        if (cache == null || image.getId() == null) {
+            return;
+        }
+        cache.invalidate(image.getId());
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    cache.invalidate(image.getId());
+                }
+            });
+        }
+    }
+
+    private void renderAfterCommit(String hash) {
+        RenditionStore renditions = renditionStore.getIfAvailable();
+        if (renditions == null || hash == null) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            renditions.generateAllAsync(hash);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                renditions.generateAllAsync(hash);
+            }
+        });
+    }
+}
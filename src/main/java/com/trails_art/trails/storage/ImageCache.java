@@ -0,0 +1,251 @@
+package com.trails_art.trails.storage;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Hot image bytes held in direct buffers outside the GC-managed heap, bounded by total bytes.
+ * <p>
+ * Eviction is segmented LRU: new entries land in a probation segment and only move to the protected
+ * segment (80% of capacity) on a second hit, so a one-off scan over many images churns probation
+ * without displacing the working set. Direct memory is returned when an evicted buffer is collected,
+ * so -XX:MaxDirectMemorySize should leave headroom above {@code trails.images.cache.max-bytes}.
+ */
+@Component
+public class ImageCache implements MeterBinder {
+
+    private static final double PROTECTED_SHARE = 0.8;
+
+    private final long capacity;
+    private final long protectedCapacity;
+    private final long maxEntryBytes;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<UUID, ImageContent> probation = new LinkedHashMap<>(64, 0.75f, true);
+    private final LinkedHashMap<UUID, ImageContent> protectedSegment = new LinkedHashMap<>(64, 0.75f, true);
+    private long probationBytes;
+    private long protectedBytes;
+
+    // bumped by every invalidation, so a load that raced with a write is not cached
+    private final AtomicLong generation = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder evictedBytes = new LongAdder();
+
+    public record Stats(long hits, long misses, double hitRatio, long evictions, long evictedBytes,
+                        long residentBytes, int entries, long capacityBytes) { }
+
+    public ImageCache(
+            @Value("${trails.images.cache.max-bytes:268435456}") long capacity,
+            @Value("${trails.images.cache.max-entry-bytes:0}") long maxEntryBytes
+    ) {
+        this.capacity = Math.max(0, capacity);
+        this.protectedCapacity = (long) (this.capacity * PROTECTED_SHARE);
+        this.maxEntryBytes = maxEntryBytes > 0 ? Math.min(maxEntryBytes, this.capacity) : this.capacity / 8;
+    }
+
+    public Optional<ImageContent> get(UUID id) {
+        lock.lock();
+        try {
+            ImageContent content = protectedSegment.get(id);
+            if (content == null) {
+                content = probation.remove(id);
+                if (content != null) {
+                    probationBytes -= content.size();
+                    promote(id, content);
+                }
+            }
+            if (content == null) {
+                misses.increment();
+                return Optional.empty();
+            }
+            hits.increment();
+            return Optional.of(content);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // take before loading from the database and pass to load
+    public long ticket() {
+        return generation.get();
+    }
+
+    /**
+     * Copies {@code size} bytes from {@code source} into a direct buffer and caches them, unless an
+     * invalidation happened since {@code ticket} or the entry is too large, in which case the
+     * bytes are returned on the heap uncached.
+     */
+    public ImageContent load(long ticket, UUID id, String mimetype, String contentHash, long size,
+                             Supplier<InputStream> source) {
+        if (size > maxEntryBytes || size > Integer.MAX_VALUE) {
+            return new ImageContent(id, mimetype, contentHash, ByteBuffer.wrap(readAll(source)));
+        }
+        ByteBuffer buffer = ByteBuffer.allocateDirect((int) size);
+        try (ReadableByteChannel channel = Channels.newChannel(source.get())) {
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer) < 0) {
+                    break;
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read content of image " + id, e);
+        }
+        if (buffer.hasRemaining()) {
+            throw new IllegalStateException("Content of image " + id + " is shorter than its recorded size");
+        }
+        buffer.flip();
+        ImageContent content = new ImageContent(id, mimetype, contentHash, buffer);
+        admit(ticket, content);
+        return content;
+    }
+
+    public void invalidate(UUID id) {
+        generation.incrementAndGet();
+        lock.lock();
+        try {
+            ImageContent removed = probation.remove(id);
+            if (removed != null) {
+                probationBytes -= removed.size();
+            }
+            removed = protectedSegment.remove(id);
+            if (removed != null) {
+                protectedBytes -= removed.size();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void clear() {
+        generation.incrementAndGet();
+        lock.lock();
+        try {
+            probation.clear();
+            protectedSegment.clear();
+            probationBytes = 0;
+            protectedBytes = 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Stats stats() {
+        lock.lock();
+        try {
+            return new Stats(hits.sum(), misses.sum(), hitRatio(), evictions.sum(), evictedBytes.sum(),
+                    probationBytes + protectedBytes, probation.size() + protectedSegment.size(), capacity);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("trails.image.cache.hits", hits, LongAdder::sum).register(registry);
+        FunctionCounter.builder("trails.image.cache.misses", misses, LongAdder::sum).register(registry);
+        FunctionCounter.builder("trails.image.cache.evictions", evictions, LongAdder::sum).register(registry);
+        FunctionCounter.builder("trails.image.cache.evicted", evictedBytes, LongAdder::sum)
+                .baseUnit("bytes").register(registry);
+        Gauge.builder("trails.image.cache.hit.ratio", this, ImageCache::hitRatio).register(registry);
+        Gauge.builder("trails.image.cache.resident", this, cache -> cache.stats().residentBytes())
+                .baseUnit("bytes").register(registry);
+        Gauge.builder("trails.image.cache.entries", this, cache -> cache.stats().entries()).register(registry);
+    }
+
+    private double hitRatio() {
+        long hit = hits.sum();
+        long total = hit + misses.sum();
+        return total == 0 ? 0.0 : (double) hit / total;
+    }
+
+    private void admit(long ticket, ImageContent content) {
+        lock.lock();
+        try {
+            if (ticket != generation.get() || capacity == 0) {
+                return;
+            }
+            ImageContent previous = probation.put(content.id(), content);
+            if (previous != null) {
+                probationBytes -= previous.size();
+            }
+            probationBytes += content.size();
+            previous = protectedSegment.remove(content.id());
+            if (previous != null) {
+                protectedBytes -= previous.size();
+            }
+            evictOverflow();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // callers hold the lock
+    private void promote(UUID id, ImageContent content) {
+        protectedSegment.put(id, content);
+        protectedBytes += content.size();
+        Iterator<Map.Entry<UUID, ImageContent>> eldest = protectedSegment.entrySet().iterator();
+        while (protectedBytes > protectedCapacity && eldest.hasNext()) {
+            Map.Entry<UUID, ImageContent> demoted = eldest.next();
+            if (demoted.getKey().equals(id)) {
+                break;
+            }
+            eldest.remove();
+            protectedBytes -= demoted.getValue().size();
+            probation.put(demoted.getKey(), demoted.getValue());
+            probationBytes += demoted.getValue().size();
+        }
+        evictOverflow();
+    }
+
+    // callers hold the lock; drains probation first, then protected
+    private void evictOverflow() {
+        evictFrom(probation, true);
+        evictFrom(protectedSegment, false);
+    }
+
+    private void evictFrom(LinkedHashMap<UUID, ImageContent> segment, boolean isProbation) {
+        Iterator<ImageContent> eldest = segment.values().iterator();
+        while (probationBytes + protectedBytes > capacity && eldest.hasNext()) {
+            ImageContent evicted = eldest.next();
+            eldest.remove();
+            if (isProbation) {
+                probationBytes -= evicted.size();
+            } else {
+                protectedBytes -= evicted.size();
+            }
+            evictions.increment();
+            evictedBytes.add(evicted.size());
+        }
+    }
+
+    private static byte[] readAll(Supplier<InputStream> source) {
+        try (InputStream in = source.get()) {
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read image content", e);
+        }
+    }
+}
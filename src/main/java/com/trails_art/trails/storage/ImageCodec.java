@@ -0,0 +1,202 @@
+package com.trails_art.trails.storage;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+
+/**
+ * ImageIO helpers shared by renditions and upload optimization. Images are written without any
+ * metadata, so EXIF, ICC comments and text chunks of the source never survive a re-encode.
+ */
+public final class ImageCodec {
+
+    // decoding is skipped above this, a 100MP image already needs 400MB as int pixels
+    public static final long MAX_SOURCE_PIXELS = 100_000_000L;
+    // an EXIF block lives in one APP1 segment of at most 64KB near the start of the file
+    public static final int ORIENTATION_PREFIX_BYTES = 128 * 1024;
+
+    private static final int ORIENTATION_TAG = 0x0112;
+
+    private ImageCodec() {
+    }
+
+    /**
+     * Decodes the first image of the stream, or returns null when no reader recognizes it or its header
+     * declares more than {@link #MAX_SOURCE_PIXELS}. The dimensions are checked before any pixels are
+     * allocated, so a small file with huge dimensions cannot exhaust the heap.
+     */
+    public static BufferedImage decode(InputStream source) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(source)) {
+            if (in == null) {
+                return null;
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                if ((long) reader.getWidth(0) * reader.getHeight(0) > MAX_SOURCE_PIXELS) {
+                    return null;
+                }
+                return reader.read(0);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * The EXIF orientation (1 to 8) declared by a JPEG that starts with the given bytes, or 1 for
+     * other formats and for JPEGs without one. {@link #ORIENTATION_PREFIX_BYTES} of the file are enough.
+     */
+    public static int orientation(byte[] b) {
+        if (b.length < 4 || (b[0] & 0xFF) != 0xFF || (b[1] & 0xFF) != 0xD8) {
+            return 1;
+        }
+        int i = 2;
+        while (i + 4 <= b.length && (b[i] & 0xFF) == 0xFF) {
+            int marker = b[i + 1] & 0xFF;
+            if (marker == 0xFF) {
+                i++;
+                continue;
+            }
+            if (marker == 0xDA || marker == 0xD9) {
+                break;
+            }
+            if (marker == 0x01 || (marker >= 0xD0 && marker <= 0xD7)) {
+                i += 2;
+                continue;
+            }
+            int length = readShort(b, i + 2, false);
+            int start = i + 4;
+            int end = Math.min(b.length, i + 2 + length);
+            if (marker == 0xE1 && end - start > 14
+                    && new String(b, start, 6, StandardCharsets.ISO_8859_1).equals("Exif\0\0")) {
+                return exifOrientation(b, start + 6, end);
+            }
+            i += 2 + length;
+        }
+        return 1;
+    }
+
+    // maps each EXIF orientation to the transform that brings the stored pixels upright
+    public static BufferedImage orient(BufferedImage source, int orientation, boolean alpha) {
+        int w = source.getWidth();
+        int h = source.getHeight();
+        AffineTransform transform = switch (orientation) {
+            case 2 -> new AffineTransform(-1, 0, 0, 1, w, 0);
+            case 3 -> new AffineTransform(-1, 0, 0, -1, w, h);
+            case 4 -> new AffineTransform(1, 0, 0, -1, 0, h);
+            case 5 -> new AffineTransform(0, 1, 1, 0, 0, 0);
+            case 6 -> new AffineTransform(0, 1, -1, 0, h, 0);
+            case 7 -> new AffineTransform(0, -1, -1, 0, h, w);
+            case 8 -> new AffineTransform(0, -1, 1, 0, 0, w);
+            default -> new AffineTransform();
+        };
+        boolean transposed = orientation >= 5;
+        BufferedImage target = new BufferedImage(transposed ? h : w, transposed ? w : h,
+                alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = target.createGraphics();
+        try {
+            g.drawImage(source, transform, null);
+        } finally {
+            g.dispose();
+        }
+        return target;
+    }
+
+    // halves repeatedly before the final draw, which keeps bilinear downscaling from aliasing
+    public static BufferedImage scaleToWidth(BufferedImage source, int width, boolean alpha) {
+        int type = alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+        int height = Math.max(1, (int) Math.round((double) source.getHeight() * width / source.getWidth()));
+        BufferedImage current = source;
+        int w = source.getWidth();
+        int h = source.getHeight();
+        do {
+            w = Math.max(width, w / 2);
+            h = w == width ? height : Math.max(height, h / 2);
+            BufferedImage next = new BufferedImage(w, h, type);
+            Graphics2D g = next.createGraphics();
+            try {
+                g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                g.drawImage(current, 0, 0, w, h, null);
+            } finally {
+                g.dispose();
+            }
+            current = next;
+        } while (w > width);
+        return current;
+    }
+
+    // quality only applies to jpeg; png is always lossless
+    public static void encode(BufferedImage image, String formatName, float quality, OutputStream out)
+            throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName(formatName).next();
+        try (ImageOutputStream ios = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(ios);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            if ("jpeg".equals(formatName)) {
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                param.setCompressionQuality(quality);
+            }
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    // reads tag 0x0112 from IFD0 of the TIFF structure at b[tiff..end) inside an EXIF APP1 segment
+    static int exifOrientation(byte[] b, int tiff, int end) {
+        boolean little = b[tiff] == 'I';
+        long ifd = tiff + (readInt(b, tiff + 4, little) & 0xFFFFFFFFL);
+        if (ifd + 2 > end) {
+            return 1;
+        }
+        int entries = readShort(b, (int) ifd, little);
+        for (int k = 0; k < entries; k++) {
+            int entry = (int) ifd + 2 + 12 * k;
+            if (entry + 12 > end) {
+                break;
+            }
+            if (readShort(b, entry, little) == ORIENTATION_TAG) {
+                int value = readShort(b, entry + 8, little);
+                return value >= 1 && value <= 8 ? value : 1;
+            }
+        }
+        return 1;
+    }
+
+    static int readShort(byte[] b, int offset, boolean little) {
+        if (offset + 2 > b.length) {
+            return 0;
+        }
+        int b0 = b[offset] & 0xFF;
+        int b1 = b[offset + 1] & 0xFF;
+        return little ? b0 | (b1 << 8) : (b0 << 8) | b1;
+    }
+
+    static int readInt(byte[] b, int offset, boolean little) {
+        if (offset + 4 > b.length) {
+            return -1;
+        }
+        int first = readShort(b, offset, little);
+        int second = readShort(b, offset + 2, little);
+        return little ? (second << 16) | first : (first << 16) | second;
+    }
+}
@@ -0,0 +1,28 @@
+package com.trails_art.trails.storage;
+
+import java.nio.ByteBuffer;
+import java.util.UUID;
+
+// a read-only view of an image's bytes, either held by ImageCache off-heap or wrapped from a heap array
+public record ImageContent(UUID id, String mimetype, String contentHash, ByteBuffer data) {
+
+    public ImageContent {
+        data = data.asReadOnlyBuffer();
+    }
+
+    // each caller gets its own position and limit over the shared bytes
+    @Override
+    public ByteBuffer data() {
+        return data.duplicate();
+    }
+
+    public int size() {
+        return data.remaining();
+    }
+
+    public byte[] toByteArray() {
+        byte[] bytes = new byte[data.remaining()];
+        data.duplicate().get(bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,35 @@
+package com.trails_art.trails.storage;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.Optional;
+
+// pixel size as stored, before any EXIF orientation is applied
+public record ImageDimensions(int width, int height) {
+
+    // reads only as far into the stream as the format's header, the pixels are never decoded
+    public static Optional<ImageDimensions> probe(InputStream content) {
+        try (ImageInputStream in = ImageIO.createImageInputStream(content)) {
+            if (in == null) {
+                return Optional.empty();
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) {
+                return Optional.empty();
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                return Optional.of(new ImageDimensions(reader.getWidth(0), reader.getHeight(0)));
+            } finally {
+                reader.dispose();
+            }
+        } catch (IOException | RuntimeException e) {
+            return Optional.empty();
+        }
+    }
+}
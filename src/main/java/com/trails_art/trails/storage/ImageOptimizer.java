@@ -0,0 +1,231 @@
+package com.trails_art.trails.storage;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.awt.color.ColorSpace;
+import java.awt.color.ICC_Profile;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Produces a web-ready copy of an uploaded JPEG or PNG: EXIF orientation applied to the pixels,
+ * metadata dropped, the longer side capped at {@code max-dimension}, and the result recompressed.
+ * Images that need none of that, and recompressions that would not come out smaller, are left alone.
+ * So are images with an embedded ICC profile whose primaries are not sRGB's: the re-encode carries no
+ * profile, and a wide-gamut (e.g. Display P3) photo would come out visibly desaturated.
+ */
+@Slf4j
+@Component
+public class ImageOptimizer {
+
+    private static final String ICC_MARKER = "ICC_PROFILE\0";
+    // s15Fixed16 units, about 0.005; sRGB profiles from different vendors differ by less
+    private static final int COLORANT_TOLERANCE = 328;
+
+    public record Optimized(BlobDescriptor blob, int width, int height) { }
+
+    private final BlobStore blobStore;
+    private final int maxDimension;
+    private final float jpegQuality;
+    private final long recompressAboveBytes;
+
+    public ImageOptimizer(
+            BlobStore blobStore,
+            @Value("${trails.images.optimizer.max-dimension:2560}") int maxDimension,
+            @Value("${trails.images.optimizer.jpeg-quality:0.85}") float jpegQuality,
+            @Value("${trails.images.optimizer.recompress-above-bytes:524288}") long recompressAboveBytes
+    ) {
+        this.blobStore = blobStore;
+        this.maxDimension = maxDimension;
+        this.jpegQuality = jpegQuality;
+        this.recompressAboveBytes = recompressAboveBytes;
+    }
+
+    /**
+     * Writes the optimized copy of the given blob to the store and returns it, or returns empty
+     * when the blob is not a decodable JPEG or PNG or is already as good as it gets.
+     */
+    public Optional<Optimized> optimize(String hash) {
+        byte[] source;
+        try (InputStream in = blobStore.open(hash)) {
+            source = in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read blob " + hash, e);
+        }
+        Header header = inspect(source);
+        if (header == null || header.foreignProfile()) {
+            return Optional.empty();
+        }
+        BufferedImage image = decode(source);
+        if (image == null) {
+            return Optional.empty();
+        }
+
+        boolean transposed = header.orientation() >= 5;
+        int width = transposed ? image.getHeight() : image.getWidth();
+        int height = transposed ? image.getWidth() : image.getHeight();
+        boolean resize = Math.max(width, height) > maxDimension;
+        boolean rewrite = header.orientation() != 1 || header.metadata() || resize;
+        if (!rewrite && source.length <= recompressAboveBytes) {
+            return Optional.empty();
+        }
+
+        boolean alpha = image.getColorModel().hasAlpha();
+        if (header.orientation() != 1) {
+            image = ImageCodec.orient(image, header.orientation(), alpha);
+        }
+        if (resize) {
+            int targetWidth = width >= height
+                    ? maxDimension
+                    : Math.max(1, (int) Math.round((double) maxDimension * width / height));
+            image = ImageCodec.scaleToWidth(image, targetWidth, alpha);
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(8192, source.length / 2));
+        try {
+            ImageCodec.encode(image, header.format(), jpegQuality, out);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not encode optimized copy of " + hash, e);
+        }
+        if (!rewrite && out.size() >= source.length) {
+            return Optional.empty();
+        }
+        return Optional.of(new Optimized(blobStore.put(out.toByteArray()), image.getWidth(), image.getHeight()));
+    }
+
+    private record Header(String format, int orientation, boolean metadata, boolean foreignProfile) { }
+
+    private static Header inspect(byte[] b) {
+        if (b.length > 3 && (b[0] & 0xFF) == 0xFF && (b[1] & 0xFF) == 0xD8 && (b[2] & 0xFF) == 0xFF) {
+            return inspectJpeg(b);
+        }
+        if (b.length > 8 && (b[0] & 0xFF) == 0x89 && b[1] == 'P' && b[2] == 'N' && b[3] == 'G') {
+            return inspectPng(b);
+        }
+        return null;
+    }
+
+    // walks the marker segments up to the scan; APP1 (EXIF/XMP), APP13 (IPTC) and comments count as metadata,
+    // APP2 segments carry the ICC profile in chunks
+    private static Header inspectJpeg(byte[] b) {
+        int orientation = 1;
+        boolean metadata = false;
+        ByteArrayOutputStream icc = new ByteArrayOutputStream();
+        int i = 2;
+        while (i + 4 <= b.length && (b[i] & 0xFF) == 0xFF) {
+            int marker = b[i + 1] & 0xFF;
+            if (marker == 0xFF) {
+                i++;
+                continue;
+            }
+            if (marker == 0xDA || marker == 0xD9) {
+                break;
+            }
+            if (marker == 0x01 || (marker >= 0xD0 && marker <= 0xD7)) {
+                i += 2;
+                continue;
+            }
+            int length = ImageCodec.readShort(b, i + 2, false);
+            int start = i + 4;
+            int end = Math.min(b.length, i + 2 + length);
+            if (marker == 0xE1 || marker == 0xED || marker == 0xFE) {
+                metadata = true;
+            }
+            if (marker == 0xE1 && end - start > 14
+                    && new String(b, start, 6, StandardCharsets.ISO_8859_1).equals("Exif\0\0")) {
+                orientation = ImageCodec.exifOrientation(b, start + 6, end);
+            }
+            if (marker == 0xE2 && end - start > 14
+                    && new String(b, start, 12, StandardCharsets.ISO_8859_1).equals(ICC_MARKER)) {
+                icc.write(b, start + 14, end - start - 14);
+            }
+            i += 2 + length;
+        }
+        return new Header("jpeg", orientation, metadata, icc.size() > 0 && !isSrgb(icc.toByteArray()));
+    }
+
+    private static Header inspectPng(byte[] b) {
+        boolean metadata = false;
+        boolean foreignProfile = false;
+        int i = 8;
+        while (i + 8 <= b.length) {
+            int length = ImageCodec.readInt(b, i, false);
+            String type = new String(b, i + 4, 4, StandardCharsets.ISO_8859_1);
+            switch (type) {
+                case "tEXt", "zTXt", "iTXt", "eXIf", "tIME" -> metadata = true;
+                case "iCCP" -> foreignProfile = length >= 0 && i + 8L + length <= b.length
+                        && !isSrgb(inflateProfile(b, i + 8, length));
+                default -> { }
+            }
+            if (type.equals("IEND") || length < 0 || length > b.length) {
+                break;
+            }
+            i += 12 + length;
+        }
+        return new Header("png", 1, metadata, foreignProfile);
+    }
+
+    // iCCP holds a profile name, a null, a compression method byte and the zlib-compressed profile
+    private static byte[] inflateProfile(byte[] b, int start, int length) {
+        int nul = start;
+        while (nul < start + length && b[nul] != 0) {
+            nul++;
+        }
+        int data = nul + 2;
+        if (data > start + length) {
+            return null;
+        }
+        try (InputStream in = new InflaterInputStream(new ByteArrayInputStream(b, data, start + length - data))) {
+            return in.readAllBytes();
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    // compares the red, green and blue colorants with sRGB's; unreadable profiles count as foreign
+    private static boolean isSrgb(byte[] icc) {
+        if (icc == null) {
+            return false;
+        }
+        try {
+            ICC_Profile profile = ICC_Profile.getInstance(icc);
+            ICC_Profile srgb = ICC_Profile.getInstance(ColorSpace.CS_sRGB);
+            for (int tag : new int[] {ICC_Profile.icSigRedColorantTag, ICC_Profile.icSigGreenColorantTag,
+                    ICC_Profile.icSigBlueColorantTag}) {
+                byte[] actual = profile.getData(tag);
+                byte[] expected = srgb.getData(tag);
+                if (actual == null || actual.length < 20) {
+                    return false;
+                }
+                // an XYZType tag: signature, reserved, then X, Y and Z as s15Fixed16 numbers
+                for (int offset = 8; offset < 20; offset += 4) {
+                    int difference = ImageCodec.readInt(actual, offset, false) - ImageCodec.readInt(expected, offset, false);
+                    if (Math.abs(difference) > COLORANT_TOLERANCE) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+
+    private static BufferedImage decode(byte[] source) {
+        try {
+            return ImageCodec.decode(new ByteArrayInputStream(source));
+        } catch (IOException | RuntimeException e) {
+            log.debug("Could not decode image for optimization", e);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.trails_art.trails.storage;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Moves image bytes from the legacy images.data column into the {@link BlobStore} and drops
+ * the column once every row has a content hash. Runs in small batches so only one image is
+ * held at a time, and probes each image's dimensions on the way; it is a no-op on schemas that
+ * never had the column.
+ * <p>
+ * The whole copy runs once all singletons exist, before the web server starts, so no request can
+ * see a row whose bytes are still only in the legacy column.
+ */
+@Slf4j
+@Component
+public class LegacyImageDataMigration implements SmartInitializingSingleton {
+
+    private static final int BATCH_SIZE = 50;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final BlobStore blobStore;
+    private final boolean enabled;
+
+    public LegacyImageDataMigration(JdbcTemplate jdbcTemplate,
+                                    BlobStore blobStore,
+                                    @Value("${trails.storage.migrate-legacy-images:true}") boolean enabled) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.blobStore = blobStore;
+        this.enabled = enabled;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (!enabled || !legacyColumnExists()) {
+            return;
+        }
+
+        int migrated = 0;
+        List<UUID> batch;
+        do {
+            batch = jdbcTemplate.queryForList(
+                    "select id from images where content_hash is null and data is not null fetch first " + BATCH_SIZE + " rows only",
+                    UUID.class);
+            for (UUID id : batch) {
+                migrate(id);
+                migrated++;
+            }
+        } while (!batch.isEmpty());
+
+        jdbcTemplate.execute("alter table images drop column data");
+        log.info("Moved {} legacy images into the blob store", migrated);
+    }
+
+    private void migrate(UUID id) {
+        BlobDescriptor blob = jdbcTemplate.query("select data from images where id = ?", rs -> {
+            rs.next();
+            try (InputStream in = rs.getBinaryStream(1)) {
+                return blobStore.put(in);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, id);
+        String hash = Objects.requireNonNull(blob).hash();
+        ImageDimensions dimensions;
+        try (InputStream in = blobStore.open(hash)) {
+            dimensions = ImageDimensions.probe(in).orElse(null);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        jdbcTemplate.update("update images set content_hash = ?, byte_size = ?, width = ?, height = ? where id = ?",
+                hash, blob.size(),
+                dimensions == null ? null : dimensions.width(),
+                dimensions == null ? null : dimensions.height(),
+                id);
+    }
+
+    private boolean legacyColumnExists() {
+        Boolean exists = jdbcTemplate.execute((Connection connection) -> {
+            DatabaseMetaData metaData = connection.getMetaData();
+            for (String table : List.of("images", "IMAGES")) {
+                for (String column : List.of("data", "DATA")) {
+                    try (ResultSet rs = metaData.getColumns(null, null, table, column)) {
+                        if (rs.next()) {
+                            return true;
+                        }
+                    }
+                }
+            }
+            return false;
+        });
+        return Boolean.TRUE.equals(exists);
+    }
+}
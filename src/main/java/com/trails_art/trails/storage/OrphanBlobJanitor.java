@@ -0,0 +1,66 @@
+package com.trails_art.trails.storage;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Deletes blobs that no image row references, and is the only place blobs are deleted. Request bodies
+ * are spooled into the {@link BlobStore} while they are parsed, before the request is validated, so a
+ * rejected or failed request leaves its content behind, as do deleted and replaced images. The grace
+ * period keeps blobs of requests that are still in flight, including ones whose put deduplicated onto
+ * an existing blob and whose row is not committed yet.
+ */
+@Slf4j
+@Component
+public class OrphanBlobJanitor {
+
+    private final BlobStore blobStore;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectProvider<RenditionStore> renditionStore;
+    private final Duration grace;
+
+    public OrphanBlobJanitor(BlobStore blobStore,
+                             JdbcTemplate jdbcTemplate,
+                             ObjectProvider<RenditionStore> renditionStore,
+                             @Value("${trails.storage.orphan-grace:PT1H}") Duration grace) {
+        this.blobStore = blobStore;
+        this.jdbcTemplate = jdbcTemplate;
+        this.renditionStore = renditionStore;
+        this.grace = grace;
+    }
+
+    @Scheduled(fixedDelayString = "${trails.storage.janitor-interval:PT1H}",
+            initialDelayString = "${trails.storage.janitor-interval:PT1H}")
+    public void scheduledSweep() {
+        sweep(Instant.now().minus(grace));
+    }
+
+    public int sweep(Instant cutoff) {
+        blobStore.purgeStaging(cutoff);
+        AtomicInteger deleted = new AtomicInteger();
+        try (Stream<String> candidates = blobStore.listUnmodifiedSince(cutoff)) {
+            candidates.forEach(hash -> {
+                Integer references = jdbcTemplate.queryForObject(
+                        "select count(*) from images where content_hash = ?", Integer.class, hash);
+                // a put may have touched the blob since it was listed, and its row may commit after the count
+                if (references != null && references == 0 && blobStore.deleteIfUnmodifiedSince(hash, cutoff)) {
+                    renditionStore.ifAvailable(renditions -> renditions.evict(hash));
+                    deleted.incrementAndGet();
+                }
+            });
+        }
+        if (deleted.get() > 0) {
+            log.info("Deleted {} unreferenced blobs", deleted.get());
+        }
+        return deleted.get();
+    }
+}
@@ -0,0 +1,335 @@
+package com.trails_art.trails.storage;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.SequenceInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Downscaled copies of stored images at a fixed set of widths, kept as files next to the blob store
+ * under {@code <rendition-dir>/ab/<hash>/<width>.<ext>}. Renditions are derived purely from content,
+ * so they are keyed by blob hash and can be deleted at any time; a missing one is rebuilt on demand.
+ * Concurrent requests for the same missing rendition wait on a single build instead of each decoding
+ * the source, and sources above {@link ImageCodec#MAX_SOURCE_PIXELS} are served as originals.
+ * <p>
+ * Decoded sources can take hundreds of MB each, so at most {@code rendition-decodes} of them are held at
+ * once. A request that finds every permit taken gets the original and leaves the build to the background
+ * generator. Renditions are drawn upright, with the source's EXIF orientation applied.
+ */
+@Slf4j
+@Component
+public class RenditionStore {
+
+    private static final Pattern HASH_PATTERN = Pattern.compile("[0-9a-f]{64}");
+    private static final float JPEG_QUALITY = 0.82f;
+    // marks widths that would not be smaller than the source (or sources ImageIO cannot or may not decode)
+    private static final String ORIGINAL_MARKER = "orig";
+
+    public record Rendition(Path path, String mimetype, int width) { }
+
+    private final BlobStore blobStore;
+    private final Path root;
+    private final List<Integer> widths;
+    // builds in progress by "<hash>/<width>"; whoever registers first builds, later callers join it
+    private final ConcurrentMap<String, CompletableFuture<Optional<Rendition>>> building = new ConcurrentHashMap<>();
+    private final ExecutorService generator = new ThreadPoolExecutor(
+            1, 2, 30, TimeUnit.SECONDS, new ArrayBlockingQueue<>(256),
+            Thread.ofPlatform().name("rendition-", 0).daemon().factory(),
+            new ThreadPoolExecutor.AbortPolicy());
+    // shared by request threads, which never wait for a permit, and the generator, which does
+    private final Semaphore decodes;
+
+    public RenditionStore(
+            BlobStore blobStore,
+            @Value("${trails.storage.rendition-dir:data/renditions}") Path root,
+            @Value("${trails.images.rendition-widths:160,480,1080}") List<Integer> widths,
+            @Value("${trails.images.rendition-decodes:2}") int maxDecodes
+    ) {
+        this.blobStore = blobStore;
+        this.root = root.toAbsolutePath();
+        this.decodes = new Semaphore(Math.max(1, maxDecodes));
+        this.widths = widths.stream().filter(w -> w > 0).distinct().sorted().toList();
+        if (this.widths.isEmpty()) {
+            throw new IllegalArgumentException("trails.images.rendition-widths must name at least one width");
+        }
+    }
+
+    public List<Integer> widths() {
+        return widths;
+    }
+
+    // smallest configured width that covers the request, or null if none does and the original is wanted
+    public Integer snap(int requestedWidth) {
+        return widths.stream()
+                .filter(w -> w >= requestedWidth)
+                .findFirst()
+                .orElse(null);
+    }
+
+    // the configured width one step below the given one, for Save-Data clients
+    public int stepDown(int width) {
+        int index = widths.indexOf(width);
+        return index > 0 ? widths.get(index - 1) : width;
+    }
+
+    /**
+     * Returns the rendition of the given blob at a configured width, building it if it is not cached.
+     * Empty means the original should be served instead, because it is already no wider than
+     * {@code width}, is not in a format ImageIO can decode, or declares more pixels than may be decoded,
+     * or because every decode permit is taken; in that last case the rendition is built in the background.
+     */
+    public Optional<Rendition> find(String hash, int width) {
+        if (!widths.contains(width)) {
+            throw new IllegalArgumentException("Width " + width + " is not a configured rendition width");
+        }
+        Optional<Rendition> cached = lookup(hash, width);
+        if (cached.isPresent() || isOriginal(hash, width)) {
+            return cached;
+        }
+        String key = buildKey(hash, width);
+        CompletableFuture<Optional<Rendition>> claim = new CompletableFuture<>();
+        CompletableFuture<Optional<Rendition>> running = building.putIfAbsent(key, claim);
+        if (running != null) {
+            return running.join();
+        }
+        try {
+            // a build that finished between the lookup and the claim has left its file behind
+            Optional<Rendition> result = lookup(hash, width);
+            if (result.isEmpty() && !isOriginal(hash, width) && blobStore.exists(hash)) {
+                if (!decodes.tryAcquire()) {
+                    claim.complete(Optional.empty());
+                    building.remove(key, claim);
+                    generateAllAsync(hash);
+                    return Optional.empty();
+                }
+                try {
+                    BufferedImage source = decode(hash);
+                    result = source == null ? markOriginal(hash, width) : build(hash, source, width);
+                } finally {
+                    decodes.release();
+                }
+            }
+            claim.complete(result);
+            return result;
+        } catch (RuntimeException e) {
+            claim.completeExceptionally(e);
+            throw e;
+        } finally {
+            building.remove(key, claim);
+        }
+    }
+
+    // ingest-time generation; a dropped task only means the renditions are built on first request
+    public void generateAllAsync(String hash) {
+        try {
+            generator.execute(() -> {
+                try {
+                    generateAll(hash);
+                } catch (RuntimeException e) {
+                    log.warn("Could not generate renditions of {}", hash, e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            log.debug("Rendition queue full, {} will be rendered on demand", hash);
+        }
+    }
+
+    // decodes the source once and writes every configured width that is not cached or being built yet;
+    // the decode permit is taken before claiming, so requests never join a build that is still queued for one
+    public void generateAll(String hash) {
+        if (widths.stream().allMatch(w -> lookup(hash, w).isPresent() || isOriginal(hash, w))
+                || !blobStore.exists(hash)) {
+            return;
+        }
+        decodes.acquireUninterruptibly();
+        try {
+            generateClaimed(hash);
+        } finally {
+            decodes.release();
+        }
+    }
+
+    private void generateClaimed(String hash) {
+        List<Integer> claimed = new ArrayList<>();
+        List<CompletableFuture<Optional<Rendition>>> claims = new ArrayList<>();
+        for (int width : widths) {
+            CompletableFuture<Optional<Rendition>> claim = new CompletableFuture<>();
+            if (building.putIfAbsent(buildKey(hash, width), claim) == null) {
+                claimed.add(width);
+                claims.add(claim);
+            }
+        }
+        try {
+            BufferedImage source = null;
+            boolean decoded = false;
+            for (int i = 0; i < claimed.size(); i++) {
+                int width = claimed.get(i);
+                Optional<Rendition> result = lookup(hash, width);
+                if (result.isEmpty() && !isOriginal(hash, width)) {
+                    if (!decoded) {
+                        source = decode(hash);
+                        decoded = true;
+                    }
+                    result = source == null ? markOriginal(hash, width) : build(hash, source, width);
+                }
+                claims.get(i).complete(result);
+            }
+        } catch (RuntimeException e) {
+            claims.forEach(claim -> claim.completeExceptionally(e));
+            throw e;
+        } finally {
+            for (int i = 0; i < claimed.size(); i++) {
+                claims.get(i).complete(Optional.empty());
+                building.remove(buildKey(hash, claimed.get(i)), claims.get(i));
+            }
+        }
+    }
+
+    public void evict(String hash) {
+        Path dir = directoryFor(hash);
+        if (!Files.isDirectory(dir)) {
+            return;
+        }
+        try (Stream<Path> files = Files.walk(dir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(RenditionStore::deleteQuietly);
+        } catch (IOException e) {
+            log.warn("Could not evict renditions of {}", hash, e);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        generator.shutdownNow();
+    }
+
+    private Optional<Rendition> lookup(String hash, int width) {
+        Path dir = directoryFor(hash);
+        for (Format format : Format.values()) {
+            Path path = dir.resolve(width + "." + format.extension);
+            if (Files.exists(path)) {
+                return Optional.of(new Rendition(path, format.mimetype, width));
+            }
+        }
+        return Optional.empty();
+    }
+
+    private boolean isOriginal(String hash, int width) {
+        return Files.exists(directoryFor(hash).resolve(width + "." + ORIGINAL_MARKER));
+    }
+
+    // upright pixels, or null for sources ImageIO cannot decode and for ones above the pixel limit
+    private BufferedImage decode(String hash) {
+        try (InputStream in = blobStore.open(hash)) {
+            byte[] prefix = in.readNBytes(ImageCodec.ORIENTATION_PREFIX_BYTES);
+            BufferedImage image = ImageCodec.decode(new SequenceInputStream(new ByteArrayInputStream(prefix), in));
+            int orientation = ImageCodec.orientation(prefix);
+            return image == null || orientation == 1
+                    ? image
+                    : ImageCodec.orient(image, orientation, image.getColorModel().hasAlpha());
+        } catch (IOException | RuntimeException e) {
+            log.debug("Could not decode blob {} as an image", hash, e);
+            return null;
+        }
+    }
+
+    private Optional<Rendition> build(String hash, BufferedImage source, int width) {
+        if (source.getWidth() <= width) {
+            return markOriginal(hash, width);
+        }
+        Format format = source.getColorModel().hasAlpha() ? Format.PNG : Format.JPEG;
+        BufferedImage scaled = ImageCodec.scaleToWidth(source, width, format == Format.PNG);
+        Path target = directoryFor(hash).resolve(width + "." + format.extension);
+        try {
+            Path part = newTempFile(target);
+            try (OutputStream out = Files.newOutputStream(part)) {
+                ImageCodec.encode(scaled, format.name().toLowerCase(), JPEG_QUALITY, out);
+            }
+            moveIntoPlace(part, target);
+        } catch (IOException e) {
+            log.warn("Could not write {}px rendition of {}", width, hash, e);
+            return Optional.empty();
+        }
+        return Optional.of(new Rendition(target, format.mimetype, width));
+    }
+
+    private Optional<Rendition> markOriginal(String hash, int width) {
+        Path marker = directoryFor(hash).resolve(width + "." + ORIGINAL_MARKER);
+        try {
+            Files.createDirectories(marker.getParent());
+            Files.write(marker, new byte[0]);
+        } catch (IOException e) {
+            log.warn("Could not record original marker for {}", hash, e);
+        }
+        return Optional.empty();
+    }
+
+    private static String buildKey(String hash, int width) {
+        return hash + "/" + width;
+    }
+
+    private Path directoryFor(String hash) {
+        if (hash == null || !HASH_PATTERN.matcher(hash).matches()) {
+            throw new IllegalArgumentException("Invalid blob hash: " + hash);
+        }
+        return root.resolve(hash.substring(0, 2)).resolve(hash);
+    }
+
+    private static Path newTempFile(Path target) throws IOException {
+        Files.createDirectories(target.getParent());
+        return Files.createTempFile(target.getParent(), "rendition-", ".part");
+    }
+
+    private static void moveIntoPlace(Path part, Path target) throws IOException {
+        try {
+            Files.move(part, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(part);
+        }
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Could not delete {}", path, e);
+        }
+    }
+
+    private enum Format {
+        JPEG("jpg", "image/jpeg"),
+        PNG("png", "image/png");
+
+        private final String extension;
+        private final String mimetype;
+
+        Format(String extension, String mimetype) {
+            this.extension = extension;
+            this.mimetype = mimetype;
+        }
+    }
+}
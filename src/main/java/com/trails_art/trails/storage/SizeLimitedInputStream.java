@@ -0,0 +1,43 @@
+package com.trails_art.trails.storage;
+
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+public class SizeLimitedInputStream extends FilterInputStream {
+
+    private final long maxBytes;
+    private long count;
+
+    public SizeLimitedInputStream(InputStream in, long maxBytes) {
+        super(in);
+        this.maxBytes = maxBytes;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = super.read();
+        if (b >= 0) {
+            count(1);
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        int n = super.read(b, off, len);
+        if (n > 0) {
+            count(n);
+        }
+        return n;
+    }
+
+    private void count(long n) {
+        count += n;
+        if (count > maxBytes) {
+            throw new MaxUploadSizeExceededException(maxBytes);
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.trails_art.trails.benchmarks;
+
+import com.trails_art.trails.models.Artist;
+import com.trails_art.trails.models.Image;
+import com.trails_art.trails.models.Location;
+import com.trails_art.trails.models.Project;
+import com.trails_art.trails.repositories.JpaImageRepository;
+import com.trails_art.trails.repositories.JpaLocationRepository;
+import com.trails_art.trails.repositories.artist.JpaArtistRepository;
+import com.trails_art.trails.repositories.project.JpaProjectRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Compares list payloads with inlined and referenced images on a seeded catalog.
+ * Run with {@code mvn test -Dbenchmarks=true -Dtest=ImagePayloadBenchmarkTest}.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureMockMvc
+@Transactional
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+public class ImagePayloadBenchmarkTest {
+    private static final int ARTISTS = 20;
+    private static final int PROJECTS = 40;
+    private static final int ARTISTS_PER_PROJECT = 4;
+    private static final int IMAGE_BYTES = 200 * 1024;
+    private static final int WARMUP = 3;
+    private static final int ITERATIONS = 10;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JpaArtistRepository artistRepository;
+
+    @Autowired
+    private JpaProjectRepository projectRepository;
+
+    @Autowired
+    private JpaImageRepository imageRepository;
+
+    @Autowired
+    private JpaLocationRepository locationRepository;
+
+    @BeforeEach
+    void seed() {
+        artistRepository.deleteAll();
+        projectRepository.deleteAll();
+        imageRepository.deleteAll();
+        locationRepository.deleteAll();
+
+        Random random = new Random(42);
+        List<Artist> artists = new ArrayList<>();
+        for (int i = 0; i < ARTISTS; i++) {
+            artists.add(artistRepository.save(new Artist("artist" + i, randomImage(random), "desc", "insta")));
+        }
+        for (int i = 0; i < PROJECTS; i++) {
+            Location location = locationRepository.save(new Location("location" + i, "address" + i));
+            Project project = new Project("project" + i, location, randomImage(random), "https://youtube.com/" + i);
+            List<Artist> projectArtists = new ArrayList<>();
+            for (int j = 0; j < ARTISTS_PER_PROJECT; j++) {
+                Artist artist = artists.get((i + j * 5) % ARTISTS);
+                if (!projectArtists.contains(artist)) {
+                    projectArtists.add(artist);
+                    artist.getProjects().add(project);
+                }
+            }
+            project.setArtists(projectArtists);
+            projectRepository.save(project);
+        }
+        projectRepository.flush();
+    }
+
+    @Test
+    @DisplayName("GET /api/artists - payload size and latency, inline vs ref")
+    void artists_inlineVersusRef() throws Exception {
+        Result inline = measure("/api/artists", "inline");
+        Result ref = measure("/api/artists", "ref");
+
+        report("GET /api/artists", inline, ref);
+        assertThat(ref.bytes()).isLessThan(inline.bytes() / 10);
+    }
+
+    @Test
+    @DisplayName("GET /api/projects - payload size and latency, inline vs ref")
+    void projects_inlineVersusRef() throws Exception {
+        Result inline = measure("/api/projects", "inline");
+        Result ref = measure("/api/projects", "ref");
+
+        report("GET /api/projects", inline, ref);
+        assertThat(ref.bytes()).isLessThan(inline.bytes() / 10);
+    }
+
+    private Result measure(String path, String images) throws Exception {
+        long bytes = 0;
+        for (int i = 0; i < WARMUP; i++) {
+            bytes = call(path, images);
+        }
+        long[] nanos = new long[ITERATIONS];
+        for (int i = 0; i < ITERATIONS; i++) {
+            long start = System.nanoTime();
+            call(path, images);
+            nanos[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(nanos);
+        return new Result(bytes, nanos[ITERATIONS / 2] / 1_000_000.0, nanos[ITERATIONS - 1] / 1_000_000.0);
+    }
+
+    private long call(String path, String images) throws Exception {
+        return mockMvc.perform(get(path).param("images", images))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray().length;
+    }
+
+    private static void report(String endpoint, Result inline, Result ref) {
+        System.out.printf("%s (%d artists, %d projects, %d KiB images)%n",
+                endpoint, ARTISTS, PROJECTS, IMAGE_BYTES / 1024);
+        System.out.printf("  images=inline: %,12d bytes  p50 %8.2f ms  max %8.2f ms%n",
+                inline.bytes(), inline.p50Millis(), inline.maxMillis());
+        System.out.printf("  images=ref:    %,12d bytes  p50 %8.2f ms  max %8.2f ms%n",
+                ref.bytes(), ref.p50Millis(), ref.maxMillis());
+    }
+
+    private static Image randomImage(Random random) {
+        byte[] bytes = new byte[IMAGE_BYTES];
+        random.nextBytes(bytes);
+        return new Image("image/jpeg", bytes);
+    }
+
+    private record Result(long bytes, double p50Millis, double maxMillis) { }
+}
@@ -0,0 +1,159 @@
+package com.trails_art.trails.benchmarks;
+
+import com.trails_art.trails.models.Image;
+import com.trails_art.trails.repositories.JpaImageRepository;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Throughput of GET /api/images/{id}/raw over real HTTP with concurrent clients, comparing the heap-copy
+ * path (bytes read into a byte[] per request) with the zero-copy path (sendfile from the blob file).
+ * Run with {@code mvn test -Dbenchmarks=true -Dtest=ImageServingBenchmarkTest}.
+ */
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+public class ImageServingBenchmarkTest {
+    private static final int IMAGES = 4;
+    private static final int IMAGE_BYTES = 8 * 1024 * 1024;
+    private static final int RANGE_BYTES = 256 * 1024;
+    private static final int CLIENTS = 16;
+    private static final int REQUESTS_PER_CLIENT = 25;
+
+    private static final Map<String, String> RESULTS = new ConcurrentSkipListMap<>();
+
+    @AfterAll
+    static void report() {
+        System.out.printf("GET /api/images/{id}/raw (%d clients x %d requests, %d MiB images)%n",
+                CLIENTS, REQUESTS_PER_CLIENT, IMAGE_BYTES / (1024 * 1024));
+        RESULTS.forEach((name, line) -> System.out.printf("  %-22s %s%n", name, line));
+    }
+
+    @Nested
+    @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+            properties = {"trails.images.zero-copy=false", "trails.images.cache.max-bytes=0"})
+    class HeapCopy extends Scenario {
+        HeapCopy() {
+            super("heap-copy");
+        }
+    }
+
+    @Nested
+    @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+            properties = "trails.images.zero-copy=true")
+    class ZeroCopy extends Scenario {
+        ZeroCopy() {
+            super("zero-copy");
+        }
+    }
+
+    abstract static class Scenario {
+        private final String name;
+        private final HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        private final List<UUID> ids = new ArrayList<>();
+
+        @LocalServerPort
+        private int port;
+
+        @Autowired
+        private JpaImageRepository imageRepository;
+
+        Scenario(String name) {
+            this.name = name;
+        }
+
+        @BeforeEach
+        void seed() {
+            Random random = new Random(7);
+            for (int i = 0; i < IMAGES; i++) {
+                byte[] bytes = new byte[IMAGE_BYTES];
+                random.nextBytes(bytes);
+                ids.add(imageRepository.save(new Image("image/jpeg", bytes)).getId());
+            }
+        }
+
+        @AfterEach
+        void cleanUp() {
+            imageRepository.deleteAllById(ids);
+        }
+
+        @Test
+        @DisplayName("full-body and Range throughput under concurrent load")
+        void throughput() throws Exception {
+            run(false);
+            RESULTS.put(name + " full", run(false));
+            RESULTS.put(name + " range", run(true));
+        }
+
+        private String run(boolean ranges) throws Exception {
+            long[] latencies = new long[CLIENTS * REQUESTS_PER_CLIENT];
+            long totalBytes = 0;
+            long start = System.nanoTime();
+            try (ExecutorService pool = Executors.newFixedThreadPool(CLIENTS)) {
+                List<Future<Long>> clients = new ArrayList<>();
+                for (int c = 0; c < CLIENTS; c++) {
+                    int offset = c * REQUESTS_PER_CLIENT;
+                    clients.add(pool.submit(() -> {
+                        long bytes = 0;
+                        for (int r = 0; r < REQUESTS_PER_CLIENT; r++) {
+                            long begin = System.nanoTime();
+                            bytes += fetch(ids.get((offset + r) % ids.size()), ranges);
+                            latencies[offset + r] = System.nanoTime() - begin;
+                        }
+                        return bytes;
+                    }));
+                }
+                for (Future<Long> clientBytes : clients) {
+                    totalBytes += clientBytes.get();
+                }
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            Arrays.sort(latencies);
+            return String.format("%8.1f MiB/s  %7.0f req/s  p50 %7.2f ms  p99 %7.2f ms",
+                    totalBytes / seconds / (1024 * 1024), latencies.length / seconds,
+                    latencies[latencies.length / 2] / 1e6, latencies[latencies.length * 99 / 100] / 1e6);
+        }
+
+        private long fetch(UUID id, boolean range) throws Exception {
+            HttpRequest.Builder request = HttpRequest.newBuilder(
+                    URI.create("http://localhost:" + port + "/api/images/" + id + "/raw"));
+            if (range) {
+                long first = ThreadLocalRandom.current().nextLong(IMAGE_BYTES - RANGE_BYTES);
+                request.header("Range", "bytes=" + first + "-" + (first + RANGE_BYTES - 1));
+            }
+            HttpResponse<InputStream> response = client.send(request.build(), HttpResponse.BodyHandlers.ofInputStream());
+            assertThat(response.statusCode()).isEqualTo(range ? 206 : 200);
+            try (InputStream body = response.body()) {
+                long bytes = body.transferTo(OutputStream.nullOutputStream());
+                assertThat(bytes).isEqualTo(range ? RANGE_BYTES : IMAGE_BYTES);
+                return bytes;
+            }
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.trails_art.trails.cache;
+
+import com.trails_art.trails.models.Artist;
+import com.trails_art.trails.models.Image;
+import com.trails_art.trails.repositories.artist.JpaArtistRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.hasItem;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// not transactional: the cache is only invalidated by committed writes
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "trails.response-cache.enabled=true")
+@AutoConfigureMockMvc
+class ResponseCacheListenerTest {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JpaArtistRepository artistRepository;
+
+    private final List<UUID> created = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        created.forEach(artistRepository::deleteById);
+    }
+
+    @Test
+    @DisplayName("GET /api/artists - serves cached gzip bytes, then refreshes after a committed write")
+    void findAll_committedWrite_refreshesCachedListing() throws Exception {
+        save("Cached Muralist");
+
+        byte[] gzipped = mockMvc.perform(get("/api/artists").param("limit", "100")
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andExpect(header().stringValues(HttpHeaders.VARY, hasItem(HttpHeaders.ACCEPT_ENCODING)))
+                .andReturn().getResponse().getContentAsByteArray();
+        assertTrue(gunzip(gzipped).contains("Cached Muralist"));
+
+        save("Second Muralist");
+
+        // the first request after the write gets the stale listing and starts the rebuild
+        String stale = listing();
+        assertTrue(stale.contains("Cached Muralist"));
+        assertFalse(stale.contains("Second Muralist"));
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (!listing().contains("Second Muralist")) {
+            assertTrue(System.nanoTime() < deadline, "cached listing was not refreshed");
+            Thread.sleep(20);
+        }
+    }
+
+    @Test
+    @DisplayName("GET /api/artists?limit=1 - a cached page keeps its next link")
+    void findAll_cachedPage_keepsNextLink() throws Exception {
+        save("Linked Muralist");
+        save("Other Muralist");
+
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(get("/api/artists?limit=1"))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string(HttpHeaders.LINK, containsString("rel=\"next\"")))
+                    .andExpect(header().string(HttpHeaders.LINK, containsString("http://localhost/api/artists?")))
+                    .andExpect(header().exists("X-Next-Cursor"));
+        }
+    }
+
+    private String listing() throws Exception {
+        return mockMvc.perform(get("/api/artists").param("limit", "100"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+    }
+
+    private void save(String name) {
+        Artist artist = artistRepository.save(new Artist(name,
+                new Image("image/png", (name + "-image").getBytes(StandardCharsets.UTF_8)),
+                "Murals along the river, painted over several summers. ".repeat(4), "insta"));
+        created.add(artist.getId());
+    }
+
+    private static String gunzip(byte[] bytes) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
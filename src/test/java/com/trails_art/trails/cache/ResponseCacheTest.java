@@ -0,0 +1,229 @@
+package com.trails_art.trails.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.trails_art.trails.mappers.ImageMode;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class ResponseCacheTest {
+
+    private final ResponseCache cache = new ResponseCache(new ObjectMapper(), mock(PlatformTransactionManager.class),
+            true, 1 << 20, Duration.ofMinutes(10), 1 << 20);
+
+    @AfterEach
+    void tearDown() {
+        cache.shutdown();
+    }
+
+    @Test
+    @DisplayName("get: requests that differ only in parameter order share an entry")
+    void get_normalizesParameterOrder() {
+        AtomicInteger builds = new AtomicInteger();
+        Function<UriComponentsBuilder, ResponseEntity<?>> handler = uri -> {
+            builds.incrementAndGet();
+            return ResponseEntity.ok().header("X-Next-Cursor", "abc").body(List.of(Map.of("name", "Mural")));
+        };
+
+        ResponseEntity<?> first = get(cache, "limit=10&images=ref", null, handler);
+        ResponseEntity<?> second = get(cache, "images=ref&limit=10", null, handler);
+
+        assertEquals(1, builds.get());
+        assertEquals("[{\"name\":\"Mural\"}]", text(second));
+        assertArrayEquals((byte[]) first.getBody(), (byte[]) second.getBody());
+        assertEquals("abc", second.getHeaders().getFirst("X-Next-Cursor"));
+        assertEquals(List.of(HttpHeaders.ACCEPT_ENCODING), second.getHeaders().getVary());
+    }
+
+    @Test
+    @DisplayName("get: keys only bound parameters, with defaults normalized")
+    void get_ignoresUnboundParameters() {
+        AtomicInteger builds = new AtomicInteger();
+        List<String> urls = new ArrayList<>();
+        Function<UriComponentsBuilder, ResponseEntity<?>> handler = uri -> {
+            builds.incrementAndGet();
+            urls.add(uri.build().toUriString());
+            return ResponseEntity.ok(List.of("built"));
+        };
+
+        get(cache, "limit=10&x=1", null, handler);
+        get(cache, "limit=10&x=2", null, handler);
+        get(cache, "images=ref&limit=10", null, handler);
+        get(cache, "images=inline&limit=10", null, handler);
+
+        assertEquals(2, builds.get());
+        assertTrue(urls.stream().noneMatch(url -> url.contains("x=")));
+    }
+
+    @Test
+    @DisplayName("get: evicts least recently used entries once the bodies exceed max-bytes")
+    void get_overMaxBytes_evictsLeastRecentlyUsed() {
+        ResponseCache small = new ResponseCache(new ObjectMapper(), mock(PlatformTransactionManager.class),
+                true, 250, Duration.ofMinutes(10), 1 << 20);
+        AtomicInteger builds = new AtomicInteger();
+        Function<UriComponentsBuilder, ResponseEntity<?>> handler = uri -> {
+            builds.incrementAndGet();
+            return ResponseEntity.ok(List.of("y".repeat(100)));
+        };
+        try {
+            get(small, "limit=1", null, handler);
+            get(small, "limit=2", null, handler);
+            get(small, "limit=1", null, handler);
+            assertEquals(2, builds.get());
+
+            get(small, "limit=3", null, handler);
+            get(small, "limit=1", null, handler);
+            get(small, "limit=2", null, handler);
+            assertEquals(4, builds.get());
+        } finally {
+            small.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("get: serves the precompressed body to clients that accept gzip")
+    void get_acceptsGzip_servesCompressed() throws IOException {
+        String name = "x".repeat(1000);
+        Function<UriComponentsBuilder, ResponseEntity<?>> handler = uri -> ResponseEntity.ok(List.of(Map.of("name", name)));
+
+        ResponseEntity<?> plain = get(cache, "limit=10", null, handler);
+        ResponseEntity<?> gzipped = get(cache, "limit=10", "br;q=1.0, gzip;q=0.8", handler);
+        ResponseEntity<?> refused = get(cache, "limit=10", "gzip;q=0", handler);
+
+        assertNull(plain.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertEquals("gzip", gzipped.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        byte[] compressed = (byte[]) gzipped.getBody();
+        assertTrue(compressed.length < ((byte[]) plain.getBody()).length);
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            assertArrayEquals((byte[]) plain.getBody(), in.readAllBytes());
+        }
+        assertNull(refused.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+    }
+
+    @Test
+    @DisplayName("get: concurrent misses on one URL run the handler once")
+    void get_concurrentMisses_buildOnce() throws Exception {
+        AtomicInteger builds = new AtomicInteger();
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Function<UriComponentsBuilder, ResponseEntity<?>> handler = uri -> {
+            builds.incrementAndGet();
+            entered.countDown();
+            await(release);
+            return ResponseEntity.ok(List.of("built"));
+        };
+        List<String> bodies = new ArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            threads.add(Thread.ofVirtual().unstarted(() -> {
+                String body = text(get(cache, "limit=10", null, handler));
+                synchronized (bodies) {
+                    bodies.add(body);
+                }
+            }));
+        }
+
+        threads.getFirst().start();
+        assertTrue(entered.await(5, TimeUnit.SECONDS));
+        threads.subList(1, threads.size()).forEach(Thread::start);
+        waitUntil(() -> threads.stream().allMatch(thread -> thread.getState() == Thread.State.WAITING));
+        release.countDown();
+        for (Thread thread : threads) {
+            thread.join(5000);
+        }
+
+        assertEquals(1, builds.get());
+        assertEquals(8, bodies.size());
+        assertTrue(bodies.stream().allMatch("[\"built\"]"::equals));
+    }
+
+    @Test
+    @DisplayName("get: after invalidate serves the stale body while one background rebuild runs")
+    void get_stale_servedWhileRefreshing() throws Exception {
+        AtomicInteger builds = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        Function<UriComponentsBuilder, ResponseEntity<?>> handler = uri -> {
+            int build = builds.incrementAndGet();
+            if (build > 1) {
+                await(release);
+            }
+            return ResponseEntity.ok(List.of("build " + build));
+        };
+        get(cache, "limit=10", null, handler);
+
+        cache.invalidate();
+        for (int i = 0; i < 20; i++) {
+            assertEquals("[\"build 1\"]", text(get(cache, "limit=10", null, handler)));
+        }
+        waitUntil(() -> builds.get() == 2);
+        release.countDown();
+
+        waitUntil(() -> text(get(cache, "limit=10", null, handler)).equals("[\"build 2\"]"));
+        assertEquals(2, builds.get());
+    }
+
+    // keyed the way the listing controllers key their requests
+    private static ResponseEntity<?> get(ResponseCache cache, String query, String acceptEncoding,
+                                         Function<UriComponentsBuilder, ResponseEntity<?>> handler) {
+        MockHttpServletRequest request = request(query, acceptEncoding);
+        ResponseCache.Key key = ResponseCache.key()
+                .with("images", ImageMode.from(request.getParameter("images"), ImageMode.REF))
+                .with("limit", request.getParameter("limit"));
+        return cache.get(request, key, handler);
+    }
+
+    private static MockHttpServletRequest request(String query, String acceptEncoding) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/artists");
+        request.setQueryString(query);
+        for (String parameter : query.split("&")) {
+            String[] pair = parameter.split("=", 2);
+            request.addParameter(pair[0], pair[1]);
+        }
+        if (acceptEncoding != null) {
+            request.addHeader(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+        }
+        return request;
+    }
+
+    private static String text(ResponseEntity<?> response) {
+        return new String((byte[]) response.getBody(), StandardCharsets.UTF_8);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "timed out");
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.trails_art.trails.calendar;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventCalendarTest {
+
+    private static final LocalDateTime NOON = LocalDateTime.of(2025, 6, 1, 12, 0);
+
+    private final EventCalendar calendar = new EventCalendar(null, true);
+
+    @Test
+    @DisplayName("between: returns events overlapping the range by start time; an open end lasts an instant")
+    void between_findsOverlaps() {
+        UUID morning = UUID.randomUUID();
+        UUID afternoon = UUID.randomUUID();
+        UUID instant = UUID.randomUUID();
+        calendar.put(afternoon, NOON.plusHours(1), NOON.plusHours(5), null, null);
+        calendar.put(morning, NOON.minusHours(4), NOON, null, null);
+        calendar.put(instant, NOON.plusHours(3), null, null, null);
+        calendar.put(UUID.randomUUID(), null, NOON, null, null);
+
+        assertEquals(List.of(morning), calendar.between(NOON, NOON, 10));
+        assertEquals(List.of(afternoon, instant), calendar.between(NOON.plusHours(2), NOON.plusHours(3), 10));
+        assertEquals(List.of(morning, afternoon), calendar.between(NOON.minusDays(1), NOON.plusDays(1), 2));
+
+        calendar.remove(morning);
+        assertTrue(calendar.between(NOON, NOON, 10).isEmpty());
+    }
+
+    @Test
+    @DisplayName("overlapping: matches events at the same map address, ignoring case and accents")
+    void overlapping_samePlace() {
+        UUID concert = UUID.randomUUID();
+        UUID workshop = UUID.randomUUID();
+        UUID elsewhere = UUID.randomUUID();
+        UUID later = UUID.randomUUID();
+        calendar.put(concert, NOON, NOON.plusHours(2), UUID.randomUUID(), "Vitosha Blvd 1");
+        calendar.put(workshop, NOON.plusHours(1), NOON.plusHours(3), UUID.randomUUID(), "vitosha blvd. 1");
+        calendar.put(elsewhere, NOON, NOON.plusHours(2), UUID.randomUUID(), "Graf Ignatiev 5");
+        calendar.put(later, NOON.plusHours(4), NOON.plusHours(5), UUID.randomUUID(), "Vitosha Blvd 1");
+
+        assertEquals(List.of(workshop), calendar.overlapping(concert, 10));
+        assertEquals(List.of(concert), calendar.overlapping(workshop, 10));
+        assertTrue(calendar.overlapping(elsewhere, 10).isEmpty());
+        assertTrue(calendar.overlapping(UUID.randomUUID(), 10).isEmpty());
+    }
+
+    @Test
+    @DisplayName("put/relocate: an unloaded location keeps its place, and editing the location moves the event")
+    void relocate_movesPlace() {
+        UUID location = UUID.randomUUID();
+        UUID event = UUID.randomUUID();
+        UUID neighbour = UUID.randomUUID();
+        calendar.put(event, NOON, NOON.plusHours(2), location, "Vitosha Blvd 1");
+        calendar.put(neighbour, NOON, NOON.plusHours(2), UUID.randomUUID(), "Graf Ignatiev 5");
+
+        calendar.put(event, NOON, NOON.plusHours(3), location, null);
+        assertTrue(calendar.overlapping(event, 10).isEmpty());
+
+        calendar.relocate(location, "Graf Ignatiev 5");
+        assertEquals(List.of(neighbour), calendar.overlapping(event, 10));
+    }
+}
@@ -0,0 +1,65 @@
+package com.trails_art.trails.calendar;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntervalTreeTest {
+
+    private record Interval(long start, long end, UUID id) { }
+
+    @Test
+    @DisplayName("overlapping: finds what a full scan finds, ordered by start, across inserts and removals")
+    void overlapping_matchesScan() {
+        Random random = new Random(13);
+        IntervalTree tree = new IntervalTree();
+        List<Interval> intervals = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            long start = random.nextInt(100_000);
+            Interval interval = new Interval(start, start + random.nextInt(2_000), UUID.randomUUID());
+            intervals.add(interval);
+            tree.insert(interval.start(), interval.end(), interval.id());
+        }
+        for (int i = 0; i < 1000; i++) {
+            Interval removed = intervals.remove(random.nextInt(intervals.size()));
+            assertTrue(tree.remove(removed.start(), removed.id()));
+        }
+        assertFalse(tree.remove(0, UUID.randomUUID()));
+        assertEquals(2000, tree.size());
+
+        for (int q = 0; q < 200; q++) {
+            long from = random.nextInt(100_000);
+            long to = from + random.nextInt(q % 2 == 0 ? 1 : 5_000);
+            List<UUID> expected = intervals.stream()
+                    .filter(interval -> interval.start() <= to && interval.end() >= from)
+                    .sorted(Comparator.comparingLong(Interval::start).thenComparing(Interval::id))
+                    .map(Interval::id)
+                    .toList();
+            List<UUID> found = new ArrayList<>();
+            tree.overlapping(from, to, Integer.MAX_VALUE, found);
+            assertEquals(expected, found);
+        }
+    }
+
+    @Test
+    @DisplayName("overlapping: stops at the limit, keeping the earliest starts")
+    void overlapping_respectsLimit() {
+        IntervalTree tree = new IntervalTree();
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            UUID id = UUID.randomUUID();
+            ids.add(id);
+            tree.insert(i, 100, id);
+        }
+        List<UUID> found = new ArrayList<>();
+        tree.overlapping(50, 60, 3, found);
+        assertEquals(ids.subList(0, 3), found);
+    }
+}
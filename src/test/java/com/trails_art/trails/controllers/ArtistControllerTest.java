@@ -1,5 +1,6 @@
 package com.trails_art.trails.controllers;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.trails_art.trails.models.Artist;
 import com.trails_art.trails.models.Image;
@@ -9,6 +10,9 @@ import com.trails_art.trails.repositories.artist.JpaArtistRepository;
 import com.trails_art.trails.repositories.JpaImageRepository;
 import com.trails_art.trails.repositories.project.JpaProjectRepository;
 import com.trails_art.trails.repositories.JpaLocationRepository;
+import com.trails_art.trails.support.QueryBudget;
+import com.trails_art.trails.support.StatementCounter;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -52,6 +56,9 @@ class ArtistControllerTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private EntityManager entityManager;
+
     private Artist savedArtist;
     private Artist savedArtist2;
 
@@ -134,6 +141,69 @@ class ArtistControllerTest {
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON));
     }
 
+    @Test
+    @DisplayName("GET /api/artists - runs the same statements however many artists are listed")
+    void findAll_runsConstantNumberOfStatements() throws Exception {
+        long one = StatementCounter.count(entityManager, () ->
+                mockMvc.perform(get("/api/artists").param("limit", "1")).andExpect(status().isOk()));
+        long all = StatementCounter.count(entityManager, () ->
+                mockMvc.perform(get("/api/artists")).andExpect(status().isOk()));
+
+        assertEquals(one, all);
+        assertEquals(3, all);
+    }
+
+    @Test
+    @QueryBudget(statements = 3)
+    @DisplayName("GET /api/artists?name= - stays within its query budget")
+    void findByName_staysWithinQueryBudget() throws Exception {
+        mockMvc.perform(get("/api/artists").param("name", "Test"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @DisplayName("GET /api/artists?fields= - returns only the requested fields")
+    void findAll_withFields_returnsOnlyThoseFields() throws Exception {
+        String body = mockMvc.perform(get("/api/artists").param("fields", "id,name"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        JsonNode artists = objectMapper.readTree(body);
+        assertThat(artists).hasSize(2);
+        artists.forEach(artist -> assertThat(artist.fieldNames()).toIterable().containsExactly("id", "name"));
+    }
+
+    @Test
+    @DisplayName("GET /api/artists?expand= - caps embedded projects per artist")
+    void findAll_withExpandLimit_capsProjects() throws Exception {
+        String body = mockMvc.perform(get("/api/artists")
+                        .param("fields", "name,projects(name)")
+                        .param("expand", "projects(limit:1)"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        JsonNode artist = objectMapper.readTree(body).get(0);
+        assertEquals("Test Artist", artist.get("name").asText());
+        assertThat(artist.get("projects")).hasSize(1);
+        assertThat(artist.get("projects").get(0).fieldNames()).toIterable().containsExactly("name");
+    }
+
+    @Test
+    @DisplayName("GET /api/artists?fields= - returns 400 for an unknown field")
+    void findAll_withUnknownField_returns400() throws Exception {
+        mockMvc.perform(get("/api/artists").param("fields", "id,password"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/artists").param("expand", "projects(limit:0)"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("GET /api/artists?name=&fuzzy= - returns 400 for a distance above 3")
+    void findByName_withTooFuzzyDistance_returns400() throws Exception {
+        mockMvc.perform(get("/api/artists").param("name", "Test").param("fuzzy", "4"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     @DisplayName("GET /api/artists/{id} - returns artist when exists")
     void findById_whenArtistExists_returnsArtist() throws Exception {
@@ -1,5 +1,6 @@
 package com.trails_art.trails.controllers;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.trails_art.trails.models.Event;
 import com.trails_art.trails.models.Image;
@@ -7,6 +8,9 @@ import com.trails_art.trails.models.Location;
 import com.trails_art.trails.repositories.JpaEventRepository;
 import com.trails_art.trails.repositories.JpaImageRepository;
 import com.trails_art.trails.repositories.JpaLocationRepository;
+import com.trails_art.trails.services.event.EventArchiver;
+import com.trails_art.trails.support.StatementCounter;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -15,16 +19,22 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
@@ -46,6 +56,12 @@ public class EventControllerTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EventArchiver eventArchiver;
+
     private Event savedEvent;
     private Event savedEvent2;
 
@@ -79,6 +95,63 @@ public class EventControllerTest {
     }
 
 
+    @Test
+    @DisplayName("GET /api/events - pages by start time with a cursor, events without one last")
+    void findAll_withLimit_pagesThroughAllEvents() throws Exception {
+        Event undated = eventRepository.save(new Event("Undated", "Description3",
+                new Image("image/png", "test-image3".getBytes(StandardCharsets.UTF_8)), null, null,
+                new Location("Location3", "Address3")));
+        Event earliest = eventRepository.save(new Event("Earliest", "Description4",
+                new Image("image/png", "test-image4".getBytes(StandardCharsets.UTF_8)),
+                LocalDateTime.now().minusDays(1), null, new Location("Location4", "Address4")));
+
+        List<String> names = new ArrayList<>();
+        String after = null;
+        do {
+            var request = get("/api/events").param("limit", "1");
+            if (after != null) {
+                request.param("after", after);
+            }
+            MvcResult result = mockMvc.perform(request).andExpect(status().isOk()).andReturn();
+            JsonNode page = objectMapper.readTree(result.getResponse().getContentAsString());
+            assertThat(page.size()).isLessThanOrEqualTo(1);
+            page.forEach(event -> names.add(event.get("name").asText()));
+            after = result.getResponse().getHeader("X-Next-Cursor");
+        } while (after != null && names.size() < 10);
+
+        assertThat(names).containsExactly(earliest.getName(), "Event1", "Event2", undated.getName());
+    }
+
+    @Test
+    @DisplayName("GET /api/events - loads images and locations with the page")
+    void findAll_runsConstantNumberOfStatements() throws Exception {
+        long one = StatementCounter.count(entityManager, () ->
+                mockMvc.perform(get("/api/events").param("limit", "1")).andExpect(status().isOk()));
+        long all = StatementCounter.count(entityManager, () ->
+                mockMvc.perform(get("/api/events")).andExpect(status().isOk()));
+
+        assertThat(all).isEqualTo(one).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("GET /api/events - links the next page and counts only on request")
+    void findAll_withCount_returnsTotalAndNextLink() throws Exception {
+        mockMvc.perform(get("/api/events").param("limit", "1").param("count", "true"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Total-Count", "2"))
+                .andExpect(header().string("Link", containsString("rel=\"next\"")));
+        mockMvc.perform(get("/api/events"))
+                .andExpect(header().doesNotExist("X-Total-Count"))
+                .andExpect(header().doesNotExist("Link"));
+    }
+
+    @Test
+    @DisplayName("GET /api/events - returns 400 for a malformed cursor")
+    void findAll_withInvalidCursor_returns400() throws Exception {
+        mockMvc.perform(get("/api/events").param("after", "not-a-cursor"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     @DisplayName("GET /api/events/{id} - returns event when exists")
     void findById_whenEventExists_returnsEvent() throws Exception {
@@ -110,4 +183,70 @@ public class EventControllerTest {
         mockMvc.perform(delete("/api/events/{id}", randomId))
                 .andExpect(status().isNotFound());
     }
+
+    @Test
+    @DisplayName("GET /api/events?from=&to= - returns 400 when from is after to")
+    void findBetween_withReversedRange_returns400() throws Exception {
+        mockMvc.perform(get("/api/events").param("from", "2025-06-02T00:00:00").param("to", "2025-06-01T00:00:00"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("GET /api/events/{id}/overlaps - returns 404 for an unknown event")
+    void findOverlapping_withUnknownEvent_returns404() throws Exception {
+        mockMvc.perform(get("/api/events/{id}/overlaps", UUID.randomUUID()))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @DisplayName("EventArchiver: ended events leave the default reads, stay readable with include=archived and keep their image")
+    void archive_movesEndedEventsOutOfDefaultReads() throws Exception {
+        Event past = eventRepository.save(new Event("Old festival", "Description", new Image("image/png",
+                "old-image".getBytes(StandardCharsets.UTF_8)), LocalDateTime.now().minusDays(400),
+                LocalDateTime.now().minusDays(399), new Location("LocationOld", "AddressOld")));
+        UUID imageId = past.getImage().getId();
+        entityManager.flush();
+
+        assertThat(eventArchiver.archive(LocalDateTime.now().minusDays(30))).isEqualTo(1);
+        entityManager.clear();
+
+        mockMvc.perform(get("/api/events/{id}", past.getId()))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/events/{id}", past.getId()).param("include", "archived"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Old festival"))
+                .andExpect(jsonPath("$.location.map_address").value("AddressOld"));
+        mockMvc.perform(get("/api/events").param("name", "festival"))
+                .andExpect(jsonPath("$.length()").value(0));
+        mockMvc.perform(get("/api/events").param("name", "festival").param("include", "archived"))
+                .andExpect(jsonPath("$.length()").value(1));
+        mockMvc.perform(get("/api/events").param("include", "archived").param("count", "true"))
+                .andExpect(header().string("X-Total-Count", "3"))
+                .andExpect(jsonPath("$.length()").value(3))
+                .andExpect(jsonPath("$[0].name").value("Old festival"));
+        mockMvc.perform(get("/api/events").param("count", "true"))
+                .andExpect(header().string("X-Total-Count", "2"));
+        mockMvc.perform(get("/api/images/{id}", imageId))
+                .andExpect(status().isOk());
+
+        List<String> names = new ArrayList<>();
+        String after = null;
+        do {
+            var request = get("/api/events").param("limit", "1").param("include", "archived");
+            if (after != null) {
+                request.param("after", after);
+            }
+            MvcResult result = mockMvc.perform(request).andExpect(status().isOk()).andReturn();
+            objectMapper.readTree(result.getResponse().getContentAsString()).forEach(event -> names.add(event.get("name").asText()));
+            after = result.getResponse().getHeader("X-Next-Cursor");
+        } while (after != null && names.size() < 10);
+        assertThat(names).containsExactly("Old festival", "Event1", "Event2");
+    }
+
+    @Test
+    @DisplayName("GET /api/events?include= - returns 400 for anything but archived")
+    void findAll_withUnknownInclude_returns400() throws Exception {
+        mockMvc.perform(get("/api/events").param("include", "deleted"))
+                .andExpect(status().isBadRequest());
+    }
 }
@@ -0,0 +1,106 @@
+package com.trails_art.trails.controllers;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileRegionSenderTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    @DisplayName("send: hands the whole file to Tomcat sendfile when the connector supports it")
+    void send_withSendfileSupport_setsAttributes() throws IOException {
+        Path file = write("0123456789");
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/images/x/raw");
+        request.setAttribute("org.apache.tomcat.sendfile.support", Boolean.TRUE);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertTrue(FileRegionSender.send(file, MediaType.IMAGE_PNG, new HttpHeaders(), request, response));
+
+        assertEquals(file.toAbsolutePath().toString(), request.getAttribute("org.apache.tomcat.sendfile.filename"));
+        assertEquals(0L, request.getAttribute("org.apache.tomcat.sendfile.start"));
+        assertEquals(10L, request.getAttribute("org.apache.tomcat.sendfile.end"));
+        assertEquals(10, response.getContentLength());
+        assertEquals(0, response.getContentAsByteArray().length);
+    }
+
+    @Test
+    @DisplayName("send: maps and writes a single range when sendfile is unavailable")
+    void send_withRange_writesMappedRegion() throws IOException {
+        Path file = write("0123456789");
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/images/x/raw");
+        request.addHeader(HttpHeaders.RANGE, "bytes=2-5");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertTrue(FileRegionSender.send(file, MediaType.IMAGE_PNG, new HttpHeaders(), request, response));
+
+        assertEquals(206, response.getStatus());
+        assertEquals("bytes 2-5/10", response.getHeader(HttpHeaders.CONTENT_RANGE));
+        assertEquals("2345", response.getContentAsString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @DisplayName("send: declines multipart and unsatisfiable ranges")
+    void send_withUnsupportedRange_declines() throws IOException {
+        Path file = write("0123456789");
+        MockHttpServletRequest multipart = new MockHttpServletRequest("GET", "/api/images/x/raw");
+        multipart.addHeader(HttpHeaders.RANGE, "bytes=0-1,4-5");
+        MockHttpServletRequest unsatisfiable = new MockHttpServletRequest("GET", "/api/images/x/raw");
+        unsatisfiable.addHeader(HttpHeaders.RANGE, "bytes=50-60");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertFalse(FileRegionSender.send(file, MediaType.IMAGE_PNG, new HttpHeaders(), multipart, response));
+        assertFalse(FileRegionSender.send(file, MediaType.IMAGE_PNG, new HttpHeaders(), unsatisfiable, response));
+        assertFalse(response.isCommitted());
+    }
+
+    @Test
+    @DisplayName("send: ignores the Range when If-Range names another version")
+    void send_withStaleIfRange_writesWholeFile() throws IOException {
+        Path file = write("0123456789");
+        HttpHeaders headers = new HttpHeaders();
+        headers.setETag("\"abc\"");
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/images/x/raw");
+        request.addHeader(HttpHeaders.RANGE, "bytes=2-5");
+        request.addHeader(HttpHeaders.IF_RANGE, "\"old\"");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertTrue(FileRegionSender.send(file, MediaType.IMAGE_PNG, headers, request, response));
+
+        assertEquals(200, response.getStatus());
+        assertEquals("\"abc\"", response.getHeader(HttpHeaders.ETAG));
+        assertEquals("0123456789", response.getContentAsString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @DisplayName("send: answers 304 with no body when If-None-Match matches the ETag")
+    void send_withMatchingIfNoneMatch_notModified() throws IOException {
+        Path file = write("0123456789");
+        HttpHeaders headers = new HttpHeaders();
+        headers.setETag("\"abc\"");
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/images/x/raw");
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, "\"xyz\", W/\"abc\"");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertTrue(FileRegionSender.send(file, MediaType.IMAGE_PNG, headers, request, response));
+
+        assertEquals(304, response.getStatus());
+        assertEquals(0, response.getContentAsByteArray().length);
+    }
+
+    private Path write(String content) throws IOException {
+        return Files.writeString(dir.resolve("blob"), content);
+    }
+}
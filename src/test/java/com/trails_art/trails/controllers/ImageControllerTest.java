@@ -3,6 +3,9 @@ package com.trails_art.trails.controllers;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.trails_art.trails.models.Image;
 import com.trails_art.trails.repositories.JpaImageRepository;
+import com.trails_art.trails.storage.ImageCache;
+import com.trails_art.trails.support.StatementCounter;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -10,16 +13,28 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.transaction.annotation.Transactional;
 
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.head;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
@@ -35,6 +50,12 @@ public class ImageControllerTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private ImageCache imageCache;
+
+    @Autowired
+    private EntityManager entityManager;
+
     private Image savedImage;
     private Image savedImage2;
 
@@ -55,6 +76,20 @@ public class ImageControllerTest {
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON));
     }
 
+    @Test
+    @DisplayName("GET /api/images/metadata - lists dimensions read at ingest without any content")
+    void findAllMetadata_returnsDimensionsWithoutData() throws Exception {
+        Image photo = imageRepository.saveAndFlush(new Image("image/jpeg", jpeg(800, 400)));
+
+        mockMvc.perform(get("/api/images/metadata").param("count", "true"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Total-Count", "3"))
+                .andExpect(jsonPath("$[?(@.id == '" + photo.getId() + "')].width").value(800))
+                .andExpect(jsonPath("$[?(@.id == '" + photo.getId() + "')].height").value(400))
+                .andExpect(jsonPath("$[0].created_at").exists())
+                .andExpect(jsonPath("$[0].data").doesNotExist());
+    }
+
     @Test
     @DisplayName("GET /api/images/{id} - returns image when exists")
     void findById_whenImageExists_returnsImage() throws Exception {
@@ -71,6 +106,212 @@ public class ImageControllerTest {
                 .andExpect(status().isNotFound());
     }
 
+    @Test
+    @DisplayName("GET /api/images/{id}/raw - returns raw bytes with stored mimetype")
+    void findRawById_whenImageExists_returnsBytes() throws Exception {
+        mockMvc.perform(get("/api/images/{id}/raw", savedImage.getId()))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.IMAGE_PNG))
+                .andExpect(header().string("Accept-Ranges", "bytes"))
+                .andExpect(content().bytes(savedImage.getData()));
+    }
+
+    @Test
+    @DisplayName("GET /api/images/{id}/raw - sends the blob file without loading the content")
+    void findRawById_whenBlobIsFileBacked_doesNotLoadContent() throws Exception {
+        imageCache.clear();
+        long misses = imageCache.stats().misses();
+
+        mockMvc.perform(get("/api/images/{id}/raw", savedImage.getId()))
+                .andExpect(status().isOk())
+                .andExpect(content().bytes(savedImage.getData()));
+
+        assertThat(imageCache.stats().misses()).isEqualTo(misses + 1);
+        assertThat(imageCache.stats().entries()).isZero();
+    }
+
+    @Test
+    @DisplayName("GET /api/images/{id}/raw - serves a cached image without querying the database")
+    void findRawById_whenCached_runsNoStatements() throws Exception {
+        imageCache.clear();
+        mockMvc.perform(get("/api/images/{id}", savedImage.getId()))
+                .andExpect(status().isOk());
+
+        long statements = StatementCounter.count(entityManager, () ->
+                mockMvc.perform(get("/api/images/{id}/raw", savedImage.getId()))
+                        .andExpect(status().isOk())
+                        .andExpect(content().bytes(savedImage.getData())));
+
+        assertThat(statements).isZero();
+    }
+
+    @Test
+    @DisplayName("GET /api/images/{id}/raw - returns 206 for a byte range")
+    void findRawById_withRange_returnsPartialContent() throws Exception {
+        mockMvc.perform(get("/api/images/{id}/raw", savedImage.getId()).header("Range", "bytes=0-3"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string("Content-Range", "bytes 0-3/" + savedImage.getData().length))
+                .andExpect(content().bytes("test".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    @DisplayName("HEAD /api/images/{id}/raw - returns headers for existing image")
+    void headRawById_whenImageExists_returnsOk() throws Exception {
+        mockMvc.perform(head("/api/images/{id}/raw", savedImage.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().longValue("Content-Length", savedImage.getData().length));
+    }
+
+    @Test
+    @DisplayName("GET /api/images/{id}/raw - returns 404 when not found")
+    void findRawById_whenImageNotFound_returns404() throws Exception {
+        mockMvc.perform(get("/api/images/{id}/raw", UUID.randomUUID()))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @DisplayName("GET /api/images/{id}/raw?w= - serves a downscaled rendition")
+    void findRaw_withWidth_returnsRendition() throws Exception {
+        Image photo = imageRepository.save(new Image("image/jpeg", jpeg(800, 400)));
+
+        byte[] body = mockMvc.perform(get("/api/images/{id}/raw", photo.getId()).param("w", "150"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.IMAGE_JPEG))
+                .andExpect(result -> assertThat(result.getResponse().getHeaders("Vary"))
+                        .contains("DPR, Width, Save-Data"))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        assertThat(ImageIO.read(new ByteArrayInputStream(body)).getWidth()).isEqualTo(160);
+    }
+
+    @Test
+    @DisplayName("GET /api/images/{id}/raw - picks a rendition from DPR and Width client hints")
+    void findRaw_withClientHints_returnsRendition() throws Exception {
+        Image photo = imageRepository.save(new Image("image/jpeg", jpeg(800, 400)));
+
+        byte[] scaledByDpr = mockMvc.perform(get("/api/images/{id}/raw", photo.getId())
+                        .param("w", "200").header("DPR", "2"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray();
+        byte[] scaledByWidth = mockMvc.perform(get("/api/images/{id}/raw", photo.getId())
+                        .header("Width", "100").header("Save-Data", "on"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray();
+
+        assertThat(ImageIO.read(new ByteArrayInputStream(scaledByDpr)).getWidth()).isEqualTo(480);
+        assertThat(ImageIO.read(new ByteArrayInputStream(scaledByWidth)).getWidth()).isEqualTo(160);
+    }
+
+    @Test
+    @DisplayName("GET /api/images/{id}/raw?w= - serves the original when wider than every rendition")
+    void findRaw_widerThanEveryRendition_returnsOriginal() throws Exception {
+        Image photo = imageRepository.save(new Image("image/jpeg", jpeg(2400, 200)));
+
+        byte[] body = mockMvc.perform(get("/api/images/{id}/raw", photo.getId())
+                        .param("w", "1000").header("DPR", "2"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray();
+
+        assertThat(ImageIO.read(new ByteArrayInputStream(body)).getWidth()).isEqualTo(2400);
+    }
+
+    @Test
+    @DisplayName("GET /api/images/{id}/raw?w= - falls back to the original when it cannot be scaled")
+    void findRaw_withWidthOnUndecodableImage_returnsOriginal() throws Exception {
+        mockMvc.perform(get("/api/images/{id}/raw", savedImage.getId()).param("w", "160"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.IMAGE_PNG))
+                .andExpect(content().bytes(savedImage.getData()));
+    }
+
+    @Test
+    @DisplayName("GET /api/images/{id}/raw?w=0 - returns 400")
+    void findRaw_withInvalidWidth_returns400() throws Exception {
+        mockMvc.perform(get("/api/images/{id}/raw", savedImage.getId()).param("w", "0"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("GET /api/images/{id}/raw - serves new bytes after an update")
+    void findRaw_afterUpdate_returnsNewBytes() throws Exception {
+        mockMvc.perform(get("/api/images/{id}/raw", savedImage.getId()))
+                .andExpect(content().bytes(savedImage.getData()));
+
+        byte[] replacement = "replacement".getBytes(StandardCharsets.UTF_8);
+        mockMvc.perform(put("/api/images/{id}", savedImage.getId())
+                        .contentType(MediaType.IMAGE_PNG)
+                        .content(replacement))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/images/{id}/raw", savedImage.getId()))
+                .andExpect(status().isOk())
+                .andExpect(content().bytes(replacement));
+    }
+
+    @Test
+    @DisplayName("POST /api/images (JSON) - decodes Base64 data into the blob store")
+    void create_withBase64Json_storesImage() throws Exception {
+        byte[] bytes = "json-image".getBytes(StandardCharsets.UTF_8);
+        String body = "{\"mimetype\":\"image/gif\",\"data\":\""
+                + java.util.Base64.getEncoder().encodeToString(bytes) + "\"}";
+
+        String location = mockMvc.perform(post("/api/images")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.data").value(java.util.Base64.getEncoder().encodeToString(bytes)))
+                .andReturn().getResponse().getHeader("Location");
+
+        mockMvc.perform(get(location + "/raw"))
+                .andExpect(content().bytes(bytes));
+    }
+
+    @Test
+    @DisplayName("POST /api/images (JSON) - returns 400 for malformed Base64")
+    void create_withMalformedBase64_returns400() throws Exception {
+        mockMvc.perform(post("/api/images")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"mimetype\":\"image/gif\",\"data\":\"not*base64\"}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("POST /api/images (multipart) - stores uploaded file")
+    void upload_multipart_storesImage() throws Exception {
+        byte[] bytes = "multipart-image".getBytes(StandardCharsets.UTF_8);
+        mockMvc.perform(multipart("/api/images")
+                        .file(new MockMultipartFile("file", "photo.jpg", "image/jpeg", bytes)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.mimetype").value("image/jpeg"))
+                .andExpect(jsonPath("$.data").doesNotExist());
+
+        assertThat(imageRepository.findAll())
+                .anySatisfy(img -> assertThat(img.getData()).isEqualTo(bytes));
+    }
+
+    @Test
+    @DisplayName("POST /api/images (raw body) - stores request body using Content-Type as mimetype")
+    void upload_rawBody_storesImage() throws Exception {
+        byte[] bytes = "raw-image".getBytes(StandardCharsets.UTF_8);
+        mockMvc.perform(post("/api/images")
+                        .contentType(MediaType.IMAGE_PNG)
+                        .content(bytes))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.mimetype").value("image/png"));
+
+        assertThat(imageRepository.findAll())
+                .anySatisfy(img -> assertThat(img.getSize()).isEqualTo(bytes.length));
+    }
+
+    @Test
+    @DisplayName("POST /api/images (octet-stream) - returns 400 without a mimetype")
+    void upload_octetStreamWithoutMimetype_returns400() throws Exception {
+        mockMvc.perform(post("/api/images")
+                        .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                        .content("raw-image".getBytes(StandardCharsets.UTF_8)))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     @DisplayName("DELETE /api/images/{id} - deletes image")
     void delete_deletesImage() throws Exception {
@@ -86,4 +327,10 @@ public class ImageControllerTest {
         mockMvc.perform(delete("/api/images/{id}", randomId))
                 .andExpect(status().isNotFound());
     }
+
+    private static byte[] jpeg(int width, int height) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), "jpg", out);
+        return out.toByteArray();
+    }
 }
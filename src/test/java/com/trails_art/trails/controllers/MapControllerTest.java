@@ -0,0 +1,40 @@
+package com.trails_art.trails.controllers;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureMockMvc
+@Transactional
+public class MapControllerTest {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    @DisplayName("GET /api/map/clusters - returns a JSON array for a valid zoom and box")
+    void clusters_returnsArray() throws Exception {
+        mockMvc.perform(get("/api/map/clusters").param("z", "5").param("bbox", "20,40,30,45"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$").isArray());
+    }
+
+    @Test
+    @DisplayName("GET /api/map/clusters - returns 400 for a malformed box or an unknown type")
+    void clusters_withInvalidParameters_returns400() throws Exception {
+        mockMvc.perform(get("/api/map/clusters").param("z", "5").param("bbox", "20,40,30"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/map/clusters").param("z", "5").param("bbox", "20,46,30,45"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/map/clusters").param("z", "5").param("bbox", "20,40,30,45").param("type", "artist"))
+                .andExpect(status().isBadRequest());
+    }
+}
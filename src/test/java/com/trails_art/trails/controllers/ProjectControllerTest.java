@@ -1,12 +1,16 @@
 package com.trails_art.trails.controllers;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.trails_art.trails.diagnostics.QueryStatsFilter;
 import com.trails_art.trails.models.Image;
 import com.trails_art.trails.models.Location;
 import com.trails_art.trails.models.Project;
 import com.trails_art.trails.repositories.JpaImageRepository;
 import com.trails_art.trails.repositories.JpaLocationRepository;
 import com.trails_art.trails.repositories.project.JpaProjectRepository;
+import com.trails_art.trails.support.QueryBudget;
+import com.trails_art.trails.support.StatementCounter;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -27,6 +31,8 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import com.trails_art.trails.models.Artist;
 
@@ -52,6 +58,9 @@ public class ProjectControllerTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private EntityManager entityManager;
+
     private Artist savedArtist;
     private Artist savedArtist2;
 
@@ -104,6 +113,67 @@ public class ProjectControllerTest {
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON));
     }
 
+    @Test
+    @DisplayName("GET /api/projects - references images instead of inlining them by default")
+    void findAll_defaultsToImageReferences() throws Exception {
+        mockMvc.perform(get("/api/projects"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].image.data").doesNotExist())
+                .andExpect(jsonPath("$[0].image.size").value(10))
+                .andExpect(jsonPath("$[0].image.content_hash").isNotEmpty())
+                .andExpect(jsonPath("$[0].image.url").value("/api/images/" + savedProject.getImage().getId() + "/raw"))
+                .andExpect(jsonPath("$[0].artists[0].image.data").doesNotExist());
+    }
+
+    @Test
+    @DisplayName("GET /api/projects - runs the same statements however many projects are listed")
+    void findAll_runsConstantNumberOfStatements() throws Exception {
+        long one = StatementCounter.count(entityManager, () ->
+                mockMvc.perform(get("/api/projects").param("limit", "1")).andExpect(status().isOk()));
+        long all = StatementCounter.count(entityManager, () ->
+                mockMvc.perform(get("/api/projects")).andExpect(jsonPath("$.length()").value(2)));
+
+        assertEquals(one, all);
+        // the page with its images and locations, then the artist pairs and the artists with their images
+        assertEquals(3, all);
+    }
+
+    @Test
+    @QueryBudget(statements = 3)
+    @DisplayName("GET /api/projects - reports its SQL in headers and stays within budget")
+    void findAll_withExpandedArtists_staysWithinQueryBudget() throws Exception {
+        mockMvc.perform(get("/api/projects").param("expand", "artists(limit:1)"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(QueryStatsFilter.STATEMENTS_HEADER, "3"))
+                .andExpect(header().exists(QueryStatsFilter.ROWS_HEADER))
+                .andExpect(header().exists(QueryStatsFilter.TIME_HEADER));
+    }
+
+    @Test
+    @DisplayName("GET /api/projects?images=inline - inlines images as Base64")
+    void findAll_withInlineImages_returnsBase64() throws Exception {
+        mockMvc.perform(get("/api/projects").param("images", "inline"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].image.data").value("dGVzdC1pbWFnZQ=="))
+                .andExpect(jsonPath("$[0].image.url").doesNotExist());
+    }
+
+    @Test
+    @DisplayName("GET /api/projects?images=thumbnails - returns 400")
+    void findAll_withUnknownImageMode_returns400() throws Exception {
+        mockMvc.perform(get("/api/projects").param("images", "thumbnails"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("GET /api/projects/near - returns 400 for a radius past the maximum or a latitude out of range")
+    void findNear_withInvalidParameters_returns400() throws Exception {
+        mockMvc.perform(get("/api/projects/near").param("lat", "42.69").param("lon", "23.32").param("radius", "100000"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/projects/near").param("lat", "91").param("lon", "23.32").param("radius", "1000"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     @DisplayName("GET /api/projects/{id} - returns project when exists")
     void findById_whenProjectExists_returnsProject() throws Exception {
@@ -112,6 +182,24 @@ public class ProjectControllerTest {
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON));
     }
 
+    @Test
+    @DisplayName("GET /api/projects/{id}?fields= - leaves out unrequested fields and artists")
+    void findById_withFields_leavesOutOtherFields() throws Exception {
+        mockMvc.perform(get("/api/projects/{id}", savedProject.getId()).param("fields", "name,youtube_url"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value(savedProject.getName()))
+                .andExpect(jsonPath("$.youtube_url").value(savedProject.getYoutubeUrl()))
+                .andExpect(jsonPath("$.id").doesNotExist())
+                .andExpect(jsonPath("$.image").doesNotExist())
+                .andExpect(jsonPath("$.artists").doesNotExist());
+        mockMvc.perform(get("/api/projects/{id}", savedProject.getId())
+                        .param("fields", "name")
+                        .param("expand", "artists"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.artists[0].name").isNotEmpty())
+                .andExpect(jsonPath("$.artists[0].image").exists());
+    }
+
     @Test
     @DisplayName("GET /api/projects/{id} - returns 404 when not found")
     void findById_whenProjectNotFound_returns404() throws Exception {
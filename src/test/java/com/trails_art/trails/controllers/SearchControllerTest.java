@@ -0,0 +1,114 @@
+package com.trails_art.trails.controllers;
+
+import com.trails_art.trails.models.Artist;
+import com.trails_art.trails.models.Image;
+import com.trails_art.trails.models.Location;
+import com.trails_art.trails.repositories.JpaLocationRepository;
+import com.trails_art.trails.repositories.artist.JpaArtistRepository;
+import com.trails_art.trails.search.SuggestionIndex;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// not transactional: the index only takes committed writes
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureMockMvc
+class SearchControllerTest {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JpaArtistRepository artistRepository;
+
+    @Autowired
+    private JpaLocationRepository locationRepository;
+
+    @Autowired
+    private SuggestionIndex suggestionIndex;
+
+    private Artist artist;
+    private Location location;
+
+    @AfterEach
+    void tearDown() {
+        if (artist != null) {
+            artistRepository.deleteById(artist.getId());
+        }
+        if (location != null) {
+            locationRepository.deleteById(location.getId());
+        }
+    }
+
+    @Test
+    @DisplayName("GET /api/search?q= - finds committed entities by name, best match first")
+    void search_findsCommittedEntities() throws Exception {
+        artist = artistRepository.save(new Artist("Zografski Brush",
+                new Image("image/png", "search-image".getBytes(StandardCharsets.UTF_8)), "Murals", "insta"));
+        location = locationRepository.save(new Location("Zografski Park", "42.67,23.35"));
+
+        mockMvc.perform(get("/api/search").param("q", "zografski brush"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].type").value("artist"))
+                .andExpect(jsonPath("$[0].id").value(artist.getId().toString()))
+                .andExpect(jsonPath("$[1].type").value("location"));
+        mockMvc.perform(get("/api/search").param("q", "zografski").param("type", "location"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].name").value("Zografski Park"));
+
+        artistRepository.deleteById(artist.getId());
+        artist = null;
+        mockMvc.perform(get("/api/search").param("q", "zografski brush").param("type", "artist"))
+                .andExpect(jsonPath("$.length()").value(0));
+    }
+
+    @Test
+    @DisplayName("GET /api/artists?name=&fuzzy= - finds committed artists despite typos")
+    void findArtistByName_fuzzy_toleratesTypos() throws Exception {
+        artist = artistRepository.save(new Artist("Zografski Brush",
+                new Image("image/png", "search-image".getBytes(StandardCharsets.UTF_8)), "Murals", "insta"));
+
+        mockMvc.perform(get("/api/artists").param("name", "zografsky").param("fuzzy", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(artist.getId().toString()));
+        mockMvc.perform(get("/api/artists").param("name", "zogarfsky").param("fuzzy", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(0));
+    }
+
+    @Test
+    @DisplayName("GET /api/suggest?prefix= - completes names from any word once the suggestions are refreshed")
+    void suggest_completesNames() throws Exception {
+        location = locationRepository.save(new Location("Zografski Park", "42.67,23.35"));
+        suggestionIndex.refresh();
+
+        mockMvc.perform(get("/api/suggest").param("prefix", "zograf"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].type").value("location"))
+                .andExpect(jsonPath("$[0].id").value(location.getId().toString()))
+                .andExpect(jsonPath("$[0].name").value("Zografski Park"));
+        mockMvc.perform(get("/api/suggest").param("prefix", "PARK"))
+                .andExpect(jsonPath("$[?(@.name == 'Zografski Park')]").exists());
+        mockMvc.perform(get("/api/suggest").param("prefix", " "))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("GET /api/search - returns 400 without a query or with an unknown type")
+    void search_withBadParameters_returns400() throws Exception {
+        mockMvc.perform(get("/api/search").param("q", " "))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/search").param("q", "park").param("type", "museum"))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,38 @@
+package com.trails_art.trails.controllers;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.UUID;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureMockMvc
+@Transactional
+public class TrailControllerTest {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    @DisplayName("GET /api/trails/route - returns 404 for an unknown project")
+    void route_withUnknownProject_returns404() throws Exception {
+        mockMvc.perform(get("/api/trails/route").param("projects", UUID.randomUUID().toString()))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @DisplayName("GET /api/trails/route - returns 400 for a malformed id or start")
+    void route_withInvalidParameters_returns400() throws Exception {
+        mockMvc.perform(get("/api/trails/route").param("projects", "not-an-id"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/trails/route").param("projects", UUID.randomUUID().toString()).param("start", "42.7"))
+                .andExpect(status().isBadRequest());
+    }
+}
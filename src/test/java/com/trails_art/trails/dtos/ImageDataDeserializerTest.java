@@ -0,0 +1,107 @@
+package com.trails_art.trails.dtos;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.trails_art.trails.storage.BlobDescriptor;
+import com.trails_art.trails.storage.FileSystemBlobStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ImageDataDeserializerTest {
+    @TempDir
+    Path root;
+
+    private FileSystemBlobStore blobStore;
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void setUp() {
+        blobStore = new FileSystemBlobStore(root);
+        objectMapper = new ObjectMapper().registerModule(new SimpleModule()
+                .addDeserializer(ImageData.class, new ImageDataDeserializer(blobStore))
+                .addSerializer(ImageData.class, new ImageDataSerializer(blobStore)));
+    }
+
+    @Test
+    @DisplayName("deserialize: decodes Base64 data into the blob store and round-trips it")
+    void deserialize_spoolsToBlobStore() throws IOException {
+        byte[] bytes = "image-bytes".getBytes(StandardCharsets.UTF_8);
+        String json = "{\"mimetype\":\"image/png\",\"data\":\"" + Base64.getEncoder().encodeToString(bytes) + "\"}";
+
+        ImageDto dto = objectMapper.readValue(json, ImageDto.class);
+
+        assertTrue(dto.data().isSpooled());
+        assertEquals(BlobDescriptor.of(bytes), dto.data().blob());
+        assertArrayEquals(bytes, blobStore.read(dto.data().blob().hash()));
+        assertEquals(json, objectMapper.writeValueAsString(dto));
+    }
+
+    @Test
+    @DisplayName("deserialize: rejects malformed Base64 without leaving a blob behind")
+    void deserialize_withMalformedBase64_throws() {
+        String json = "{\"mimetype\":\"image/png\",\"data\":\"not*base64\"}";
+
+        assertThrows(JsonProcessingException.class, () -> objectMapper.readValue(json, ImageDto.class));
+        assertEquals(0, root.toFile().listFiles(file -> !file.getName().equals("tmp")).length);
+    }
+
+    @Test
+    @DisplayName("deserialize: heap use does not grow with the size of the image")
+    void deserialize_largePayload_allocatesLittle() throws IOException {
+        int encodedLength = 64 * 1024 * 1024;
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().threadId();
+
+        long before = threads.getThreadAllocatedBytes(threadId);
+        ImageDto dto = objectMapper.readValue(json(encodedLength), ImageDto.class);
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+
+        assertEquals(encodedLength / 4 * 3, dto.data().size());
+        assertTrue(allocated < encodedLength / 8, "allocated " + allocated + " bytes");
+    }
+
+    // {"mimetype":"image/png","data":"AAAA...."} generated on the fly so the test itself holds no payload
+    private static InputStream json(int encodedLength) {
+        InputStream prefix = new ByteArrayInputStream("{\"mimetype\":\"image/png\",\"data\":\"".getBytes(StandardCharsets.UTF_8));
+        InputStream suffix = new ByteArrayInputStream("\"}".getBytes(StandardCharsets.UTF_8));
+        InputStream body = new InputStream() {
+            private int remaining = encodedLength;
+
+            @Override
+            public int read() {
+                if (remaining == 0) {
+                    return -1;
+                }
+                remaining--;
+                return 'A';
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) {
+                if (remaining == 0) {
+                    return -1;
+                }
+                int n = Math.min(len, remaining);
+                Arrays.fill(b, off, off + n, (byte) 'A');
+                remaining -= n;
+                return n;
+            }
+        };
+        return new SequenceInputStream(new SequenceInputStream(prefix, body), suffix);
+    }
+}
@@ -0,0 +1,103 @@
+package com.trails_art.trails.geo;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClusterTreeTest {
+
+    @Test
+    @DisplayName("clusters: nearby pins merge when zoomed out and separate when zoomed in")
+    void clusters_mergeByZoom() {
+        List<Pin> pins = List.of(
+                pin(42.6977, 23.3219), pin(42.6980, 23.3225), pin(42.6990, 23.3200),
+                pin(42.1354, 24.7453));
+        ClusterTree tree = ClusterTree.build(pins, 0, 16, 40, 512);
+
+        List<Cluster> world = tree.clusters(0, -180, -85, 180, 85);
+        assertEquals(1, world.size());
+        assertEquals(4, world.get(0).count());
+
+        List<Cluster> country = tree.clusters(8, 22, 41, 26, 44);
+        assertEquals(List.of(1, 3), country.stream().map(Cluster::count).sorted().toList());
+        Cluster sofia = country.stream().filter(c -> c.count() == 3).findFirst().orElseThrow();
+        assertEquals(42.698, sofia.latitude(), 0.001);
+        assertEquals(23.321, sofia.longitude(), 0.001);
+
+        assertEquals(4, tree.clusters(17, 22, 41, 26, 44).size());
+        assertEquals(4, tree.clusters(30, 22, 41, 26, 44).size());
+    }
+
+    @Test
+    @DisplayName("clusters: every pin is counted once at every zoom and represented by one of its members")
+    void clusters_countEveryPinOnce() {
+        Random random = new Random(7);
+        List<Pin> pins = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            pins.add(pin(40 + random.nextDouble() * 5, 20 + random.nextDouble() * 8));
+        }
+        Set<UUID> ids = new HashSet<>(pins.stream().map(Pin::id).toList());
+        ClusterTree tree = ClusterTree.build(pins, 0, 16, 40, 512);
+
+        for (int z = 0; z <= 17; z++) {
+            List<Cluster> clusters = tree.clusters(z, -180, -85, 180, 85);
+            assertEquals(2000, clusters.stream().mapToInt(Cluster::count).sum(), "zoom " + z);
+            assertTrue(clusters.stream().allMatch(c -> ids.contains(c.representativeId())));
+        }
+        assertTrue(tree.clusters(3, -180, -85, 180, 85).size() < tree.clusters(10, -180, -85, 180, 85).size());
+    }
+
+    @Test
+    @DisplayName("clusters: a box with west east of east crosses the antimeridian")
+    void clusters_wrapAntimeridian() {
+        Pin fiji = pin(-17.0, 179.9);
+        Pin samoa = pin(-13.8, -171.8);
+        ClusterTree tree = ClusterTree.build(List.of(fiji, samoa, pin(42.7, 23.3)), 0, 16, 40, 512);
+
+        Set<UUID> found = new HashSet<>();
+        tree.clusters(17, 170, -20, -170, -10).forEach(c -> found.add(c.representativeId()));
+        assertEquals(Set.of(fiji.id(), samoa.id()), found);
+    }
+
+    @Test
+    @DisplayName("range: finds exactly the points a full scan finds")
+    void range_matchesScan() {
+        Random random = new Random(11);
+        int n = 5000;
+        double[] xs = new double[n];
+        double[] ys = new double[n];
+        for (int i = 0; i < n; i++) {
+            xs[i] = random.nextDouble();
+            ys[i] = random.nextDouble();
+        }
+        KdIndex index = new KdIndex(xs, ys);
+
+        for (int q = 0; q < 50; q++) {
+            double minX = random.nextDouble() * 0.8;
+            double minY = random.nextDouble() * 0.8;
+            double maxX = minX + random.nextDouble() * 0.2;
+            double maxY = minY + random.nextDouble() * 0.2;
+            Set<Integer> expected = new HashSet<>();
+            for (int i = 0; i < n; i++) {
+                if (xs[i] >= minX && xs[i] <= maxX && ys[i] >= minY && ys[i] <= maxY) {
+                    expected.add(i);
+                }
+            }
+            Set<Integer> actual = new HashSet<>();
+            index.range(minX, minY, maxX, maxY, actual::add);
+            assertEquals(expected, actual);
+        }
+    }
+
+    private static Pin pin(double latitude, double longitude) {
+        return new Pin(PinType.PROJECT, UUID.randomUUID(), "Mural", latitude, longitude, 0);
+    }
+}
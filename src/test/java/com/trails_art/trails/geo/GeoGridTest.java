@@ -0,0 +1,96 @@
+package com.trails_art.trails.geo;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GeoGridTest {
+
+    private final UUID center = UUID.randomUUID();
+    private final UUID lozenets = UUID.randomUUID();
+    private final UUID plovdiv = UUID.randomUUID();
+    private final UUID fiji = UUID.randomUUID();
+    private GeoGrid grid;
+
+    @BeforeEach
+    void setUp() {
+        grid = new GeoGrid(0.1);
+        grid.putLocation(center, 42.6977, 23.3219);
+        grid.putLocation(lozenets, 42.6700, 23.3200);
+        grid.putLocation(plovdiv, 42.1354, 24.7453);
+        grid.putLocation(fiji, -17.0, 179.9);
+    }
+
+    @Test
+    @DisplayName("near: returns pins within the radius, nearest first, of the requested type only")
+    void near_sortsByDistance() {
+        UUID a = UUID.randomUUID();
+        UUID b = UUID.randomUUID();
+        grid.putItem(PinType.PROJECT, a, "Lozenets mural", lozenets);
+        grid.putItem(PinType.PROJECT, b, "Center mural", center);
+        grid.putItem(PinType.PROJECT, UUID.randomUUID(), "Plovdiv mural", plovdiv);
+        grid.putItem(PinType.EVENT, UUID.randomUUID(), "Center walk", center);
+
+        List<Pin> pins = grid.near(PinType.PROJECT, 42.6977, 23.3219, 5000, 10);
+
+        assertEquals(List.of(b, a), pins.stream().map(Pin::id).toList());
+        assertEquals(0, pins.get(0).distanceMeters(), 1);
+        assertEquals(3080, pins.get(1).distanceMeters(), 20);
+        assertEquals(1, grid.near(PinType.PROJECT, 42.6977, 23.3219, 5000, 1).size());
+    }
+
+    @Test
+    @DisplayName("putLocation: moving or clearing a location moves every pin at it")
+    void putLocation_movesPins() {
+        UUID project = UUID.randomUUID();
+        grid.putItem(PinType.PROJECT, project, "Mural", lozenets);
+
+        grid.putLocation(lozenets, 42.1400, 24.7500);
+        assertTrue(grid.near(PinType.PROJECT, 42.6977, 23.3219, 5000, 10).isEmpty());
+        assertEquals(1, grid.near(PinType.PROJECT, 42.1354, 24.7453, 5000, 10).size());
+
+        grid.putLocation(lozenets, null, null);
+        assertTrue(grid.near(PinType.PROJECT, 42.1354, 24.7453, 5000, 10).isEmpty());
+
+        grid.putLocation(lozenets, 42.6700, 23.3200);
+        assertEquals(1, grid.near(PinType.PROJECT, 42.6977, 23.3219, 5000, 10).size());
+    }
+
+    @Test
+    @DisplayName("putItem/removeItem: a pin follows its latest location and disappears when removed")
+    void putItem_replacesAndRemoves() {
+        UUID project = UUID.randomUUID();
+        grid.putItem(PinType.PROJECT, project, "Mural", plovdiv);
+        grid.putItem(PinType.PROJECT, project, "Mural", center);
+
+        List<Pin> pins = grid.within(PinType.PROJECT, 41, 22, 44, 26, 10);
+        assertEquals(1, pins.size());
+        assertEquals(42.6977, pins.get(0).latitude());
+
+        grid.removeItem(PinType.PROJECT, project);
+        assertTrue(grid.within(PinType.PROJECT, 41, 22, 44, 26, 10).isEmpty());
+    }
+
+    @Test
+    @DisplayName("within: supports boxes across the antimeridian and boxes larger than the occupied cells")
+    void within_wrapsAndScansLargeBoxes() {
+        UUID islands = UUID.randomUUID();
+        grid.putItem(PinType.EVENT, islands, "Island festival", fiji);
+        grid.putItem(PinType.EVENT, UUID.randomUUID(), "Center walk", center);
+
+        assertEquals(List.of(islands), grid.within(PinType.EVENT, -18, 179, -16, -179, 10).stream().map(Pin::id).toList());
+        assertTrue(grid.within(PinType.EVENT, -18, -179, -16, 179, 10).isEmpty());
+        assertEquals(2, grid.within(PinType.EVENT, -90, -180, 90, 180, 10).size());
+    }
+
+    @Test
+    @DisplayName("distanceMeters: matches the great-circle distance between Sofia and Plovdiv")
+    void distanceMeters_haversine() {
+        assertEquals(132_000, GeoGrid.distanceMeters(42.6977, 23.3219, 42.1354, 24.7453), 2_000);
+    }
+}
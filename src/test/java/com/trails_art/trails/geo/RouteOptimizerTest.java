@@ -0,0 +1,107 @@
+package com.trails_art.trails.geo;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RouteOptimizerTest {
+
+    @Test
+    @DisplayName("solve: walks stops on a line end to end")
+    void solve_ordersCollinearStops() {
+        double[] xs = {5, 1, 9, 3, 7, 0, 8, 2, 6, 4};
+        RouteOptimizer optimizer = new RouteOptimizer(matrix(xs, new double[xs.length]), false);
+
+        int[] order = optimizer.solve(32, Integer.MAX_VALUE);
+
+        assertEquals(9, optimizer.length(order), 1e-9);
+        double[] visited = Arrays.stream(order).mapToDouble(i -> xs[i]).toArray();
+        assertTrue(Arrays.equals(visited, new double[]{0, 1, 2, 3, 4, 5, 6, 7, 8, 9})
+                || Arrays.equals(visited, new double[]{9, 8, 7, 6, 5, 4, 3, 2, 1, 0}));
+    }
+
+    @Test
+    @DisplayName("solve: keeps a fixed start first and matches the best order found by brute force")
+    void solve_matchesBruteForceWithStart() {
+        Random random = new Random(3);
+        int n = 8;
+        double[] xs = random.doubles(n).toArray();
+        double[] ys = random.doubles(n).toArray();
+        double[][] distances = matrix(xs, ys);
+        RouteOptimizer optimizer = new RouteOptimizer(distances, true);
+
+        int[] order = optimizer.solve(32, Integer.MAX_VALUE);
+
+        assertEquals(n - 1, order[0]);
+        assertEquals(bruteForce(distances, new int[n - 1], new boolean[n - 1], 0, n - 1, 0), optimizer.length(order), 1e-9);
+    }
+
+    @Test
+    @DisplayName("solve: visits every stop once and beats plain nearest-neighbour, in parallel or not")
+    void solve_visitsEveryStopOnce() {
+        Random random = new Random(5);
+        int n = 50;
+        double[][] distances = matrix(random.doubles(n).toArray(), random.doubles(n).toArray());
+        RouteOptimizer optimizer = new RouteOptimizer(distances, false);
+
+        int[] sequential = optimizer.solve(32, Integer.MAX_VALUE);
+        int[] parallel = optimizer.solve(32, 1);
+
+        assertArrayEquals(IntStream.range(0, n).toArray(), Arrays.stream(sequential).sorted().toArray());
+        assertArrayEquals(sequential, parallel);
+        assertTrue(optimizer.length(sequential) <= nearestNeighbourLength(distances, 0));
+    }
+
+    private static double[][] matrix(double[] xs, double[] ys) {
+        int n = xs.length;
+        double[][] distances = new double[n][n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                distances[i][j] = Math.hypot(xs[i] - xs[j], ys[i] - ys[j]);
+            }
+        }
+        return distances;
+    }
+
+    // shortest path from the start through stops 0..n-2
+    private static double bruteForce(double[][] d, int[] path, boolean[] used, int depth, int from, double length) {
+        if (depth == path.length) {
+            return length;
+        }
+        double best = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < path.length; i++) {
+            if (!used[i]) {
+                used[i] = true;
+                path[depth] = i;
+                best = Math.min(best, bruteForce(d, path, used, depth + 1, i, length + d[from][i]));
+                used[i] = false;
+            }
+        }
+        return best;
+    }
+
+    private static double nearestNeighbourLength(double[][] d, int first) {
+        int n = d.length;
+        boolean[] visited = new boolean[n];
+        visited[first] = true;
+        int at = first;
+        double length = 0;
+        for (int step = 1; step < n; step++) {
+            int next = -1;
+            for (int i = 0; i < n; i++) {
+                if (!visited[i] && (next < 0 || d[at][i] < d[at][next])) {
+                    next = i;
+                }
+            }
+            length += d[at][next];
+            visited[next] = true;
+            at = next;
+        }
+        return length;
+    }
+}
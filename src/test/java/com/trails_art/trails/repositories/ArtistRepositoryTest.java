@@ -3,6 +3,8 @@ package com.trails_art.trails.repositories;
 import com.trails_art.trails.models.Artist;
 import com.trails_art.trails.models.Image;
 import com.trails_art.trails.repositories.artist.JpaArtistRepository;
+import com.trails_art.trails.search.SearchText;
+import com.trails_art.trails.storage.FileSystemBlobStore;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -10,24 +12,39 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.jdbc.EmbeddedDatabaseConnection;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
 
 import java.nio.charset.StandardCharsets;
 
 @DataJpaTest
+@Import(FileSystemBlobStore.class)
 @AutoConfigureTestDatabase(connection = EmbeddedDatabaseConnection.H2)
 public class ArtistRepositoryTest {
     @Autowired
     private JpaArtistRepository artistRepository;
 
     @Test
-    @DisplayName("findByNameContainingIgnoreCase: finds artist by name case-insensitive")
-    public void findByNameContainingIgnoreCase() {
+    @DisplayName("findBySearchKeyContaining: finds artist by its normalized name")
+    public void findBySearchKeyContaining() {
         byte[] imageData = "test-image".getBytes(StandardCharsets.UTF_8);
         Image image = new Image("image/jpg",imageData );
         Artist artist = new Artist("Test", image , "description", "https://instagram.com/test");
 
         artistRepository.save(artist);
 
-        Assertions.assertEquals(1,artistRepository.findByNameContainingIgnoreCase("tESt").size());
+        Assertions.assertEquals(1,artistRepository.findBySearchKeyContaining(SearchText.normalize("tESt")).size());
+    }
+
+    @Test
+    @DisplayName("findBySearchKeyContaining: matches Cyrillic names from Latin queries and back")
+    public void findBySearchKeyContaining_acrossScripts() {
+        Image image = new Image("image/jpg", "test-image".getBytes(StandardCharsets.UTF_8));
+        artistRepository.save(new Artist("Стрийт Арт София", image, "description", "https://instagram.com/sofia"));
+        artistRepository.save(new Artist("Sofía Crew", new Image("image/jpg", "other-image".getBytes(StandardCharsets.UTF_8)),
+                "description", "https://instagram.com/crew"));
+
+        Assertions.assertEquals(2, artistRepository.findBySearchKeyContaining(SearchText.normalize("Sofia")).size());
+        Assertions.assertEquals(1, artistRepository.findBySearchKeyContaining(SearchText.normalize("art sofia")).size());
+        Assertions.assertEquals(2, artistRepository.findBySearchKeyContaining(SearchText.normalize("СОФИЯ")).size());
     }
 }
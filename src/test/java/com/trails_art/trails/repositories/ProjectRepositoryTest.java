@@ -4,6 +4,8 @@ import com.trails_art.trails.models.Image;
 import com.trails_art.trails.models.Location;
 import com.trails_art.trails.models.Project;
 import com.trails_art.trails.repositories.project.JpaProjectRepository;
+import com.trails_art.trails.search.SearchText;
+import com.trails_art.trails.storage.FileSystemBlobStore;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -11,18 +13,20 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.jdbc.EmbeddedDatabaseConnection;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
 
 import java.nio.charset.StandardCharsets;
 
 @DataJpaTest
+@Import(FileSystemBlobStore.class)
 @AutoConfigureTestDatabase(connection = EmbeddedDatabaseConnection.H2)
 public class ProjectRepositoryTest {
     @Autowired
     private JpaProjectRepository projectRepository;
 
     @Test
-    @DisplayName("findByNameContainingIgnoreCase: finds project by name case-insensitive")
-    public void findByNameContainingIgnoreCase() {
+    @DisplayName("findBySearchKeyContaining: finds project by its normalized name")
+    public void findBySearchKeyContaining() {
         byte[] imageData = "test-image".getBytes(StandardCharsets.UTF_8);
         Image image = new Image("image/jpg",imageData );
         Location location = new Location("name","address");
@@ -30,6 +34,6 @@ public class ProjectRepositoryTest {
 
         projectRepository.save(project);
 
-        Assertions.assertEquals(1,projectRepository.findByNameContainingIgnoreCase("tESt").size());
+        Assertions.assertEquals(1,projectRepository.findBySearchKeyContaining(SearchText.normalize("tESt")).size());
     }
 }
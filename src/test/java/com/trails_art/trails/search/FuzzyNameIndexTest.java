@@ -0,0 +1,61 @@
+package com.trails_art.trails.search;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FuzzyNameIndexTest {
+
+    private final FuzzyNameIndex index = new FuzzyNameIndex();
+
+    @Test
+    @DisplayName("find: ranks names by edit distance to the whole name or one of its words")
+    void find_ranksByDistance() {
+        UUID banksy = put(SearchType.ARTIST, "Banksy");
+        UUID bansky = put(SearchType.ARTIST, "Bansky Crew");
+        UUID gosho = put(SearchType.ARTIST, "Gosho Pochivka");
+        put(SearchType.PROJECT, "Banksy");
+
+        assertEquals(List.of(new NameMatch(banksy, "Banksy", 1)), index.find(SearchType.ARTIST, "banksi", 1, 10));
+        assertEquals(List.of(banksy, bansky), ids(index.find(SearchType.ARTIST, "BANKSY", 2, 10)));
+        assertEquals(List.of(gosho), ids(index.find(SearchType.ARTIST, "pochivca", 2, 10)));
+        assertEquals(List.of(banksy), ids(index.find(SearchType.ARTIST, "banksi", 2, 1)));
+    }
+
+    @Test
+    @DisplayName("find: forgets renamed and removed names, also after the tree is rebuilt")
+    void find_followsUpdates() {
+        UUID renamed = put(SearchType.ARTIST, "Banksy");
+        for (int i = 0; i < 5; i++) {
+            index.remove(new DocumentKey(SearchType.ARTIST, put(SearchType.ARTIST, "Artist " + i)));
+        }
+        index.put(new DocumentKey(SearchType.ARTIST, renamed), "Vhils");
+
+        assertTrue(index.find(SearchType.ARTIST, "banksy", 2, 10).isEmpty());
+        assertTrue(index.find(SearchType.ARTIST, "artist 1", 1, 10).isEmpty());
+        assertEquals(List.of(renamed), ids(index.find(SearchType.ARTIST, "vhills", 1, 10)));
+    }
+
+    @Test
+    @DisplayName("distance: counts insertions, deletions and substitutions")
+    void distance_isLevenshtein() {
+        assertEquals(3, BkTree.distance("kitten", "sitting"));
+        assertEquals(0, BkTree.distance("", ""));
+        assertEquals(5, BkTree.distance("", "mural"));
+        assertEquals(2, BkTree.distance("graffiti", "grafit"));
+    }
+
+    private UUID put(SearchType type, String name) {
+        UUID id = UUID.randomUUID();
+        index.put(new DocumentKey(type, id), name);
+        return id;
+    }
+
+    private static List<UUID> ids(List<NameMatch> matches) {
+        return matches.stream().map(NameMatch::id).toList();
+    }
+}
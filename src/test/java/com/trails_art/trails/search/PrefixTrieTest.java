@@ -0,0 +1,43 @@
+package com.trails_art.trails.search;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PrefixTrieTest {
+
+    private final Suggestion sofia = suggestion(SearchType.LOCATION, "Sofia Center");
+    private final Suggestion solo = suggestion(SearchType.ARTIST, "Solo Crew");
+    private final Suggestion center = suggestion(SearchType.PROJECT, "Center Wall");
+
+    private final PrefixTrie trie = PrefixTrie.build(List.of(
+            new PrefixTrie.Entry(solo, List.of("solo crew", "crew")),
+            new PrefixTrie.Entry(center, List.of("center wall", "wall")),
+            new PrefixTrie.Entry(sofia, List.of("sofia center", "center"))
+    ), 2);
+
+    @Test
+    @DisplayName("complete: returns the best entries under a prefix, in rank order and without duplicates")
+    void complete_returnsTopEntries() {
+        assertEquals(List.of(solo, sofia), trie.complete("so", 10));
+        assertEquals(List.of(center, sofia), trie.complete("cent", 10));
+        assertEquals(List.of(solo), trie.complete("s", 1));
+        assertEquals(List.of(sofia), trie.complete("sofia c", 10));
+    }
+
+    @Test
+    @DisplayName("complete: returns nothing for unknown or empty prefixes")
+    void complete_withoutMatch_returnsEmpty() {
+        assertTrue(trie.complete("sx", 10).isEmpty());
+        assertTrue(trie.complete("", 10).isEmpty());
+        assertTrue(PrefixTrie.EMPTY.complete("a", 10).isEmpty());
+    }
+
+    private static Suggestion suggestion(SearchType type, String name) {
+        return new Suggestion(type, UUID.randomUUID(), name);
+    }
+}
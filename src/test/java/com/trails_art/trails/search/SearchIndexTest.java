@@ -0,0 +1,108 @@
+package com.trails_art.trails.search;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class SearchIndexTest {
+    @TempDir
+    Path directory;
+
+    private final UUID mural = UUID.randomUUID();
+    private final UUID muralist = UUID.randomUUID();
+    private final UUID park = UUID.randomUUID();
+
+    @Test
+    @DisplayName("restart: serves merged and logged changes from disk without rebuilding from the database")
+    void restart_servesFromSegmentAndLog() throws IOException {
+        JdbcTemplate database = mock(JdbcTemplate.class);
+        SearchIndex first = open(database);
+        verify(database, times(4)).query(anyString(), any(RowCallbackHandler.class));
+        first.put(SearchType.PROJECT, mural, "Graffiti Mural", null);
+        first.put(SearchType.ARTIST, muralist, "Gosho Pochivka", "Paints graffiti murals");
+        first.merge();
+        first.put(SearchType.LOCATION, park, "Graffiti Park", null);
+        first.remove(SearchType.ARTIST, muralist);
+        first.close();
+
+        JdbcTemplate untouched = database(1, 0, 0, 1);
+        SearchIndex second = open(untouched);
+
+        assertEquals(Set.of(mural, park), ids(second.search("graffiti", 10, Set.of())));
+        verify(untouched, never()).query(anyString(), any(RowCallbackHandler.class));
+
+        second.merge();
+        second.close();
+        assertEquals(List.of("delta-3.log", "segment-3.seg"), files());
+        assertEquals(Set.of(mural, park), ids(open(untouched).search("graffiti", 10, Set.of())));
+    }
+
+    @Test
+    @DisplayName("restart: keeps the changes before a torn write at the end of the log")
+    void restart_dropsTornLogTail() throws IOException {
+        SearchIndex first = open(mock(JdbcTemplate.class));
+        first.put(SearchType.PROJECT, mural, "Graffiti Mural", null);
+        first.close();
+        Files.write(directory.resolve("delta-1.log"), new byte[]{0, 0, 0, 42, 1, 2}, StandardOpenOption.APPEND);
+
+        SearchIndex second = open(database(1, 0, 0, 0));
+        second.put(SearchType.LOCATION, park, "Graffiti Park", null);
+        second.close();
+
+        assertEquals(Set.of(mural, park), ids(open(database(1, 0, 0, 1)).search("graffiti", 10, Set.of())));
+    }
+
+    @Test
+    @DisplayName("restart: rebuilds when a table's row count differs from the documents on disk")
+    void restart_rebuildsWhenDatabaseChanged() throws IOException {
+        SearchIndex first = open(mock(JdbcTemplate.class));
+        first.put(SearchType.PROJECT, mural, "Graffiti Mural", null);
+        first.close();
+
+        JdbcTemplate changed = database(2, 0, 0, 0);
+        open(changed);
+
+        verify(changed, times(4)).query(anyString(), any(RowCallbackHandler.class));
+    }
+
+    private SearchIndex open(JdbcTemplate database) {
+        SearchIndex index = new SearchIndex(database, 0.5, directory.toString(), 50);
+        index.run(null);
+        return index;
+    }
+
+    private static JdbcTemplate database(long projects, long artists, long events, long locations) {
+        JdbcTemplate database = mock(JdbcTemplate.class);
+        when(database.queryForObject("select count(*) from projects", Long.class)).thenReturn(projects);
+        when(database.queryForObject("select count(*) from artists", Long.class)).thenReturn(artists);
+        when(database.queryForObject("select count(*) from events", Long.class)).thenReturn(events);
+        when(database.queryForObject("select count(*) from locations", Long.class)).thenReturn(locations);
+        return database;
+    }
+
+    private List<String> files() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(file -> file.getFileName().toString()).sorted().toList();
+        }
+    }
+
+    private static Set<UUID> ids(List<SearchHit> hits) {
+        return Set.copyOf(hits.stream().map(SearchHit::id).toList());
+    }
+}
@@ -0,0 +1,29 @@
+package com.trails_art.trails.search;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SearchTextTest {
+
+    @Test
+    @DisplayName("normalize: transliterates Bulgarian Cyrillic to the Latin spelling")
+    void normalize_transliteratesCyrillic() {
+        assertEquals("sofia", SearchText.normalize("София"));
+        assertEquals("plovdiv", SearchText.normalize("ПЛОВДИВ"));
+        assertEquals("shtastie yug", SearchText.normalize("Щастие, Юг!"));
+        assertEquals("zhivko tsvetkov", SearchText.normalize("Живко Цветков"));
+        assertEquals("ayaz balgaria", SearchText.normalize("Аяз България"));
+        assertEquals("maria mariyana", SearchText.normalize("Мария Марияна"));
+    }
+
+    @Test
+    @DisplayName("normalize: strips accents and folds case, punctuation and spacing")
+    void normalize_foldsLatin() {
+        assertEquals("cafe muller", SearchText.normalize("  Café — MÜLLER "));
+        assertEquals("strasse", SearchText.normalize("Straße"));
+        assertEquals("lodz 2024", SearchText.normalize("Łódź, 2024"));
+        assertEquals("", SearchText.normalize(null));
+    }
+}
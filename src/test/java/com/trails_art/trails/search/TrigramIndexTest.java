@@ -0,0 +1,58 @@
+package com.trails_art.trails.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrigramIndexTest {
+
+    private final UUID mural = UUID.randomUUID();
+    private final UUID muralist = UUID.randomUUID();
+    private final UUID sofia = UUID.randomUUID();
+
+    private TrigramIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new TrigramIndex(0.5);
+        index.put(SearchType.PROJECT, mural, "Graffiti Mural", null);
+        index.put(SearchType.ARTIST, muralist, "Gosho Pochivka", "Paints graffiti murals across Sofia");
+        index.put(SearchType.LOCATION, sofia, "Sofia Center", null);
+    }
+
+    @Test
+    @DisplayName("search: ranks a name match above a description match")
+    void search_ranksNamesFirst() {
+        List<SearchHit> hits = index.search("graffiti", 10, Set.of());
+
+        assertEquals(List.of(mural, muralist), hits.stream().map(SearchHit::id).toList());
+        assertTrue(hits.get(0).score() > hits.get(1).score());
+    }
+
+    @Test
+    @DisplayName("search: matches despite a typo, case and punctuation")
+    void search_toleratesSmallDifferences() {
+        assertEquals(mural, index.search("GRAFITI mural!", 10, Set.of()).getFirst().id());
+        assertTrue(index.search("xyz", 10, Set.of()).isEmpty());
+    }
+
+    @Test
+    @DisplayName("search: filters by type and forgets removed or renamed documents")
+    void search_filtersAndUpdates() {
+        assertEquals(List.of(sofia), index.search("sofia", 10, Set.of(SearchType.LOCATION)).stream()
+                .map(SearchHit::id).toList());
+
+        index.remove(SearchType.PROJECT, mural);
+        index.put(SearchType.LOCATION, sofia, "Plovdiv", null);
+
+        assertEquals(List.of(muralist), index.search("graffiti", 10, Set.of()).stream().map(SearchHit::id).toList());
+        assertTrue(index.search("sofia", 10, Set.of(SearchType.LOCATION)).isEmpty());
+        assertEquals(2, index.size());
+    }
+}
@@ -78,7 +78,7 @@ class ArtistServiceTest {
         return new com.trails_art.trails.dtos.ImageDto(imageId.toString(), "image/png", java.util.Base64.getEncoder().encodeToString("data".getBytes()));
     }
     private com.trails_art.trails.dtos.LocationDto createLocationDto() {
-        return new com.trails_art.trails.dtos.LocationDto(null, "LocName", "LocAddr");
+        return new com.trails_art.trails.dtos.LocationDto(null, "LocName", "LocAddr", null, null);
     }
     private com.trails_art.trails.dtos.ProjectDataDto createProjectData() {
         return new com.trails_art.trails.dtos.ProjectDataDto("ProjName", createLocationDto(), createImageDto(), "yt", LocalDateTime.now().toString());
@@ -1,5 +1,6 @@
 package com.trails_art.trails.services;
 
+import com.trails_art.trails.calendar.EventCalendar;
 import com.trails_art.trails.dtos.EventDto;
 import com.trails_art.trails.dtos.ImageDto;
 import com.trails_art.trails.dtos.LocationDto;
@@ -16,6 +17,7 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.Limit;
 
 import java.time.LocalDateTime;
 import java.util.*;
@@ -28,6 +30,9 @@ public class EventServiceTest {
     @Mock
     private JpaEventRepository jpaEventRepository;
 
+    @Mock
+    private EventCalendar eventCalendar;
+
     @InjectMocks
     private JpaEventService jpaEventService;
 
@@ -58,7 +63,7 @@ public class EventServiceTest {
     }
 
     private LocationDto createLocationDto() {
-        return new LocationDto(randomUUID().toString(), "LocName", "Address");
+        return new LocationDto(randomUUID().toString(), "LocName", "Address", null, null);
     }
 
     private EventDto createEventDto() {
@@ -176,10 +181,48 @@ public class EventServiceTest {
     @DisplayName("findByName: finds events by name (case-insensitive contains)")
     void findByName_WithName_ReturnsMatchingEvents() {
         List<Event> events = Arrays.asList(new Event(), new Event());
-        when(jpaEventRepository.findByNameContainingIgnoreCase("event")).thenReturn(events);
+        when(jpaEventRepository.findBySearchKeyContaining("event")).thenReturn(events);
         List<Event> result = jpaEventService.findByName("event");
 
         assertEquals(2, result.size());
-        verify(jpaEventRepository, times(1)).findByNameContainingIgnoreCase("event");
+        verify(jpaEventRepository, times(1)).findBySearchKeyContaining("event");
+    }
+
+    @Test
+    @DisplayName("findBetween: loads the events the calendar finds, in its order")
+    void findBetween_WithLoadedCalendar_UsesCalendarOrder() {
+        LocalDateTime from = LocalDateTime.now();
+        Event first = new Event();
+        first.setId(randomUUID());
+        Event second = new Event();
+        second.setId(randomUUID());
+        when(eventCalendar.isLoaded()).thenReturn(true);
+        when(eventCalendar.between(from, from.plusHours(1), 10)).thenReturn(List.of(second.getId(), first.getId()));
+        when(jpaEventRepository.findByIdIn(List.of(second.getId(), first.getId()))).thenReturn(List.of(first, second));
+
+        List<Event> result = jpaEventService.findBetween(from, from.plusHours(1), 10);
+
+        assertEquals(List.of(second, first), result);
+        verify(jpaEventRepository, never()).findOverlapping(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("findBetween: queries the database until the calendar is loaded, and rejects a reversed range")
+    void findBetween_WithoutCalendar_QueriesDatabase() {
+        LocalDateTime from = LocalDateTime.now();
+        when(eventCalendar.isLoaded()).thenReturn(false);
+        when(jpaEventRepository.findOverlapping(from, from, Limit.of(5))).thenReturn(List.of(event));
+
+        assertEquals(List.of(event), jpaEventService.findBetween(from, from, 5));
+        assertThrows(IllegalArgumentException.class, () -> jpaEventService.findBetween(from.plusHours(1), from, 5));
+    }
+
+    @Test
+    @DisplayName("findOverlapping: throws when the event does not exist")
+    void findOverlapping_WhenEventMissing_Throws() {
+        when(eventCalendar.isLoaded()).thenReturn(true);
+        when(jpaEventRepository.existsById(eventId)).thenReturn(false);
+
+        assertThrows(InvalidArgumentIdException.class, () -> jpaEventService.findOverlapping(eventId, 10));
     }
 }
@@ -0,0 +1,78 @@
+package com.trails_art.trails.services;
+
+import com.trails_art.trails.models.Image;
+import com.trails_art.trails.models.ImageOptimizationTask;
+import com.trails_art.trails.repositories.JpaImageOptimizationTaskRepository;
+import com.trails_art.trails.repositories.JpaImageRepository;
+import com.trails_art.trails.services.image.ImageOptimizationQueue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// not transactional: the swap runs in its own transaction, as it does on a worker thread
+@SpringBootTest
+class ImageOptimizationQueueTest {
+    @Autowired
+    private ImageOptimizationQueue queue;
+    @Autowired
+    private JpaImageRepository imageRepository;
+    @Autowired
+    private JpaImageOptimizationTaskRepository taskRepository;
+
+    private final List<UUID> created = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        created.forEach(id -> imageRepository.findById(id).ifPresent(imageRepository::delete));
+    }
+
+    @Test
+    @DisplayName("process: swaps an oversized image to its optimized content and clears the task")
+    void process_replacesContent() throws IOException {
+        Image image = save(new Image("image/jpeg", jpeg(4000, 2000)));
+        UUID taskId = taskRepository.save(new ImageOptimizationTask(image.getId(), image.getContentHash())).getId();
+
+        assertTrue(queue.process(taskId));
+
+        Image optimized = imageRepository.findById(image.getId()).orElseThrow();
+        assertNotEquals(image.getContentHash(), optimized.getContentHash());
+        assertTrue(optimized.getSize() < image.getSize());
+        assertTrue(taskRepository.findById(taskId).isEmpty());
+    }
+
+    @Test
+    @DisplayName("process: drops a task whose image was replaced after it was queued")
+    void process_skipsStaleTask() throws IOException {
+        Image image = save(new Image("image/jpeg", jpeg(4000, 2000)));
+        UUID taskId = taskRepository.save(new ImageOptimizationTask(image.getId(), "0".repeat(64))).getId();
+
+        assertFalse(queue.process(taskId));
+
+        assertEquals(image.getContentHash(), imageRepository.findById(image.getId()).orElseThrow().getContentHash());
+        assertTrue(taskRepository.findById(taskId).isEmpty());
+    }
+
+    private Image save(Image image) {
+        Image saved = imageRepository.save(image);
+        created.add(saved.getId());
+        return saved;
+    }
+
+    private static byte[] jpeg(int width, int height) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), "jpg", out);
+        return out.toByteArray();
+    }
+}
@@ -4,7 +4,12 @@ import com.trails_art.trails.dtos.ImageDto;
 import com.trails_art.trails.exceptions.InvalidArgumentIdException;
 import com.trails_art.trails.models.Image;
 import com.trails_art.trails.repositories.JpaImageRepository;
+import com.trails_art.trails.services.image.ImageOptimizationQueue;
 import com.trails_art.trails.services.image.JpaImageService;
+import com.trails_art.trails.storage.BlobDescriptor;
+import com.trails_art.trails.storage.BlobStore;
+import com.trails_art.trails.storage.ImageCache;
+import com.trails_art.trails.storage.ImageContent;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -13,6 +18,9 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
 import java.util.*;
 import java.util.Base64;
 import java.util.UUID;
@@ -24,6 +32,12 @@ import static org.mockito.Mockito.*;
 class ImageServiceTest {
     @Mock
     private JpaImageRepository jpaImageRepository;
+    @Mock
+    private BlobStore blobStore;
+    @Mock
+    private ImageCache imageCache;
+    @Mock
+    private ImageOptimizationQueue optimizationQueue;
     @InjectMocks
     private JpaImageService jpaImageService;
 
@@ -72,10 +86,11 @@ class ImageServiceTest {
     }
 
     @Test
-    @DisplayName("create: saves image")
+    @DisplayName("create: saves image and queues it for optimization")
     void create_WithValidImage_SavesImage() {
         jpaImageService.create(image);
         verify(jpaImageRepository, times(1)).save(image);
+        verify(optimizationQueue).enqueue(image);
     }
 
     @Test
@@ -85,6 +100,54 @@ class ImageServiceTest {
         verify(jpaImageRepository, times(1)).save(any(Image.class));
     }
 
+    @Test
+    @DisplayName("findContentById: serves cached content without touching the repository")
+    void findContentById_WhenCached_SkipsRepository() {
+        ImageContent content = new ImageContent(imageId, "image/png", image.getContentHash(),
+                ByteBuffer.wrap("data".getBytes()));
+        when(imageCache.get(imageId)).thenReturn(Optional.of(content));
+
+        assertEquals(Optional.of(content), jpaImageService.findContentById(imageId));
+        verifyNoInteractions(jpaImageRepository, blobStore);
+    }
+
+    @Test
+    @DisplayName("findContentById: loads through the cache on a miss")
+    void findContentById_WhenNotCached_LoadsFromBlobStore() {
+        ImageContent content = new ImageContent(imageId, "image/png", image.getContentHash(),
+                ByteBuffer.wrap("data".getBytes()));
+        when(imageCache.get(imageId)).thenReturn(Optional.empty());
+        when(imageCache.ticket()).thenReturn(7L);
+        when(jpaImageRepository.findById(imageId)).thenReturn(Optional.of(image));
+        when(imageCache.load(eq(7L), eq(imageId), eq("image/png"), eq(image.getContentHash()), eq(4L), any()))
+                .thenReturn(content);
+
+        assertEquals(Optional.of(content), jpaImageService.findContentById(imageId));
+    }
+
+    @Test
+    @DisplayName("createFromStream: stores content in the blob store and saves image")
+    void createFromStream_WithContent_StoresBlobAndSavesImage() {
+        InputStream content = new ByteArrayInputStream("data".getBytes());
+        BlobDescriptor blob = BlobDescriptor.of("data".getBytes());
+        when(blobStore.put(content)).thenReturn(blob);
+
+        Image created = jpaImageService.createFromStream("image/png", content);
+
+        assertEquals(blob.hash(), created.getContentHash());
+        assertEquals(4L, created.getSize());
+        verify(jpaImageRepository, times(1)).save(created);
+    }
+
+    @Test
+    @DisplayName("createFromStream: throws when mimetype is missing")
+    void createFromStream_WithoutMimetype_ThrowsException() {
+        InputStream content = new ByteArrayInputStream("data".getBytes());
+        assertThrows(com.trails_art.trails.exceptions.InvalidDTOFormat.class,
+                () -> jpaImageService.createFromStream(null, content));
+        verifyNoInteractions(blobStore, jpaImageRepository);
+    }
+
     @Test
     @DisplayName("update: updates image when it exists")
     void update_WhenImageExists_UpdatesImage() {
@@ -92,6 +155,8 @@ class ImageServiceTest {
         jpaImageService.update(image, imageId);
 
         verify(jpaImageRepository, times(1)).save(image);
+        verify(imageCache).invalidate(imageId);
+        verify(optimizationQueue).enqueue(image);
         assertEquals(imageId, image.getId());
     }
 
@@ -106,6 +171,7 @@ class ImageServiceTest {
         assertEquals("Image with ID " + imageId + " not found.", thrown.getMessage());
         verify(jpaImageRepository, times(1)).existsById(imageId);
         verify(jpaImageRepository, never()).save(any());
+        verifyNoInteractions(optimizationQueue);
     }
 
     @Test
@@ -118,7 +184,7 @@ class ImageServiceTest {
 
         verify(jpaImageRepository, times(1)).save(image);
         assertEquals("image/png", image.getMimetype());
-        assertArrayEquals(Base64.getDecoder().decode(dto.data()), image.getData());
+        assertArrayEquals(dto.data().toByteArray(), image.getData());
     }
 
     @Test
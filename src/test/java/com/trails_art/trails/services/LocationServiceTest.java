@@ -44,7 +44,7 @@ class LocationServiceTest {
     }
 
     private LocationDto createLocationDto() {
-        return new LocationDto(locationId.toString(), "LocName", "LocAddr");
+        return new LocationDto(locationId.toString(), "LocName", "LocAddr", null, null);
     }
 
     @Test
@@ -154,9 +154,9 @@ class LocationServiceTest {
     void findByName_WithName_ReturnsMatchingLocations() {
         String name = "test";
         List<Location> locations = Arrays.asList(new Location(), new Location());
-        when(jpaLocationRepository.findByNameContainingIgnoreCase(name)).thenReturn(locations);
+        when(jpaLocationRepository.findBySearchKeyContaining(name)).thenReturn(locations);
         List<Location> result = jpaLocationService.findByName(name);
         assertEquals(2, result.size());
-        verify(jpaLocationRepository).findByNameContainingIgnoreCase(name);
+        verify(jpaLocationRepository).findBySearchKeyContaining(name);
     }
 }
@@ -8,6 +8,9 @@ import com.trails_art.trails.models.Image;
 import com.trails_art.trails.models.Location;
 import com.trails_art.trails.models.Project;
 import com.trails_art.trails.repositories.project.JpaProjectRepository;
+import com.trails_art.trails.search.SearchHit;
+import com.trails_art.trails.search.SearchIndex;
+import com.trails_art.trails.search.SearchType;
 import com.trails_art.trails.services.artist.ArtistService;
 import com.trails_art.trails.services.image.ImageService;
 import com.trails_art.trails.services.location.LocationService;
@@ -35,6 +38,8 @@ class ProjectServiceTest {
     private ImageService imageService;
     @Mock
     private LocationService locationService;
+    @Mock
+    private SearchIndex searchIndex;
 
     @InjectMocks
     private JpaProjectService jpaProjectService;
@@ -70,7 +75,7 @@ class ProjectServiceTest {
     }
 
     private com.trails_art.trails.dtos.LocationDto createLocationDto() {
-        return new com.trails_art.trails.dtos.LocationDto(randomUUID().toString(), "LocName", "Address");
+        return new com.trails_art.trails.dtos.LocationDto(randomUUID().toString(), "LocName", "Address", null, null);
     }
 
     private com.trails_art.trails.dtos.ArtistDataDto createArtistData() {
@@ -273,11 +278,36 @@ class ProjectServiceTest {
         String name = "test";
         List<Project> projects = Arrays.asList(new Project(), new Project());
 
-        when(jpaProjectRepository.findByNameContainingIgnoreCase(name)).thenReturn(projects);
+        when(jpaProjectRepository.findBySearchKeyContaining(name)).thenReturn(projects);
         List<Project> result = jpaProjectService.findByName(name);
 
         assertEquals(2, result.size());
-        verify(jpaProjectRepository).findByNameContainingIgnoreCase(name);
+        verify(jpaProjectRepository).findBySearchKeyContaining(name);
+    }
+
+    @Test
+    @DisplayName("findByName: a query that normalizes to nothing matches nothing")
+    void findByName_WithOnlyPunctuation_ReturnsEmpty() {
+        assertTrue(jpaProjectService.findByName("!!! ").isEmpty());
+        verify(jpaProjectRepository, never()).findBySearchKeyContaining(anyString());
+    }
+
+    @Test
+    @DisplayName("searchByName: loads the index's hits in rank order, skipping ones deleted since")
+    void searchByName_ReturnsProjectsInRankOrder() {
+        Project best = new Project();
+        best.setId(randomUUID());
+        Project second = new Project();
+        second.setId(randomUUID());
+        UUID deleted = randomUUID();
+        when(searchIndex.searchNames(SearchType.PROJECT, "mural")).thenReturn(List.of(
+                new SearchHit(SearchType.PROJECT, best.getId(), "Mural", 1.0),
+                new SearchHit(SearchType.PROJECT, deleted, "Mural Two", 0.8),
+                new SearchHit(SearchType.PROJECT, second.getId(), "Big Mural", 0.6)));
+        when(jpaProjectRepository.findByIdIn(List.of(best.getId(), deleted, second.getId())))
+                .thenReturn(List.of(second, best));
+
+        assertEquals(List.of(best, second), jpaProjectService.searchByName("mural"));
     }
 
     @Test
@@ -449,7 +479,7 @@ class ProjectServiceTest {
     @Test
     @DisplayName("createFromDto: throws InvalidDTOFormat for invalid location DTO")
     void createFromDto_WithInvalidLocationDto_ThrowsInvalidDTOFormat() {
-        com.trails_art.trails.dtos.LocationDto badLocationDto = new com.trails_art.trails.dtos.LocationDto("id", null, null);
+        com.trails_art.trails.dtos.LocationDto badLocationDto = new com.trails_art.trails.dtos.LocationDto("id", null, null, null, null);
         com.trails_art.trails.dtos.ProjectImportDto badDto = new com.trails_art.trails.dtos.ProjectImportDto(
             "ProjectName", badLocationDto, imageDto, "yt", artistData, false
         );
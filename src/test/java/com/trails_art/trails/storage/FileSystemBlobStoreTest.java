@@ -0,0 +1,129 @@
+package com.trails_art.trails.storage;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileSystemBlobStoreTest {
+    @TempDir
+    Path root;
+
+    private FileSystemBlobStore blobStore;
+
+    @BeforeEach
+    void setUp() {
+        blobStore = new FileSystemBlobStore(root);
+    }
+
+    @Test
+    @DisplayName("put: stores bytes under their SHA-256 and reads them back")
+    void put_storesAndReadsBack() {
+        byte[] bytes = "image-bytes".getBytes(StandardCharsets.UTF_8);
+
+        BlobDescriptor blob = blobStore.put(bytes);
+
+        assertEquals(BlobDescriptor.of(bytes), blob);
+        assertEquals(bytes.length, blob.size());
+        assertTrue(blobStore.exists(blob.hash()));
+        assertArrayEquals(bytes, blobStore.read(blob.hash()));
+    }
+
+    @Test
+    @DisplayName("put: identical content from bytes and streams is stored once")
+    void put_identicalContent_isDeduplicated() throws Exception {
+        byte[] bytes = "same-content".getBytes(StandardCharsets.UTF_8);
+
+        BlobDescriptor first = blobStore.put(bytes);
+        BlobDescriptor second = blobStore.put(new ByteArrayInputStream(bytes));
+
+        assertEquals(first, second);
+        try (Stream<Path> files = Files.walk(root)) {
+            assertEquals(1, files.filter(Files::isRegularFile).count());
+        }
+    }
+
+    @Test
+    @DisplayName("put: spools content produced by a writer")
+    void put_withWriter_storesWrittenBytes() {
+        byte[] bytes = "written".getBytes(StandardCharsets.UTF_8);
+
+        BlobDescriptor blob = blobStore.put(out -> out.write(bytes));
+
+        assertEquals(BlobDescriptor.of(bytes), blob);
+        assertArrayEquals(bytes, blobStore.read(blob.hash()));
+    }
+
+    @Test
+    @DisplayName("put: a failing writer leaves no blob or staging file behind")
+    void put_withFailingWriter_cleansUp() throws Exception {
+        assertThrows(java.io.UncheckedIOException.class, () -> blobStore.put(out -> {
+            out.write(1);
+            throw new java.io.IOException("broken");
+        }));
+
+        try (Stream<Path> files = Files.walk(root)) {
+            assertEquals(0, files.filter(Files::isRegularFile).count());
+        }
+    }
+
+    @Test
+    @DisplayName("listUnmodifiedSince: lists old blobs, and putting content again makes it new")
+    void listUnmodifiedSince_honoursRePut() throws Exception {
+        BlobDescriptor blob = blobStore.put("old".getBytes(StandardCharsets.UTF_8));
+        Files.setLastModifiedTime(blobStore.pathFor(blob.hash()), FileTime.from(Instant.now().minusSeconds(7200)));
+        Instant cutoff = Instant.now().minusSeconds(3600);
+
+        try (Stream<String> old = blobStore.listUnmodifiedSince(cutoff)) {
+            assertEquals(List.of(blob.hash()), old.toList());
+        }
+        blobStore.put("old".getBytes(StandardCharsets.UTF_8));
+        try (Stream<String> old = blobStore.listUnmodifiedSince(cutoff)) {
+            assertEquals(0, old.count());
+        }
+    }
+
+    @Test
+    @DisplayName("delete: removes the blob")
+    void delete_removesBlob() {
+        BlobDescriptor blob = blobStore.put("to-delete".getBytes(StandardCharsets.UTF_8));
+
+        blobStore.delete(blob.hash());
+
+        assertFalse(blobStore.exists(blob.hash()));
+    }
+
+    @Test
+    @DisplayName("deleteIfUnmodifiedSince: keeps a blob re-put after it was listed")
+    void deleteIfUnmodifiedSince_keepsTouchedBlob() throws Exception {
+        BlobDescriptor stale = blobStore.put("stale".getBytes(StandardCharsets.UTF_8));
+        BlobDescriptor touched = blobStore.put("touched".getBytes(StandardCharsets.UTF_8));
+        for (BlobDescriptor blob : List.of(stale, touched)) {
+            Files.setLastModifiedTime(blobStore.pathFor(blob.hash()), FileTime.from(Instant.now().minusSeconds(7200)));
+        }
+        Instant cutoff = Instant.now().minusSeconds(3600);
+        blobStore.put("touched".getBytes(StandardCharsets.UTF_8));
+
+        assertTrue(blobStore.deleteIfUnmodifiedSince(stale.hash(), cutoff));
+        assertFalse(blobStore.deleteIfUnmodifiedSince(touched.hash(), cutoff));
+        assertFalse(blobStore.exists(stale.hash()));
+        assertArrayEquals("touched".getBytes(StandardCharsets.UTF_8), blobStore.read(touched.hash()));
+    }
+
+    @Test
+    @DisplayName("read: rejects hashes that are not SHA-256 hex")
+    void read_withInvalidHash_throws() {
+        assertThrows(IllegalArgumentException.class, () -> blobStore.read("../../etc/passwd"));
+    }
+}
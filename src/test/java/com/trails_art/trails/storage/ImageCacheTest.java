@@ -0,0 +1,98 @@
+package com.trails_art.trails.storage;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ImageCacheTest {
+
+    @Test
+    @DisplayName("load/get: caches bytes off-heap and counts hits and misses")
+    void load_thenGet_hits() {
+        ImageCache cache = new ImageCache(1000, 0);
+        UUID id = UUID.randomUUID();
+
+        assertTrue(cache.get(id).isEmpty());
+        ImageContent loaded = load(cache, id, 100);
+        Optional<ImageContent> cached = cache.get(id);
+
+        assertTrue(loaded.data().isDirect());
+        assertTrue(cached.isPresent());
+        assertArrayEquals(loaded.toByteArray(), cached.get().toByteArray());
+        ImageCache.Stats stats = cache.stats();
+        assertEquals(1, stats.hits());
+        assertEquals(1, stats.misses());
+        assertEquals(0.5, stats.hitRatio());
+        assertEquals(100, stats.residentBytes());
+    }
+
+    @Test
+    @DisplayName("load: evicts by total bytes, not entry count")
+    void load_overCapacity_evictsLeastRecent() {
+        ImageCache cache = new ImageCache(1000, 400);
+        UUID first = UUID.randomUUID();
+        load(cache, first, 400);
+        load(cache, UUID.randomUUID(), 400);
+        load(cache, UUID.randomUUID(), 400);
+
+        assertTrue(cache.get(first).isEmpty());
+        assertEquals(800, cache.stats().residentBytes());
+        assertEquals(1, cache.stats().evictions());
+        assertEquals(400, cache.stats().evictedBytes());
+    }
+
+    @Test
+    @DisplayName("get: entries hit twice survive a scan of one-off reads")
+    void scan_doesNotEvictProtectedEntries() {
+        ImageCache cache = new ImageCache(1000, 0);
+        UUID hot = UUID.randomUUID();
+        load(cache, hot, 100);
+        cache.get(hot);
+
+        for (int i = 0; i < 50; i++) {
+            load(cache, UUID.randomUUID(), 100);
+        }
+
+        assertTrue(cache.get(hot).isPresent());
+        assertTrue(cache.stats().residentBytes() <= 1000);
+    }
+
+    @Test
+    @DisplayName("load: does not cache entries larger than the per-entry limit")
+    void load_oversized_isServedButNotCached() {
+        ImageCache cache = new ImageCache(1000, 0);
+        UUID id = UUID.randomUUID();
+
+        ImageContent content = load(cache, id, 200);
+
+        assertEquals(200, content.size());
+        assertFalse(content.data().isDirect());
+        assertTrue(cache.get(id).isEmpty());
+    }
+
+    @Test
+    @DisplayName("invalidate: drops the entry and rejects loads that started before it")
+    void invalidate_rejectsStaleLoads() {
+        ImageCache cache = new ImageCache(1000, 0);
+        UUID id = UUID.randomUUID();
+        load(cache, id, 100);
+
+        long ticket = cache.ticket();
+        cache.invalidate(id);
+        cache.load(ticket, id, "image/png", null, 100, () -> new ByteArrayInputStream(new byte[100]));
+
+        assertTrue(cache.get(id).isEmpty());
+        assertEquals(0, cache.stats().residentBytes());
+    }
+
+    private static ImageContent load(ImageCache cache, UUID id, int size) {
+        byte[] bytes = new byte[size];
+        bytes[0] = (byte) size;
+        return cache.load(cache.ticket(), id, "image/png", null, size, () -> new ByteArrayInputStream(bytes));
+    }
+}
@@ -0,0 +1,138 @@
+package com.trails_art.trails.storage;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.color.ColorSpace;
+import java.awt.color.ICC_Profile;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ImageOptimizerTest {
+    @TempDir
+    Path root;
+
+    private FileSystemBlobStore blobStore;
+    private ImageOptimizer optimizer;
+
+    @BeforeEach
+    void setUp() {
+        blobStore = new FileSystemBlobStore(root);
+        optimizer = new ImageOptimizer(blobStore, 1000, 0.85f, 512 * 1024);
+    }
+
+    @Test
+    @DisplayName("optimize: applies EXIF orientation to the pixels and drops the EXIF block")
+    void optimize_rotatesByExifOrientation() throws IOException {
+        // left half red, right half blue; orientation 6 means the camera was turned clockwise
+        BufferedImage source = new BufferedImage(400, 200, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = source.createGraphics();
+        g.setColor(Color.RED);
+        g.fillRect(0, 0, 200, 200);
+        g.setColor(Color.BLUE);
+        g.fillRect(200, 0, 200, 200);
+        g.dispose();
+        String hash = blobStore.put(withOrientation(encode(source, "jpg"), 6)).hash();
+
+        ImageOptimizer.Optimized optimized = optimizer.optimize(hash).orElseThrow();
+
+        byte[] bytes = blobStore.read(optimized.blob().hash());
+        BufferedImage upright = ImageIO.read(new ByteArrayInputStream(bytes));
+        assertEquals(200, upright.getWidth());
+        assertEquals(400, upright.getHeight());
+        assertEquals(200, optimized.width());
+        assertEquals(400, optimized.height());
+        assertTrue(new Color(upright.getRGB(100, 100)).getRed() > 200);
+        assertTrue(new Color(upright.getRGB(100, 300)).getBlue() > 200);
+        assertFalse(new String(bytes, StandardCharsets.ISO_8859_1).contains("Exif"));
+    }
+
+    @Test
+    @DisplayName("optimize: caps the longer side at the configured maximum")
+    void optimize_downscalesOversizedImages() throws IOException {
+        String hash = blobStore.put(encode(new BufferedImage(3000, 1500, BufferedImage.TYPE_INT_RGB), "jpg")).hash();
+
+        ImageOptimizer.Optimized optimized = optimizer.optimize(hash).orElseThrow();
+
+        BufferedImage scaled = ImageIO.read(new ByteArrayInputStream(blobStore.read(optimized.blob().hash())));
+        assertEquals(1000, scaled.getWidth());
+        assertEquals(500, scaled.getHeight());
+    }
+
+    @Test
+    @DisplayName("optimize: leaves small images without metadata and non-images alone")
+    void optimize_skipsWhenNothingToDo() throws IOException {
+        String png = blobStore.put(encode(new BufferedImage(200, 100, BufferedImage.TYPE_INT_ARGB), "png")).hash();
+        String text = blobStore.put("not an image".getBytes(StandardCharsets.UTF_8)).hash();
+
+        assertTrue(optimizer.optimize(png).isEmpty());
+        assertTrue(optimizer.optimize(text).isEmpty());
+    }
+
+    @Test
+    @DisplayName("optimize: leaves images with a non-sRGB ICC profile alone and rewrites sRGB ones")
+    void optimize_skipsForeignColorProfiles() throws IOException {
+        byte[] jpeg = encode(new BufferedImage(3000, 1500, BufferedImage.TYPE_INT_RGB), "jpg");
+        String foreign = blobStore.put(withIccProfile(jpeg, ICC_Profile.getInstance(ColorSpace.CS_CIEXYZ))).hash();
+        String srgb = blobStore.put(withIccProfile(jpeg, ICC_Profile.getInstance(ColorSpace.CS_sRGB))).hash();
+
+        assertTrue(optimizer.optimize(foreign).isEmpty());
+        assertEquals(1000, optimizer.optimize(srgb).orElseThrow().width());
+    }
+
+    static byte[] encode(BufferedImage image, String format) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, format, out);
+        return out.toByteArray();
+    }
+
+    // splices the profile in after SOI as a single APP2 chunk
+    static byte[] withIccProfile(byte[] jpeg, ICC_Profile profile) {
+        byte[] data = profile.getData();
+        int length = 2 + 14 + data.length;
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(jpeg, 0, 2);
+        out.write(0xFF);
+        out.write(0xE2);
+        out.write(length >> 8);
+        out.write(length & 0xFF);
+        out.writeBytes("ICC_PROFILE\0".getBytes(StandardCharsets.ISO_8859_1));
+        out.write(1);
+        out.write(1);
+        out.writeBytes(data);
+        out.write(jpeg, 2, jpeg.length - 2);
+        return out.toByteArray();
+    }
+
+    // splices a big-endian EXIF APP1 segment holding only the orientation tag in after SOI
+    static byte[] withOrientation(byte[] jpeg, int orientation) {
+        byte[] tiff = {
+                'M', 'M', 0, 42, 0, 0, 0, 8,
+                0, 1,
+                0x01, 0x12, 0, 3, 0, 0, 0, 1, 0, (byte) orientation, 0, 0,
+                0, 0, 0, 0
+        };
+        int length = 2 + 6 + tiff.length;
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(jpeg, 0, 2);
+        out.write(0xFF);
+        out.write(0xE1);
+        out.write(length >> 8);
+        out.write(length & 0xFF);
+        out.writeBytes("Exif\0\0".getBytes(StandardCharsets.ISO_8859_1));
+        out.writeBytes(tiff);
+        out.write(jpeg, 2, jpeg.length - 2);
+        return out.toByteArray();
+    }
+}
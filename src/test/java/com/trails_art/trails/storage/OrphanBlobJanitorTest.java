@@ -0,0 +1,60 @@
+package com.trails_art.trails.storage;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class OrphanBlobJanitorTest {
+    @TempDir
+    Path root;
+
+    private FileSystemBlobStore blobStore;
+    private JdbcTemplate jdbcTemplate;
+    private OrphanBlobJanitor janitor;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        blobStore = new FileSystemBlobStore(root);
+        jdbcTemplate = mock(JdbcTemplate.class);
+        janitor = new OrphanBlobJanitor(blobStore, jdbcTemplate, mock(ObjectProvider.class), Duration.ofHours(1));
+    }
+
+    @Test
+    @DisplayName("sweep: deletes old blobs no image references and keeps referenced ones")
+    void sweep_deletesOnlyUnreferencedBlobs() {
+        BlobDescriptor orphan = blobStore.put("orphan".getBytes(StandardCharsets.UTF_8));
+        BlobDescriptor referenced = blobStore.put("referenced".getBytes(StandardCharsets.UTF_8));
+        when(jdbcTemplate.queryForObject(anyString(), eq(Integer.class), eq(orphan.hash()))).thenReturn(0);
+        when(jdbcTemplate.queryForObject(anyString(), eq(Integer.class), eq(referenced.hash()))).thenReturn(1);
+
+        int deleted = janitor.sweep(Instant.now().plusSeconds(1));
+
+        assertEquals(1, deleted);
+        assertFalse(blobStore.exists(orphan.hash()));
+        assertTrue(blobStore.exists(referenced.hash()));
+    }
+
+    @Test
+    @DisplayName("sweep: leaves blobs younger than the cutoff alone")
+    void sweep_keepsRecentBlobs() {
+        BlobDescriptor recent = blobStore.put("recent".getBytes(StandardCharsets.UTF_8));
+
+        assertEquals(0, janitor.sweep(Instant.now().minusSeconds(3600)));
+        assertTrue(blobStore.exists(recent.hash()));
+        verifyNoInteractions(jdbcTemplate);
+    }
+}
@@ -0,0 +1,139 @@
+package com.trails_art.trails.storage;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.zip.CRC32;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RenditionStoreTest {
+    @TempDir
+    Path root;
+
+    private FileSystemBlobStore blobStore;
+    private RenditionStore renditionStore;
+
+    @BeforeEach
+    void setUp() {
+        blobStore = new FileSystemBlobStore(root.resolve("blobs"));
+        renditionStore = new RenditionStore(blobStore, root.resolve("renditions"), List.of(480, 160, 1080), 2);
+    }
+
+    @Test
+    @DisplayName("snap: picks the smallest configured width covering the request, or none past the largest")
+    void snap_picksCoveringWidth() {
+        assertEquals(160, renditionStore.snap(100));
+        assertEquals(480, renditionStore.snap(161));
+        assertEquals(1080, renditionStore.snap(1080));
+        assertNull(renditionStore.snap(5000));
+        assertEquals(160, renditionStore.stepDown(480));
+        assertEquals(160, renditionStore.stepDown(160));
+    }
+
+    @Test
+    @DisplayName("find: builds a downscaled JPEG and serves it from disk afterwards")
+    void find_buildsAndCachesRendition() throws IOException {
+        String hash = blobStore.put(image(800, 600, BufferedImage.TYPE_INT_RGB, "jpg")).hash();
+
+        RenditionStore.Rendition rendition = renditionStore.find(hash, 160).orElseThrow();
+
+        assertEquals("image/jpeg", rendition.mimetype());
+        BufferedImage scaled = ImageIO.read(rendition.path().toFile());
+        assertEquals(160, scaled.getWidth());
+        assertEquals(120, scaled.getHeight());
+        assertEquals(Optional.of(rendition), renditionStore.find(hash, 160));
+    }
+
+    @Test
+    @DisplayName("find: applies the EXIF orientation, so a portrait phone photo comes out upright")
+    void find_withExifOrientation_rendersUpright() throws IOException {
+        byte[] sideways = ImageOptimizerTest.withOrientation(image(800, 600, BufferedImage.TYPE_INT_RGB, "jpg"), 6);
+        String hash = blobStore.put(sideways).hash();
+
+        BufferedImage scaled = ImageIO.read(renditionStore.find(hash, 480).orElseThrow().path().toFile());
+
+        assertEquals(480, scaled.getWidth());
+        assertEquals(640, scaled.getHeight());
+    }
+
+    @Test
+    @DisplayName("find: keeps transparency by rendering PNG")
+    void find_withAlpha_rendersPng() throws IOException {
+        String hash = blobStore.put(image(500, 500, BufferedImage.TYPE_INT_ARGB, "png")).hash();
+
+        assertEquals("image/png", renditionStore.find(hash, 160).orElseThrow().mimetype());
+    }
+
+    @Test
+    @DisplayName("find: returns empty when the source is narrower or not decodable")
+    void find_smallOrUndecodable_returnsEmpty() throws IOException {
+        String small = blobStore.put(image(100, 100, BufferedImage.TYPE_INT_RGB, "jpg")).hash();
+        String garbage = blobStore.put("not an image".getBytes(StandardCharsets.UTF_8)).hash();
+
+        assertTrue(renditionStore.find(small, 160).isEmpty());
+        assertTrue(renditionStore.find(garbage, 160).isEmpty());
+    }
+
+    @Test
+    @DisplayName("find: serves the original instead of decoding a source above the pixel limit")
+    void find_tooManyPixels_returnsEmpty() throws IOException {
+        String hash = blobStore.put(withDimensions(image(1, 1, BufferedImage.TYPE_INT_RGB, "png"), 20_000, 20_000))
+                .hash();
+
+        assertTrue(renditionStore.find(hash, 160).isEmpty());
+        assertTrue(Files.exists(root.resolve("renditions").resolve(hash.substring(0, 2)).resolve(hash)
+                .resolve("160.orig")));
+    }
+
+    @Test
+    @DisplayName("generateAll/evict: writes every smaller width and removes them with the blob")
+    void generateAll_thenEvict() throws IOException {
+        String hash = blobStore.put(image(600, 300, BufferedImage.TYPE_INT_RGB, "jpg")).hash();
+
+        renditionStore.generateAll(hash);
+        Path dir = root.resolve("renditions").resolve(hash.substring(0, 2)).resolve(hash);
+        assertTrue(Files.exists(dir.resolve("160.jpg")));
+        assertTrue(Files.exists(dir.resolve("480.jpg")));
+        assertFalse(Files.exists(dir.resolve("1080.jpg")));
+
+        renditionStore.evict(hash);
+        assertFalse(Files.exists(dir));
+    }
+
+    @Test
+    @DisplayName("find: rejects widths that are not configured")
+    void find_unknownWidth_throws() {
+        String hash = blobStore.put("x".getBytes(StandardCharsets.UTF_8)).hash();
+        assertThrows(IllegalArgumentException.class, () -> renditionStore.find(hash, 200));
+    }
+
+    // rewrites the IHDR of a PNG so its header claims the given size while the file stays tiny
+    private static byte[] withDimensions(byte[] png, int width, int height) {
+        ByteBuffer buffer = ByteBuffer.wrap(png);
+        buffer.putInt(16, width).putInt(20, height);
+        CRC32 crc = new CRC32();
+        crc.update(png, 12, 17);
+        buffer.putInt(29, (int) crc.getValue());
+        return png;
+    }
+
+    static byte[] image(int width, int height, int type, String format) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, type);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, format, out);
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,20 @@
+package com.trails_art.trails.support;
+
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Fails the test if its body runs more SQL statements than {@link #statements()}. In a transactional
+ * test, pending changes are flushed and the persistence context cleared before the body runs, so
+ * lazy associations are loaded the way a fresh request would load them.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@ExtendWith(QueryBudgetExtension.class)
+public @interface QueryBudget {
+    int statements();
+}
@@ -0,0 +1,37 @@
+package com.trails_art.trails.support;
+
+import com.trails_art.trails.diagnostics.QueryStats;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.extension.AfterTestExecutionCallback;
+import org.junit.jupiter.api.extension.BeforeTestExecutionCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.springframework.orm.jpa.EntityManagerFactoryUtils;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class QueryBudgetExtension implements BeforeTestExecutionCallback, AfterTestExecutionCallback {
+
+    private static final ExtensionContext.Namespace NAMESPACE = ExtensionContext.Namespace.create(QueryBudgetExtension.class);
+
+    @Override
+    public void beforeTestExecution(ExtensionContext context) {
+        EntityManagerFactory factory = SpringExtension.getApplicationContext(context).getBean(EntityManagerFactory.class);
+        EntityManager entityManager = EntityManagerFactoryUtils.getTransactionalEntityManager(factory);
+        if (entityManager != null) {
+            entityManager.flush();
+            entityManager.clear();
+        }
+        context.getStore(NAMESPACE).put(context.getUniqueId(), QueryStats.open());
+    }
+
+    @Override
+    public void afterTestExecution(ExtensionContext context) {
+        QueryStats stats = context.getStore(NAMESPACE).remove(context.getUniqueId(), QueryStats.class);
+        stats.close();
+        int budget = context.getRequiredTestMethod().getAnnotation(QueryBudget.class).statements();
+        assertTrue(stats.statements() <= budget, () -> "Ran " + stats.statements() + " SQL statements, budget is "
+                + budget + "; most repeated: " + stats.mostRepeated().map(Object::toString).orElse("none"));
+    }
+}
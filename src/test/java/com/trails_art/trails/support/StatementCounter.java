@@ -0,0 +1,26 @@
+package com.trails_art.trails.support;
+
+import com.trails_art.trails.diagnostics.QueryStats;
+import jakarta.persistence.EntityManager;
+
+// counts the SQL statements run while an action runs
+public final class StatementCounter {
+
+    @FunctionalInterface
+    public interface Action {
+        void run() throws Exception;
+    }
+
+    private StatementCounter() {
+    }
+
+    // flushes and clears first, so nothing is served from entities the test itself just saved
+    public static long count(EntityManager entityManager, Action action) throws Exception {
+        entityManager.flush();
+        entityManager.clear();
+        try (QueryStats stats = QueryStats.open()) {
+            action.run();
+            return stats.statements();
+        }
+    }
+}